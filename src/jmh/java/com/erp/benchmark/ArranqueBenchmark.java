@@ -0,0 +1,192 @@
+package com.erp.benchmark;
+
+import com.erp.db.SQLiteConnector;
+import com.erp.utils.GeneradorDatos;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prueba de rendimiento del arranque: cuánto tarda la aplicación desde que se lanza la JVM
+ * hasta que la ventana principal responde, según crecen los datos.
+ * <p>
+ * El tiempo de arranque no se puede medir bien con JMH dentro de una JVM ya caliente, así
+ * que esta prueba tiene su propio {@code main}. Para cada tamaño crea una base de datos con
+ * {@link GeneradorDatos} (la misma semilla que {@link BaseDeDatosSintetica}, así que los datos
+ * son siempre los mismos) y lanza la aplicación N veces, cada una en una JVM nueva con
+ * {@link ArranqueMedido}. La primera ejecución de cada tamaño solo calienta la caché de disco
+ * del sistema y no cuenta.
+ * <p>
+ * Imprime la mediana, el mínimo y el máximo de cada fase y guarda todas las ejecuciones en CSV.
+ * Se lanza con el perfil {@code benchmarks}:
+ * <pre>
+ *   mvn -Pbenchmarks package exec:exec@arranque -Darranque.args="--filas=1000,100000 --ejecuciones=10"
+ * </pre>
+ * Opciones ({@code --nombre=valor}):
+ * <ul>
+ *   <li>{@code --filas}: tamaños separados por comas (productos y clientes; ventas, una por cada
+ *       diez clientes). Por defecto {@code 1000,100000}.</li>
+ *   <li>{@code --ejecuciones}: arranques medidos por tamaño. Por defecto 5.</li>
+ *   <li>{@code --csv}: fichero de resultados. Por defecto {@code target/arranque.csv}.</li>
+ *   <li>{@code --monocle}: arranca JavaFX sin pantalla con Monocle (debe estar en el classpath);
+ *       sin esta opción las ventanas se abren transparentes y hace falta una pantalla
+ *       (en integración continua vale con Xvfb).</li>
+ * </ul>
+ *
+ * @author Noé
+ */
+public final class ArranqueBenchmark {
+
+    private static final long SEMILLA = 42L;
+
+    private ArranqueBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] tamanos = {1000, 100_000};
+        int ejecuciones = 5;
+        Path csv = Path.of("target", "arranque.csv");
+        boolean monocle = false;
+        for (String arg : args) {
+            String[] partes = arg.split("=", 2);
+            switch (partes[0]) {
+                case "--filas" -> tamanos = Arrays.stream(partes[1].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--ejecuciones" -> ejecuciones = Integer.parseInt(partes[1]);
+                case "--csv" -> csv = Path.of(partes[1]);
+                case "--monocle" -> monocle = true;
+                default -> {
+                    System.err.println("Opción desconocida: " + arg);
+                    System.err.println("Uso: ArranqueBenchmark [--filas=N,N...] [--ejecuciones=N] [--csv=ruta] [--monocle]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        Path directorio = Files.createTempDirectory("erp-arranque-");
+        List<String> filasCsv = new ArrayList<>();
+        List<String> columnas = null;
+        try {
+            for (int filas : tamanos) {
+                Path db = crearBaseDeDatos(directorio, filas);
+                medir(db, directorio, monocle); // Calentamiento de la caché de disco; no cuenta
+                List<Map<String, Long>> resultados = new ArrayList<>();
+                for (int i = 1; i <= ejecuciones; i++) {
+                    Map<String, Long> tiempos = medir(db, directorio, monocle);
+                    resultados.add(tiempos);
+                    if (columnas == null) {
+                        columnas = new ArrayList<>(tiempos.keySet());
+                    }
+                    StringBuilder fila = new StringBuilder().append(filas).append(',').append(i);
+                    for (String columna : columnas) {
+                        fila.append(',').append(tiempos.get(columna));
+                    }
+                    filasCsv.add(fila.toString());
+                }
+                imprimir(filas, resultados, columnas);
+            }
+        } finally {
+            borrar(directorio);
+        }
+
+        if (columnas != null) {
+            Files.createDirectories(csv.toAbsolutePath().getParent());
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8))) {
+                out.println("filas,ejecucion," + String.join(",", columnas));
+                filasCsv.forEach(out::println);
+            }
+            System.out.println("Resultados de cada ejecución en " + csv.toAbsolutePath());
+        }
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private static Path crearBaseDeDatos(Path directorio, int filas) throws SQLException {
+        Path db = directorio.resolve("erp-" + filas + ".db");
+        SQLiteConnector.usarBaseDeDatos(db.toString());
+        SQLiteConnector.migrarEsquema();
+        GeneradorDatos.Resumen resumen = new GeneradorDatos(SEMILLA).generar(filas, filas, filas / 10);
+        SQLiteConnector.closeConnection();
+        System.out.println("Base de datos de " + filas + " filas: " + resumen);
+        return db;
+    }
+
+    /**
+     * Lanza un arranque en una JVM nueva y devuelve sus tiempos.
+     */
+    private static Map<String, Long> medir(Path db, Path directorio, boolean monocle)
+            throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.add("-cp");
+        comando.add(System.getProperty("java.class.path"));
+        // Los registros de la aplicación van al directorio temporal, no al del proyecto
+        comando.add("-Derp.consultasLentas.ruta=" + directorio.resolve("consultas-lentas.db"));
+        comando.add("-Derp.fx.bloqueos.ruta=" + directorio.resolve("bloqueos-fx.%g.log"));
+        if (monocle) {
+            comando.add("-Dglass.platform=Monocle");
+            comando.add("-Dmonocle.platform=Headless");
+            comando.add("-Dprism.order=sw");
+        }
+        comando.add(ArranqueMedido.class.getName());
+        comando.add(db.toString());
+
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        Map<String, Long> tiempos = null;
+        StringBuilder salida = new StringBuilder();
+        try (BufferedReader lector = new BufferedReader(
+                new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                if (linea.startsWith(ArranqueMedido.PREFIJO + " ")) {
+                    tiempos = leerTiempos(linea);
+                } else {
+                    salida.append(linea).append('\n');
+                }
+            }
+        }
+        int codigo = proceso.waitFor();
+        if (tiempos == null) {
+            throw new IllegalStateException("El arranque terminó con código " + codigo + " sin resultados:\n" + salida);
+        }
+        return tiempos;
+    }
+
+    private static Map<String, Long> leerTiempos(String linea) {
+        Map<String, Long> tiempos = new LinkedHashMap<>();
+        for (String par : linea.substring(ArranqueMedido.PREFIJO.length()).trim().split(" ")) {
+            String[] partes = par.split("=", 2);
+            tiempos.put(partes[0], Long.parseLong(partes[1]));
+        }
+        return tiempos;
+    }
+
+    private static void imprimir(int filas, List<Map<String, Long>> resultados, List<String> columnas) {
+        System.out.printf("%n%,d filas, %d ejecuciones (ms: mediana [mínimo - máximo])%n", filas, resultados.size());
+        for (String columna : columnas) {
+            long[] valores = resultados.stream().mapToLong(tiempos -> tiempos.get(columna)).sorted().toArray();
+            long mediana = valores.length % 2 == 1
+                    ? valores[valores.length / 2]
+                    : (valores[valores.length / 2 - 1] + valores[valores.length / 2]) / 2;
+            System.out.printf("  %-8s %6d  [%d - %d]%n", columna, mediana, valores[0], valores[valores.length - 1]);
+        }
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (var ficheros = Files.walk(directorio)) {
+            for (Path fichero : ficheros.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.deleteIfExists(fichero);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.erp.benchmark;
+
+import com.erp.App;
+import com.erp.db.SQLiteConnector;
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * Un único arranque medido de la aplicación, en su propia JVM. Lo lanza
+ * {@link ArranqueBenchmark}; no está pensado para usarse a mano.
+ * <p>
+ * Arranca JavaFX, abre {@link App} contra la base de datos indicada con todas sus ventanas
+ * transparentes (o sin pantalla, si la JVM se lanzó con Monocle) y espera a que la ventana
+ * principal sea interactiva. Entonces imprime una línea {@value #PREFIJO} con los tiempos en
+ * milisegundos y termina:
+ * <ul>
+ *   <li>{@code jvm}: desde que arranca la JVM hasta que entra en {@code main}.</li>
+ *   <li>{@code toolkit}: desde {@code main} hasta que JavaFX está listo.</li>
+ *   <li>{@code esquema}, {@code datos} y {@code fxml}: duración de esas fases del arranque
+ *       (las dos primeras van en paralelo con la tercera).</li>
+ *   <li>{@code ventana}: desde {@code App.start} hasta el primer pulso con la ventana visible.</li>
+ *   <li>{@code total}: desde que arranca la JVM hasta ese primer pulso.</li>
+ * </ul>
+ *
+ * @author Noé
+ */
+public final class ArranqueMedido {
+
+    /** Prefijo de la línea de resultados en la salida estándar. */
+    static final String PREFIJO = "RESULTADO";
+
+    private static final long ESPERA_MAXIMA_MS = TimeUnit.MINUTES.toMillis(2);
+
+    private ArranqueMedido() {
+    }
+
+    /**
+     * @param args Ruta de la base de datos.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        RuntimeMXBean jvm = ManagementFactory.getRuntimeMXBean();
+        long enMain = jvm.getUptime();
+        if (args.length != 1) {
+            System.err.println("Uso: ArranqueMedido <ruta de la base de datos>");
+            System.exit(2);
+        }
+        SQLiteConnector.usarBaseDeDatos(args[0]);
+
+        long[] marcas = new long[2];
+        App app = new App();
+        Platform.startup(() -> {
+            marcas[0] = jvm.getUptime();
+            ocultarVentanas();
+            marcas[1] = jvm.getUptime();
+            app.start(new Stage());
+        });
+
+        Temporizador ventana = RegistroMetricas.getGlobal().temporizador("arranque.ventanaInteractiva");
+        long limite = System.currentTimeMillis() + ESPERA_MAXIMA_MS;
+        while (ventana.getCuenta() == 0) {
+            if (System.currentTimeMillis() > limite) {
+                System.err.println("La ventana principal no llegó a mostrarse en " + ESPERA_MAXIMA_MS + " ms.");
+                System.exit(1);
+            }
+            Thread.sleep(5);
+        }
+
+        Map<String, Long> tiempos = new LinkedHashMap<>();
+        tiempos.put("jvm", enMain);
+        tiempos.put("toolkit", marcas[0] - enMain);
+        tiempos.put("esquema", fase("esquema"));
+        tiempos.put("datos", fase("datos"));
+        tiempos.put("fxml", fase("fxml"));
+        tiempos.put("ventana", Math.round(ventana.getMaximoMs()));
+        tiempos.put("total", marcas[1] + Math.round(ventana.getMaximoMs()));
+
+        StringBuilder linea = new StringBuilder(PREFIJO);
+        tiempos.forEach((nombre, ms) -> linea.append(' ').append(nombre).append('=').append(ms));
+        System.out.println(linea);
+        System.out.flush();
+
+        Platform.runLater(() -> {
+            app.stop();
+            Platform.exit();
+        });
+        Thread.sleep(500);
+        System.exit(0);
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private static long fase(String nombre) {
+        return Math.round(RegistroMetricas.getGlobal().temporizador("arranque." + nombre).getMaximoMs());
+    }
+
+    /**
+     * Hace transparentes todas las ventanas que se abran: se muestran y reciben pulsos como
+     * siempre, pero no tapan la pantalla de quien ejecuta la prueba.
+     */
+    private static void ocultarVentanas() {
+        Window.getWindows().addListener((ListChangeListener<Window>) cambio -> {
+            while (cambio.next()) {
+                for (Window ventana : cambio.getAddedSubList()) {
+                    ventana.setOpacity(0);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.erp.benchmark;
+
+import com.erp.db.Escritura;
+import com.erp.db.SQLiteConnector;
+import com.erp.utils.GeneradorDatos;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base de datos SQLite temporal con datos sintéticos para las pruebas de rendimiento.
+ * <p>
+ * Para cada tamaño de {@link #filas} se crea un fichero nuevo en el directorio temporal,
+ * se migra el esquema completo (con índices y tablas FTS) y se llena con {@link GeneradorDatos}:
+ * {@code filas} productos, {@code filas} clientes y una venta por cada diez clientes.
+ * Los datos se generan con una semilla fija, así que dos ejecuciones miden lo mismo.
+ * La aplicación se apunta a ese fichero con {@link SQLiteConnector#usarBaseDeDatos(String)}
+ * y se borra al terminar.
+ *
+ * @author Noé
+ */
+@State(Scope.Benchmark)
+public class BaseDeDatosSintetica {
+
+    private static final long SEMILLA = 42L;
+
+    /** Número de productos y de clientes de la base de datos. */
+    @Param({"1000", "100000", "1000000"})
+    public int filas;
+
+    private Path fichero;
+
+    /**
+     * Crea y llena la base de datos temporal.
+     */
+    @Setup(Level.Trial)
+    public void crear() throws IOException, SQLException {
+        fichero = Files.createTempFile("erp-benchmark-" + filas + "-", ".db");
+        SQLiteConnector.usarBaseDeDatos(fichero.toString());
+        SQLiteConnector.migrarEsquema();
+
+        new GeneradorDatos(SEMILLA).generar(filas, filas, filas / 10);
+
+        // Stock de sobra para que registrarVenta mida ventas guardadas y no rechazos
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             Statement stmt = escritura.getConexion().createStatement()) {
+            stmt.executeUpdate("UPDATE productos SET stock = 1000000000");
+        }
+    }
+
+    /**
+     * Cierra las conexiones y borra el fichero temporal y sus diarios WAL.
+     */
+    @TearDown(Level.Trial)
+    public void borrar() throws IOException {
+        SQLiteConnector.closeConnection();
+        Files.deleteIfExists(fichero);
+        Files.deleteIfExists(Path.of(fichero + "-wal"));
+        Files.deleteIfExists(Path.of(fichero + "-shm"));
+    }
+
+    /**
+     * @return Un ID de producto o cliente existente, elegido al azar.
+     */
+    public int idAleatorio() {
+        return ThreadLocalRandom.current().nextInt(1, filas + 1);
+    }
+}
@@ -0,0 +1,66 @@
+package com.erp.benchmark;
+
+import com.erp.dao.ClienteDAO;
+import com.erp.dao.Pagina;
+import com.erp.model.Cliente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de {@link ClienteDAO}: alta, búsqueda por ID, página del
+ * listado y búsqueda de texto completo.
+ *
+ * @author Noé
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClienteDAOBenchmark {
+
+    private static final int TAMANO_PAGINA = 200;
+
+    private ClienteDAO clienteDAO;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDatosSintetica bd) {
+        clienteDAO = new ClienteDAO();
+    }
+
+    @Benchmark
+    public boolean guardarCliente() {
+        Cliente cliente = Cliente.crearParticular("benchmark@ejemplo.com", "600000000", "Calle Mayor 1",
+                "00000000T", LocalDate.now(), "Ana", "García");
+        return clienteDAO.guardarClienteDb(cliente);
+    }
+
+    @Benchmark
+    public Cliente buscarPorId(BaseDeDatosSintetica bd) {
+        return clienteDAO.buscarClientePorId(bd.idAleatorio());
+    }
+
+    @Benchmark
+    public Pagina<Cliente> listarPagina(BaseDeDatosSintetica bd) {
+        return clienteDAO.listarClientesPagina(bd.idAleatorio(), TAMANO_PAGINA, false);
+    }
+
+    @Benchmark
+    public List<Cliente> buscarTexto() {
+        return clienteDAO.buscar("garcia", TAMANO_PAGINA);
+    }
+}
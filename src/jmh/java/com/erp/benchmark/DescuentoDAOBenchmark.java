@@ -0,0 +1,60 @@
+package com.erp.benchmark;
+
+import com.erp.dao.DescuentoDAO;
+import com.erp.model.Descuento;
+import com.erp.utils.GeneradorDatos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de {@link DescuentoDAO}: alta, búsqueda por ID y descuentos de un cliente.
+ *
+ * @author Noé
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DescuentoDAOBenchmark {
+
+    private DescuentoDAO descuentoDAO;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDatosSintetica bd) {
+        descuentoDAO = new DescuentoDAO();
+    }
+
+    @Benchmark
+    public boolean guardarDescuento(BaseDeDatosSintetica bd) {
+        Descuento descuento = new Descuento(bd.idAleatorio(), "Descuento benchmark", 10.0,
+                LocalDate.now(), LocalDate.now().plusMonths(1));
+        return descuentoDAO.guardarDescuentoDb(descuento);
+    }
+
+    @Benchmark
+    public Descuento buscarPorId(BaseDeDatosSintetica bd) {
+        return descuentoDAO.buscarDescuentoPorId(1 + (bd.idAleatorio() - 1) / GeneradorDatos.CLIENTES_POR_DESCUENTO);
+    }
+
+    @Benchmark
+    public List<Descuento> listarPorCliente(BaseDeDatosSintetica bd) {
+        // Solo tienen descuento los clientes múltiplos de GeneradorDatos.CLIENTES_POR_DESCUENTO
+        int cada = GeneradorDatos.CLIENTES_POR_DESCUENTO;
+        return descuentoDAO.listarDescuentosPorCliente(cada * (1 + (bd.idAleatorio() - 1) / cada));
+    }
+}
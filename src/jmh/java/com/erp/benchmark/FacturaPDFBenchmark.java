@@ -0,0 +1,120 @@
+package com.erp.benchmark;
+
+import com.erp.model.Venta;
+import com.erp.utils.FacturaPDFGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de {@link FacturaPDFGenerator}: cómo crece el coste de una factura
+ * con el número de líneas y de descuentos, en memoria y en disco, con un hilo y con tantos
+ * hilos como procesadores (todos con el mismo generador, como en {@code FacturaLoteService}).
+ * <p>
+ * Las facturas de 1.000 líneas son los pedidos grandes de empresas. La asignación de memoria
+ * por factura ({@code gc.alloc.rate.norm}) la informa el perfilador {@code gc}, que el perfil
+ * {@code benchmarks} activa siempre.
+ *
+ * @author Noé
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacturaPDFBenchmark {
+
+    @Param({"1", "50", "1000"})
+    public int lineas;
+
+    @Param({"0", "3"})
+    public int descuentos;
+
+    private FacturaPDFGenerator generador;
+    private Venta venta;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        generador = new FacturaPDFGenerator();
+        venta = VentasDePrueba.crear(lineas, descuentos);
+    }
+
+    /**
+     * Salida propia de cada hilo: un búfer en memoria y un fichero en un directorio temporal.
+     */
+    @State(Scope.Thread)
+    public static class Salida {
+        private final ByteArrayOutputStream memoria = new ByteArrayOutputStream(64 * 1024);
+        private Path directorio;
+        private Path fichero;
+
+        @Setup(Level.Trial)
+        public void crear() throws IOException {
+            directorio = Files.createTempDirectory("erp-facturas-benchmark-");
+            fichero = directorio.resolve("Factura.pdf");
+        }
+
+        @TearDown(Level.Trial)
+        public void borrar() throws IOException {
+            Files.deleteIfExists(fichero);
+            Files.deleteIfExists(directorio);
+        }
+    }
+
+    @Benchmark
+    public int enMemoria(Salida salida) throws IOException {
+        return escribirEnMemoria(salida);
+    }
+
+    @Benchmark
+    public long enDisco(Salida salida) throws IOException {
+        return escribirEnDisco(salida);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int enMemoriaConcurrente(Salida salida) throws IOException {
+        return escribirEnMemoria(salida);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public long enDiscoConcurrente(Salida salida) throws IOException {
+        return escribirEnDisco(salida);
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private int escribirEnMemoria(Salida salida) throws IOException {
+        salida.memoria.reset();
+        generador.writeInvoice(venta, salida.memoria);
+        return salida.memoria.size();
+    }
+
+    private long escribirEnDisco(Salida salida) throws IOException {
+        // Igual que generateInvoice, pero sin el mensaje por consola
+        try (OutputStream out = Files.newOutputStream(salida.fichero)) {
+            generador.writeInvoice(venta, out);
+        }
+        return Files.size(salida.fichero);
+    }
+}
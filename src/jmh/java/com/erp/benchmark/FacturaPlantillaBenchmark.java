@@ -0,0 +1,66 @@
+package com.erp.benchmark;
+
+import com.erp.model.Venta;
+import com.erp.utils.FacturaPDFGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por factura de {@link FacturaPDFGenerator} con su plantilla (membrete como form XObject,
+ * fuentes cargadas y anchos de columna fijos) frente a la maquetación completa anterior
+ * ({@link FacturaSinPlantilla}). El generador se crea una vez y se reutiliza, como hacen
+ * {@code FacturaService} y {@code FacturaLoteService}.
+ * <p>
+ * Las facturas se escriben en memoria para no medir el disco.
+ *
+ * @author Noé
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacturaPlantillaBenchmark {
+
+    @Param({"1", "50"})
+    public int lineas;
+
+    private final ByteArrayOutputStream salida = new ByteArrayOutputStream(64 * 1024);
+    private FacturaPDFGenerator generador;
+    private Venta venta;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        generador = new FacturaPDFGenerator();
+        venta = VentasDePrueba.crear(lineas, 0);
+    }
+
+    @Benchmark
+    public int conPlantilla() throws IOException {
+        salida.reset();
+        generador.writeInvoice(venta, salida);
+        return salida.size();
+    }
+
+    @Benchmark
+    public int sinPlantilla() {
+        salida.reset();
+        FacturaSinPlantilla.writeInvoice(venta, salida);
+        return salida.size();
+    }
+}
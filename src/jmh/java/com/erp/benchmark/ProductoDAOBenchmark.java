@@ -0,0 +1,64 @@
+package com.erp.benchmark;
+
+import com.erp.dao.Pagina;
+import com.erp.dao.ProductoDAO;
+import com.erp.model.Producto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de {@link ProductoDAO}: alta, búsqueda por ID, página del
+ * catálogo y búsqueda de texto completo.
+ *
+ * @author Noé
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductoDAOBenchmark {
+
+    private static final int TAMANO_PAGINA = 200;
+
+    private ProductoDAO productoDAO;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDatosSintetica bd) {
+        // El DAO se crea después de que la base de datos temporal esté lista
+        productoDAO = new ProductoDAO();
+    }
+
+    @Benchmark
+    public boolean guardarProducto() {
+        return productoDAO.guardarProductoDb(new Producto("Portátil benchmark", "Alta de prueba", "Electrónica", 999.99, 10));
+    }
+
+    @Benchmark
+    public Producto buscarPorId(BaseDeDatosSintetica bd) {
+        return productoDAO.buscarProductoPorId(bd.idAleatorio());
+    }
+
+    @Benchmark
+    public Pagina<Producto> listarPagina(BaseDeDatosSintetica bd) {
+        return productoDAO.listarProductosPagina(bd.idAleatorio(), TAMANO_PAGINA, false);
+    }
+
+    @Benchmark
+    public List<Producto> buscarTexto() {
+        return productoDAO.buscar("portatil", TAMANO_PAGINA);
+    }
+}
@@ -0,0 +1,70 @@
+package com.erp.benchmark;
+
+import com.erp.dao.Pagina;
+import com.erp.dao.ResultadoVenta;
+import com.erp.dao.VentaDAO;
+import com.erp.model.Cliente;
+import com.erp.model.DetalleVenta;
+import com.erp.model.Producto;
+import com.erp.model.Venta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas de rendimiento de {@link VentaDAO}: registro de una venta de tres líneas
+ * (con descuento de stock) y lectura de una página del historial.
+ *
+ * @author Noé
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VentaDAOBenchmark {
+
+    private static final int LINEAS_POR_VENTA = 3;
+    private static final int TAMANO_PAGINA = 50;
+
+    private VentaDAO ventaDAO;
+
+    @Setup(Level.Trial)
+    public void preparar(BaseDeDatosSintetica bd) {
+        ventaDAO = new VentaDAO();
+    }
+
+    @Benchmark
+    public ResultadoVenta registrarVenta(BaseDeDatosSintetica bd) {
+        Cliente cliente = Cliente.crearParticular(bd.idAleatorio(), "benchmark@ejemplo.com", "600000000",
+                "Calle Mayor 1", "00000000T", LocalDate.now(), "Ana", "García");
+        List<DetalleVenta> lineas = new ArrayList<>();
+        double total = 0;
+        for (int i = 0; i < LINEAS_POR_VENTA; i++) {
+            Producto producto = new Producto(bd.idAleatorio(), "Producto", "", "Electrónica", 10.0, 0);
+            lineas.add(new DetalleVenta(null, null, producto, 1, 10.0));
+            total += 10.0;
+        }
+        return ventaDAO.registrarVenta(new Venta(null, cliente, new ArrayList<>(), lineas, LocalDate.now(), total));
+    }
+
+    @Benchmark
+    public Pagina<Venta> listarPagina(BaseDeDatosSintetica bd) {
+        // Hay una venta por cada diez clientes
+        return ventaDAO.obtenerVentasPagina((bd.idAleatorio() - 1) / 10, TAMANO_PAGINA, false);
+    }
+}
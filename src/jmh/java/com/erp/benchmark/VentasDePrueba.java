@@ -0,0 +1,51 @@
+package com.erp.benchmark;
+
+import com.erp.model.Cliente;
+import com.erp.model.Descuento;
+import com.erp.model.DetalleVenta;
+import com.erp.model.Producto;
+import com.erp.model.Venta;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ventas en memoria para las pruebas de rendimiento de las facturas, sin base de datos.
+ * Los nombres de producto tienen longitudes distintas para que las celdas no midan todas igual.
+ *
+ * @author Noé
+ */
+final class VentasDePrueba {
+
+    private VentasDePrueba() {
+    }
+
+    /**
+     * Crea una venta de un cliente empresa con las líneas y descuentos indicados.
+     *
+     * @param lineas     Número de líneas de venta.
+     * @param descuentos Número de descuentos aplicados (del 1 % cada uno).
+     * @return La venta, con su total calculado como en la caja (descuentos e IVA incluidos).
+     */
+    static Venta crear(int lineas, int descuentos) {
+        LocalDate hoy = LocalDate.now();
+        Cliente cliente = Cliente.crearEmpresa(1, "compras@ejemplo.com", "910000000", "Polígono Industrial 4",
+                "B00000000", hoy, "Distribuciones Ejemplo, S.A.", "Ana García");
+        List<DetalleVenta> detalles = new ArrayList<>(lineas);
+        double subtotal = 0;
+        for (int i = 1; i <= lineas; i++) {
+            String nombre = "Producto " + i + " " + "de la gama profesional ".repeat(i % 3);
+            Producto producto = new Producto(i, nombre.trim(), "", "Electrónica", 10.0 + i % 250, 1000);
+            DetalleVenta detalle = new DetalleVenta(i, 1, producto, 1 + i % 5, producto.getPrecioUnitario());
+            detalles.add(detalle);
+            subtotal += detalle.getSubTotal();
+        }
+        List<Descuento> aplicados = new ArrayList<>(descuentos);
+        for (int i = 1; i <= descuentos; i++) {
+            aplicados.add(new Descuento(i, cliente.getId(), "Descuento " + i, 1.0, hoy.minusDays(1), hoy.plusDays(30)));
+        }
+        double total = subtotal * (1 - descuentos / 100.0) * 1.21;
+        return new Venta(1, cliente, aplicados, detalles, hoy, total);
+    }
+}
@@ -1,9 +1,27 @@
 package com.erp;
 
+import com.erp.controller.MainController;
+import com.erp.controller.RegistroVistas;
 import com.erp.db.SQLiteConnector;
+import com.erp.metricas.ExpositorMetricas;
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+import com.erp.model.Cliente;
+import com.erp.service.CatalogoProductos;
+import com.erp.service.ClienteBusquedaService;
+import com.erp.service.FacturaService;
+import com.erp.utils.Alerta;
+import com.erp.utils.Arranque;
 import com.erp.utils.DatosDePrueba;
+import com.erp.utils.LazyPagedList;
+import com.erp.utils.PantallaCarga;
+import com.erp.utils.VigilanteHiloFx;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -14,11 +32,23 @@ import javafx.stage.Stage;
  * <p>
  * Hereda de {@link Application}, sirviendo como el punto de entrada para el framework JavaFX.
  * Se encarga de inicializar la base de datos, cargar la vista principal y aplicar los estilos.
+ * Todo ello se hace por fases en segundo plano ({@link Arranque}) mientras se muestra una
+ * pantalla de carga; al terminar se imprime cuánto tardó cada fase y la ventana en responder.
+ * <p>
+ * Si se define la propiedad del sistema {@code erp.metricas.puerto}, las métricas de
+ * {@link RegistroMetricas} se publican además en {@code http://127.0.0.1:<puerto>/metricas}.
+ * Por JMX están siempre disponibles.
+ * <p>
+ * Mientras la ventana está abierta, {@link VigilanteHiloFx} anota en {@code logs/bloqueos-fx.N.log}
+ * cada vez que el hilo de JavaFX se bloquea más de {@code erp.fx.presupuestoMs} (50 ms por defecto).
  *
  * @author Noé
  */
 public class App extends Application {
 
+    private ExpositorMetricas expositorMetricas;
+    private VigilanteHiloFx vigilanteHiloFx;
+
     /**
      * El método main es el primer código que se ejecuta.
      * <p>
@@ -34,25 +64,117 @@ public class App extends Application {
     }
 
     /**
-     * Este método se ejecuta justo después de 'launch()'. Aquí es donde se
-     * configura y se muestra la interfaz gráfica principal.
+     * Este método se ejecuta justo después de 'launch()'. Muestra la pantalla de carga y
+     * lanza el arranque por fases en segundo plano; la ventana principal se muestra cuando
+     * la base de datos y su FXML están listos.
+     * <p>
+     * Las fases son:
+     * <ul>
+     *   <li>{@code esquema}: crea o migra las tablas.</li>
+     *   <li>{@code datos}: carga los datos de prueba si las tablas están vacías (tras {@code esquema}).</li>
+     *   <li>{@code fxml}: carga {@code main.fxml} y la bienvenida; no usa la base de datos, así
+     *       que va en paralelo con las dos anteriores.</li>
+     *   <li>{@code cache}: con los datos listos, precarga las vistas del menú y calienta las
+     *       consultas y el generador de facturas. No retrasa la ventana principal.</li>
+     * </ul>
      *
      * @see <a href="https://docs.oracle.com/javase/8/javafx/api/javafx/application/Application.html#start-javafx.stage.Stage-">Documentación de Application#start</a>
      * @param stage El 'escenario' o ventana principal que nos proporciona JavaFX.
-     * @throws Exception Si hay algún error al cargar el archivo FXML o CSS.
      */
     @Override
-    public void start(Stage stage) throws Exception {
-        // Antes de mostrar nada, me aseguro de que la base de datos esté lista.
-        // Esto crea las tablas si es la primera vez que se ejecuta.
-        SQLiteConnector.initDatabase();
-        DatosDePrueba.cargarDatosIniciales();
-        
-        
-        // Carga el diseño de la interfaz principal desde el archivo FXML.
-        // Parent es un nodo genérico que puede contener a todos los demás nodos de la UI.
-        Parent root = FXMLLoader.load(getClass().getResource("/fxml/main.fxml"));
+    public void start(Stage stage) {
+        PantallaCarga pantallaCarga = new PantallaCarga();
+        pantallaCarga.mostrar();
+        iniciarExpositorMetricas();
+
+        Arranque arranque = new Arranque(pantallaCarga::setEstado);
+        RegistroVistas registroVistas = new RegistroVistas();
+        // Si el esquema falla, 'datos' y 'cache' no llegan a ejecutarse y se muestra el error
+        CompletableFuture<Integer> esquema = arranque.faseConResultado("esquema", "Preparando la base de datos...",
+                SQLiteConnector::migrarEsquema);
+        CompletableFuture<Void> datos = arranque.fase("datos", "Comprobando los datos iniciales...",
+                DatosDePrueba::cargarDatosIniciales, esquema);
+        CompletableFuture<Parent> raiz = arranque.faseConResultado("fxml", "Cargando la interfaz...",
+                () -> cargarVentanaPrincipal(registroVistas));
+        arranque.fase("cache", "Preparando las vistas...", () -> calentarCaches(registroVistas), datos);
+
+        raiz.thenCombine(datos, (root, nada) -> root).whenComplete((root, error) -> Platform.runLater(() -> {
+            pantallaCarga.cerrar();
+            if (error != null) {
+                System.err.println("No se pudo arrancar la aplicación: " + error.getMessage());
+                error.printStackTrace();
+                Alerta.mostrarError("Error al arrancar", "No se pudo iniciar el Mini ERP: " + error.getMessage());
+                Platform.exit();
+                return;
+            }
+            mostrarVentanaPrincipal(stage, root);
+            // El siguiente runLater se atiende después del primer pulso con la ventana ya visible
+            Platform.runLater(() -> {
+                arranque.marcarVentanaInteractiva();
+                System.out.println(arranque.informe());
+            });
+        }));
+    }
+
+    /**
+     * Se ejecuta cuando la aplicación JavaFX termina.
+     * Cierra la conexión de escritura y el pool de lectura para que SQLite
+     * integre el diario WAL en el fichero de la base de datos.
+     */
+    @Override
+    public void stop() {
+        if (vigilanteHiloFx != null) {
+            vigilanteHiloFx.detener();
+        }
+        if (expositorMetricas != null) {
+            expositorMetricas.detener();
+        }
+        SQLiteConnector.closeConnection();
+    }
 
+    /**
+     * Carga la ventana principal con un {@link MainController} que usa el registro de vistas
+     * del arranque. Se ejecuta fuera del hilo de JavaFX: los nodos aún no están en ninguna escena.
+     */
+    private Parent cargarVentanaPrincipal(RegistroVistas registroVistas) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main.fxml"));
+        loader.setControllerFactory(tipo -> {
+            if (tipo == MainController.class) {
+                return new MainController(registroVistas);
+            }
+            try {
+                return tipo.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("No se pudo crear el controlador " + tipo.getName(), e);
+            }
+        });
+        try (Temporizador.Medicion medicion = RegistroMetricas.getGlobal().temporizador("vistas.cargar.main").iniciar()) {
+            return loader.load();
+        }
+    }
+
+    /**
+     * Con la base de datos lista, precarga las vistas del menú y hace una primera pasada por
+     * lo que usarán: el catálogo compartido con su primera página, la primera página del
+     * listado de clientes (que deja abiertas las conexiones de lectura y las páginas de SQLite en memoria)
+     * y el generador de facturas, que carga fuentes y maqueta el membrete al crearse.
+     */
+    private void calentarCaches(RegistroVistas registroVistas) {
+        // El catálogo va antes que las vistas: sus tablas muestran la lista ya creada
+        CatalogoProductos.getInstancia().precargar();
+        registroVistas.precargar(MainController.VISTAS_PRECARGADAS.toArray(new String[0]));
+        LazyPagedList<Cliente> clientes = new ClienteBusquedaService().listarTodos();
+        if (!clientes.isEmpty()) {
+            clientes.get(0);
+        }
+        FacturaService.getInstancia();
+    }
+
+    /**
+     * Configura y muestra la ventana principal con el contenido ya cargado, y pone en marcha
+     * el vigilante del hilo de JavaFX.
+     */
+    private void mostrarVentanaPrincipal(Stage stage, Parent root) {
         // Crea la 'escena' que contendrá el diseño que se acaba de cargar.
         // Se define un tamaño inicial para la ventana.
         Scene scene = new Scene(root, 802, 600);
@@ -69,7 +191,30 @@ public class App extends Application {
         stage.setScene(scene); // Le digo a la ventana qué escena debe mostrar.
         stage.setTitle("Mini ERP"); // Pongo el título a la ventana.
         stage.show(); // ¡Y finalmente, la muestro!
+
+        // A partir de aquí, cualquier bloqueo del hilo de la interfaz queda registrado.
+        vigilanteHiloFx = VigilanteHiloFx.desdePropiedades();
+        if (vigilanteHiloFx != null) {
+            vigilanteHiloFx.vigilarVentanas();
+            vigilanteHiloFx.iniciar();
+        }
     }
 
-   
+    /**
+     * Arranca el servidor de métricas si se ha configurado un puerto. Si no se puede abrir,
+     * la aplicación sigue sin él.
+     */
+    private void iniciarExpositorMetricas() {
+        Integer puerto = Integer.getInteger("erp.metricas.puerto");
+        if (puerto == null) {
+            return;
+        }
+        try {
+            expositorMetricas = new ExpositorMetricas(RegistroMetricas.getGlobal(), puerto);
+            expositorMetricas.iniciar();
+        } catch (IOException e) {
+            System.err.println("No se pudo abrir el puerto de métricas " + puerto + ": " + e.getMessage());
+            expositorMetricas = null;
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.erp.controller;
+
+/**
+ * Ciclo de vida de una vista gestionada por {@link RegistroVistas}.
+ * <p>
+ * Una vista guardada en caché se muestra y se oculta muchas veces con el mismo controlador,
+ * y solo se desecha cuando sale de la caché (o al dejar de verse, si es de un solo uso).
+ * El controlador debe soltar en {@link #desechar()} todo lo que lo mantenga vivo desde fuera
+ * de su propia vista: listeners sobre objetos del modelo, búsquedas pendientes, etc.
+ * Todos los métodos se llaman en el hilo de JavaFX y por defecto no hacen nada.
+ *
+ * @author Noé
+ */
+public interface CicloVidaVista {
+
+    /**
+     * La vista pasa a mostrarse en el panel central.
+     */
+    default void alMostrar() {
+    }
+
+    /**
+     * La vista deja de mostrarse, pero puede volver a usarse.
+     */
+    default void alOcultar() {
+    }
+
+    /**
+     * La vista no se va a volver a usar: hay que soltar los listeners y tareas que la retengan.
+     */
+    default void desechar() {
+    }
+}
@@ -1,17 +1,17 @@
 package com.erp.controller;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.erp.controller.components.cliComp.ClienteFormularioAnadirController;
 import com.erp.controller.components.cliComp.ClienteFormularioBuscarController;
 import com.erp.controller.components.cliComp.ClienteTablaController;
 import com.erp.dao.ClienteDAO;
 import com.erp.model.Cliente;
+import com.erp.service.ClienteBusquedaService;
 import com.erp.utils.Alerta;
 import com.erp.utils.AnimationUtils;
+import com.erp.utils.LazyPagedList;
 
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert.AlertType;
@@ -27,12 +27,14 @@ import javafx.scene.layout.VBox;
  * (formularios y tabla) y contiene la lógica de negocio principal para
  * interactuar con la base de datos.
  */
-public class ClienteController {
+public class ClienteController implements VistaRefrescable, CicloVidaVista {
 
     private MainController mainController;
 
     // --- DAO ---
     private final ClienteDAO clienteDAO = new ClienteDAO();
+    private final ClienteBusquedaService clienteBusqueda = new ClienteBusquedaService(clienteDAO);
+    private LazyPagedList<Cliente> listadoCompleto; // Se crea al abrir la vista; se le aplican los cambios hechos aquí
 
     // --- Componentes FXML de la vista principal (cliente.fxml) ---
     @FXML
@@ -58,9 +60,6 @@ public class ClienteController {
     @FXML
     private ClienteTablaController tablaClientesController;
 
-    // --- Estado ---
-    private List<Cliente> clientesOriginales = new ArrayList<>();
-
     /**
      * Inyecta el MainController para permitir la navegación a otras vistas.
      * @param mainController El controlador principal de la aplicación.
@@ -92,6 +91,32 @@ public class ClienteController {
         AnimationUtils.addHoverAnimation(botonBuscarCliente);
     }
 
+    /**
+     * Al volver a la vista, muestra de nuevo el listado completo y la deja como recién abierta.
+     * El listado no se relee: las altas, cambios y bajas de esta vista ya se le han aplicado.
+     */
+    @Override
+    public void refrescar() {
+        cargarYMostrarClientes();
+        ocultarTodosLosFormularios();
+    }
+
+    /**
+     * Al ocultar la vista se descarta la búsqueda pendiente: su resultado ya no se vería.
+     */
+    @Override
+    public void alOcultar() {
+        formBuscarController.cancelarBusqueda();
+    }
+
+    /**
+     * Suelta los listeners del formulario de búsqueda cuando la vista sale de la caché.
+     */
+    @Override
+    public void desechar() {
+        formBuscarController.desvincular();
+    }
+
     /**
      * Muestra el formulario para añadir un nuevo cliente.
      * Delega en el controlador del formulario la tarea de prepararse.
@@ -125,15 +150,24 @@ public class ClienteController {
      */
     public void guardarOActualizarCliente(Cliente cliente) {
         boolean exito;
-        if (cliente.getId() == null || cliente.getId() == 0) { // Es un cliente nuevo
+        boolean nuevo = cliente.getId() == null || cliente.getId() == 0;
+        if (nuevo) {
             exito = clienteDAO.guardarClienteDb(cliente);
         } else { // Es una actualización
             exito = clienteDAO.actualizarClienteEnDb(cliente);
         }
 
         if (exito) {
+            // El listado completo se actualiza sin volver a leerlo
+            if (listadoCompleto != null) {
+                if (nuevo) {
+                    listadoCompleto.anadirAlFinal(cliente);
+                } else {
+                    listadoCompleto.reemplazar(cliente);
+                }
+            }
             Alerta.mostrarAlertaTemporal(AlertType.INFORMATION, "Éxito", null, "Cliente guardado correctamente.");
-            cargarYMostrarClientes(); // Recargar y mostrar la lista actualizada
+            cargarYMostrarClientes(); // Mostrar el listado ya actualizado
             ocultarTodosLosFormularios();
         } else {
             Alerta.mostrarError("Error de Base de Datos", "No se pudo guardar el cliente.");
@@ -179,6 +213,9 @@ public class ClienteController {
 
         if (confirmado) {
             if (clienteDAO.eliminarClientePorId(seleccionado.getId())) {
+                if (listadoCompleto != null) {
+                    listadoCompleto.eliminar(seleccionado.getId());
+                }
                 Alerta.mostrarAlertaTemporal(AlertType.INFORMATION, "Éxito", null, "Cliente eliminado correctamente.");
                 cargarYMostrarClientes();
             } else {
@@ -188,29 +225,30 @@ public class ClienteController {
     }
 
     /**
-     * Filtra la lista de clientes.
-     * Este método es invocado por el {@link ClienteFormularioBuscarController}.
+     * Filtra la lista de clientes de forma síncrona.
+     * El {@link ClienteFormularioBuscarController} usa {@link #buscarClientes(Map)} y
+     * {@link #mostrarClientes(List)} por separado para consultar en segundo plano.
      */
     public void filtrarClientes() {
-        Map<String, String> criterios = formBuscarController.getCriteriosBusqueda();
-        String filtroId = criterios.get("id").toLowerCase();
-        String filtroNombre = criterios.get("nombre").toLowerCase();
-        String filtroCifNif = criterios.get("cifnif").toLowerCase();
-
-        List<Cliente> filtrados = clientesOriginales.stream()
-            .filter(c -> filtroId.isEmpty() || String.valueOf(c.getId()).contains(filtroId))
-            .filter(c -> filtroCifNif.isEmpty() || (c.getCifnif() != null && c.getCifnif().toLowerCase().contains(filtroCifNif)))
-            .filter(c -> {
-                if (filtroNombre.isEmpty()) return true;
-                if ("Particular".equals(c.getTipoCliente())) {
-                    return (c.getNombre() + " " + c.getApellidos()).toLowerCase().contains(filtroNombre);
-                } else { // Empresa
-                    return c.getRazonSocial().toLowerCase().contains(filtroNombre);
-                }
-            })
-            .collect(Collectors.toList());
+        mostrarClientes(buscarClientes(formBuscarController.getCriteriosBusqueda()));
+    }
 
-        tablaClientesController.setItems(filtrados);
+    /**
+     * Consulta los clientes que cumplen los criterios de búsqueda.
+     * No toca la interfaz, así que puede ejecutarse fuera del hilo de JavaFX.
+     * @param criterios Criterios del formulario de búsqueda (id, nombre y cifnif).
+     * @return Los clientes encontrados.
+     */
+    public List<Cliente> buscarClientes(Map<String, String> criterios) {
+        return clienteBusqueda.buscarPorCriterios(criterios, listadoCompleto);
+    }
+
+    /**
+     * Muestra en la tabla el resultado de {@link #buscarClientes(Map)}.
+     * @param clientes Clientes a mostrar.
+     */
+    public void mostrarClientes(List<Cliente> clientes) {
+        tablaClientesController.setItems(clientes);
     }
 
     /**
@@ -243,8 +281,10 @@ public class ClienteController {
     // --- Métodos privados de utilidad ---
 
     private void cargarYMostrarClientes() {
-        clientesOriginales = clienteDAO.listarClientes();
-        tablaClientesController.setItems(clientesOriginales);
+        if (listadoCompleto == null) {
+            listadoCompleto = clienteBusqueda.listarTodos();
+        }
+        tablaClientesController.setItems(listadoCompleto);
     }
 
     private void ocultarTodosLosFormularios() {
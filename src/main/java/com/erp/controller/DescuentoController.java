@@ -28,7 +28,7 @@ import javafx.scene.layout.VBox;
  * Se encarga de mostrar, añadir, editar y eliminar los descuentos asociados a un
  * cliente específico.
  */
-public class DescuentoController {
+public class DescuentoController implements CicloVidaVista {
 
     @FXML
     private VBox formularioContenedor;
@@ -127,9 +127,22 @@ public class DescuentoController {
      */
     public void setClienteSeleccionado(Cliente cliente) {
         this.clienteSeleccionado = cliente;
+        // La vista se reutiliza entre clientes: se descarta lo que quedase del anterior.
+        modoEdicion = false;
+        descuentoAEditar = null;
+        limpiarFormulario();
+        ocultarFormulario();
         cargarDatosDescuentos();
     }
 
+    /**
+     * Quita los listeners que la tabla puso en los descuentos cuando la vista sale de la caché.
+     */
+    @Override
+    public void desechar() {
+        tablaDescuentosComponenteController.desechar();
+    }
+
     /**
      * Carga los descuentos del cliente seleccionado desde la base de datos
      * y los muestra en la tabla.
@@ -3,13 +3,14 @@ package com.erp.controller;
 import com.erp.model.Cliente;
 import com.erp.model.DetalleVenta;
 import com.erp.controller.DescuentoController;
+import com.erp.db.SQLiteConnector;
 import com.erp.utils.AnimationUtils;
 
+import java.util.List;
+
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.layout.StackPane;
 
@@ -22,6 +23,10 @@ import javafx.scene.layout.StackPane;
  */
 public class MainController {
 
+    /** Vistas que se cargan durante el arranque, en el orden en que se suelen abrir. */
+    public static final List<String> VISTAS_PRECARGADAS = List.of(
+            "producto.fxml", "cliente.fxml", "venta.fxml", "cesta.fxml", "descuento.fxml");
+
     @FXML
     private StackPane contenedorCentral;
 
@@ -38,8 +43,28 @@ public class MainController {
     private Button botonSalir;
 
     private ObservableList<DetalleVenta> cestaItems;
-    private VentaController ventaController;
-    private CestaController cestaController;
+    private final RegistroVistas registroVistas;
+    private final boolean precargarVistas;
+
+    /**
+     * Crea el controlador con su propio registro de vistas, que precarga las vistas del menú
+     * al inicializarse.
+     */
+    public MainController() {
+        this.registroVistas = new RegistroVistas();
+        this.precargarVistas = true;
+    }
+
+    /**
+     * Crea el controlador con un registro de vistas ajeno. La precarga la decide quien
+     * lo crea (el arranque la lanza cuando la base de datos está lista).
+     *
+     * @param registroVistas Registro del que se obtienen las vistas.
+     */
+    public MainController(RegistroVistas registroVistas) {
+        this.registroVistas = registroVistas;
+        this.precargarVistas = false;
+    }
 
     /**
      * Método de inicialización que se llama automáticamente al cargar el FXML.
@@ -50,6 +75,11 @@ public class MainController {
         cestaItems = FXCollections.observableArrayList();
         // Al iniciar la aplicación, se muestra la pantalla de bienvenida.
         cargarVista("inicio.fxml");
+        // Mientras se ve la bienvenida, se cargan en segundo plano las vistas del menú
+        // para que abrirlas no tenga que esperar al FXML ni a la base de datos.
+        if (precargarVistas) {
+            registroVistas.precargar(VISTAS_PRECARGADAS.toArray(new String[0]));
+        }
 
         // --- Aplicar animaciones a los botones del menú ---
         if (botonProductos != null) AnimationUtils.addHoverAnimation(botonProductos);
@@ -81,19 +111,16 @@ public class MainController {
     @FXML
     public void mostrarDescuentos(Cliente cliente) {
         // Este método se llama desde ClienteController para cambiar a la vista de descuentos.
-        // Es un caso especial porque necesita pasar un objeto 'Cliente' al nuevo controlador.
+        // Es un caso especial porque necesita pasar un objeto 'Cliente' al controlador.
         try {
-            // Carga el FXML de la vista de descuentos.
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/descuento.fxml"));
-            Node vista = loader.load();
+            RegistroVistas.Vista vista = registroVistas.obtener("descuento.fxml");
 
-            // Obtiene la instancia del controlador de descuentos recién creado.
-            DescuentoController controller = loader.getController();
+            DescuentoController controller = vista.getControlador();
             // Le pasa la referencia de este MainController y el cliente seleccionado.
             controller.setMainController(this);
             controller.setClienteSeleccionado(cliente);
 
-            contenedorCentral.getChildren().setAll(vista);
+            mostrar(vista);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -104,44 +131,23 @@ public class MainController {
      */
     @FXML
     public void mostrarVentas() {
-        if (ventaController == null) {
-            cargarVista("venta.fxml");
-        } else {
-            contenedorCentral.getChildren().setAll(ventaController.getVista());
-            ventaController.setCestaItems(cestaItems); // Asegurarse de que la cesta esté actualizada
-        }
+        cargarVista("venta.fxml");
     }
 
     public void mostrarCesta() {
-        if (cestaController == null) {
-            try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/cesta.fxml"));
-                Node vista = loader.load();
-
-                this.cestaController = loader.getController();
-                this.cestaController.setMainController(this);
-                this.cestaController.setCestaItems(this.cestaItems);
-
-                contenedorCentral.getChildren().setAll(vista);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        } else {
-            contenedorCentral.getChildren().setAll(cestaController.getVista());
-            cestaController.setCestaItems(cestaItems); // Asegurarse de que la cesta esté actualizada
-        }
+        cargarVista("cesta.fxml");
     }
 
     public void mostrarSeleccionClienteParaVenta(ObservableList<DetalleVenta> cestaItems) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/VentaFinalizar.fxml"));
-            Node vista = loader.load();
+            // Cada venta empieza con su propia vista: no se reutiliza la de la anterior.
+            RegistroVistas.Vista vista = registroVistas.cargarNueva("VentaFinalizar.fxml");
 
-            VentaFinalizarController controller = loader.getController();
+            VentaFinalizarController controller = vista.getControlador();
             controller.setMainController(this);
             controller.setData(cestaItems);
 
-            contenedorCentral.getChildren().setAll(vista);
+            mostrar(vista);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -152,36 +158,47 @@ public class MainController {
      */
     @FXML
     public void salirAplicacion() {
+        SQLiteConnector.closeConnection();
         System.exit(0);
     }
 
     /**
-     * Método de utilidad para cargar una vista FXML en el panel central.
+     * Método de utilidad para mostrar una vista FXML en el panel central.
      * <p>
-     * Se encarga de localizar el archivo FXML, cargarlo y, si es necesario,
-     * inyectar dependencias en el controlador de la vista cargada.
-     * @param nombreFXML El nombre del archivo FXML a cargar (ej. "producto.fxml").
+     * La vista se pide al {@link RegistroVistas}, que solo la carga la primera vez; después
+     * inyecta, si es necesario, las dependencias en el controlador de la vista.
+     * @param nombreFXML El nombre del archivo FXML a mostrar (ej. "producto.fxml").
      */
     private void cargarVista(String nombreFXML) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/" + nombreFXML));
-            Node vista = loader.load();
+            RegistroVistas.Vista vista = registroVistas.obtener(nombreFXML);
 
             // Comprueba el tipo del controlador cargado para inyectar este MainController si es necesario.
-            Object controller = loader.getController();
+            Object controller = vista.getControlador();
             if (controller instanceof ClienteController) {
                 ((ClienteController) controller).setMainController(this);
             } else if (controller instanceof DescuentoController) {
                 ((DescuentoController) controller).setMainController(this);
             } else if (controller instanceof VentaController) {
-                this.ventaController = (VentaController) controller;
-                this.ventaController.setMainController(this);
-                this.ventaController.setCestaItems(this.cestaItems);
+                ((VentaController) controller).setMainController(this);
+                ((VentaController) controller).setCestaItems(this.cestaItems);
+            } else if (controller instanceof CestaController) {
+                ((CestaController) controller).setMainController(this);
+                ((CestaController) controller).setCestaItems(this.cestaItems);
             }
 
-            contenedorCentral.getChildren().setAll(vista);
+            mostrar(vista);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Pone una vista en el panel central y avisa al registro para que lleve su ciclo de vida
+     * (la vista anterior se oculta y, si era de un solo uso, se desecha).
+     */
+    private void mostrar(RegistroVistas.Vista vista) {
+        registroVistas.activar(vista);
+        contenedorCentral.getChildren().setAll(vista.getRaiz());
+    }
 }
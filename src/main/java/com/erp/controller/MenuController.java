@@ -1,5 +1,8 @@
 package com.erp.controller;
 
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -20,7 +23,10 @@ public class MenuController {
     @FXML
     public void abrirFormularioProducto() {
         try {
-            Parent root = FXMLLoader.load(getClass().getResource("/fxml/producto.fxml"));
+            Parent root;
+            try (Temporizador.Medicion medicion = RegistroMetricas.getGlobal().temporizador("vistas.cargar.producto").iniciar()) {
+                root = FXMLLoader.load(getClass().getResource("/fxml/producto.fxml"));
+            }
             Stage stage = new Stage();
             stage.setScene(new Scene(root, 600, 450));
             stage.setTitle("Formulario de Producto");
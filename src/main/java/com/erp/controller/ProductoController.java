@@ -1,15 +1,14 @@
 package com.erp.controller;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.erp.controller.components.prodComp.ProductoFormularioAñadirController;
 import com.erp.controller.components.prodComp.ProductoFormularioBuscarController;
 import com.erp.controller.components.prodComp.ProductoTablaController;
 import com.erp.dao.ProductoDAO;
 import com.erp.model.Producto;
+import com.erp.service.CatalogoProductos;
 import com.erp.utils.Alerta;
 import com.erp.utils.AnimationUtils;
 
@@ -26,10 +25,11 @@ import javafx.scene.layout.VBox;
  * Maneja la lógica de la interfaz de usuario para añadir, modificar, eliminar y
  * buscar productos, así como la presentación de datos en la tabla.
  */
-public class ProductoController {
+public class ProductoController implements VistaRefrescable, CicloVidaVista {
 
-    // --- DAO ---
+    // --- DAO y catálogo compartido ---
     private final ProductoDAO productoDAO = new ProductoDAO();
+    private final CatalogoProductos catalogo = CatalogoProductos.getInstancia();
 
     @FXML
     private StackPane zonaFormulariosProducto;
@@ -54,8 +54,8 @@ public class ProductoController {
     @FXML
     private ProductoTablaController tablaProductosComponentController; // Inyecta el controlador del FXML incluido
 
-    // --- Estado ---
-    private List<Producto> productosOriginales = new ArrayList<>(); // Lista completa para filtrar
+    // Máximo de productos que se muestran como resultado de una búsqueda.
+    private static final int LIMITE_BUSQUEDA = 500;
 
     /**
      * Inicializa el controlador principal. Conecta los sub-controladores,
@@ -80,6 +80,33 @@ public class ProductoController {
         AnimationUtils.addHoverAnimation(botonBuscarProducto);
     }
 
+    /**
+     * Al volver a la vista, muestra el catálogo (que ya está al día) y la deja como recién abierta.
+     */
+    @Override
+    public void refrescar() {
+        cargarYMostrarProductos();
+        ocultarTodosLosFormularios();
+    }
+
+    /**
+     * Al ocultar la vista se descarta la búsqueda pendiente: su resultado ya no se vería.
+     */
+    @Override
+    public void alOcultar() {
+        formBuscarController.cancelarBusqueda();
+    }
+
+    /**
+     * Suelta los listeners del formulario de búsqueda y la suscripción de la tabla al
+     * catálogo cuando la vista sale de la caché.
+     */
+    @Override
+    public void desechar() {
+        formBuscarController.desvincular();
+        tablaProductosComponentController.desechar();
+    }
+
     /**
      * Muestra el formulario para añadir un nuevo producto.
      */
@@ -103,17 +130,12 @@ public class ProductoController {
     }
 
     /**
-     * Guarda o actualiza un producto en la base de datos.
+     * Guarda o actualiza un producto a través del catálogo compartido, que avisa al resto de pantallas.
      * Este método es invocado por el `ProductoFormularioAñadirController`.
      * @param producto El producto a guardar o actualizar.
      */
     public void guardarOActualizarProducto(Producto producto) {
-        boolean exito;
-        if (producto.getId() == null) { // Es un producto nuevo
-            exito = productoDAO.guardarProductoDb(producto);
-        } else {
-            exito = productoDAO.actualizarProductoEnDb(producto);
-        }
+        boolean exito = catalogo.guardar(producto);
 
         if (exito) {
             Alerta.mostrarAlertaTemporal( AlertType.INFORMATION, "Éxito", null, "Producto guardado correctamente.");
@@ -157,7 +179,7 @@ public class ProductoController {
                 seleccionado.getNombre());
 
         if (confirmado) {
-            if (productoDAO.eliminarProductoPorId(seleccionado.getId())) {
+            if (catalogo.eliminar(seleccionado)) {
                 Alerta.mostrarAlertaTemporal(AlertType.INFORMATION, "Éxito", null, "Producto eliminado correctamente.");
                 cargarYMostrarProductos();
             } else {
@@ -167,22 +189,41 @@ public class ProductoController {
     }
 
     /**
-     * Filtra la lista de productos en la tabla.
-     * Este método es invocado por el `ProductoFormularioBuscarController`.
+     * Filtra la lista de productos en la tabla de forma síncrona.
+     * El `ProductoFormularioBuscarController` usa {@link #buscarProductos(Map)} y
+     * {@link #mostrarProductos(List)} por separado para consultar en segundo plano.
      */
     public void filtrarProductos() {
-        Map<String, String> criterios = formBuscarController.getCriteriosBusqueda();
-        String filtroId = criterios.get("id").toLowerCase();
-        String filtroNombre = criterios.get("nombre").toLowerCase();
-        String filtroCategoria = criterios.get("categoria").toLowerCase();
+        mostrarProductos(buscarProductos(formBuscarController.getCriteriosBusqueda()));
+    }
 
-        List<Producto> filtrados = productosOriginales.stream()
-                .filter(p -> filtroId.isEmpty() || String.valueOf(p.getId()).contains(filtroId))
-                .filter(p -> filtroNombre.isEmpty() || p.getNombre().toLowerCase().contains(filtroNombre))
-                .filter(p -> filtroCategoria.isEmpty() || p.getCategoria().toLowerCase().contains(filtroCategoria))
-                .collect(Collectors.toList());
+    /**
+     * Consulta los productos que cumplen los criterios de búsqueda.
+     * No toca la interfaz, así que puede ejecutarse fuera del hilo de JavaFX.
+     * @param criterios Criterios del formulario de búsqueda (id, nombre y categoria).
+     * @return Los productos encontrados, o {@code null} si no hay criterios y debe mostrarse el catálogo.
+     */
+    public List<Producto> buscarProductos(Map<String, String> criterios) {
+        String filtroId = criterios.get("id");
+        String filtroNombre = criterios.get("nombre");
+        String filtroCategoria = criterios.get("categoria");
 
-        tablaProductosComponentController.setItems(filtrados);
+        if (filtroId.isBlank() && filtroNombre.isBlank() && filtroCategoria.isBlank()) {
+            return null;
+        }
+        return productoDAO.buscarProductosPorCriterios(filtroId, filtroNombre, filtroCategoria, LIMITE_BUSQUEDA);
+    }
+
+    /**
+     * Muestra en la tabla el resultado de {@link #buscarProductos(Map)}.
+     * @param productos Productos a mostrar, o {@code null} para volver al catálogo paginado.
+     */
+    public void mostrarProductos(List<Producto> productos) {
+        if (productos == null) {
+            tablaProductosComponentController.mostrarCatalogo(catalogo);
+        } else {
+            tablaProductosComponentController.setItems(productos);
+        }
     }
 
     /**
@@ -198,8 +239,7 @@ public class ProductoController {
     // --- Métodos de utilidad ---
 
     private void cargarYMostrarProductos() {
-        productosOriginales = productoDAO.listarProductos();
-        tablaProductosComponentController.setItems(productosOriginales);
+        tablaProductosComponentController.mostrarCatalogo(catalogo);
     }
 
     private void ocultarTodosLosFormularios() {
@@ -0,0 +1,334 @@
+package com.erp.controller;
+
+import com.erp.metricas.Contador;
+import com.erp.metricas.EventoCargaVista;
+import com.erp.metricas.RegistroMetricas;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Node;
+
+/**
+ * Registro de las vistas FXML del panel central: las carga una sola vez y las reutiliza.
+ * <p>
+ * Cargar una vista como {@code producto.fxml} supone analizar su FXML y los de todos sus
+ * componentes incluidos, crear sus controladores y consultar la base de datos en sus
+ * {@code initialize()}. El registro lo hace una vez por vista y guarda el resultado en una
+ * caché con las {@value #CAPACIDAD_POR_DEFECTO} vistas usadas más recientemente (se cambia con
+ * la propiedad del sistema {@code erp.vistas.capacidad}). Al volver a pedir una vista guardada
+ * se llama a {@link VistaRefrescable#refrescar()} en su controlador en lugar de reconstruirla.
+ * <p>
+ * Con {@link #precargar(String...)} las vistas se cargan durante el arranque en un hilo en
+ * segundo plano; crear nodos fuera del hilo de JavaFX está permitido mientras no formen parte
+ * de una escena visible. Si se pide una vista cuya precarga sigue en marcha, se espera a que
+ * termine en lugar de cargarla dos veces.
+ * <p>
+ * El registro también lleva el ciclo de vida de las vistas cuyo controlador implementa
+ * {@link CicloVidaVista}: {@link #activar(Vista)} avisa a la vista que se oculta y a la que
+ * se muestra, y las vistas que salen de la caché (o las de un solo uso, al dejar de verse)
+ * se desechan para que suelten sus listeners y búsquedas pendientes. Como una vista puede
+ * salir de la caché mientras termina de precargarse en otro hilo, los avisos de
+ * {@link CicloVidaVista#desechar()} siempre se envían al hilo de JavaFX.
+ * <p>
+ * Cada carga se anota en el temporizador {@code vistas.cargar.<vista>} y en un
+ * {@link EventoCargaVista} de JFR; los aciertos y fallos de la caché, en los contadores
+ * {@code vistas.cache.aciertos} y {@code vistas.cache.fallos}.
+ *
+ * @author Noé
+ */
+public class RegistroVistas {
+
+    /** Número de vistas que se guardan si no se indica otro. */
+    public static final int CAPACIDAD_POR_DEFECTO = 8;
+
+    private static final RegistroMetricas METRICAS = RegistroMetricas.getGlobal();
+    private static final Contador ACIERTOS = METRICAS.contador("vistas.cache.aciertos");
+    private static final Contador FALLOS = METRICAS.contador("vistas.cache.fallos");
+
+    private final Map<String, CompletableFuture<Vista>> vistas;
+    private final Cargador cargador;
+    private final Executor fondo;
+    private final Executor hiloFx;
+    // Vistas que la caché ha expulsado y aún hay que desechar, fuera del cerrojo
+    private final List<CompletableFuture<Vista>> expulsadas = new ArrayList<>();
+    private volatile Vista actual;
+
+    /**
+     * Crea un registro que carga las vistas de {@code /fxml} con la capacidad de
+     * {@code erp.vistas.capacidad}.
+     */
+    public RegistroVistas() {
+        this(Integer.getInteger("erp.vistas.capacidad", CAPACIDAD_POR_DEFECTO), RegistroVistas::cargarFxml,
+                crearHiloPrecarga(), Platform::runLater);
+    }
+
+    /**
+     * @param capacidad Número máximo de vistas guardadas.
+     * @param cargador  Función que carga una vista a partir de su nombre.
+     * @param fondo     Ejecutor en el que se hacen las precargas.
+     * @param hiloFx    Ejecutor del hilo de JavaFX, en el que se desechan las vistas expulsadas.
+     */
+    RegistroVistas(int capacidad, Cargador cargador, Executor fondo, Executor hiloFx) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad debe ser de al menos una vista.");
+        }
+        this.cargador = cargador;
+        this.fondo = fondo;
+        this.hiloFx = hiloFx;
+        this.vistas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Vista>> eldest) {
+                if (size() > capacidad) {
+                    expulsadas.add(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Carga en segundo plano las vistas indicadas que no estén ya en el registro.
+     *
+     * @param nombres Nombres de los ficheros FXML (ej. "producto.fxml").
+     */
+    public void precargar(String... nombres) {
+        for (String nombre : nombres) {
+            synchronized (this) {
+                if (vistas.containsKey(nombre)) {
+                    continue;
+                }
+                CompletableFuture<Vista> carga = new CompletableFuture<>();
+                vistas.put(nombre, carga);
+                fondo.execute(() -> completar(nombre, carga));
+            }
+        }
+        desecharExpulsadas();
+    }
+
+    /**
+     * Devuelve una vista, cargándola si no está en el registro. Si ya estaba cargada y su
+     * controlador es {@link VistaRefrescable}, se refresca antes de devolverla.
+     * Debe llamarse desde el hilo de JavaFX, o desde el del arranque mientras la ventana
+     * principal aún no se muestra.
+     *
+     * @param nombre Nombre del fichero FXML (ej. "producto.fxml").
+     * @return La vista con su controlador.
+     * @throws IOException Si el FXML no se puede cargar.
+     */
+    public Vista obtener(String nombre) throws IOException {
+        CompletableFuture<Vista> guardada;
+        synchronized (this) {
+            guardada = vistas.get(nombre);
+        }
+        if (guardada != null) {
+            try {
+                Vista vista = guardada.join();
+                ACIERTOS.incrementar();
+                if (vista.getControlador() instanceof VistaRefrescable) {
+                    ((VistaRefrescable) vista.getControlador()).refrescar();
+                }
+                return vista;
+            } catch (CompletionException e) {
+                // La precarga falló (ya se ha informado); se intenta de nuevo aquí
+                olvidar(nombre, guardada);
+            }
+        }
+        FALLOS.incrementar();
+        Vista vista = cargador.cargar(nombre);
+        synchronized (this) {
+            vistas.put(nombre, CompletableFuture.completedFuture(vista));
+        }
+        desecharExpulsadas();
+        return vista;
+    }
+
+    /**
+     * Carga una vista sin guardarla, para las que guardan el estado de una sola operación
+     * (como la finalización de una venta).
+     *
+     * @param nombre Nombre del fichero FXML.
+     * @return La vista recién cargada.
+     * @throws IOException Si el FXML no se puede cargar.
+     */
+    public Vista cargarNueva(String nombre) throws IOException {
+        return cargador.cargar(nombre);
+    }
+
+    /**
+     * Indica que {@code vista} pasa a ser la que se muestra en el panel central. La anterior
+     * recibe {@link CicloVidaVista#alOcultar()} y, si ya no está en la caché, se desecha; la
+     * nueva recibe {@link CicloVidaVista#alMostrar()}. Debe llamarse desde el hilo de JavaFX,
+     * o desde el del arranque mientras la ventana principal aún no se muestra.
+     *
+     * @param vista Vista que se va a mostrar.
+     */
+    public void activar(Vista vista) {
+        Vista anterior = actual;
+        if (anterior == vista) {
+            return;
+        }
+        actual = vista;
+        if (anterior != null && anterior.getControlador() instanceof CicloVidaVista) {
+            ((CicloVidaVista) anterior.getControlador()).alOcultar();
+            if (!estaGuardada(anterior)) {
+                desechar(anterior);
+            }
+        }
+        if (vista.getControlador() instanceof CicloVidaVista) {
+            ((CicloVidaVista) vista.getControlador()).alMostrar();
+        }
+    }
+
+    /**
+     * @param nombre Nombre del fichero FXML.
+     * @return {@code true} si la vista está cargada o cargándose.
+     */
+    public synchronized boolean contiene(String nombre) {
+        return vistas.containsKey(nombre);
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void completar(String nombre, CompletableFuture<Vista> carga) {
+        try {
+            carga.complete(cargador.cargar(nombre));
+        } catch (Exception e) {
+            System.err.println("No se pudo precargar la vista " + nombre + ": " + e.getMessage());
+            e.printStackTrace();
+            carga.completeExceptionally(e);
+            olvidar(nombre, carga);
+        }
+    }
+
+    private synchronized boolean estaGuardada(Vista vista) {
+        // Se recorren los valores porque get() cambiaría el orden de uso de la caché
+        for (CompletableFuture<Vista> carga : vistas.values()) {
+            if (carga.isDone() && !carga.isCompletedExceptionally() && carga.join() == vista) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void desecharExpulsadas() {
+        List<CompletableFuture<Vista>> pendientes;
+        synchronized (this) {
+            if (expulsadas.isEmpty()) {
+                return;
+            }
+            pendientes = new ArrayList<>(expulsadas);
+            expulsadas.clear();
+        }
+        for (CompletableFuture<Vista> carga : pendientes) {
+            // La que está a la vista se desechará al ocultarla; una precarga en marcha, al terminar.
+            // La carga puede completarse en el hilo de precarga, así que se desecha en el de JavaFX
+            carga.thenAcceptAsync(vista -> {
+                if (vista != actual) {
+                    desechar(vista);
+                }
+            }, hiloFx);
+        }
+    }
+
+    private void desechar(Vista vista) {
+        if (vista.getControlador() instanceof CicloVidaVista) {
+            try {
+                ((CicloVidaVista) vista.getControlador()).desechar();
+            } catch (RuntimeException e) {
+                System.err.println("Error al desechar la vista " + vista.getNombre() + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private synchronized void olvidar(String nombre, CompletableFuture<Vista> carga) {
+        vistas.remove(nombre, carga);
+    }
+
+    private static Executor crearHiloPrecarga() {
+        // Un único hilo que desaparece cuando no queda nada por precargar
+        ThreadPoolExecutor ejecutor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread hilo = new Thread(r, "precarga-vistas");
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        ejecutor.allowCoreThreadTimeOut(true);
+        return ejecutor;
+    }
+
+    /**
+     * Carga un FXML de {@code /fxml} midiendo lo que tarda.
+     */
+    private static Vista cargarFxml(String nombre) throws IOException {
+        FXMLLoader loader = new FXMLLoader(RegistroVistas.class.getResource("/fxml/" + nombre));
+        EventoCargaVista evento = new EventoCargaVista();
+        evento.begin();
+        long inicio = System.nanoTime();
+        try {
+            Node raiz = loader.load();
+            evento.exito = true;
+            return new Vista(nombre, raiz, loader.getController());
+        } finally {
+            METRICAS.temporizador("vistas.cargar." + nombre.replace(".fxml", "")).registrarDesde(inicio);
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.vista = nombre;
+                evento.commit();
+            }
+        }
+    }
+
+    /**
+     * Forma de cargar una vista a partir de su nombre.
+     */
+    @FunctionalInterface
+    interface Cargador {
+        Vista cargar(String nombre) throws IOException;
+    }
+
+    /**
+     * Una vista cargada: su nodo raíz y su controlador.
+     */
+    public static final class Vista {
+        private final String nombre;
+        private final Node raiz;
+        private final Object controlador;
+
+        Vista(String nombre, Node raiz, Object controlador) {
+            this.nombre = nombre;
+            this.raiz = raiz;
+            this.controlador = controlador;
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public Node getRaiz() {
+            return raiz;
+        }
+
+        /**
+         * @param <T> Tipo del controlador declarado en el FXML.
+         * @return El controlador de la vista.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T getControlador() {
+            return (T) controlador;
+        }
+    }
+}
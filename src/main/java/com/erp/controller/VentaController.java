@@ -22,25 +22,27 @@ import javafx.scene.layout.Region; // Importar Region
 
 import java.io.IOException; // Importar IOException
 import java.net.URL;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
-import java.util.stream.Collectors;
 
 import com.erp.dao.ProductoDAO; // Added import
+import com.erp.service.CatalogoProductos;
 
 /**
  * Controlador para la vista de ventas (venta.fxml).
  * Permite buscar productos, añadirlos a la cesta de la compra y navegar a la vista de la cesta.
  */
-public class VentaController implements Initializable {
+public class VentaController implements Initializable, CicloVidaVista {
 
     private MainController mainController;
     private ObservableList<DetalleVenta> cestaItems;
     private ProductoDAO productoDAO; // Added instance variable
-    private List<Producto> productosOriginales = new ArrayList<>();
+    private CatalogoProductos catalogo; // Catálogo compartido: su lista se mantiene al día sola
+
+    // Máximo de productos que se muestran como resultado de una búsqueda.
+    private static final int LIMITE_BUSQUEDA = 500;
 
     @FXML
     private AnchorPane rootPane; // Inyectar el AnchorPane raíz
@@ -80,8 +82,11 @@ public class VentaController implements Initializable {
         contenedorFormularioBusqueda.setManaged(false);
         
         productoDAO = new ProductoDAO();
-        this.productosOriginales = productoDAO.listarProductos();
-        productoTablaController.setItems(this.productosOriginales);
+        if (catalogo == null) {
+            catalogo = CatalogoProductos.getInstancia();
+        }
+        // El catálogo se carga por páginas según se desplaza la tabla
+        productoTablaController.mostrarCatalogo(catalogo);
 
         // Vincular controladores para el filtro
         formularioBuscarProductoController.setVentaController(this);
@@ -121,6 +126,24 @@ public class VentaController implements Initializable {
         });
     }
 
+    /**
+     * Al ocultar la vista se descarta la búsqueda pendiente: su resultado ya no se vería.
+     */
+    @Override
+    public void alOcultar() {
+        formularioBuscarProductoController.cancelarBusqueda();
+    }
+
+    /**
+     * Suelta los listeners del formulario de búsqueda y la suscripción de la tabla al
+     * catálogo cuando la vista sale de la caché.
+     */
+    @Override
+    public void desechar() {
+        formularioBuscarProductoController.desvincular();
+        productoTablaController.desechar();
+    }
+
     /**
      * Establece el controlador principal.
      * @param mainController El controlador principal.
@@ -146,21 +169,40 @@ public class VentaController implements Initializable {
     }
 
     /**
-     * Filtra la lista de productos según los criterios de búsqueda.
+     * Filtra la lista de productos según los criterios de búsqueda, de forma síncrona.
+     * El formulario de búsqueda consulta en segundo plano con {@link #buscarProductos(Map)}.
      */
     public void filtrarProductos() {
-        Map<String, String> criterios = formularioBuscarProductoController.getCriteriosBusqueda();
-        String filtroId = criterios.get("id").toLowerCase();
-        String filtroNombre = criterios.get("nombre").toLowerCase();
-        String filtroCategoria = criterios.get("categoria").toLowerCase();
-
-        List<Producto> filtrados = productosOriginales.stream()
-            .filter(p -> filtroId.isEmpty() || String.valueOf(p.getId()).contains(filtroId))
-            .filter(p -> filtroNombre.isEmpty() || p.getNombre().toLowerCase().contains(filtroNombre))
-            .filter(p -> filtroCategoria.isEmpty() || (p.getCategoria() != null && p.getCategoria().toLowerCase().contains(filtroCategoria)))
-            .collect(Collectors.toList());
-
-        productoTablaController.setItems(filtrados);
+        mostrarProductos(buscarProductos(formularioBuscarProductoController.getCriteriosBusqueda()));
+    }
+
+    /**
+     * Consulta los productos que cumplen los criterios de búsqueda.
+     * No toca la interfaz, así que puede ejecutarse fuera del hilo de JavaFX.
+     * @param criterios Criterios del formulario de búsqueda (id, nombre y categoria).
+     * @return Los productos encontrados, o {@code null} si no hay criterios y debe mostrarse el catálogo.
+     */
+    public List<Producto> buscarProductos(Map<String, String> criterios) {
+        String filtroId = criterios.get("id");
+        String filtroNombre = criterios.get("nombre");
+        String filtroCategoria = criterios.get("categoria");
+
+        if (filtroId.isBlank() && filtroNombre.isBlank() && filtroCategoria.isBlank()) {
+            return null;
+        }
+        return productoDAO.buscarProductosPorCriterios(filtroId, filtroNombre, filtroCategoria, LIMITE_BUSQUEDA);
+    }
+
+    /**
+     * Muestra en la tabla el resultado de {@link #buscarProductos(Map)}.
+     * @param productos Productos a mostrar, o {@code null} para volver al catálogo paginado.
+     */
+    public void mostrarProductos(List<Producto> productos) {
+        if (productos == null) {
+            productoTablaController.mostrarCatalogo(catalogo);
+        } else {
+            productoTablaController.setItems(productos);
+        }
     }
 
     /**
@@ -203,16 +245,21 @@ public class VentaController implements Initializable {
             return;
         }
 
-        if (cantidad > selectedProduct.getStock()) {
-            Alerta.mostrarAlertaTemporal(AlertType.WARNING, "Advertencia", null, "No hay suficiente stock para el producto seleccionado. Stock disponible: " + selectedProduct.getStock());
-            return;
-        }
-
         // Buscar si el producto ya está en la cesta
         Optional<DetalleVenta> existingDetalle = cestaItems.stream()
                 .filter(d -> d.getProducto().getId().equals(selectedProduct.getId()))
                 .findFirst();
 
+        // Comprobar contra el stock actual de la base de datos (otro terminal puede haber vendido)
+        // en lugar de la copia de la tabla. Es solo un aviso: la venta vuelve a comprobarlo al guardarse.
+        Producto actual = productoDAO != null ? productoDAO.buscarProductoPorId(selectedProduct.getId()) : null;
+        int stockDisponible = actual != null ? actual.getStock() : selectedProduct.getStock();
+        int enCesta = existingDetalle.map(DetalleVenta::getCantidad).orElse(0);
+        if (cantidad + enCesta > stockDisponible) {
+            Alerta.mostrarAlertaTemporal(AlertType.WARNING, "Advertencia", null, "No hay suficiente stock para el producto seleccionado. Stock disponible: " + stockDisponible);
+            return;
+        }
+
         if (existingDetalle.isPresent()) {
             DetalleVenta detalle = existingDetalle.get();
             detalle.setCantidad(detalle.getCantidad() + cantidad);
@@ -3,15 +3,20 @@ package com.erp.controller;
 import com.erp.controller.components.cliComp.ClienteFormularioBuscarController;
 import com.erp.controller.components.cliComp.ClienteTablaController;
 import com.erp.controller.components.descComp.DescuentoTablaController;
-import com.erp.dao.ClienteDAO;
 import com.erp.dao.DescuentoDAO;
+import com.erp.dao.ResultadoVenta;
 import com.erp.dao.VentaDAO;
+import com.erp.metricas.EventoPasoVenta;
 import com.erp.model.Cliente;
 import com.erp.model.Descuento;
 import com.erp.model.DetalleVenta;
 import com.erp.model.Venta;
+import com.erp.service.CatalogoProductos;
+import com.erp.service.ClienteBusquedaService;
+import com.erp.service.FacturaService;
 import com.erp.utils.Alerta;
-import com.erp.utils.FacturaPDFGenerator;
+import com.erp.utils.LazyPagedList;
+import javafx.application.Platform;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -34,7 +39,7 @@ import java.util.stream.Collectors;
  * Controlador para la vista de finalización de venta (VentaFinalizar.fxml).
  * Permite seleccionar un cliente, aplicar descuentos y finalizar la venta.
  */
-public class VentaFinalizarController implements Initializable {
+public class VentaFinalizarController implements Initializable, CicloVidaVista {
 
     private static final double TASA_IVA = 0.21; // 21% de IVA
 
@@ -61,8 +66,10 @@ public class VentaFinalizarController implements Initializable {
     @FXML
     private VBox zonaDescuentos;
 
-    private ClienteDAO clienteDAO;
-    private List<Cliente> clientesOriginales = new ArrayList<>();
+    private ClienteBusquedaService clienteBusqueda;
+    private LazyPagedList<Cliente> listadoCompleto; // Se vuelve a mostrar al vaciar la búsqueda
+    private FacturaService facturaService;
+    private CatalogoProductos catalogoProductos;
 
     /**
      * Inicializa el controlador.
@@ -73,11 +80,19 @@ public class VentaFinalizarController implements Initializable {
     public void initialize(URL url, ResourceBundle rb) {
         this.descuentoDAO = new DescuentoDAO();
         this.ventaDAO = new VentaDAO();
-        this.clienteDAO = new ClienteDAO();
+        if (this.clienteBusqueda == null) {
+            this.clienteBusqueda = new ClienteBusquedaService();
+        }
+        if (this.facturaService == null) {
+            this.facturaService = FacturaService.getInstancia();
+        }
+        if (this.catalogoProductos == null) {
+            this.catalogoProductos = CatalogoProductos.getInstancia();
+        }
 
-        // Cargar todos los clientes y mostrarlos inicialmente
-        clientesOriginales = this.clienteDAO.listarClientes();
-        clienteTablaController.setItems(clientesOriginales);
+        // Mostrar todos los clientes; la tabla lee sus páginas a medida que se desplaza
+        listadoCompleto = clienteBusqueda.listarTodos();
+        clienteTablaController.setItems(listadoCompleto);
         clienteTablaController.setAccionesVisible(false);
 
         // Vincular controladores de componentes
@@ -98,28 +113,29 @@ public class VentaFinalizarController implements Initializable {
     }
 
     /**
-     * Filtra la lista de clientes según los criterios de búsqueda.
+     * Filtra la lista de clientes según los criterios de búsqueda, de forma síncrona.
+     * El formulario de búsqueda consulta en segundo plano con {@link #buscarClientes(Map)}.
      */
     public void filtrarClientes() {
-        Map<String, String> criterios = formularioBuscarClienteController.getCriteriosBusqueda();
-        String filtroId = criterios.get("id").toLowerCase();
-        String filtroNombre = criterios.get("nombre").toLowerCase();
-        String filtroCifNif = criterios.get("cifnif").toLowerCase();
-
-        List<Cliente> filtrados = clientesOriginales.stream()
-            .filter(c -> filtroId.isEmpty() || String.valueOf(c.getId()).contains(filtroId))
-            .filter(c -> filtroCifNif.isEmpty() || (c.getCifnif() != null && c.getCifnif().toLowerCase().contains(filtroCifNif)))
-            .filter(c -> {
-                if (filtroNombre.isEmpty()) return true;
-                if ("Particular".equals(c.getTipoCliente())) {
-                    return (c.getNombre() + " " + c.getApellidos()).toLowerCase().contains(filtroNombre);
-                } else { // Empresa
-                    return c.getRazonSocial().toLowerCase().contains(filtroNombre);
-                }
-            })
-            .collect(Collectors.toList());
+        mostrarClientes(buscarClientes(formularioBuscarClienteController.getCriteriosBusqueda()));
+    }
 
-        clienteTablaController.setItems(filtrados);
+    /**
+     * Consulta los clientes que cumplen los criterios de búsqueda.
+     * No toca la interfaz, así que puede ejecutarse fuera del hilo de JavaFX.
+     * @param criterios Criterios del formulario de búsqueda (id, nombre y cifnif).
+     * @return Los clientes encontrados.
+     */
+    public List<Cliente> buscarClientes(Map<String, String> criterios) {
+        return clienteBusqueda.buscarPorCriterios(criterios, listadoCompleto);
+    }
+
+    /**
+     * Muestra en la tabla el resultado de {@link #buscarClientes(Map)}.
+     * @param clientes Clientes a mostrar.
+     */
+    public void mostrarClientes(List<Cliente> clientes) {
+        clienteTablaController.setItems(clientes);
     }
 
     /**
@@ -142,6 +158,16 @@ public class VentaFinalizarController implements Initializable {
         recalcularTotales();
     }
 
+    /**
+     * La vista es de un solo uso: al salir de ella se sueltan la búsqueda de clientes y
+     * los listeners puestos en los descuentos.
+     */
+    @Override
+    public void desechar() {
+        formularioBuscarClienteController.desvincular();
+        descuentoTablaController.desechar();
+    }
+
     /**
      * Se ejecuta cuando se selecciona un cliente en la tabla.
      * @param cliente El cliente seleccionado.
@@ -183,12 +209,18 @@ public class VentaFinalizarController implements Initializable {
     }
 
     /**
-     * Finaliza la venta, guarda los datos en la base de datos y genera la factura en PDF.
+     * Finaliza la venta, guarda los datos en la base de datos y encarga la factura en PDF
+     * a {@link FacturaService}, que la genera y la abre sin bloquear la interfaz.
+     * Si alguna línea ya no tiene stock suficiente la venta no se guarda y se informa
+     * de cada línea afectada.
      */
     @FXML
     public void finalizarVenta() {
+        // Cada paso emite un EventoPasoVenta de JFR para ver en qué se va el tiempo de caja
+        EventoPasoVenta validar = iniciarPaso();
         Cliente clienteSeleccionado = clienteTablaController.getClienteSeleccionado();
         if (clienteSeleccionado == null) {
+            terminarPaso(validar, EventoPasoVenta.VALIDAR, null, "sin cliente");
             Alerta.mostrarAlerta(Alert.AlertType.WARNING, "Advertencia", null, "Debe seleccionar un cliente.");
             return;
         }
@@ -204,22 +236,80 @@ public class VentaFinalizarController implements Initializable {
                 LocalDate.now(),
                 totalFinal
         );
+        terminarPaso(validar, EventoPasoVenta.VALIDAR, nuevaVenta, "ok");
 
         try {
-            ventaDAO.guardarVenta(nuevaVenta);
-            Alerta.mostrarAlertaTemporal(Alert.AlertType.INFORMATION, "Éxito", "Venta guardada correctamente.", null);
-            
-            // Generar y mostrar factura
-            FacturaPDFGenerator.generateInvoicePDF(nuevaVenta, FacturaPDFGenerator.getInvoiceFilePath());
-            File pdfFile = new File(FacturaPDFGenerator.getInvoiceFilePath());
-            if (pdfFile.exists()) {
-                Desktop.getDesktop().open(pdfFile);
+            EventoPasoVenta guardar = iniciarPaso();
+            ResultadoVenta resultado = ventaDAO.registrarVenta(nuevaVenta);
+            if (resultado.hayFaltas()) {
+                terminarPaso(guardar, EventoPasoVenta.GUARDAR, nuevaVenta, "sin stock");
+                String lineas = resultado.getFaltas().stream()
+                        .map(ResultadoVenta.FaltaStock::toString)
+                        .collect(Collectors.joining("\n"));
+                Alerta.mostrarError("Stock insuficiente", "No hay stock suficiente para:\n" + lineas);
+                return;
             }
+            if (!resultado.isExito()) {
+                terminarPaso(guardar, EventoPasoVenta.GUARDAR, nuevaVenta, "error");
+                Alerta.mostrarError("Error al guardar la venta", "No se pudo guardar la venta.");
+                return;
+            }
+            terminarPaso(guardar, EventoPasoVenta.GUARDAR, nuevaVenta, "ok");
+            // Las tablas de productos muestran el stock nuevo sin releer el catálogo
+            catalogoProductos.actualizarStockVendido(nuevaVenta.getDetalleVenta());
+            Alerta.mostrarAlertaTemporal(Alert.AlertType.INFORMATION, "Éxito", "Venta guardada correctamente.", null);
 
+            // La factura se genera en segundo plano: la caja queda libre para la siguiente venta
+            EventoPasoVenta encargar = iniciarPaso();
+            facturaService.generar(nuevaVenta, null).whenComplete((pdfFile, error) -> {
+                if (error != null) {
+                    Platform.runLater(() -> Alerta.mostrarError("Error al generar la factura",
+                            "La venta se guardó, pero no se pudo generar su factura: " + error.getMessage()));
+                } else {
+                    abrirFactura(pdfFile);
+                }
+            });
+            terminarPaso(encargar, EventoPasoVenta.ENCARGAR_FACTURA, nuevaVenta, "ok");
+
+            EventoPasoVenta volver = iniciarPaso();
             mainController.mostrarVentas();
+            terminarPaso(volver, EventoPasoVenta.VOLVER, nuevaVenta, "ok");
         } catch (Exception e) {
             e.printStackTrace();
-            Alerta.mostrarError("Error al guardar o generar factura", e.getMessage());
+            Alerta.mostrarError("Error al guardar la venta", e.getMessage());
+        }
+    }
+
+    private static EventoPasoVenta iniciarPaso() {
+        EventoPasoVenta evento = new EventoPasoVenta();
+        evento.begin();
+        return evento;
+    }
+
+    private void terminarPaso(EventoPasoVenta evento, String paso, Venta venta, String resultado) {
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.paso = paso;
+            evento.ventaId = venta != null && venta.getId() != null ? venta.getId() : 0;
+            evento.lineas = cestaItems != null ? cestaItems.size() : 0;
+            evento.resultado = resultado;
+            evento.commit();
+        }
+    }
+
+    /**
+     * Abre la factura con la aplicación predeterminada del sistema.
+     * Se llama desde el hilo del servicio de facturas, no desde el de JavaFX.
+     * @param pdfFile El PDF generado.
+     */
+    private void abrirFactura(File pdfFile) {
+        try {
+            if (pdfFile.exists()) {
+                Desktop.getDesktop().open(pdfFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            Platform.runLater(() -> Alerta.mostrarError("Error al abrir la factura", e.getMessage()));
         }
     }
 
@@ -0,0 +1,19 @@
+package com.erp.controller;
+
+/**
+ * Controlador de una vista que {@link RegistroVistas} guarda en caché y vuelve a mostrar
+ * sin cargar de nuevo su FXML.
+ * <p>
+ * Como la vista ya no pasa por {@code initialize()} cada vez que se abre, el registro llama
+ * a {@link #refrescar()} al devolverla para que recargue los datos que pueden haber cambiado
+ * mientras estaba oculta y deje la interfaz en su estado inicial.
+ *
+ * @author Noé
+ */
+public interface VistaRefrescable {
+
+    /**
+     * Pone al día la vista antes de volver a mostrarla. Se llama en el hilo de JavaFX.
+     */
+    void refrescar();
+}
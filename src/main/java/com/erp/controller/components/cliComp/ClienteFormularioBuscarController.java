@@ -1,10 +1,17 @@
 package com.erp.controller.components.cliComp;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import com.erp.controller.ClienteController;
 import com.erp.controller.VentaFinalizarController;
+import com.erp.model.Cliente;
+import com.erp.utils.BusquedaDiferida;
+import com.erp.utils.Suscripciones;
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
@@ -22,6 +29,8 @@ public class ClienteFormularioBuscarController {
 
     private ClienteController clienteController;
     private VentaFinalizarController ventaFinalizarController;
+    private BusquedaDiferida<Map<String, String>, List<Cliente>> busqueda;
+    private final Suscripciones suscripciones = new Suscripciones();
 
     public void setClienteController(ClienteController clienteController) {
         this.clienteController = clienteController;
@@ -41,22 +50,54 @@ public class ClienteFormularioBuscarController {
     }
 
     /**
-     * Vincula los listeners de los campos de texto al método de filtrado del controlador principal.
+     * Vincula los listeners de los campos de texto a la búsqueda del controlador principal.
      * Debe llamarse después de que el controlador padre haya sido inyectado.
+     * <p>
+     * Las pulsaciones se agrupan y la consulta se ejecuta en segundo plano con una
+     * {@link BusquedaDiferida}; solo el último resultado llega a la tabla.
      */
     public void vincularControlador() {
+        // Volver a vincular no debe duplicar los listeners
+        desvincular();
+        Function<Map<String, String>, List<Cliente>> consulta;
+        Consumer<List<Cliente>> publicar;
         if (this.clienteController != null) {
-            buscarIdClienteField.textProperty().addListener((obs, old, val) -> clienteController.filtrarClientes());
-            buscarNombreClienteField.textProperty().addListener((obs, old, val) -> clienteController.filtrarClientes());
-            buscarCifApellidosClienteField.textProperty().addListener((obs, old, val) -> clienteController.filtrarClientes());
+            consulta = clienteController::buscarClientes;
+            publicar = clienteController::mostrarClientes;
+        } else if (this.ventaFinalizarController != null) {
+            consulta = ventaFinalizarController::buscarClientes;
+            publicar = ventaFinalizarController::mostrarClientes;
+        } else {
+            return;
         }
-        if (this.ventaFinalizarController != null) {
-            buscarIdClienteField.textProperty().addListener((obs, old, val) -> ventaFinalizarController.filtrarClientes());
-            buscarNombreClienteField.textProperty().addListener((obs, old, val) -> ventaFinalizarController.filtrarClientes());
-            buscarCifApellidosClienteField.textProperty().addListener((obs, old, val) -> ventaFinalizarController.filtrarClientes());
+        busqueda = new BusquedaDiferida<>(consulta, publicar);
+
+        // Los criterios se copian aquí, en el hilo de JavaFX, antes de pasar al hilo de trabajo.
+        ChangeListener<String> alCambiar = (obs, old, val) -> busqueda.solicitar(getCriteriosBusqueda());
+        suscripciones.escuchar(buscarIdClienteField.textProperty(), alCambiar);
+        suscripciones.escuchar(buscarNombreClienteField.textProperty(), alCambiar);
+        suscripciones.escuchar(buscarCifApellidosClienteField.textProperty(), alCambiar);
+    }
+
+    /**
+     * Descarta la búsqueda pendiente, si la hay, sin tocar los listeners.
+     * Se usa al ocultar la vista para que no publique resultados en una tabla que no se ve.
+     */
+    public void cancelarBusqueda() {
+        if (busqueda != null) {
+            busqueda.cancelar();
         }
     }
 
+    /**
+     * Quita los listeners añadidos en {@link #vincularControlador()} y cancela la búsqueda pendiente.
+     */
+    public void desvincular() {
+        cancelarBusqueda();
+        suscripciones.cancelarTodas();
+        busqueda = null;
+    }
+
     /**
      * Recopila los criterios de búsqueda de los campos de texto.
      * @return Un mapa con los criterios de búsqueda.
@@ -1,10 +1,11 @@
 package com.erp.controller.components.cliComp;
 
-import com.erp.dao.ClienteDAO;
 import com.erp.model.Cliente;
+import com.erp.service.ClienteBusquedaService;
+import com.erp.utils.BusquedaDiferida;
+import com.erp.utils.LazyPagedList;
+import com.erp.utils.OrdenacionPaginada;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Button;
@@ -17,6 +18,7 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 
 public class ClienteSeleccionDialogoController implements Initializable {
@@ -40,39 +42,33 @@ public class ClienteSeleccionDialogoController implements Initializable {
 
     private Stage dialogStage;
     private Cliente selectedClient;
-    private ClienteDAO clienteDAO;
-    private ObservableList<Cliente> masterData = FXCollections.observableArrayList();
-    private FilteredList<Cliente> filteredData;
+    private ClienteBusquedaService clienteBusqueda;
+    private LazyPagedList<Cliente> listadoCompleto;
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
-        clienteDAO = new ClienteDAO();
+        if (clienteBusqueda == null) {
+            clienteBusqueda = new ClienteBusquedaService();
+        }
 
         columnaNombre.setCellValueFactory(new PropertyValueFactory<>("nombre"));
         columnaNIF.setCellValueFactory(new PropertyValueFactory<>("cifnif"));
         columnaEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
         columnaTelefono.setCellValueFactory(new PropertyValueFactory<>("telefono"));
 
-        // Load all clients
-        masterData.addAll(clienteDAO.listarClientes());
-        filteredData = new FilteredList<>(masterData, p -> true); // Initially display all clients
-        tablaClientes.setItems(filteredData);
-
-        // Add listener for search field
-        campoBusquedaCliente.textProperty().addListener((observable, oldValue, newValue) -> {
-            filteredData.setPredicate(cliente -> {
-                if (newValue == null || newValue.isEmpty()) {
-                    return true; // Display all clients if search field is empty
-                }
-                String lowerCaseFilter = newValue.toLowerCase();
-                if (cliente.getNombre().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                } else if (cliente.getCifnif().toLowerCase().contains(lowerCaseFilter)) {
-                    return true;
-                }
-                return false; // No match
-            });
-        });
+        // The full listing is paged, so it can't be sorted in memory; search results can
+        tablaClientes.setSortPolicy(OrdenacionPaginada::ordenar);
+
+        // Full listing, read page by page as the table scrolls; the search runs against the client index in the database
+        listadoCompleto = clienteBusqueda.listarTodos();
+        mostrarClientes(listadoCompleto);
+
+        // Search in the background, coalescing keystrokes; only the latest result reaches the table.
+        // Clearing the search brings back the same listing, with the pages already read
+        BusquedaDiferida<String, List<Cliente>> busqueda = new BusquedaDiferida<>(
+                texto -> clienteBusqueda.buscar(texto, listadoCompleto),
+                this::mostrarClientes);
+        campoBusquedaCliente.textProperty().addListener((observable, oldValue, newValue) -> busqueda.solicitar(newValue));
     }
 
     public void setDialogStage(Stage dialogStage) {
@@ -108,4 +104,14 @@ public class ClienteSeleccionDialogoController implements Initializable {
         selectedClient = null; // No client selected
         dialogStage.close();
     }
-}
\ No newline at end of file
+
+    private void mostrarClientes(List<Cliente> clientes) {
+        // The paged listing is shown as is; copying it would read every page
+        if (clientes instanceof LazyPagedList<Cliente> listado) {
+            tablaClientes.getSortOrder().clear();
+            tablaClientes.setItems(listado);
+        } else {
+            tablaClientes.setItems(FXCollections.observableArrayList(clientes));
+        }
+    }
+}
@@ -5,6 +5,8 @@ import java.util.List;
 import com.erp.controller.ClienteController;
 import com.erp.model.Cliente;
 import com.erp.utils.AnimationUtils;
+import com.erp.utils.LazyPagedList;
+import com.erp.utils.OrdenacionPaginada;
 
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -53,6 +55,9 @@ public class ClienteTablaController {
     public void initialize() {
         configurarColumnasTabla();
 
+        // El listado completo es una lista paginada: ordenarla en memoria leería todas sus páginas
+        tablaCliente.setSortPolicy(OrdenacionPaginada::ordenar);
+
         // Listener para notificar al controlador principal sobre cambios en la selección
         tablaCliente.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (clienteController != null) {
@@ -120,8 +125,22 @@ public class ClienteTablaController {
         clienteController.verDescuentos();
     }
 
+    /**
+     * Muestra una lista de clientes. El listado completo ({@link LazyPagedList}) se muestra
+     * tal cual, sin copiarlo, para que sus páginas se lean solo al desplazarse, y con las
+     * columnas sin ordenación; un resultado de búsqueda se copia y se puede ordenar.
+     *
+     * @param clientes Clientes a mostrar.
+     */
     public void setItems(List<Cliente> clientes) {
-        tablaCliente.setItems(FXCollections.observableArrayList(clientes));
+        if (clientes instanceof LazyPagedList<Cliente> listado) {
+            setColumnasOrdenables(false);
+            tablaCliente.getSortOrder().clear();
+            tablaCliente.setItems(listado);
+        } else {
+            setColumnasOrdenables(true);
+            tablaCliente.setItems(FXCollections.observableArrayList(clientes));
+        }
     }
 
     public Cliente getClienteSeleccionado() {
@@ -142,4 +161,11 @@ public class ClienteTablaController {
         accionesCliente.setVisible(visible);
         accionesCliente.setManaged(visible);
     }
+
+    // --- Métodos privados de utilidad ---
+
+    private void setColumnasOrdenables(boolean ordenables) {
+        OrdenacionPaginada.setColumnasOrdenables(ordenables, colIdCliente, colNombreApellidos, colRazonContacto,
+                colTelefonoEmail, colDireccion, colCifNif);
+    }
 }
@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 
 import com.erp.controller.MainController;
 import com.erp.model.Descuento;
+import com.erp.utils.Suscripciones;
 
 import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
@@ -37,6 +38,7 @@ public class DescuentoTablaController implements Initializable {
     private TableColumn<Descuento, Boolean> columnaEstado;
 
     private ChangeListener<Boolean> selectionChangeListener;
+    private final Suscripciones suscripciones = new Suscripciones();
 
     @Override
     public void initialize(URL url, ResourceBundle rb) {
@@ -99,20 +101,8 @@ public class DescuentoTablaController implements Initializable {
     }
 
     public void setDescuentos(List<Descuento> descuentos) {
-        // Limpiar listeners antiguos para evitar fugas de memoria
-        for (Descuento d : tablaDescuentos.getItems()) {
-            if (selectionChangeListener != null) {
-                d.seleccionadoProperty().removeListener(selectionChangeListener);
-            }
-        }
-        // Añadir nuevos items
         tablaDescuentos.getItems().setAll(descuentos);
-        // Añadir nuevos listeners
-        for (Descuento d : descuentos) {
-             if (selectionChangeListener != null) {
-                d.seleccionadoProperty().addListener(selectionChangeListener);
-            }
-        }
+        escucharSeleccion();
     }
 
     public List<Descuento> getDescuentosSeleccionados() {
@@ -127,13 +117,17 @@ public class DescuentoTablaController implements Initializable {
                 action.run();
             }
         };
-        // Aplicar el listener a los items ya existentes
-        for (Descuento d : tablaDescuentos.getItems()) {
-            d.seleccionadoProperty().removeListener(this.selectionChangeListener); // Evitar duplicados
-            d.seleccionadoProperty().addListener(this.selectionChangeListener);
-        }
+        escucharSeleccion();
     }
-    
+
+    /**
+     * Quita los listeners puestos en los descuentos. Se llama al desechar la vista que
+     * contiene la tabla.
+     */
+    public void desechar() {
+        suscripciones.cancelarTodas();
+    }
+
     public TableView<Descuento> getTablaDescuentos() {
         return tablaDescuentos;
     }
@@ -141,4 +135,21 @@ public class DescuentoTablaController implements Initializable {
     public Descuento getSelectedDescuento() {
         return tablaDescuentos.getSelectionModel().getSelectedItem();
     }
-}
\ No newline at end of file
+
+    // --- Métodos privados de utilidad ---
+
+    /**
+     * Pone el listener de selección en los descuentos de la tabla, quitando antes los anteriores.
+     * Los descuentos son objetos del modelo que pueden vivir más que esta tabla, así que el
+     * listener es débil: aunque no se llame a {@link #desechar()}, no retienen al controlador.
+     */
+    private void escucharSeleccion() {
+        suscripciones.cancelarTodas();
+        if (selectionChangeListener == null) {
+            return;
+        }
+        for (Descuento d : tablaDescuentos.getItems()) {
+            suscripciones.escucharDebil(d.seleccionadoProperty(), selectionChangeListener);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.erp.controller.components.prodComp;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import com.erp.controller.ProductoController;
 import com.erp.controller.VentaController;
+import com.erp.model.Producto;
+import com.erp.utils.BusquedaDiferida;
+import com.erp.utils.Suscripciones;
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.TextField;
 
@@ -24,6 +31,8 @@ public class ProductoFormularioBuscarController {
 
     private ProductoController productoController;
     private VentaController ventaController;
+    private BusquedaDiferida<Map<String, String>, List<Producto>> busqueda;
+    private final Suscripciones suscripciones = new Suscripciones();
 
     public void setProductoController(ProductoController productoController) {
         this.productoController = productoController;
@@ -39,19 +48,52 @@ public class ProductoFormularioBuscarController {
     }
 
     /**
-     * Vincula los listeners de los campos de texto al método de filtrado del controlador principal.
+     * Vincula los listeners de los campos de texto a la búsqueda del controlador principal.
      * Debe llamarse después de que el productoController o ventaController hayan sido inyectados.
+     * <p>
+     * Las pulsaciones se agrupan y la consulta se ejecuta en segundo plano con una
+     * {@link BusquedaDiferida}; solo el último resultado llega a la tabla.
      */
     public void vincularControlador() {
+        // Volver a vincular no debe duplicar los listeners
+        desvincular();
+        Function<Map<String, String>, List<Producto>> consulta;
+        Consumer<List<Producto>> publicar;
         if (productoController != null) {
-            buscarIdProductoField.textProperty().addListener((obs, old, val) -> productoController.filtrarProductos());
-            buscarNombreProductoField.textProperty().addListener((obs, old, val) -> productoController.filtrarProductos());
-            buscarCategoriaProductoField.textProperty().addListener((obs, old, val) -> productoController.filtrarProductos());
+            consulta = productoController::buscarProductos;
+            publicar = productoController::mostrarProductos;
         } else if (ventaController != null) {
-            buscarIdProductoField.textProperty().addListener((obs, old, val) -> ventaController.filtrarProductos());
-            buscarNombreProductoField.textProperty().addListener((obs, old, val) -> ventaController.filtrarProductos());
-            buscarCategoriaProductoField.textProperty().addListener((obs, old, val) -> ventaController.filtrarProductos());
+            consulta = ventaController::buscarProductos;
+            publicar = ventaController::mostrarProductos;
+        } else {
+            return;
         }
+        busqueda = new BusquedaDiferida<>(consulta, publicar);
+
+        // Los criterios se copian aquí, en el hilo de JavaFX, antes de pasar al hilo de trabajo.
+        ChangeListener<String> alCambiar = (obs, old, val) -> busqueda.solicitar(getCriteriosBusqueda());
+        suscripciones.escuchar(buscarIdProductoField.textProperty(), alCambiar);
+        suscripciones.escuchar(buscarNombreProductoField.textProperty(), alCambiar);
+        suscripciones.escuchar(buscarCategoriaProductoField.textProperty(), alCambiar);
+    }
+
+    /**
+     * Descarta la búsqueda pendiente, si la hay, sin tocar los listeners.
+     * Se usa al ocultar la vista para que no publique resultados en una tabla que no se ve.
+     */
+    public void cancelarBusqueda() {
+        if (busqueda != null) {
+            busqueda.cancelar();
+        }
+    }
+
+    /**
+     * Quita los listeners añadidos en {@link #vincularControlador()} y cancela la búsqueda pendiente.
+     */
+    public void desvincular() {
+        cancelarBusqueda();
+        suscripciones.cancelarTodas();
+        busqueda = null;
     }
 
     /**
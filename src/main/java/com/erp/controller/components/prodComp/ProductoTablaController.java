@@ -4,8 +4,12 @@ import java.util.List;
 
 import com.erp.controller.ProductoController;
 import com.erp.model.Producto;
+import com.erp.service.CatalogoProductos;
+import com.erp.utils.LazyPagedList;
+import com.erp.utils.OrdenacionPaginada;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.control.TableColumn;
@@ -43,6 +47,7 @@ public class ProductoTablaController {
     private HBox accionesProducto; // Add this line
 
     private ProductoController productoController;
+    private Runnable cancelarSuscripcion; // Suscripción a los cambios del catálogo, mientras se muestra
 
     public void setProductoController(ProductoController productoController) {
         this.productoController = productoController;
@@ -58,6 +63,10 @@ public class ProductoTablaController {
         colStockProducto.setCellValueFactory(new PropertyValueFactory<>("stock"));
         colDescripcionProducto.setCellValueFactory(new PropertyValueFactory<>("descripcion"));
 
+        // Ordenar en memoria el catálogo paginado leería todas sus páginas en el hilo de JavaFX
+        // (y luego fallaría, porque es de solo lectura): solo se ordenan los resultados de búsqueda.
+        tablaProducto.setSortPolicy(OrdenacionPaginada::ordenar);
+
         // Listener para habilitar/deshabilitar botones
         tablaProducto.getSelectionModel().selectedItemProperty().addListener(
                 (obs, oldSelection, newSelection) -> {
@@ -92,9 +101,43 @@ public class ProductoTablaController {
     }
 
     public void setItems(List<Producto> productos) {
+        setColumnasOrdenables(true);
         tablaProducto.setItems(FXCollections.observableArrayList(productos));
     }
 
+    /**
+     * Muestra el catálogo completo de productos cargándolo por páginas a medida que
+     * la tabla se desplaza, en lugar de leer todos los productos de golpe.
+     * La lista es la misma para todas las tablas y el catálogo la mantiene al día, así
+     * que volver a mostrarla no relee nada.
+     * <p>
+     * La primera llamada suscribe la tabla a los cambios del catálogo, para que un
+     * resultado de búsqueda en pantalla refleje también las modificaciones y bajas.
+     *
+     * @param catalogo Catálogo compartido del que se muestra la lista.
+     */
+    public void mostrarCatalogo(CatalogoProductos catalogo) {
+        if (cancelarSuscripcion == null) {
+            cancelarSuscripcion = catalogo.suscribir(this::aplicarCambio);
+        }
+        LazyPagedList<Producto> productos = catalogo.getProductos();
+        if (tablaProducto.getItems() != productos) {
+            setColumnasOrdenables(false);
+            tablaProducto.getSortOrder().clear();
+            tablaProducto.setItems(productos);
+        }
+    }
+
+    /**
+     * Cancela la suscripción a los cambios del catálogo. Se llama al desechar la vista.
+     */
+    public void desechar() {
+        if (cancelarSuscripcion != null) {
+            cancelarSuscripcion.run();
+            cancelarSuscripcion = null;
+        }
+    }
+
     public Producto getProductoSeleccionado() {
         return tablaProducto.getSelectionModel().getSelectedItem();
     }
@@ -114,4 +157,37 @@ public class ProductoTablaController {
             accionesProducto.setManaged(visible);
         }
     }
+
+    // --- Métodos privados de utilidad ---
+
+    /**
+     * Activa o desactiva la ordenación al pulsar las cabeceras de las columnas.
+     */
+    private void setColumnasOrdenables(boolean ordenables) {
+        OrdenacionPaginada.setColumnasOrdenables(ordenables, colIdProducto, colNombreProducto, colCategoriaProducto,
+                colPrecioProducto, colStockProducto, colDescripcionProducto);
+    }
+
+    /**
+     * Aplica un cambio del catálogo a un resultado de búsqueda en pantalla. La lista del
+     * catálogo ya la ha actualizado el propio catálogo, y las altas no se añaden a una
+     * búsqueda porque no se sabe si cumplen sus criterios.
+     */
+    private void aplicarCambio(CatalogoProductos.Cambio cambio) {
+        ObservableList<Producto> items = tablaProducto.getItems();
+        if (items instanceof LazyPagedList || cambio.getTipo() == CatalogoProductos.TipoCambio.ALTA) {
+            return;
+        }
+        Integer id = cambio.getProducto().getId();
+        for (int i = 0; i < items.size(); i++) {
+            if (id.equals(items.get(i).getId())) {
+                if (cambio.getTipo() == CatalogoProductos.TipoCambio.BAJA) {
+                    items.remove(i);
+                } else {
+                    items.set(i, cambio.getProducto());
+                }
+                return;
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.erp.db.Escritura;
 import com.erp.db.SQLiteConnector;
 import com.erp.model.Cliente;
 
@@ -27,11 +28,8 @@ import com.erp.model.Cliente;
  */
 public class ClienteDAO {
 
-    /**
-     * La conexión a la base de datos. Se mantiene como un campo de instancia para ser
-     * reutilizada por todos los métodos del DAO.
-     */
-    private final Connection conexion;
+    // Condición de los clientes que se pueden mostrar: construirCliente() devuelve null con otro tipo
+    private static final String TIPOS_CONOCIDOS = "tipoCliente IN ('Particular', 'Empresa')";
 
     /**
      * Constructor del DAO.
@@ -39,10 +37,13 @@ public class ClienteDAO {
      * {@link SQLiteConnector} en el momento de su instanciación.
      * Si la conexión falla, lanza una {@code RuntimeException} para detener la ejecución,
      * ya que el DAO no puede funcionar sin una conexión válida.
+     * <p>
+     * Las altas, cambios y bajas usan la conexión de escritura a través de
+     * {@link SQLiteConnector#abrirEscritura()}; las consultas, conexiones de lectura del pool.
      */
     public ClienteDAO() {
         try {
-            this.conexion = SQLiteConnector.connect();
+            SQLiteConnector.connect(); // Solo comprueba que la base de datos está disponible
         } catch (SQLException e) {
             // Si no se puede conectar, es un error crítico. Se lanza una excepción no comprobada.
             throw new RuntimeException("Error fatal: no se pudo conectar con la base de datos.", e);
@@ -77,7 +78,9 @@ public class ClienteDAO {
         }
 
         // Se utiliza un try-with-resources para asegurar que el PreparedStatement se cierre automáticamente.
-        try (PreparedStatement stmt = conexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.guardarClienteDb");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             // Paso 2: Asignar los valores a los parámetros del PreparedStatement.
             stmt.setString(1, cliente.getTipoCliente());
@@ -111,6 +114,8 @@ public class ClienteDAO {
         } catch (SQLException e) {
             System.err.println("Error al guardar el cliente en la base de datos.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return false;
     }
@@ -145,7 +150,9 @@ public class ClienteDAO {
         }
         sql.append(" WHERE id = ?");
 
-        try (PreparedStatement stmt = conexion.prepareStatement(sql.toString())) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.actualizarClienteEnDb");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql.toString())) {
             int paramIndex = 1;
             // Asignar los valores a los parámetros comunes.
             stmt.setString(paramIndex++, cliente.getEmail());
@@ -171,6 +178,8 @@ public class ClienteDAO {
             System.err.println("Error al actualizar el cliente en la base de datos.");
             e.printStackTrace();
             return false;
+        } finally {
+            operacion.terminar();
         }
     }
 
@@ -183,13 +192,17 @@ public class ClienteDAO {
     public boolean eliminarClientePorId(Integer id) {
         String sql = "DELETE FROM clientes WHERE id = ?";
 
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.eliminarClientePorId");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql)) {
             stmt.setInt(1, id);
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error al eliminar el cliente de la base de datos.");
             e.printStackTrace();
             return false;
+        } finally {
+            operacion.terminar();
         }
     }
 
@@ -202,7 +215,9 @@ public class ClienteDAO {
     public Cliente buscarClientePorId(Integer id) {
         String sql = "SELECT * FROM clientes WHERE id = ?";
 
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.buscarClientePorId");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             // Si el ResultSet tiene al menos una fila, construimos el objeto Cliente.
@@ -212,6 +227,8 @@ public class ClienteDAO {
         } catch (SQLException e) {
             System.err.println("Error al buscar el cliente por ID.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return null; // No se encontró el cliente.
     }
@@ -225,8 +242,10 @@ public class ClienteDAO {
         List<Cliente> clientes = new ArrayList<>();
         String sql = "SELECT * FROM clientes ORDER BY id";
 
-        // Se usa un try-with-resources para Statement y ResultSet.
-        try (Statement stmt = conexion.createStatement();
+        // Se usa un try-with-resources para la conexión de lectura, Statement y ResultSet.
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.listarClientes");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             Statement stmt = lectura.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             // Se itera sobre cada fila del resultado.
@@ -237,6 +256,251 @@ public class ClienteDAO {
         } catch (SQLException e) {
             System.err.println("Error al listar los clientes.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return clientes;
+    }
+
+    /**
+     * Devuelve una página de clientes ordenada por ID, usando paginación por clave.
+     * <p>
+     * Solo se materializan {@code tamano} clientes por llamada; para recorrer la tabla
+     * entera se encadenan las páginas con {@link Pagina#getSiguienteCursor()}.
+     * </p>
+     *
+     * @param despuesDeId Cursor: se devuelven clientes con ID mayor que este.
+     *                    Usar {@link Pagina#INICIO} para la primera página.
+     * @param tamano      Número máximo de clientes de la página.
+     * @param conTotal    Si es {@code true}, incluye una estimación del total de clientes.
+     * @return La página solicitada (vacía si hay un error).
+     */
+    public Pagina<Cliente> listarClientesPagina(int despuesDeId, int tamano, boolean conTotal) {
+        Paginacion.validarTamano(tamano);
+        List<Cliente> clientes = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        long total = Pagina.TOTAL_DESCONOCIDO;
+        String sql = "SELECT * FROM clientes WHERE id > ? ORDER BY id LIMIT ?";
+
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.listarClientesPagina");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            stmt.setInt(1, despuesDeId);
+            stmt.setInt(2, tamano + 1); // Una fila extra indica si hay más páginas
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    // Un tipo desconocido da null: no se muestra, pero su ID sigue sirviendo de cursor.
+                    ids.add(rs.getInt("id"));
+                    clientes.add(construirCliente(rs));
+                }
+            }
+            if (conTotal) {
+                total = Paginacion.estimarFilas(lectura, "clientes");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar la página de clientes.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return Paginacion.cerrarPagina(clientes, ids, tamano, total);
+    }
+
+    /**
+     * Obtiene hasta {@code tamano} clientes ordenados por ID con ID mayor que el cursor.
+     * <p>
+     * A diferencia de {@link #listarClientesPagina}, solo tiene en cuenta los clientes de tipo
+     * conocido, igual que {@link #contarClientes()}, para que las posiciones de un listado
+     * paginado coincidan con el recuento.
+     * </p>
+     *
+     * @param despuesDeId Cursor: ID del último cliente ya leído ({@link Pagina#INICIO} para empezar).
+     * @param tamano      Número máximo de clientes.
+     * @return Lista de clientes (vacía si hay un error).
+     */
+    public List<Cliente> listarClientesDespuesDe(int despuesDeId, int tamano) {
+        Paginacion.validarTamano(tamano);
+        String sql = "SELECT * FROM clientes WHERE id > ? AND " + TIPOS_CONOCIDOS + " ORDER BY id LIMIT ?";
+        return listarTramo("dao.clientes.listarClientesDespuesDe", sql, despuesDeId, tamano);
+    }
+
+    /**
+     * Obtiene hasta {@code tamano} clientes ordenados por ID a partir de una posición.
+     * <p>
+     * Es el respaldo de {@link #listarClientesDespuesDe} cuando solo se conoce la posición
+     * (por ejemplo, al arrastrar la barra de desplazamiento). {@code OFFSET} recorre las filas
+     * anteriores, así que para recorridos secuenciales debe preferirse el cursor.
+     * </p>
+     *
+     * @param posicion Índice (desde 0) del primer cliente.
+     * @param tamano   Número máximo de clientes.
+     * @return Lista de clientes (vacía si hay un error).
+     */
+    public List<Cliente> listarClientesDesdePosicion(int posicion, int tamano) {
+        Paginacion.validarTamano(tamano);
+        String sql = "SELECT * FROM clientes WHERE " + TIPOS_CONOCIDOS + " ORDER BY id LIMIT ? OFFSET ?";
+        return listarTramo("dao.clientes.listarClientesDesdePosicion", sql, tamano, Math.max(0, posicion));
+    }
+
+    /**
+     * Cuenta los clientes que muestran los listados (los de tipo Particular o Empresa).
+     *
+     * @return Número de clientes, o 0 si hay un error.
+     */
+    public int contarClientes() {
+        String sql = "SELECT COUNT(*) FROM clientes WHERE " + TIPOS_CONOCIDOS;
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.contarClientes");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             Statement stmt = lectura.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar los clientes.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return 0;
+    }
+
+    /**
+     * Búsqueda de texto completo de clientes en nombre, apellidos, razón social,
+     * CIF/NIF, email y teléfono.
+     * <p>
+     * Usa el índice FTS5 {@code clientes_fts}: cada palabra se busca como prefijo, sin
+     * distinguir mayúsculas ni tildes, y deben aparecer todas. Los resultados se ordenan
+     * por relevancia (BM25). El coste depende de las coincidencias, no del número de clientes.
+     * </p>
+     *
+     * @param texto  Texto introducido por el usuario.
+     * @param limite Número máximo de resultados.
+     * @return Clientes ordenados de más a menos relevante (vacía si no hay palabras que buscar o hay un error).
+     */
+    public List<Cliente> buscar(String texto, int limite) {
+        Paginacion.validarTamano(limite);
+        String consulta = ConsultaFts.construir(null, texto);
+        if (consulta == null) {
+            return new ArrayList<>();
+        }
+        return buscarEnIndice(consulta, null, limite);
+    }
+
+    /**
+     * Busca clientes por los criterios del formulario de búsqueda.
+     * <p>
+     * El nombre se busca a la vez en nombre, apellidos y razón social, de modo que sirve
+     * tanto para particulares como para empresas; el CIF/NIF se busca por prefijo. Ambos
+     * usan el índice de texto completo. El ID se filtra por contenido. Los criterios
+     * vacíos o nulos se ignoran.
+     * </p>
+     *
+     * @param id     Texto que debe contener el ID.
+     * @param nombre Palabras del nombre completo o de la razón social.
+     * @param cifnif Comienzo del CIF/NIF.
+     * @param limite Número máximo de resultados.
+     * @return Lista de clientes (vacía si hay un error).
+     */
+    public List<Cliente> buscarClientesPorCriterios(String id, String nombre, String cifnif, int limite) {
+        Paginacion.validarTamano(limite);
+        String filtroId = (id == null || id.isBlank()) ? null : "%" + id.trim() + "%";
+        String consulta = ConsultaFts.y(
+                ConsultaFts.construir("{nombre apellidos razonSocial}", nombre),
+                ConsultaFts.construir("cifnif", cifnif));
+
+        if (consulta == null) {
+            return filtroId == null ? new ArrayList<>() : buscarPorId(filtroId, limite);
+        }
+        return buscarEnIndice(consulta, filtroId, limite);
+    }
+
+    /**
+     * Ejecuta una consulta sobre el índice FTS5 y devuelve los clientes por relevancia.
+     */
+    private List<Cliente> buscarEnIndice(String consultaFts, String filtroId, int limite) {
+        List<Cliente> clientes = new ArrayList<>();
+        // Pesos BM25 por columna (nombre, apellidos, razonSocial, cifnif, email, telefono).
+        String sql = "SELECT c.* FROM clientes_fts JOIN clientes c ON c.id = clientes_fts.rowid "
+                + "WHERE clientes_fts MATCH ?"
+                + (filtroId != null ? " AND CAST(c.id AS TEXT) LIKE ?" : "")
+                + " ORDER BY bm25(clientes_fts, 10.0, 8.0, 10.0, 5.0, 3.0, 3.0), c.id LIMIT ?";
+
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.buscar");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            int i = 1;
+            stmt.setString(i++, consultaFts);
+            if (filtroId != null) {
+                stmt.setString(i++, filtroId);
+            }
+            stmt.setInt(i, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Cliente cliente = construirCliente(rs);
+                    if (cliente != null) {
+                        clientes.add(cliente);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error en la búsqueda de texto completo de clientes.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return clientes;
+    }
+
+    /**
+     * Busca clientes cuyo ID contenga el patrón LIKE indicado.
+     */
+    private List<Cliente> buscarPorId(String patronId, int limite) {
+        List<Cliente> clientes = new ArrayList<>();
+        String sql = "SELECT * FROM clientes WHERE CAST(id AS TEXT) LIKE ? ORDER BY id LIMIT ?";
+
+        OperacionDao operacion = OperacionDao.iniciar("dao.clientes.buscarPorId");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            stmt.setString(1, patronId);
+            stmt.setInt(2, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Cliente cliente = construirCliente(rs);
+                    if (cliente != null) {
+                        clientes.add(cliente);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al buscar clientes por ID.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return clientes;
+    }
+
+    /**
+     * Ejecuta una consulta de clientes con dos parámetros enteros y construye los clientes.
+     */
+    private List<Cliente> listarTramo(String nombreOperacion, String sql, int primero, int segundo) {
+        List<Cliente> clientes = new ArrayList<>();
+        OperacionDao operacion = OperacionDao.iniciar(nombreOperacion);
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            stmt.setInt(1, primero);
+            stmt.setInt(2, segundo);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    clientes.add(construirCliente(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar los clientes.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return clientes;
     }
@@ -0,0 +1,58 @@
+package com.erp.dao;
+
+/**
+ * Utilidades compartidas por los DAOs para construir expresiones MATCH de FTS5
+ * a partir del texto que escribe el usuario.
+ *
+ * @author Noé
+ */
+final class ConsultaFts {
+
+    private ConsultaFts() {
+        // Clase de utilidades, no instanciable.
+    }
+
+    /**
+     * Convierte el texto escrito por el usuario en una expresión MATCH de FTS5.
+     * <p>
+     * El texto se parte en palabras (letras y dígitos); cada una se entrecomilla para
+     * que no se interprete como operador y se marca como prefijo. Todas deben aparecer.
+     * </p>
+     *
+     * @param columnas Filtro de columnas de FTS5 ({@code "nombre"} o {@code "{nombre apellidos}"}),
+     *                 o {@code null} para buscar en todas.
+     * @param texto    Texto introducido por el usuario.
+     * @return La expresión, o {@code null} si el texto no contiene ninguna palabra.
+     */
+    static String construir(String columnas, String texto) {
+        if (texto == null) {
+            return null;
+        }
+        StringBuilder consulta = new StringBuilder();
+        for (String palabra : texto.split("[^\\p{L}\\p{N}]+")) {
+            if (palabra.isEmpty()) {
+                continue;
+            }
+            if (consulta.length() > 0) {
+                consulta.append(" AND ");
+            }
+            if (columnas != null) {
+                consulta.append(columnas).append(" : ");
+            }
+            consulta.append('"').append(palabra).append("\"*");
+        }
+        return consulta.length() == 0 ? null : consulta.toString();
+    }
+
+    /**
+     * Une dos expresiones con AND, ignorando las que sean {@code null}.
+     *
+     * @return La conjunción, o {@code null} si ambas son {@code null}.
+     */
+    static String y(String a, String b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : a + " AND " + b;
+    }
+}
@@ -8,6 +8,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.erp.db.Escritura;
 import com.erp.db.SQLiteConnector;
 import com.erp.model.Descuento;
 
@@ -24,18 +25,14 @@ import com.erp.model.Descuento;
  */
 public class DescuentoDAO {
 
-    /**
-     * La conexión a la base de datos, obtenida al instanciar el DAO.
-     */
-    private final Connection conexion;
-
     /**
      * Constructor que inicializa el DAO y establece la conexión con la base de datos.
      * Lanza una {@code RuntimeException} si la conexión no puede ser establecida.
+     * Las escrituras piden la conexión con {@link SQLiteConnector#abrirEscritura()}.
      */
     public DescuentoDAO() {
         try {
-            this.conexion = SQLiteConnector.connect();
+            SQLiteConnector.connect(); // Solo comprueba que la base de datos está disponible
         } catch (SQLException e) {
             throw new RuntimeException("Error fatal: no se pudo conectar con la base de datos.", e);
         }
@@ -51,7 +48,9 @@ public class DescuentoDAO {
         // La columna de estado en la BD se llama 'estado', y la de fecha fin 'fechaCaducidad'.
         String sql = "INSERT INTO descuentos(clienteId, descripcion, porcentaje, fechaInicio, fechaCaducidad, estado) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement stmt = conexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.descuentos.guardarDescuentoDb");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, descuento.getClienteId());
             stmt.setString(2, descuento.getDescripcion());
             stmt.setDouble(3, descuento.getPorcentaje());
@@ -76,6 +75,8 @@ public class DescuentoDAO {
             System.err.println("Error al guardar el descuento en la base de datos.");
             e.printStackTrace();
             return false;
+        } finally {
+            operacion.terminar();
         }
     }
 
@@ -89,7 +90,9 @@ public class DescuentoDAO {
         // El ID en la tabla de descuentos se llama 'idDescuento'.
         String sql = "UPDATE descuentos SET clienteId = ?, descripcion = ?, porcentaje = ?, fechaInicio = ?, fechaCaducidad = ?, estado = ? WHERE idDescuento = ?";
 
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.descuentos.actualizarDescuentoDb");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql)) {
             stmt.setInt(1, descuento.getClienteId());
             stmt.setString(2, descuento.getDescripcion());
             stmt.setDouble(3, descuento.getPorcentaje());
@@ -104,6 +107,8 @@ public class DescuentoDAO {
             System.err.println("Error al actualizar el descuento en la base de datos.");
             e.printStackTrace();
             return false;
+        } finally {
+            operacion.terminar();
         }
     }
 
@@ -116,13 +121,17 @@ public class DescuentoDAO {
     public boolean eliminarDescuentoDb(int idDescuento) {
         String sql = "DELETE FROM descuentos WHERE idDescuento = ?";
 
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.descuentos.eliminarDescuentoDb");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql)) {
             stmt.setInt(1, idDescuento);
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error al eliminar el descuento de la base de datos.");
             e.printStackTrace();
             return false;
+        } finally {
+            operacion.terminar();
         }
     }
 
@@ -134,7 +143,9 @@ public class DescuentoDAO {
      */
     public Descuento buscarDescuentoPorId(int idDescuento) {
         String sql = "SELECT * FROM descuentos WHERE idDescuento = ?";
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.descuentos.buscarDescuentoPorId");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
             stmt.setInt(1, idDescuento);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -143,6 +154,8 @@ public class DescuentoDAO {
         } catch (SQLException e) {
             System.err.println("Error al buscar el descuento por ID.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return null;
     }
@@ -155,7 +168,9 @@ public class DescuentoDAO {
     public List<Descuento> listarDescuentos() {
         List<Descuento> descuentos = new ArrayList<>();
         String sql = "SELECT * FROM descuentos";
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.descuentos.listarDescuentos");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 descuentos.add(construirDescuento(rs));
@@ -163,6 +178,8 @@ public class DescuentoDAO {
         } catch (SQLException e) {
             System.err.println("Error al listar los descuentos.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return descuentos;
     }
@@ -176,7 +193,9 @@ public class DescuentoDAO {
     public List<Descuento> listarDescuentosPorCliente(int clienteId) {
         List<Descuento> descuentos = new ArrayList<>();
         String sql = "SELECT * FROM descuentos WHERE clienteId = ?";
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.descuentos.listarDescuentosPorCliente");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+             PreparedStatement stmt = lectura.prepareStatement(sql)) {
             stmt.setInt(1, clienteId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -185,6 +204,8 @@ public class DescuentoDAO {
         } catch (SQLException e) {
             System.err.println("Error al listar los descuentos por cliente.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return descuentos;
     }
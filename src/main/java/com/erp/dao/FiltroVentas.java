@@ -0,0 +1,85 @@
+package com.erp.dao;
+
+import java.time.LocalDate;
+
+/**
+ * Criterios para seleccionar ventas: un rango de fechas (ambos extremos incluidos)
+ * y, opcionalmente, un cliente. Los criterios a {@code null} no filtran.
+ *
+ * <pre>{@code
+ * FiltroVentas marzo = FiltroVentas.entreFechas(LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+ * FiltroVentas deUnCliente = FiltroVentas.deCliente(42);
+ * }</pre>
+ *
+ * @author Noé
+ */
+public class FiltroVentas {
+
+    /** Filtro que acepta todas las ventas. */
+    public static final FiltroVentas TODAS = new FiltroVentas(null, null, null);
+
+    private final LocalDate desde;
+    private final LocalDate hasta;
+    private final Integer clienteId;
+
+    /**
+     * Crea un filtro.
+     *
+     * @param desde     Primera fecha incluida, o {@code null} para no limitar por abajo.
+     * @param hasta     Última fecha incluida, o {@code null} para no limitar por arriba.
+     * @param clienteId ID del cliente, o {@code null} para cualquier cliente.
+     * @throws IllegalArgumentException Si {@code desde} es posterior a {@code hasta}.
+     */
+    public FiltroVentas(LocalDate desde, LocalDate hasta, Integer clienteId) {
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial (" + desde + ") es posterior a la final (" + hasta + ").");
+        }
+        this.desde = desde;
+        this.hasta = hasta;
+        this.clienteId = clienteId;
+    }
+
+    /**
+     * @param desde Primera fecha incluida.
+     * @param hasta Última fecha incluida.
+     * @return Un filtro de las ventas entre esas dos fechas.
+     */
+    public static FiltroVentas entreFechas(LocalDate desde, LocalDate hasta) {
+        return new FiltroVentas(desde, hasta, null);
+    }
+
+    /**
+     * @param clienteId ID del cliente.
+     * @return Un filtro de todas las ventas de ese cliente.
+     */
+    public static FiltroVentas deCliente(int clienteId) {
+        return new FiltroVentas(null, null, clienteId);
+    }
+
+    /**
+     * @return La primera fecha incluida, o {@code null}.
+     */
+    public LocalDate getDesde() {
+        return desde;
+    }
+
+    /**
+     * @return La última fecha incluida, o {@code null}.
+     */
+    public LocalDate getHasta() {
+        return hasta;
+    }
+
+    /**
+     * @return El ID del cliente, o {@code null}.
+     */
+    public Integer getClienteId() {
+        return clienteId;
+    }
+
+    @Override
+    public String toString() {
+        return "ventas" + (desde != null ? " desde " + desde : "") + (hasta != null ? " hasta " + hasta : "")
+                + (clienteId != null ? " del cliente " + clienteId : "");
+    }
+}
@@ -0,0 +1,63 @@
+package com.erp.dao;
+
+import com.erp.metricas.EventoOperacionDao;
+import com.erp.metricas.RegistroMetricas;
+
+/**
+ * Medición de una llamada a un DAO. Al terminar anota la duración en el temporizador
+ * {@code dao.<tabla>.<método>} de {@link RegistroMetricas} y, si se está grabando con Java
+ * Flight Recorder, emite un {@link EventoOperacionDao}.
+ * <p>
+ * Se usa igual en todos los métodos públicos de los DAOs:
+ *
+ * <pre>{@code
+ * OperacionDao operacion = OperacionDao.iniciar("dao.productos.listarProductos");
+ * try (...) {
+ *     ...
+ * } finally {
+ *     operacion.terminar();
+ * }
+ * }</pre>
+ *
+ * @author Noé
+ */
+final class OperacionDao {
+
+    private static final RegistroMetricas METRICAS = RegistroMetricas.getGlobal();
+
+    private final String nombre;
+    private final EventoOperacionDao evento;
+    private final long inicio;
+
+    private OperacionDao(String nombre) {
+        this.nombre = nombre;
+        this.evento = new EventoOperacionDao();
+        evento.begin();
+        this.inicio = System.nanoTime();
+    }
+
+    /**
+     * @param nombre Nombre del temporizador, {@code dao.<tabla>.<método>} (una constante,
+     *               para no construir el texto en cada llamada).
+     * @return La medición en curso.
+     */
+    static OperacionDao iniciar(String nombre) {
+        return new OperacionDao(nombre);
+    }
+
+    /**
+     * Registra la duración desde {@link #iniciar(String)}.
+     */
+    void terminar() {
+        METRICAS.temporizador(nombre).registrarDesde(inicio);
+        evento.end();
+        if (evento.shouldCommit()) {
+            // Solo se trocea el nombre cuando el evento se va a grabar
+            int primerPunto = nombre.indexOf('.');
+            int ultimoPunto = nombre.lastIndexOf('.');
+            evento.tabla = nombre.substring(primerPunto + 1, ultimoPunto);
+            evento.metodo = nombre.substring(ultimoPunto + 1);
+            evento.commit();
+        }
+    }
+}
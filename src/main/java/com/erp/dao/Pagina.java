@@ -0,0 +1,82 @@
+package com.erp.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una consulta paginada por clave (keyset o "seek" pagination).
+ * <p>
+ * En lugar de {@code OFFSET}, que obliga a SQLite a recorrer y descartar todas las filas
+ * anteriores, cada página se pide a partir del último ID recibido: {@code WHERE id > ?
+ * ORDER BY id LIMIT ?}. El coste de cada página es el mismo sin importar lo lejos que
+ * esté del principio, y en memoria solo hay una página cada vez.
+ *
+ * <pre>{@code
+ * Pagina<Producto> pagina = productoDAO.listarProductosPagina(Pagina.INICIO, 200, false);
+ * while (true) {
+ *     procesar(pagina.getElementos());
+ *     if (!pagina.hayMas()) break;
+ *     pagina = productoDAO.listarProductosPagina(pagina.getSiguienteCursor(), 200, false);
+ * }
+ * }</pre>
+ *
+ * @param <T> Tipo de los elementos de la página.
+ * @author Noé
+ */
+public class Pagina<T> {
+
+    /** Cursor para pedir la primera página (los IDs de SQLite empiezan en 1). */
+    public static final int INICIO = 0;
+
+    /** Valor de {@link #getTotalEstimado()} cuando no se pidió el total. */
+    public static final long TOTAL_DESCONOCIDO = -1;
+
+    private final List<T> elementos;
+    private final Integer siguienteCursor;
+    private final long totalEstimado;
+
+    /**
+     * Crea una página.
+     *
+     * @param elementos       Elementos de la página, en orden.
+     * @param siguienteCursor Cursor de la página siguiente, o {@code null} si es la última.
+     * @param totalEstimado   Estimación del total de filas, o {@link #TOTAL_DESCONOCIDO}.
+     */
+    public Pagina(List<T> elementos, Integer siguienteCursor, long totalEstimado) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.siguienteCursor = siguienteCursor;
+        this.totalEstimado = totalEstimado;
+    }
+
+    /**
+     * @return Los elementos de esta página (lista inmodificable).
+     */
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * @return El cursor (último ID de esta página) para pedir la siguiente, o {@code null} si no hay más.
+     */
+    public Integer getSiguienteCursor() {
+        return siguienteCursor;
+    }
+
+    /**
+     * @return {@code true} si existen más filas después de esta página.
+     */
+    public boolean hayMas() {
+        return siguienteCursor != null;
+    }
+
+    /**
+     * Estimación del número total de filas de la tabla. No es exacta: procede de las
+     * estadísticas de {@code ANALYZE} o del mayor ID asignado, para no tener que contar
+     * la tabla entera.
+     *
+     * @return El total estimado, o {@link #TOTAL_DESCONOCIDO} si no se pidió.
+     */
+    public long getTotalEstimado() {
+        return totalEstimado;
+    }
+}
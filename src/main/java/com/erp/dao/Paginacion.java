@@ -0,0 +1,90 @@
+package com.erp.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utilidades compartidas por los DAOs para construir páginas con {@link Pagina}.
+ *
+ * @author Noé
+ */
+final class Paginacion {
+
+    private Paginacion() {
+        // Clase de utilidades, no instanciable.
+    }
+
+    /**
+     * Comprueba que el tamaño de página es válido.
+     *
+     * @param tamano Número de elementos por página.
+     * @throws IllegalArgumentException Si el tamaño no es positivo.
+     */
+    static void validarTamano(int tamano) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que 0.");
+        }
+    }
+
+    /**
+     * Cierra una página a partir de las filas leídas. Las consultas piden
+     * {@code tamano + 1} filas: si llega la fila extra, hay más páginas y se descarta.
+     *
+     * @param filas         Elementos leídos, en orden (como máximo {@code tamano + 1}).
+     *                      Los {@code null} (filas que no se pudieron construir) se omiten.
+     * @param ids           ID de cada fila leída, en el mismo orden que {@code filas}.
+     * @param tamano        Tamaño de página solicitado.
+     * @param totalEstimado Total estimado o {@link Pagina#TOTAL_DESCONOCIDO}.
+     * @return La página construida.
+     */
+    static <T> Pagina<T> cerrarPagina(List<T> filas, List<Integer> ids, int tamano, long totalEstimado) {
+        Integer siguiente = null;
+        int limite = filas.size();
+        if (filas.size() > tamano) {
+            limite = tamano;
+            siguiente = ids.get(tamano - 1);
+        }
+        List<T> elementos = new ArrayList<>(limite);
+        for (int i = 0; i < limite; i++) {
+            if (filas.get(i) != null) {
+                elementos.add(filas.get(i));
+            }
+        }
+        return new Pagina<>(elementos, siguiente, totalEstimado);
+    }
+
+    /**
+     * Estima el número de filas de una tabla sin recorrerla.
+     * <p>
+     * Usa primero las estadísticas de {@code sqlite_stat1} (generadas por {@code ANALYZE})
+     * y, si no existen, el mayor {@code rowid}, que se obtiene del extremo del árbol B.
+     * Con borrados el valor puede quedar por encima del real.
+     *
+     * @param conn  Conexión sobre la que consultar.
+     * @param tabla Nombre de la tabla (constante interna, nunca texto del usuario).
+     * @return El número estimado de filas.
+     * @throws SQLException Si falla la consulta.
+     */
+    static long estimarFilas(Connection conn, String tabla) throws SQLException {
+        String sqlStat = "SELECT stat FROM sqlite_stat1 WHERE tbl = ? ORDER BY idx IS NOT NULL LIMIT 1";
+        try (PreparedStatement stmt = conn.prepareStatement(sqlStat)) {
+            stmt.setString(1, tabla);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getString(1) != null) {
+                    return Long.parseLong(rs.getString(1).split(" ")[0]);
+                }
+            }
+        } catch (SQLException e) {
+            // sqlite_stat1 no existe hasta el primer ANALYZE; se usa el rowid máximo.
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(rowid) FROM " + tabla)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.erp.db.Escritura;
 import com.erp.db.SQLiteConnector;
 import com.erp.model.Producto;
 
@@ -26,22 +27,20 @@ import com.erp.model.Producto;
  */
 public class ProductoDAO {
 
-    /**
-     * La conexión a la base de datos. Se mantiene como un campo de instancia para ser
-     * reutilizada por todos los métodos del DAO.
-     */
-    private final Connection conexion;
-
     /**
      * Constructor del DAO.
      * Se encarga de obtener una conexión a la base de datos a través de la clase
      * {@link SQLiteConnector} en el momento de su instanciación.
      * Si la conexión falla, lanza una {@code RuntimeException} para detener la ejecución,
      * ya que el DAO no puede funcionar sin una conexión válida.
+     * <p>
+     * Los métodos que modifican datos toman la conexión de escritura en cada llamada con
+     * {@link SQLiteConnector#abrirEscritura()}; las consultas usan conexiones de lectura
+     * prestadas por {@link SQLiteConnector#connectReadOnly()}.
      */
     public ProductoDAO() {
         try {
-            this.conexion = SQLiteConnector.connect();
+            SQLiteConnector.connect(); // Solo comprueba que la base de datos está disponible
         } catch (SQLException e) {
             throw new RuntimeException("Error fatal: no se pudo conectar con la base de datos.", e);
         }
@@ -59,7 +58,9 @@ public class ProductoDAO {
      */
     public boolean guardarProductoDb(Producto producto) {
         String sql = "INSERT INTO productos(nombre, descripcion, categoria, precioUnitario, stock) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = conexion.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.guardarProductoDb");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, producto.getNombre());
             stmt.setString(2, producto.getDescripcion());
             stmt.setString(3, producto.getCategoria());
@@ -79,6 +80,8 @@ public class ProductoDAO {
         } catch (SQLException e) {
             System.err.println("Error al guardar el producto en la base de datos.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return false;
     }
@@ -95,7 +98,9 @@ public class ProductoDAO {
      */
     public boolean actualizarProductoEnDb(Producto producto) {
         String sql = "UPDATE productos SET nombre = ?, descripcion = ?, categoria = ?, precioUnitario = ?, stock = ? WHERE id = ?";
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.actualizarProductoEnDb");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql)) {
             stmt.setString(1, producto.getNombre());
             stmt.setString(2, producto.getDescripcion());
             stmt.setString(3, producto.getCategoria());
@@ -107,6 +112,8 @@ public class ProductoDAO {
             System.err.println("Error al actualizar el producto en la base de datos.");
             e.printStackTrace();
             return false;
+        } finally {
+            operacion.terminar();
         }
     }
 
@@ -118,13 +125,17 @@ public class ProductoDAO {
      */
     public boolean eliminarProductoPorId(int id) {
         String sql = "DELETE FROM productos WHERE id = ?";
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.eliminarProductoPorId");
+        try (Escritura escritura = SQLiteConnector.abrirEscritura();
+             PreparedStatement stmt = escritura.getConexion().prepareStatement(sql)) {
             stmt.setInt(1, id);
             return stmt.executeUpdate() > 0;
         } catch (SQLException e) {
             System.err.println("Error al eliminar el producto de la base de datos.");
             e.printStackTrace();
             return false;
+        } finally {
+            operacion.terminar();
         }
     }
 
@@ -136,7 +147,9 @@ public class ProductoDAO {
      */
     public Producto buscarProductoPorId(int id) {
         String sql = "SELECT * FROM productos WHERE id = ?";
-        try (PreparedStatement stmt = conexion.prepareStatement(sql)) {
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.buscarProductoPorId");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+                PreparedStatement stmt = lectura.prepareStatement(sql)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -145,6 +158,8 @@ public class ProductoDAO {
         } catch (SQLException e) {
             System.err.println("Error al buscar el producto por ID.");
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return null;
     }
@@ -157,13 +172,225 @@ public class ProductoDAO {
     public List<Producto> listarProductos() {
         List<Producto> productos = new ArrayList<>();
         String sql = "SELECT * FROM productos";
-        try (Statement stmt = conexion.createStatement();
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.listarProductos");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+                Statement stmt = lectura.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 productos.add(construirProducto(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return productos;
+    }
+
+    /**
+     * Obtiene una página de productos ordenada por ID, usando paginación por clave.
+     * <p>
+     * A diferencia de {@link #listarProductos()}, solo se materializan {@code tamano}
+     * productos, así que la memoria y el tiempo por página no dependen del tamaño del catálogo.
+     * </p>
+     *
+     * @param despuesDeId Cursor: se devuelven productos con ID mayor que este.
+     *                    Usar {@link Pagina#INICIO} para la primera página.
+     * @param tamano      Número máximo de productos de la página.
+     * @param conTotal    Si es {@code true}, incluye una estimación del total de productos.
+     * @return La página solicitada (vacía si hay un error).
+     */
+    public Pagina<Producto> listarProductosPagina(int despuesDeId, int tamano, boolean conTotal) {
+        Paginacion.validarTamano(tamano);
+        List<Producto> productos = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        long total = Pagina.TOTAL_DESCONOCIDO;
+        String sql = "SELECT * FROM productos WHERE id > ? ORDER BY id LIMIT ?";
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.listarProductosPagina");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+                PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            stmt.setInt(1, despuesDeId);
+            stmt.setInt(2, tamano + 1); // Una fila extra indica si hay más páginas
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Producto producto = construirProducto(rs);
+                    ids.add(producto.getId());
+                    productos.add(producto);
+                }
+            }
+            if (conTotal) {
+                total = Paginacion.estimarFilas(lectura, "productos");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar la página de productos.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return Paginacion.cerrarPagina(productos, ids, tamano, total);
+    }
+
+    /**
+     * Obtiene {@code tamano} productos ordenados por ID a partir de una posición.
+     * <p>
+     * Es el respaldo de {@link #listarProductosPagina} cuando solo se conoce la posición
+     * (por ejemplo, al saltar a mitad de la tabla). {@code OFFSET} recorre las filas
+     * anteriores, así que para recorridos secuenciales debe preferirse el cursor.
+     * </p>
+     *
+     * @param posicion Índice (desde 0) del primer producto.
+     * @param tamano   Número máximo de productos.
+     * @return Lista de productos (vacía si hay un error).
+     */
+    public List<Producto> listarProductosDesdePosicion(int posicion, int tamano) {
+        Paginacion.validarTamano(tamano);
+        List<Producto> productos = new ArrayList<>();
+        String sql = "SELECT * FROM productos ORDER BY id LIMIT ? OFFSET ?";
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.listarProductosDesdePosicion");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+                PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            stmt.setInt(1, tamano);
+            stmt.setInt(2, Math.max(0, posicion));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    productos.add(construirProducto(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al listar productos desde la posición " + posicion + ".");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return productos;
+    }
+
+    /**
+     * Cuenta los productos del catálogo.
+     *
+     * @return Número de productos, o 0 si hay un error.
+     */
+    public int contarProductos() {
+        String sql = "SELECT COUNT(*) FROM productos";
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.contarProductos");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+                Statement stmt = lectura.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al contar los productos.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return 0;
+    }
+
+    /**
+     * Búsqueda de texto completo sobre el nombre, la descripción y la categoría.
+     * <p>
+     * Usa el índice FTS5 {@code productos_fts}: cada palabra del texto se trata como
+     * prefijo ("cab" encuentra "Cable"), sin distinguir mayúsculas ni tildes, y deben
+     * aparecer todas. Los resultados se ordenan por relevancia (BM25), pesando más las
+     * coincidencias en el nombre. El coste depende del número de coincidencias, no del
+     * tamaño del catálogo.
+     * </p>
+     *
+     * @param texto  Texto introducido por el usuario.
+     * @param limite Número máximo de resultados.
+     * @return Productos ordenados de más a menos relevante (vacía si no hay palabras que buscar o hay un error).
+     */
+    public List<Producto> buscar(String texto, int limite) {
+        Paginacion.validarTamano(limite);
+        String consulta = ConsultaFts.construir(null, texto);
+        if (consulta == null) {
+            return new ArrayList<>();
+        }
+        return buscarEnIndice(consulta, null, limite);
+    }
+
+    /**
+     * Busca productos por los criterios del formulario de búsqueda.
+     * <p>
+     * El nombre y la categoría se buscan en el índice de texto completo (por prefijo,
+     * sin distinguir mayúsculas ni tildes, ordenado por relevancia). El ID se filtra
+     * por contenido. Los criterios vacíos o nulos se ignoran.
+     * </p>
+     *
+     * @param id        Texto que debe contener el ID.
+     * @param nombre    Palabras que deben aparecer en el nombre.
+     * @param categoria Palabras que deben aparecer en la categoría.
+     * @param limite    Número máximo de resultados.
+     * @return Lista de productos (vacía si hay un error).
+     */
+    public List<Producto> buscarProductosPorCriterios(String id, String nombre, String categoria, int limite) {
+        Paginacion.validarTamano(limite);
+        String filtroId = (id == null || id.isBlank()) ? null : "%" + id.trim() + "%";
+        String consultaNombre = ConsultaFts.construir("nombre", nombre);
+        String consultaCategoria = ConsultaFts.construir("categoria", categoria);
+
+        if (consultaNombre == null && consultaCategoria == null) {
+            return filtroId == null ? new ArrayList<>() : buscarPorId(filtroId, limite);
+        }
+        return buscarEnIndice(ConsultaFts.y(consultaNombre, consultaCategoria), filtroId, limite);
+    }
+
+    /**
+     * Ejecuta una consulta sobre el índice FTS5 y devuelve los productos por relevancia.
+     */
+    private List<Producto> buscarEnIndice(String consultaFts, String filtroId, int limite) {
+        List<Producto> productos = new ArrayList<>();
+        // Pesos BM25 por columna (nombre, descripcion, categoria): el nombre es lo más relevante.
+        String sql = "SELECT p.* FROM productos_fts JOIN productos p ON p.id = productos_fts.rowid "
+                + "WHERE productos_fts MATCH ?"
+                + (filtroId != null ? " AND CAST(p.id AS TEXT) LIKE ?" : "")
+                + " ORDER BY bm25(productos_fts, 10.0, 1.0, 4.0), p.id LIMIT ?";
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.buscar");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+                PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            int i = 1;
+            stmt.setString(i++, consultaFts);
+            if (filtroId != null) {
+                stmt.setString(i++, filtroId);
+            }
+            stmt.setInt(i, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    productos.add(construirProducto(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error en la búsqueda de texto completo de productos.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
+        }
+        return productos;
+    }
+
+    /**
+     * Busca productos cuyo ID contenga el patrón LIKE indicado.
+     */
+    private List<Producto> buscarPorId(String patronId, int limite) {
+        List<Producto> productos = new ArrayList<>();
+        String sql = "SELECT * FROM productos WHERE CAST(id AS TEXT) LIKE ? ORDER BY id LIMIT ?";
+        OperacionDao operacion = OperacionDao.iniciar("dao.productos.buscarPorId");
+        try (Connection lectura = SQLiteConnector.connectReadOnly();
+                PreparedStatement stmt = lectura.prepareStatement(sql)) {
+            stmt.setString(1, patronId);
+            stmt.setInt(2, limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    productos.add(construirProducto(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error al buscar productos por ID.");
+            e.printStackTrace();
+        } finally {
+            operacion.terminar();
         }
         return productos;
     }
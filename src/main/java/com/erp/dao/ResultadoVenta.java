@@ -0,0 +1,107 @@
+package com.erp.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de {@link VentaDAO#registrarVenta(com.erp.model.Venta)}.
+ * <p>
+ * Distingue tres casos: la venta se guardó, la venta se rechazó porque alguna línea
+ * no tenía stock suficiente (con el detalle de cada línea en {@link #getFaltas()}),
+ * o falló por un error de base de datos.
+ *
+ * @author Noé
+ */
+public class ResultadoVenta {
+
+    /**
+     * Línea de la venta que no se pudo reservar por falta de stock.
+     */
+    public static class FaltaStock {
+        private final int productoId;
+        private final String nombreProducto;
+        private final int solicitada;
+        private final int disponible;
+
+        /**
+         * @param productoId     ID del producto.
+         * @param nombreProducto Nombre del producto (para mostrarlo al usuario).
+         * @param solicitada     Cantidad pedida en la línea.
+         * @param disponible     Stock disponible en el momento de la venta (0 si el producto ya no existe).
+         */
+        public FaltaStock(int productoId, String nombreProducto, int solicitada, int disponible) {
+            this.productoId = productoId;
+            this.nombreProducto = nombreProducto;
+            this.solicitada = solicitada;
+            this.disponible = disponible;
+        }
+
+        public int getProductoId() {
+            return productoId;
+        }
+
+        public String getNombreProducto() {
+            return nombreProducto;
+        }
+
+        public int getSolicitada() {
+            return solicitada;
+        }
+
+        public int getDisponible() {
+            return disponible;
+        }
+
+        @Override
+        public String toString() {
+            return nombreProducto + ": pedidas " + solicitada + ", disponibles " + disponible;
+        }
+    }
+
+    private final boolean exito;
+    private final List<FaltaStock> faltas;
+
+    private ResultadoVenta(boolean exito, List<FaltaStock> faltas) {
+        this.exito = exito;
+        this.faltas = Collections.unmodifiableList(faltas);
+    }
+
+    /** @return Un resultado de venta guardada. */
+    public static ResultadoVenta guardada() {
+        return new ResultadoVenta(true, Collections.emptyList());
+    }
+
+    /**
+     * @param faltas Líneas sin stock suficiente (al menos una).
+     * @return Un resultado de venta rechazada por falta de stock.
+     */
+    public static ResultadoVenta sinStock(List<FaltaStock> faltas) {
+        return new ResultadoVenta(false, faltas);
+    }
+
+    /** @return Un resultado de venta fallida por un error de base de datos. */
+    public static ResultadoVenta error() {
+        return new ResultadoVenta(false, Collections.emptyList());
+    }
+
+    /**
+     * @return {@code true} si la venta se guardó y el stock se descontó.
+     */
+    public boolean isExito() {
+        return exito;
+    }
+
+    /**
+     * @return {@code true} si la venta se rechazó por falta de stock.
+     */
+    public boolean hayFaltas() {
+        return !faltas.isEmpty();
+    }
+
+    /**
+     * @return Las líneas sin stock suficiente (vacía si la venta se guardó o falló por otro motivo).
+     */
+    public List<FaltaStock> getFaltas() {
+        return faltas;
+    }
+}
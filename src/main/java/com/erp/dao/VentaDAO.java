@@ -6,10 +6,16 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.erp.db.SQLiteConnector;
+import com.erp.metricas.RegistroMetricas;
 import com.erp.model.Cliente;
 import com.erp.model.Descuento;
 import com.erp.model.DetalleVenta;
@@ -25,49 +31,131 @@ import com.erp.model.Venta;
  */
 public class VentaDAO {
 
+    /** Registro de los contadores de ventas rechazadas; las duraciones las anota {@link OperacionDao}. */
+    private static final RegistroMetricas METRICAS = RegistroMetricas.getGlobal();
+
+    /**
+     * Número máximo de parámetros por cláusula {@code IN (...)}. SQLite limita el número
+     * de variables por sentencia, así que los IDs se consultan en bloques de este tamaño.
+     */
+    private static final int TAMANO_BLOQUE_IN = 500;
+
+    /** Cabeceras de venta junto con los datos de su cliente. */
+    private static final String SQL_CABECERAS = "SELECT v.id, v.fecha, v.total, " +
+            "c.id AS cliente_id, c.nombre AS cliente_nombre, c.apellidos AS cliente_apellidos, " +
+            "c.razonSocial AS cliente_razonSocial, c.personaContacto AS cliente_personaContacto, " +
+            "c.tipoCliente AS cliente_tipoCliente, c.telefono AS cliente_telefono, " +
+            "c.email AS cliente_email, c.direccion AS cliente_direccion, c.cifnif AS cliente_cifnif, " +
+            "c.fechaAlta AS cliente_fechaAlta " +
+            "FROM ventas v JOIN clientes c ON v.cliente_id = c.id";
+
+    /** Líneas de venta con su producto; incluye {@code venta_id} para enlazarlas en memoria. */
+    private static final String SQL_DETALLES = "SELECT dv.id, dv.venta_id, dv.cantidad, dv.precio_unitario, " +
+            "p.id AS producto_id, p.nombre AS producto_nombre, p.descripcion AS producto_descripcion, " +
+            "p.categoria AS producto_categoria, p.precioUnitario AS producto_precio, p.stock AS producto_stock " +
+            "FROM detalles_venta dv JOIN productos p ON dv.producto_id = p.id";
+
+    /** Descuentos aplicados; incluye {@code venta_id} para enlazarlos en memoria. */
+    private static final String SQL_DESCUENTOS = "SELECT d.idDescuento, d.clienteId, d.descripcion, d.porcentaje, " +
+            "d.fechaInicio, d.fechaCaducidad, d.estado, vd.venta_id " +
+            "FROM descuentos d JOIN venta_descuentos vd ON d.idDescuento = vd.descuento_id";
+
     /**
      * Guarda una venta completa en la base de datos dentro de una única transacción.
      * <p>
+     * Equivale a {@link #registrarVenta(Venta)} cuando solo interesa saber si la venta se guardó.
+     * Los dos métodos anotan su duración en el mismo temporizador, {@code dao.ventas.guardarVenta}.
+     *
+     * @param venta El objeto {@link Venta} a persistir.
+     * @return {@code true} si la transacción se completó con éxito, {@code false} si faltó
+     *         stock en alguna línea o hubo un error.
+     */
+    public boolean guardarVenta(Venta venta) {
+        return registrarVenta(venta).isExito();
+    }
+
+    /**
+     * Guarda una venta completa y descuenta su stock dentro de una única transacción.
+     * <p>
      * Este método realiza los siguientes pasos de forma atómica:
      * <ol>
      *   <li>Inicia una transacción (desactiva el auto-commit).</li>
-     *   <li>Inserta la cabecera de la venta en la tabla `ventas`.</li>
-     *   <li>Recupera el ID autogenerado de la nueva venta.</li>
+     *   <li>Descuenta el stock de cada línea con un único {@code UPDATE} condicional
+     *       ({@code ... WHERE id = ? AND stock >= ?}), enviados en un lote. Cada línea se
+     *       comprueba por separado: si alguna no afecta a ninguna fila, no había stock.</li>
+     *   <li>Si falta stock en alguna línea, revierte la transacción y devuelve el informe
+     *       de faltas con el stock disponible de cada una.</li>
+     *   <li>Inserta la cabecera de la venta en la tabla `ventas` y recupera su ID.</li>
      *   <li>Inserta todos los detalles de la venta (productos) en `detalles_venta` usando el ID anterior.</li>
      *   <li>Inserta las referencias a los descuentos aplicados en `venta_descuentos`.</li>
      *   <li>Si todo tiene éxito, confirma la transacción (commit).</li>
      *   <li>Si ocurre cualquier error, revierte todos los cambios (rollback).</li>
      * </ol>
+     * La comprobación y el descuento son la misma sentencia, así que varios terminales pueden
+     * vender a la vez sin leer-modificar-escribir el stock ni vender más de lo que hay.
+     * La transacción se ejecuta sobre la conexión de escritura compartida con el cerrojo
+     * de escritura tomado, y la conexión no se cierra al terminar.
      *
      * @param venta El objeto {@link Venta} a persistir. Debe contener un cliente, fecha, total,
      *              una lista de detalles y, opcionalmente, una lista de descuentos.
-     * @return {@code true} si la transacción se completó con éxito, {@code false} en caso de error.
+     * @return El resultado: guardada, rechazada por falta de stock (con el detalle por línea) o error.
      */
-    public boolean guardarVenta(Venta venta) {
+    public ResultadoVenta registrarVenta(Venta venta) {
+        String sqlStock = "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
         String sqlVenta = "INSERT INTO ventas(cliente_id, fecha, total) VALUES(?, ?, ?)";
         String sqlDetalle = "INSERT INTO detalles_venta(venta_id, producto_id, cantidad, precio_unitario) VALUES(?, ?, ?, ?)";
         String sqlVentaDescuento = "INSERT INTO venta_descuentos(venta_id, descuento_id) VALUES(?, ?)";
 
         Connection conn = null;
+        PreparedStatement pstmtStock = null;
         PreparedStatement pstmtVenta = null;
         PreparedStatement pstmtDetalle = null;
         PreparedStatement pstmtVentaDescuento = null;
         ResultSet rs = null;
-        boolean exito = false;
+        ResultadoVenta resultado = ResultadoVenta.error();
 
+        // La espera por el cerrojo de escritura forma parte de lo que tarda en guardarse la venta
+        OperacionDao operacion = OperacionDao.iniciar("dao.ventas.guardarVenta");
+        ReentrantLock writeLock = SQLiteConnector.getWriteLock();
+        writeLock.lock();
         try {
             conn = SQLiteConnector.connect();
             // 1. Iniciar transacción
             conn.setAutoCommit(false);
 
-            // 2. Insertar la cabecera de la venta
+            // 2. Reservar y descontar el stock de cada línea en un lote
+            List<DetalleVenta> detalles = venta.getDetalleVenta();
+            pstmtStock = conn.prepareStatement(sqlStock);
+            for (DetalleVenta detalle : detalles) {
+                pstmtStock.setInt(1, detalle.getCantidad());
+                pstmtStock.setInt(2, detalle.getProducto().getId());
+                pstmtStock.setInt(3, detalle.getCantidad());
+                pstmtStock.addBatch();
+            }
+            int[] filasStock = pstmtStock.executeBatch();
+
+            // 3. Una línea que no actualizó ninguna fila no tenía stock suficiente
+            List<DetalleVenta> sinStock = new ArrayList<>();
+            for (int i = 0; i < detalles.size(); i++) {
+                if (i >= filasStock.length || filasStock[i] == 0) {
+                    sinStock.add(detalles.get(i));
+                }
+            }
+            if (!sinStock.isEmpty()) {
+                conn.rollback();
+                resultado = ResultadoVenta.sinStock(informarFaltas(conn, sinStock));
+                METRICAS.contador("dao.ventas.guardarVenta.sinStock").incrementar();
+                return resultado;
+            }
+
+            // 4. Insertar la cabecera de la venta
             pstmtVenta = conn.prepareStatement(sqlVenta, Statement.RETURN_GENERATED_KEYS);
             pstmtVenta.setInt(1, venta.getCliente().getId());
             pstmtVenta.setDate(2, Date.valueOf(venta.getFecha())); // Conversión de LocalDate a sql.Date
             pstmtVenta.setDouble(3, venta.getTotal());
             pstmtVenta.executeUpdate();
 
-            // 3. Obtener el ID generado para la venta
+            // 5. Obtener el ID generado para la venta
             rs = pstmtVenta.getGeneratedKeys();
             int ventaId = -1;
             if (rs.next()) {
@@ -78,9 +166,9 @@ public class VentaDAO {
                 throw new SQLException("No se pudo obtener el ID de la venta insertada.");
             }
 
-            // 4. Insertar los detalles de la venta en un lote (batch)
+            // 6. Insertar los detalles de la venta en un lote (batch)
             pstmtDetalle = conn.prepareStatement(sqlDetalle);
-            for (DetalleVenta detalle : venta.getDetalleVenta()) {
+            for (DetalleVenta detalle : detalles) {
                 pstmtDetalle.setInt(1, ventaId);
                 pstmtDetalle.setInt(2, detalle.getProducto().getId());
                 pstmtDetalle.setInt(3, detalle.getCantidad());
@@ -89,7 +177,7 @@ public class VentaDAO {
             }
             pstmtDetalle.executeBatch(); // Ejecutar todas las sentencias del lote
 
-            // 5. Insertar los descuentos asociados (si los hay) en otro lote
+            // 7. Insertar los descuentos asociados (si los hay) en otro lote
             if (venta.getDescuentos() != null && !venta.getDescuentos().isEmpty()) {
                 pstmtVentaDescuento = conn.prepareStatement(sqlVentaDescuento);
                 for (Descuento descuento : venta.getDescuentos()) {
@@ -100,15 +188,16 @@ public class VentaDAO {
                 pstmtVentaDescuento.executeBatch();
             }
 
-            // 6. Si todo fue bien, confirmar la transacción
+            // 8. Si todo fue bien, confirmar la transacción
             conn.commit();
-            exito = true;
+            resultado = ResultadoVenta.guardada();
 
         } catch (SQLException e) {
             System.err.println("Error al guardar la venta: " + e.getMessage());
+            METRICAS.contador("dao.ventas.guardarVenta.errores").incrementar();
             if (conn != null) {
                 try {
-                    // 7. Si algo falló, revertir todos los cambios
+                    // 9. Si algo falló, revertir todos los cambios
                     conn.rollback();
                     System.err.println("Transacción de venta revertida.");
                 } catch (SQLException ex) {
@@ -116,125 +205,317 @@ public class VentaDAO {
                 }
             }
         } finally {
-            // 8. Cerrar todos los recursos en el orden inverso a su apertura
+            // 10. Cerrar los recursos en el orden inverso a su apertura.
+            // La conexión de escritura es compartida: solo se restaura el auto-commit.
             try {
                 if (rs != null) rs.close();
+                if (pstmtStock != null) pstmtStock.close();
                 if (pstmtVenta != null) pstmtVenta.close();
                 if (pstmtDetalle != null) pstmtDetalle.close();
                 if (pstmtVentaDescuento != null) pstmtVentaDescuento.close();
                 if (conn != null) {
                     conn.setAutoCommit(true); // Restaurar el modo auto-commit
-                    conn.close();
                 }
             } catch (SQLException e) {
                 System.err.println("Error al cerrar recursos: " + e.getMessage());
+            } finally {
+                writeLock.unlock();
+                operacion.terminar();
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Construye el informe de faltas leyendo el stock actual de las líneas rechazadas.
+     * Se llama tras revertir, así que refleja el stock real y no el de la venta a medias.
+     */
+    private List<ResultadoVenta.FaltaStock> informarFaltas(Connection conn, List<DetalleVenta> sinStock) throws SQLException {
+        List<ResultadoVenta.FaltaStock> faltas = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT stock FROM productos WHERE id = ?")) {
+            for (DetalleVenta detalle : sinStock) {
+                Producto producto = detalle.getProducto();
+                stmt.setInt(1, producto.getId());
+                int disponible = 0; // Un producto borrado no tiene stock
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        disponible = rs.getInt(1);
+                    }
+                }
+                faltas.add(new ResultadoVenta.FaltaStock(producto.getId(), producto.getNombre(),
+                        detalle.getCantidad(), disponible));
             }
         }
-        return exito;
+        return faltas;
     }
 
     /**
      * Recupera todas las ventas de la base de datos.
      * <p>
-     * Para cada venta, este método carga de forma anidada:
+     * Para cada venta, este método carga:
      * <ul>
      *   <li>La información del {@link Cliente} asociado.</li>
      *   <li>La lista de {@link Descuento}s aplicados.</li>
      *   <li>La lista completa de {@link DetalleVenta} con sus respectivos {@link Producto}s.</li>
      * </ul>
-     * Este método puede ser intensivo en consultas si hay un gran número de ventas.
+     * La carga es por conjuntos: se ejecutan siempre tres consultas (cabeceras, líneas y
+     * descuentos) y los resultados se enlazan en una sola pasada, en lugar de lanzar dos
+     * consultas adicionales por cada venta.
      *
      * @return Una lista de objetos {@link Venta} completamente inicializados.
      */
     public List<Venta> obtenerTodasLasVentas() {
-        List<Venta> ventas = new ArrayList<>();
-        String sqlVentas = "SELECT v.id, v.fecha, v.total, " +
-                           "c.id AS cliente_id, c.nombre AS cliente_nombre, c.apellidos AS cliente_apellidos, " +
-                           "c.razonSocial AS cliente_razonSocial, c.personaContacto AS cliente_personaContacto, " +
-                           "c.tipoCliente AS cliente_tipoCliente, c.telefono AS cliente_telefono, " +
-                           "c.email AS cliente_email, c.direccion AS cliente_direccion, c.cifnif AS cliente_cifnif, " +
-                           "c.fechaAlta AS cliente_fechaAlta " +
-                           "FROM ventas v JOIN clientes c ON v.cliente_id = c.id";
-
-        String sqlDescuentos = "SELECT d.idDescuento, d.clienteId, d.descripcion, d.porcentaje, " +
-                               "d.fechaInicio, d.fechaCaducidad, d.estado " +
-                               "FROM descuentos d JOIN venta_descuentos vd ON d.idDescuento = vd.descuento_id " +
-                               "WHERE vd.venta_id = ?";
-
-        // CORRECCIÓN: Añadido p.categoria a la consulta
-        String sqlDetalles = "SELECT dv.id, dv.cantidad, dv.precio_unitario, " +
-                             "p.id AS producto_id, p.nombre AS producto_nombre, p.descripcion AS producto_descripcion, " +
-                             "p.categoria AS producto_categoria, p.precioUnitario AS producto_precio, p.stock AS producto_stock " +
-                             "FROM detalles_venta dv JOIN productos p ON dv.producto_id = p.id " +
-                             "WHERE dv.venta_id = ?";
+        String sqlVentas = SQL_CABECERAS + " ORDER BY v.id";
 
-        Connection conn = null;
-        PreparedStatement pstmtVentas = null, pstmtDescuentos = null, pstmtDetalles = null;
-        ResultSet rsVentas = null, rsDescuentos = null, rsDetalles = null;
-
-        try {
-            conn = SQLiteConnector.connect();
-            pstmtVentas = conn.prepareStatement(sqlVentas);
-            rsVentas = pstmtVentas.executeQuery();
-
-            // Iterar sobre cada registro de venta encontrado
-            while (rsVentas.next()) {
-                // 1. Reconstruir el objeto Cliente a partir de los datos de la venta
-                Cliente cliente = construirClienteDesdeResultSet(rsVentas);
-
-                // 2. Crear el objeto Venta principal (aún sin listas de detalles/descuentos)
-                Venta venta = new Venta(
-                    rsVentas.getInt("id"),
-                    cliente,
-                    new ArrayList<>(), // Inicializar lista de descuentos
-                    new ArrayList<>(), // Inicializar lista de detalles
-                    rsVentas.getDate("fecha").toLocalDate(),
-                    rsVentas.getDouble("total")
-                );
-
-                // 3. Cargar los descuentos para esta venta específica
-                pstmtDescuentos = conn.prepareStatement(sqlDescuentos);
-                pstmtDescuentos.setInt(1, venta.getId());
-                rsDescuentos = pstmtDescuentos.executeQuery();
-                while (rsDescuentos.next()) {
-                    Descuento descuento = construirDescuentoDesdeResultSet(rsDescuentos);
-                    venta.getDescuentos().add(descuento);
+        Map<Integer, Venta> ventasPorId = new LinkedHashMap<>();
+        OperacionDao operacion = OperacionDao.iniciar("dao.ventas.obtenerTodasLasVentas");
+        try (Connection conn = SQLiteConnector.connectReadOnly()) {
+            // 1. Cargar todas las cabeceras con su cliente
+            try (PreparedStatement pstmtVentas = conn.prepareStatement(sqlVentas);
+                 ResultSet rsVentas = pstmtVentas.executeQuery()) {
+                while (rsVentas.next()) {
+                    Venta venta = construirVentaDesdeResultSet(rsVentas);
+                    ventasPorId.put(venta.getId(), venta);
                 }
-                rsDescuentos.close();
-                pstmtDescuentos.close();
-
-                // 4. Cargar los detalles de la venta (productos)
-                pstmtDetalles = conn.prepareStatement(sqlDetalles);
-                pstmtDetalles.setInt(1, venta.getId());
-                rsDetalles = pstmtDetalles.executeQuery();
-                while (rsDetalles.next()) {
-                    DetalleVenta detalle = construirDetalleVentaDesdeResultSet(rsDetalles, venta.getId());
-                    venta.getDetalleVenta().add(detalle);
-                }
-                rsDetalles.close();
-                pstmtDetalles.close();
-
-                // 5. Añadir la venta completamente construida a la lista
-                ventas.add(venta);
             }
+            // 2. y 3. Cargar todas las líneas y todos los descuentos en dos consultas más
+            completarVentas(conn, ventasPorId, true);
         } catch (SQLException e) {
             System.err.println("Error al obtener todas las ventas: " + e.getMessage());
             e.printStackTrace(); // Imprimir el stack trace para más detalles
         } finally {
-            // 6. Cerrar los recursos restantes
-            try {
-                if (rsVentas != null) rsVentas.close();
-                if (rsDescuentos != null) rsDescuentos.close();
-                if (rsDetalles != null) rsDetalles.close();
-                if (pstmtVentas != null) pstmtVentas.close();
-                if (pstmtDescuentos != null) pstmtDescuentos.close();
-                if (pstmtDetalles != null) pstmtDetalles.close();
-                if (conn != null) conn.close();
-            } catch (SQLException e) {
-                System.err.println("Error al cerrar recursos: " + e.getMessage());
+            operacion.terminar();
+        }
+        return new ArrayList<>(ventasPorId.values());
+    }
+
+    /**
+     * Obtiene una página de ventas completas (cliente, detalles y descuentos) ordenada por ID,
+     * usando paginación por clave.
+     * <p>
+     * Primero se leen como máximo {@code tamano} cabeceras y después sus líneas y descuentos
+     * con consultas {@code IN (...)} por bloques, así que la memoria queda acotada por el
+     * tamaño de la página y no por el número total de ventas.
+     *
+     * @param despuesDeId Cursor: se devuelven ventas con ID mayor que este.
+     *                    Usar {@link Pagina#INICIO} para la primera página.
+     * @param tamano      Número máximo de ventas de la página.
+     * @param conTotal    Si es {@code true}, incluye una estimación del total de ventas.
+     * @return La página solicitada (vacía si hay un error).
+     */
+    public Pagina<Venta> obtenerVentasPagina(int despuesDeId, int tamano, boolean conTotal) {
+        return obtenerVentasPagina(FiltroVentas.TODAS, despuesDeId, tamano, conTotal);
+    }
+
+    /**
+     * Obtiene una página de las ventas que cumplen un filtro, ordenada por ID, con la misma
+     * paginación por clave que {@link #obtenerVentasPagina(int, int, boolean)}. Recorriendo
+     * las páginas se pueden procesar miles de ventas sin tenerlas todas en memoria.
+     * <p>
+     * Las fechas se comparan tal y como las guarda {@link #registrarVenta(Venta)} (con
+     * {@code setDate}), así que el filtro por fechas puede usar el índice {@code idx_ventas_fecha}.
+     *
+     * @param filtro      Criterios de las ventas (rango de fechas y/o cliente).
+     * @param despuesDeId Cursor: se devuelven ventas con ID mayor que este.
+     *                    Usar {@link Pagina#INICIO} para la primera página.
+     * @param tamano      Número máximo de ventas de la página.
+     * @return La página solicitada (vacía si hay un error).
+     */
+    public Pagina<Venta> obtenerVentasPagina(FiltroVentas filtro, int despuesDeId, int tamano) {
+        return obtenerVentasPagina(filtro, despuesDeId, tamano, false);
+    }
+
+    /**
+     * Igual que {@link #obtenerVentasPagina(FiltroVentas, int, int)}, pero lanza el error en
+     * lugar de devolver una página vacía, para que un proceso que recorre todas las páginas
+     * no confunda un fallo de la base de datos con el final de los datos.
+     *
+     * @param filtro      Criterios de las ventas (rango de fechas y/o cliente).
+     * @param despuesDeId Cursor: se devuelven ventas con ID mayor que este.
+     *                    Usar {@link Pagina#INICIO} para la primera página.
+     * @param tamano      Número máximo de ventas de la página.
+     * @return La página solicitada.
+     * @throws SQLException Si falla alguna de las consultas.
+     */
+    public Pagina<Venta> leerVentasPagina(FiltroVentas filtro, int despuesDeId, int tamano) throws SQLException {
+        return leerVentasPagina(filtro, despuesDeId, tamano, false);
+    }
+
+    private Pagina<Venta> obtenerVentasPagina(FiltroVentas filtro, int despuesDeId, int tamano, boolean conTotal) {
+        try {
+            return leerVentasPagina(filtro, despuesDeId, tamano, conTotal);
+        } catch (SQLException e) {
+            System.err.println("Error al obtener la página de ventas: " + e.getMessage());
+            e.printStackTrace();
+            return new Pagina<>(new ArrayList<>(), null, Pagina.TOTAL_DESCONOCIDO);
+        }
+    }
+
+    private Pagina<Venta> leerVentasPagina(FiltroVentas filtro, int despuesDeId, int tamano, boolean conTotal)
+            throws SQLException {
+        Paginacion.validarTamano(tamano);
+        StringBuilder sqlVentas = new StringBuilder(SQL_CABECERAS).append(" WHERE v.id > ?");
+        if (filtro.getDesde() != null) {
+            sqlVentas.append(" AND v.fecha >= ?");
+        }
+        if (filtro.getHasta() != null) {
+            sqlVentas.append(" AND v.fecha < ?");
+        }
+        if (filtro.getClienteId() != null) {
+            sqlVentas.append(" AND v.cliente_id = ?");
+        }
+        sqlVentas.append(" ORDER BY v.id LIMIT ?");
+
+        List<Venta> ventas = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        long total = Pagina.TOTAL_DESCONOCIDO;
+        OperacionDao operacion = OperacionDao.iniciar("dao.ventas.obtenerVentasPagina");
+        try (Connection conn = SQLiteConnector.connectReadOnly()) {
+            try (PreparedStatement pstmtVentas = conn.prepareStatement(sqlVentas.toString())) {
+                int parametro = 1;
+                pstmtVentas.setInt(parametro++, despuesDeId);
+                if (filtro.getDesde() != null) {
+                    pstmtVentas.setDate(parametro++, Date.valueOf(filtro.getDesde()));
+                }
+                if (filtro.getHasta() != null) {
+                    // Límite exclusivo: el día siguiente a la última fecha incluida
+                    pstmtVentas.setDate(parametro++, Date.valueOf(filtro.getHasta().plusDays(1)));
+                }
+                if (filtro.getClienteId() != null) {
+                    pstmtVentas.setInt(parametro++, filtro.getClienteId());
+                }
+                pstmtVentas.setInt(parametro, tamano + 1); // Una fila extra indica si hay más páginas
+                try (ResultSet rsVentas = pstmtVentas.executeQuery()) {
+                    while (rsVentas.next()) {
+                        Venta venta = construirVentaDesdeResultSet(rsVentas);
+                        ids.add(venta.getId());
+                        ventas.add(venta);
+                    }
+                }
+            }
+            Pagina<Venta> pagina = Paginacion.cerrarPagina(ventas, ids, tamano, Pagina.TOTAL_DESCONOCIDO);
+            Map<Integer, Venta> ventasPorId = new LinkedHashMap<>();
+            for (Venta venta : pagina.getElementos()) {
+                ventasPorId.put(venta.getId(), venta);
+            }
+            completarVentas(conn, ventasPorId, false);
+            if (conTotal) {
+                total = Paginacion.estimarFilas(conn, "ventas");
+            }
+            return new Pagina<>(pagina.getElementos(), pagina.getSiguienteCursor(), total);
+        } finally {
+            operacion.terminar();
+        }
+    }
+
+    /**
+     * Rellena las listas de detalles y descuentos de las ventas indicadas.
+     * <p>
+     * Si {@code todas} es {@code true} se recorren las tablas completas ordenadas por venta;
+     * si no, se consultan solo los IDs recibidos en bloques de {@link #TAMANO_BLOQUE_IN}
+     * parámetros para no superar el límite de variables de SQLite. En ambos casos el número
+     * de consultas no depende del número de filas de cada venta.
+     *
+     * @param conn        Conexión (de lectura) sobre la que se ejecutan las consultas.
+     * @param ventasPorId Ventas ya construidas, indexadas por su ID.
+     * @param todas       Indica si {@code ventasPorId} contiene todas las ventas de la tabla.
+     * @throws SQLException Si falla alguna de las consultas.
+     */
+    private void completarVentas(Connection conn, Map<Integer, Venta> ventasPorId, boolean todas) throws SQLException {
+        if (ventasPorId.isEmpty()) {
+            return;
+        }
+        if (todas) {
+            cargarDetalles(conn, SQL_DETALLES + " ORDER BY dv.venta_id, dv.id", Collections.emptyList(), ventasPorId);
+            cargarDescuentos(conn, SQL_DESCUENTOS + " ORDER BY vd.venta_id", Collections.emptyList(), ventasPorId);
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(ventasPorId.keySet());
+        for (int desde = 0; desde < ids.size(); desde += TAMANO_BLOQUE_IN) {
+            List<Integer> bloque = ids.subList(desde, Math.min(desde + TAMANO_BLOQUE_IN, ids.size()));
+            String marcadores = String.join(",", Collections.nCopies(bloque.size(), "?"));
+            cargarDetalles(conn, SQL_DETALLES + " WHERE dv.venta_id IN (" + marcadores + ") ORDER BY dv.venta_id, dv.id",
+                    bloque, ventasPorId);
+            cargarDescuentos(conn, SQL_DESCUENTOS + " WHERE vd.venta_id IN (" + marcadores + ") ORDER BY vd.venta_id",
+                    bloque, ventasPorId);
+        }
+    }
+
+    /**
+     * Ejecuta la consulta de líneas indicada y añade cada línea a su venta.
+     */
+    private void cargarDetalles(Connection conn, String sql, List<Integer> ids, Map<Integer, Venta> ventasPorId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Venta venta = ventasPorId.get(rs.getInt("venta_id"));
+                    if (venta != null) {
+                        venta.getDetalleVenta().add(construirDetalleVentaDesdeResultSet(rs, venta.getId()));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ejecuta la consulta de descuentos indicada y añade cada descuento a su venta.
+     */
+    private void cargarDescuentos(Connection conn, String sql, List<Integer> ids, Map<Integer, Venta> ventasPorId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Venta venta = ventasPorId.get(rs.getInt("venta_id"));
+                    if (venta != null) {
+                        venta.getDescuentos().add(construirDescuentoDesdeResultSet(rs));
+                    }
+                }
             }
         }
-        return ventas;
+    }
+
+    /**
+     * Método de utilidad para construir la cabecera de una {@link Venta} (con su cliente y
+     * listas vacías de detalles y descuentos) desde un {@link ResultSet}.
+     * @param rs El ResultSet posicionado en una fila de {@link #SQL_CABECERAS}.
+     * @return Un nuevo objeto Venta.
+     * @throws SQLException Si hay un error al acceder a los datos del ResultSet.
+     */
+    private Venta construirVentaDesdeResultSet(ResultSet rs) throws SQLException {
+        return new Venta(
+            rs.getInt("id"),
+            construirClienteDesdeResultSet(rs),
+            new ArrayList<>(), // Inicializar lista de descuentos
+            new ArrayList<>(), // Inicializar lista de detalles
+            leerFecha(rs, "fecha"),
+            rs.getDouble("total")
+        );
+    }
+
+    /**
+     * Lee una fecha guardada en una columna de texto. {@code ventas.fecha} es {@code TEXT}, así que
+     * los milisegundos que escribe {@code setDate} quedan como texto, y {@link ClienteDAO} guarda
+     * {@code fechaAlta} como texto ISO ({@code yyyy-MM-dd}); {@code getDate} del driver de SQLite
+     * no sabe interpretar ninguno de los dos.
+     * @param rs      El ResultSet posicionado en la fila.
+     * @param columna Nombre de la columna.
+     * @return La fecha, o {@code null} si la columna es nula.
+     * @throws SQLException Si hay un error al acceder a los datos del ResultSet.
+     */
+    private LocalDate leerFecha(ResultSet rs, String columna) throws SQLException {
+        String texto = rs.getString(columna);
+        if (texto == null) {
+            return null;
+        }
+        if (texto.chars().allMatch(Character::isDigit)) {
+            return new Date(Long.parseLong(texto)).toLocalDate();
+        }
+        return LocalDate.parse(texto.substring(0, 10));
     }
 
     /**
@@ -249,14 +530,14 @@ public class VentaDAO {
             return Cliente.crearParticular(
                 rs.getInt("cliente_id"), rs.getString("cliente_email"), rs.getString("cliente_telefono"),
                 rs.getString("cliente_direccion"), rs.getString("cliente_cifnif"),
-                rs.getDate("cliente_fechaAlta") != null ? rs.getDate("cliente_fechaAlta").toLocalDate() : null,
+                leerFecha(rs, "cliente_fechaAlta"),
                 rs.getString("cliente_nombre"), rs.getString("cliente_apellidos")
             );
         } else if ("Empresa".equals(tipoCliente)) {
             return Cliente.crearEmpresa(
                 rs.getInt("cliente_id"), rs.getString("cliente_email"), rs.getString("cliente_telefono"),
                 rs.getString("cliente_direccion"), rs.getString("cliente_cifnif"),
-                rs.getDate("cliente_fechaAlta") != null ? rs.getDate("cliente_fechaAlta").toLocalDate() : null,
+                leerFecha(rs, "cliente_fechaAlta"),
                 rs.getString("cliente_razonSocial"), rs.getString("cliente_personaContacto")
             );
         } else {
@@ -0,0 +1,304 @@
+package com.erp.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gestor de conexiones SQLite de la aplicación.
+ * <p>
+ * SQLite admite un único escritor y varios lectores simultáneos cuando la base de
+ * datos trabaja en modo WAL. Esta clase refleja ese modelo:
+ * <ul>
+ *   <li>Una <b>conexión de escritura</b> compartida y de larga duración. Todo uso de
+ *       ella, incluidas las escrituras sueltas en modo auto-commit, debe hacerse con el
+ *       {@link #getWriteLock() cerrojo de escritura} tomado; lo más sencillo es pedirla
+ *       con {@link #abrirEscritura()}.</li>
+ *   <li>Un <b>pool acotado de conexiones de solo lectura</b>. Se piden con
+ *       {@link #acquireReader()} y se devuelven al pool al llamar a {@code close()},
+ *       por lo que deben usarse en un try-with-resources.</li>
+ * </ul>
+ * Así las búsquedas y los listados pueden ejecutarse mientras una venta se confirma.
+ * <p>
+ * Si se indica un {@link RegistroConsultasLentas}, todas las conexiones se abren envueltas
+ * para que cada sentencia se cronometre y las lentas queden registradas con su plan.
+ *
+ * @author Noé
+ * @see PragmaProfile
+ */
+public class ConnectionManager implements AutoCloseable {
+
+    private final String url;
+    private final int maxLectores;
+    private final int busyTimeoutMs;
+    private final RegistroConsultasLentas consultasLentas;
+
+    // Cerrojo justo para serializar todo uso de la conexión de escritura.
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+
+    // Conexiones de lectura libres y todas las creadas (para poder cerrarlas al final).
+    private final BlockingQueue<Connection> lectoresLibres;
+    private final List<Connection> lectoresCreados = new ArrayList<>();
+
+    private Connection writer;
+    private volatile boolean cerrado = false;
+
+    /**
+     * Crea un gestor para el fichero indicado. Las conexiones se abren de forma perezosa.
+     *
+     * @param rutaDb        ruta al fichero de la base de datos SQLite.
+     * @param maxLectores   número máximo de conexiones de lectura abiertas a la vez.
+     * @param busyTimeoutMs milisegundos de espera ante un bloqueo de SQLite, y también
+     *                      tiempo máximo de espera para obtener un lector libre.
+     */
+    public ConnectionManager(String rutaDb, int maxLectores, int busyTimeoutMs) {
+        this(rutaDb, maxLectores, busyTimeoutMs, null);
+    }
+
+    /**
+     * Crea un gestor cuyas conexiones cronometran cada sentencia.
+     *
+     * @param rutaDb          ruta al fichero de la base de datos SQLite.
+     * @param maxLectores     número máximo de conexiones de lectura abiertas a la vez.
+     * @param busyTimeoutMs   milisegundos de espera ante un bloqueo de SQLite y para obtener un lector.
+     * @param consultasLentas registro que recibe la duración de las sentencias, o {@code null}
+     *                        para no cronometrarlas.
+     */
+    public ConnectionManager(String rutaDb, int maxLectores, int busyTimeoutMs, RegistroConsultasLentas consultasLentas) {
+        if (maxLectores < 1) {
+            throw new IllegalArgumentException("El pool de lectura necesita al menos una conexión.");
+        }
+        this.url = "jdbc:sqlite:" + rutaDb;
+        this.maxLectores = maxLectores;
+        this.busyTimeoutMs = busyTimeoutMs;
+        this.consultasLentas = consultasLentas;
+        this.lectoresLibres = new ArrayBlockingQueue<>(maxLectores);
+    }
+
+    /**
+     * Devuelve la conexión de escritura, abriéndola si es necesario.
+     * <p>
+     * Esta conexión es compartida: <b>no debe cerrarse</b> desde los DAOs.
+     *
+     * @return la conexión única de escritura.
+     * @throws SQLException si no se puede abrir la conexión o el gestor está cerrado.
+     */
+    public synchronized Connection getWriter() throws SQLException {
+        comprobarAbierto();
+        if (writer == null || writer.isClosed()) {
+            writer = cronometrar(PragmaProfile.ESCRITURA.crearConfiguracion(busyTimeoutMs).createConnection(url), "escritura");
+        }
+        return writer;
+    }
+
+    /**
+     * Cerrojo que protege la conexión de escritura. Hay que tomarlo para cualquier uso
+     * de ella, también para una escritura suelta en modo auto-commit: la conexión es
+     * una sola, y si otro hilo tiene abierta una transacción, la escritura entraría en
+     * ella y se desharía con su rollback.
+     *
+     * @return el cerrojo de escritura.
+     */
+    public ReentrantLock getWriteLock() {
+        return writeLock;
+    }
+
+    /**
+     * Toma el cerrojo de escritura y devuelve la conexión de escritura mientras se tenga.
+     * Esperar por el cerrojo puede durar lo que tarde la transacción en curso.
+     *
+     * @return un turno de escritura que hay que cerrar para soltar el cerrojo.
+     * @throws SQLException si no se puede abrir la conexión o el gestor está cerrado;
+     *                      en ese caso el cerrojo no queda tomado.
+     */
+    public Escritura abrirEscritura() throws SQLException {
+        writeLock.lock();
+        try {
+            return new Escritura(getWriter(), writeLock);
+        } catch (SQLException | RuntimeException e) {
+            writeLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene una conexión de solo lectura del pool.
+     * <p>
+     * Si no hay ninguna libre y no se ha alcanzado el máximo, se abre una nueva; en caso
+     * contrario se espera hasta {@code busyTimeoutMs} a que otra se devuelva.
+     * Llamar a {@code close()} sobre la conexión devuelta la reintegra al pool.
+     *
+     * @return una conexión de lectura prestada.
+     * @throws SQLException si no se obtiene una conexión a tiempo o falla su apertura.
+     */
+    public Connection acquireReader() throws SQLException {
+        comprobarAbierto();
+        // El fichero y el diario WAL deben existir antes de abrir conexiones de solo lectura.
+        getWriter();
+
+        Connection fisica = lectoresLibres.poll();
+        if (fisica == null) {
+            fisica = abrirLectorSiHayHueco();
+        }
+        if (fisica == null) {
+            try {
+                fisica = lectoresLibres.poll(busyTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido mientras se esperaba una conexión de lectura.", e);
+            }
+            if (fisica == null) {
+                throw new SQLException("No hay conexiones de lectura libres (máximo " + maxLectores + ").");
+            }
+        }
+        return envolver(fisica);
+    }
+
+    /**
+     * Número de conexiones de lectura abiertas actualmente (libres u ocupadas).
+     *
+     * @return conexiones de lectura creadas.
+     */
+    public synchronized int getLectoresAbiertos() {
+        return lectoresCreados.size();
+    }
+
+    /**
+     * Cierra la conexión de escritura y las de lectura libres.
+     * Las conexiones prestadas en ese momento siguen funcionando y se cierran al devolverse.
+     * <p>
+     * La conexión de escritura se cierra con el {@link #getWriteLock() cerrojo de escritura}
+     * tomado, así que se espera a la escritura en curso. La espera dura como mucho
+     * {@code busyTimeoutMs}: si pasado ese tiempo el cerrojo sigue ocupado, la conexión se
+     * deja abierta (y se avisa) en lugar de cortar la transacción de otro hilo.
+     */
+    @Override
+    public void close() {
+        // El cerrojo se pide fuera del monitor: quien escribe puede necesitar getWriter() para terminar
+        boolean conCerrojo = tomarCerrojoParaCerrar();
+        try {
+            synchronized (this) {
+                cerrado = true;
+                Connection lector;
+                while ((lector = lectoresLibres.poll()) != null) {
+                    lectoresCreados.remove(lector);
+                    cerrarSilenciosamente(lector);
+                }
+                if (writer != null) {
+                    if (conCerrojo) {
+                        cerrarSilenciosamente(writer);
+                    } else {
+                        System.err.println("La conexión de escritura sigue en uso tras " + busyTimeoutMs
+                                + " ms; se deja abierta para no cortar la transacción en curso.");
+                    }
+                    writer = null;
+                }
+            }
+        } finally {
+            if (conCerrojo) {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private boolean tomarCerrojoParaCerrar() {
+        try {
+            return writeLock.tryLock(busyTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private synchronized Connection abrirLectorSiHayHueco() throws SQLException {
+        if (lectoresCreados.size() >= maxLectores) {
+            return null;
+        }
+        Connection nueva = cronometrar(PragmaProfile.LECTURA.crearConfiguracion(busyTimeoutMs).createConnection(url), "lectura");
+        lectoresCreados.add(nueva);
+        return nueva;
+    }
+
+    private Connection cronometrar(Connection fisica, String papel) {
+        return consultasLentas != null ? consultasLentas.envolver(fisica, papel) : fisica;
+    }
+
+    private void devolver(Connection fisica) {
+        try {
+            if (!cerrado && !fisica.getAutoCommit()) {
+                fisica.rollback();
+                fisica.setAutoCommit(true);
+            }
+            // Comprobar y devolver a la vez: si close() llegara en medio, la conexión quedaría abierta en el pool
+            synchronized (this) {
+                if (!cerrado) {
+                    lectoresLibres.offer(fisica);
+                    return;
+                }
+                lectoresCreados.remove(fisica);
+            }
+        } catch (SQLException e) {
+            // Una conexión en mal estado no vuelve al pool; se descarta para que se abra otra.
+            synchronized (this) {
+                lectoresCreados.remove(fisica);
+            }
+        }
+        cerrarSilenciosamente(fisica);
+    }
+
+    private Connection envolver(Connection fisica) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean devuelta = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!devuelta) {
+                            devuelta = true;
+                            devolver(fisica);
+                        }
+                        return null;
+                    case "isClosed":
+                        return devuelta || fisica.isClosed();
+                    default:
+                        if (devuelta) {
+                            throw new SQLException("La conexión de lectura ya fue devuelta al pool.");
+                        }
+                        try {
+                            return method.invoke(fisica, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private void comprobarAbierto() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El gestor de conexiones está cerrado.");
+        }
+    }
+
+    private static void cerrarSilenciosamente(Connection conexion) {
+        try {
+            conexion.close();
+        } catch (SQLException e) {
+            System.err.println("Error al cerrar una conexión: " + e.getMessage());
+        }
+    }
+}
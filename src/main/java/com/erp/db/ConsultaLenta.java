@@ -0,0 +1,88 @@
+package com.erp.db;
+
+import java.time.LocalDateTime;
+
+/**
+ * Una sentencia SQL que superó el umbral de {@link RegistroConsultasLentas}, con lo necesario
+ * para reproducirla y entender por qué tardó: sus parámetros y su plan de ejecución.
+ *
+ * @author Noé
+ */
+public class ConsultaLenta {
+
+    private final LocalDateTime fecha;
+    private final double duracionMs;
+    private final String conexion;
+    private final String hilo;
+    private final String sentencia;
+    private final String parametros;
+    private final int lotes;
+    private final String plan;
+    private final boolean escaneoCompleto;
+
+    /**
+     * @param fecha           Momento en que terminó la sentencia.
+     * @param duracionMs      Duración en milisegundos (ejecución más lectura de las filas).
+     * @param conexion        Papel de la conexión ({@code escritura} o {@code lectura}).
+     * @param hilo            Hilo que la ejecutó.
+     * @param sentencia       SQL tal y como se preparó.
+     * @param parametros      Valores enlazados, en orden (o {@code null} si no tiene).
+     * @param lotes           Número de juegos de parámetros si se ejecutó en lote (1 si no).
+     * @param plan            Salida de {@code EXPLAIN QUERY PLAN}, una línea por paso.
+     * @param escaneoCompleto Si el plan recorre alguna tabla entera sin índice.
+     */
+    public ConsultaLenta(LocalDateTime fecha, double duracionMs, String conexion, String hilo, String sentencia,
+                         String parametros, int lotes, String plan, boolean escaneoCompleto) {
+        this.fecha = fecha;
+        this.duracionMs = duracionMs;
+        this.conexion = conexion;
+        this.hilo = hilo;
+        this.sentencia = sentencia;
+        this.parametros = parametros;
+        this.lotes = lotes;
+        this.plan = plan;
+        this.escaneoCompleto = escaneoCompleto;
+    }
+
+    public LocalDateTime getFecha() {
+        return fecha;
+    }
+
+    public double getDuracionMs() {
+        return duracionMs;
+    }
+
+    public String getConexion() {
+        return conexion;
+    }
+
+    public String getHilo() {
+        return hilo;
+    }
+
+    public String getSentencia() {
+        return sentencia;
+    }
+
+    public String getParametros() {
+        return parametros;
+    }
+
+    public int getLotes() {
+        return lotes;
+    }
+
+    public String getPlan() {
+        return plan;
+    }
+
+    public boolean isEscaneoCompleto() {
+        return escaneoCompleto;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f ms%s: %s %s", duracionMs, escaneoCompleto ? " [ESCANEO COMPLETO]" : "",
+                sentencia, parametros == null ? "" : parametros);
+    }
+}
@@ -0,0 +1,49 @@
+package com.erp.db;
+
+import java.sql.Connection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Turno de uso de la conexión de escritura: mientras está abierto, el hilo que lo pidió
+ * tiene el {@link ConnectionManager#getWriteLock() cerrojo de escritura}. Se pide con
+ * {@link ConnectionManager#abrirEscritura()} (o {@link SQLiteConnector#abrirEscritura()}) y
+ * se cierra en un try-with-resources, que suelta el cerrojo pero no la conexión, que es
+ * compartida:
+ * <pre>
+ * try (Escritura escritura = SQLiteConnector.abrirEscritura();
+ *      PreparedStatement stmt = escritura.getConexion().prepareStatement(sql)) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Noé
+ */
+public final class Escritura implements AutoCloseable {
+
+    private final Connection conexion;
+    private final ReentrantLock cerrojo;
+    private boolean cerrada = false;
+
+    Escritura(Connection conexion, ReentrantLock cerrojo) {
+        this.conexion = conexion;
+        this.cerrojo = cerrojo;
+    }
+
+    /**
+     * @return la conexión de escritura compartida. No debe cerrarse ni usarse tras cerrar el turno.
+     */
+    public Connection getConexion() {
+        return conexion;
+    }
+
+    /**
+     * Suelta el cerrojo de escritura. Llamarlo más de una vez no tiene efecto.
+     */
+    @Override
+    public void close() {
+        if (!cerrada) {
+            cerrada = true;
+            cerrojo.unlock();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.erp.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Un paso versionado de la evolución del esquema de la base de datos.
+ * <p>
+ * Cada migración tiene un número de versión único y creciente, una descripción
+ * y la lista de sentencias SQL que lleva el esquema desde la versión anterior
+ * hasta la suya. El {@link SchemaMigrator} se encarga de aplicarlas en orden y
+ * dentro de una transacción.
+ *
+ * @author Noé
+ * @see SchemaMigrator
+ * @see SchemaMigrations
+ */
+public class Migration {
+
+    private final int version;
+    private final String descripcion;
+    private final List<String> sentencias;
+
+    /**
+     * Crea una migración.
+     *
+     * @param version     Versión del esquema tras aplicar la migración (mayor que 0).
+     * @param descripcion Texto breve que explica el cambio.
+     * @param sentencias  Sentencias SQL que se ejecutan en el orden indicado.
+     */
+    public Migration(int version, String descripcion, String... sentencias) {
+        if (version < 1) {
+            throw new IllegalArgumentException("La versión de una migración debe ser mayor que 0.");
+        }
+        this.version = version;
+        this.descripcion = descripcion;
+        this.sentencias = Collections.unmodifiableList(Arrays.asList(sentencias));
+    }
+
+    /**
+     * Ejecuta las sentencias de la migración sobre la conexión indicada.
+     * No gestiona la transacción; eso es responsabilidad del {@link SchemaMigrator}.
+     *
+     * @param conn Conexión de escritura.
+     * @throws SQLException Si falla alguna sentencia.
+     */
+    public void aplicar(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : sentencias) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    public List<String> getSentencias() {
+        return sentencias;
+    }
+}
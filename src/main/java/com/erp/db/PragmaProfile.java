@@ -0,0 +1,73 @@
+package com.erp.db;
+
+import org.sqlite.SQLiteConfig;
+
+/**
+ * Perfiles de configuración (PRAGMAs) que se aplican a cada conexión SQLite
+ * según el papel que cumple dentro del {@link ConnectionManager}.
+ * <p>
+ * La conexión de escritura es única y trabaja con el diario WAL; las conexiones
+ * de lectura son de solo lectura y pueden tener una caché y un mapeo en memoria
+ * más generosos, ya que solo recorren páginas.
+ *
+ * @author Noé
+ */
+public enum PragmaProfile {
+
+    /** Perfil de la conexión única de escritura. */
+    ESCRITURA(-16_000, 64L * 1024 * 1024, SQLiteConfig.SynchronousMode.NORMAL, false),
+
+    /** Perfil de las conexiones del pool de lectura. */
+    LECTURA(-8_000, 256L * 1024 * 1024, SQLiteConfig.SynchronousMode.NORMAL, true);
+
+    // Tamaño de la caché de páginas. Un valor negativo indica KiB (-16000 = ~16 MB).
+    private final int cacheSize;
+    // Bytes del fichero que SQLite puede mapear en memoria (0 lo desactiva).
+    private final long mmapSize;
+    // Nivel de sincronización con disco. NORMAL es seguro en modo WAL.
+    private final SQLiteConfig.SynchronousMode synchronous;
+    private final boolean soloLectura;
+
+    PragmaProfile(int cacheSize, long mmapSize, SQLiteConfig.SynchronousMode synchronous, boolean soloLectura) {
+        this.cacheSize = cacheSize;
+        this.mmapSize = mmapSize;
+        this.synchronous = synchronous;
+        this.soloLectura = soloLectura;
+    }
+
+    /**
+     * Construye la configuración del driver para este perfil.
+     *
+     * @param busyTimeoutMs milisegundos que una conexión espera a que se libere un bloqueo.
+     * @return configuración lista para abrir la conexión.
+     */
+    public SQLiteConfig crearConfiguracion(int busyTimeoutMs) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setBusyTimeout(busyTimeoutMs);
+        config.setCacheSize(cacheSize);
+        config.setSynchronous(synchronous);
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, String.valueOf(mmapSize));
+        if (soloLectura) {
+            config.setReadOnly(true);
+        } else {
+            config.setJournalMode(SQLiteConfig.JournalMode.WAL);
+        }
+        return config;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public long getMmapSize() {
+        return mmapSize;
+    }
+
+    public SQLiteConfig.SynchronousMode getSynchronous() {
+        return synchronous;
+    }
+
+    public boolean isSoloLectura() {
+        return soloLectura;
+    }
+}
@@ -0,0 +1,337 @@
+package com.erp.db;
+
+import com.erp.metricas.Contador;
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de consultas lentas: recibe la duración de cada sentencia que pasa por las
+ * conexiones de {@link ConnectionManager} y guarda las que superan un umbral junto con sus
+ * parámetros y la salida de {@code EXPLAIN QUERY PLAN}.
+ * <p>
+ * Las entradas se guardan en una base de datos SQLite propia (por defecto
+ * {@value #RUTA_POR_DEFECTO}), en la tabla {@code consultas_lentas}, para poder consultarlas
+ * con SQL, por ejemplo las que recorren tablas enteras:
+ *
+ * <pre>
+ * SELECT sentencia, COUNT(*), MAX(duracion_ms) FROM consultas_lentas
+ * WHERE escaneo_completo = 1 GROUP BY sentencia ORDER BY 3 DESC;
+ * </pre>
+ *
+ * Se conservan las {@code maxRegistros} entradas más recientes; las anteriores se borran al
+ * insertar. El fichero se crea con la primera consulta lenta y se escribe en un hilo propio,
+ * así que registrar nunca hace esperar al DAO por el disco (si la cola se llena, la entrada
+ * se descarta). El plan sí se obtiene en el hilo de la sentencia, con su misma conexión, pero
+ * solo para las que superan el umbral.
+ * <p>
+ * Todas las sentencias, lentas o no, se anotan además en el temporizador {@code db.sentencias}
+ * de {@link RegistroMetricas}.
+ *
+ * @author Noé
+ */
+public class RegistroConsultasLentas implements AutoCloseable {
+
+    /** Umbral por defecto a partir del cual una sentencia se considera lenta. */
+    public static final long UMBRAL_POR_DEFECTO_MS = 100;
+
+    /** Fichero por defecto del registro, relativo al directorio de trabajo. */
+    public static final String RUTA_POR_DEFECTO = "logs/consultas-lentas.db";
+
+    /** Entradas que se conservan por defecto. */
+    public static final int MAX_REGISTROS_POR_DEFECTO = 5_000;
+
+    // Entradas que pueden esperar a escribirse antes de empezar a descartarlas
+    private static final int MAX_PENDIENTES = 1_000;
+    private static final int MAX_LONGITUD_TEXTO = 200;
+
+    // Paso del plan que recorre una tabla entera: "SCAN ventas" o "SCAN TABLE ventas AS v"
+    // (según la versión de SQLite), sin índice, sin ser tabla virtual ni subconsulta.
+    private static final Pattern ESCANEO_COMPLETO = Pattern.compile("^SCAN (TABLE )?[^\\s(]\\S*( AS \\S+)?$");
+
+    private static final String SQL_CREAR = "CREATE TABLE IF NOT EXISTS consultas_lentas ("
+            + "id INTEGER PRIMARY KEY, fecha TEXT NOT NULL, duracion_ms REAL NOT NULL, conexion TEXT, hilo TEXT, "
+            + "sentencia TEXT NOT NULL, parametros TEXT, lotes INTEGER NOT NULL, plan TEXT, "
+            + "escaneo_completo INTEGER NOT NULL)";
+    private static final String SQL_INSERTAR = "INSERT INTO consultas_lentas(fecha, duracion_ms, conexion, hilo, "
+            + "sentencia, parametros, lotes, plan, escaneo_completo) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final Temporizador SENTENCIAS = RegistroMetricas.getGlobal().temporizador("db.sentencias");
+    private static final Contador LENTAS = RegistroMetricas.getGlobal().contador("db.consultasLentas");
+    private static final Contador ESCANEOS = RegistroMetricas.getGlobal().contador("db.consultasLentas.escaneoCompleto");
+
+    private final long umbralNanos;
+    private final String ruta;
+    private final int maxRegistros;
+    private final ThreadPoolExecutor escritor;
+
+    // Conexión con el fichero del registro; se abre con la primera entrada
+    private Connection conexion;
+
+    /**
+     * Crea un registro.
+     *
+     * @param umbralMs     Milisegundos a partir de los cuales se guarda una sentencia.
+     * @param ruta         Fichero SQLite donde se guardan las entradas.
+     * @param maxRegistros Número de entradas más recientes que se conservan.
+     */
+    public RegistroConsultasLentas(long umbralMs, String ruta, int maxRegistros) {
+        if (umbralMs < 0 || maxRegistros < 1) {
+            throw new IllegalArgumentException("El umbral no puede ser negativo y debe conservarse al menos una entrada.");
+        }
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.ruta = ruta;
+        this.maxRegistros = maxRegistros;
+        this.escritor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDIENTES), r -> {
+                    Thread hilo = new Thread(r, "consultas-lentas");
+                    hilo.setDaemon(true);
+                    return hilo;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Crea el registro según las propiedades del sistema {@code erp.consultasLentas.umbralMs}
+     * (un valor negativo lo desactiva), {@code erp.consultasLentas.ruta} y
+     * {@code erp.consultasLentas.maxRegistros}.
+     *
+     * @return El registro, o {@code null} si está desactivado.
+     */
+    public static RegistroConsultasLentas desdePropiedades() {
+        long umbralMs = Long.getLong("erp.consultasLentas.umbralMs", UMBRAL_POR_DEFECTO_MS);
+        if (umbralMs < 0) {
+            return null;
+        }
+        return new RegistroConsultasLentas(umbralMs,
+                System.getProperty("erp.consultasLentas.ruta", RUTA_POR_DEFECTO),
+                Integer.getInteger("erp.consultasLentas.maxRegistros", MAX_REGISTROS_POR_DEFECTO));
+    }
+
+    /**
+     * Envuelve una conexión para que sus sentencias se cronometren en este registro.
+     *
+     * @param fisica Conexión real.
+     * @param papel  Papel de la conexión ({@code escritura} o {@code lectura}).
+     * @return La conexión envuelta.
+     */
+    public Connection envolver(Connection fisica, String papel) {
+        return SentenciasCronometradas.envolver(fisica, papel, this);
+    }
+
+    /**
+     * @return El umbral en milisegundos.
+     */
+    public long getUmbralMs() {
+        return TimeUnit.NANOSECONDS.toMillis(umbralNanos);
+    }
+
+    /**
+     * @return La ruta del fichero del registro.
+     */
+    public String getRuta() {
+        return ruta;
+    }
+
+    /**
+     * Devuelve las entradas más recientes, de la más nueva a la más antigua. Antes espera a que
+     * se escriban las pendientes.
+     *
+     * @param soloEscaneosCompletos Si es {@code true}, solo las que recorren alguna tabla entera.
+     * @param limite                Número máximo de entradas.
+     * @return Las entradas (vacía si aún no hay ninguna).
+     * @throws SQLException Si no se puede leer el fichero.
+     */
+    public List<ConsultaLenta> consultar(boolean soloEscaneosCompletos, int limite) throws SQLException {
+        esperarPendientes();
+        List<ConsultaLenta> consultas = new ArrayList<>();
+        String sql = "SELECT fecha, duracion_ms, conexion, hilo, sentencia, parametros, lotes, plan, escaneo_completo "
+                + "FROM consultas_lentas" + (soloEscaneosCompletos ? " WHERE escaneo_completo = 1" : "")
+                + " ORDER BY id DESC LIMIT ?";
+        synchronized (this) {
+            if (conexion == null && !Files.exists(Path.of(ruta))) {
+                return consultas;
+            }
+            try (PreparedStatement stmt = abrir().prepareStatement(sql)) {
+                stmt.setInt(1, limite);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        consultas.add(new ConsultaLenta(LocalDateTime.parse(rs.getString(1)), rs.getDouble(2),
+                                rs.getString(3), rs.getString(4), rs.getString(5), rs.getString(6), rs.getInt(7),
+                                rs.getString(8), rs.getInt(9) == 1));
+                    }
+                }
+            }
+        }
+        return consultas;
+    }
+
+    /**
+     * Espera a que se escriban las entradas pendientes y cierra el fichero del registro.
+     */
+    @Override
+    public void close() {
+        escritor.shutdown();
+        try {
+            escritor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (conexion != null) {
+                try {
+                    conexion.close();
+                } catch (SQLException e) {
+                    System.err.println("Error al cerrar el registro de consultas lentas: " + e.getMessage());
+                }
+                conexion = null;
+            }
+        }
+    }
+
+    /**
+     * Recibe la medición de una sentencia. Lo llama {@link SentenciasCronometradas}.
+     */
+    void registrar(Connection fisica, String papel, String sql, List<Object> parametros, int lotes, long nanos) {
+        SENTENCIAS.registrar(nanos);
+        if (nanos < umbralNanos) {
+            return;
+        }
+        List<String> pasos = new ArrayList<>();
+        String plan = explicar(fisica, sql, parametros, pasos);
+        boolean escaneoCompleto = pasos.stream().anyMatch(paso -> ESCANEO_COMPLETO.matcher(paso).matches());
+        ConsultaLenta consulta = new ConsultaLenta(LocalDateTime.now(), nanos / 1_000_000.0, papel,
+                Thread.currentThread().getName(), sql, describirParametros(parametros), lotes, plan, escaneoCompleto);
+
+        LENTAS.incrementar();
+        if (escaneoCompleto) {
+            ESCANEOS.incrementar();
+        }
+        System.err.println("Consulta lenta " + consulta);
+        // Si la cola está llena o el registro cerrado, la entrada se descarta (ya está en consola)
+        escritor.execute(() -> guardar(consulta));
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    /**
+     * Obtiene el plan de la sentencia con sus mismos parámetros. Devuelve el texto indentado
+     * según el árbol del plan y deja en {@code pasos} el detalle de cada paso.
+     */
+    private static String explicar(Connection fisica, String sql, List<Object> parametros, List<String> pasos) {
+        Map<Integer, Integer> profundidad = new HashMap<>();
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement stmt = fisica.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (int i = 0; i < parametros.size() && i < stmt.getParameterMetaData().getParameterCount(); i++) {
+                stmt.setObject(i + 1, parametros.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int nivel = profundidad.getOrDefault(rs.getInt("parent"), -1) + 1;
+                    profundidad.put(rs.getInt("id"), nivel);
+                    String detalle = rs.getString("detail");
+                    pasos.add(detalle);
+                    plan.append("  ".repeat(nivel)).append(detalle).append('\n');
+                }
+            }
+        } catch (SQLException e) {
+            // Sentencias sin plan (PRAGMA, varias sentencias en lote...)
+            return null;
+        }
+        return plan.toString();
+    }
+
+    private static String describirParametros(List<Object> parametros) {
+        if (parametros.isEmpty()) {
+            return null;
+        }
+        List<String> valores = new ArrayList<>(parametros.size());
+        for (Object valor : parametros) {
+            String texto;
+            if (valor == null) {
+                texto = "NULL";
+            } else if (valor instanceof byte[]) {
+                texto = "<" + ((byte[]) valor).length + " bytes>";
+            } else if (valor instanceof CharSequence || valor instanceof Date) {
+                texto = "'" + valor + "'";
+            } else {
+                texto = String.valueOf(valor);
+            }
+            valores.add(texto.length() > MAX_LONGITUD_TEXTO ? texto.substring(0, MAX_LONGITUD_TEXTO) + "…" : texto);
+        }
+        return valores.toString();
+    }
+
+    private synchronized void guardar(ConsultaLenta consulta) {
+        try (PreparedStatement stmt = abrir().prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, consulta.getFecha().toString());
+            stmt.setDouble(2, consulta.getDuracionMs());
+            stmt.setString(3, consulta.getConexion());
+            stmt.setString(4, consulta.getHilo());
+            stmt.setString(5, consulta.getSentencia());
+            stmt.setString(6, consulta.getParametros());
+            stmt.setInt(7, consulta.getLotes());
+            stmt.setString(8, consulta.getPlan());
+            stmt.setInt(9, consulta.isEscaneoCompleto() ? 1 : 0);
+            stmt.executeUpdate();
+            try (ResultSet claves = stmt.getGeneratedKeys();
+                 PreparedStatement rotar = conexion.prepareStatement("DELETE FROM consultas_lentas WHERE id <= ?")) {
+                if (claves.next()) {
+                    rotar.setLong(1, claves.getLong(1) - maxRegistros);
+                    rotar.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("No se pudo guardar la consulta lenta en " + ruta + ": " + e.getMessage());
+        }
+    }
+
+    private Connection abrir() throws SQLException {
+        if (conexion == null) {
+            try {
+                Path padre = Path.of(ruta).toAbsolutePath().getParent();
+                if (padre != null) {
+                    Files.createDirectories(padre);
+                }
+            } catch (IOException e) {
+                throw new SQLException("No se pudo crear el directorio de " + ruta, e);
+            }
+            conexion = DriverManager.getConnection("jdbc:sqlite:" + ruta);
+            try (Statement stmt = conexion.createStatement()) {
+                stmt.execute(SQL_CREAR);
+            }
+        }
+        return conexion;
+    }
+
+    private void esperarPendientes() {
+        if (escritor.isShutdown()) {
+            return;
+        }
+        try {
+            Future<?> marca = escritor.submit(() -> { });
+            marca.get(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.err.println("No se pudo esperar a las consultas lentas pendientes: " + e.getMessage());
+        }
+    }
+}
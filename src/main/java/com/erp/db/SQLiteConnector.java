@@ -1,15 +1,16 @@
 package com.erp.db;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Clase encargada de gestionar la conexión con la base de datos SQLite.
- * - Abre y reutiliza una conexión compartida (singleton).
- * - Inicializa la estructura de tabla al arrancar la app.
- * - Permite cerrar la conexión cuando se finaliza el uso.
+ * - Delega en un {@link ConnectionManager}: una conexión de escritura compartida
+ *   y un pool de conexiones de solo lectura sobre una base de datos en modo WAL.
+ * - Inicializa y migra el esquema al arrancar la app (ver {@link SchemaMigrator}).
+ * - Permite cerrar las conexiones cuando se finaliza el uso.
+ * - Cronometra cada sentencia y guarda las lentas con su plan (ver {@link RegistroConsultasLentas}).
  * Autor: Noé
  */
 public class SQLiteConnector {
@@ -17,118 +18,158 @@ public class SQLiteConnector {
     // Ruta relativa al archivo físico de la base de datos
     private static final String DB_URL = "src/main/resources/database/erp.db";
 
-    // Conexión única compartida en toda la app
-    private static Connection connection = null;
+    // Ruta en uso: la de por defecto salvo que se indique otra con -Derp.db.ruta o usarBaseDeDatos()
+    private static String rutaDb = System.getProperty("erp.db.ruta", DB_URL);
+
+    // Número máximo de conexiones de lectura simultáneas
+    private static final int MAX_LECTORES = 4;
+
+    // Milisegundos que se espera ante un bloqueo antes de fallar
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    // Registro de consultas lentas, configurable con -Derp.consultasLentas.* (null si está desactivado).
+    // Sobrevive a closeConnection() y usarBaseDeDatos(): es el mismo para todas las bases de datos.
+    private static final RegistroConsultasLentas CONSULTAS_LENTAS = RegistroConsultasLentas.desdePropiedades();
+
+    // Gestor de conexiones compartido en toda la app
+    private static ConnectionManager manager = null;
 
     /**
-     * Devuelve una conexión activa a la base de datos SQLite.
+     * Devuelve la conexión de escritura compartida con la base de datos SQLite.
      * Si no existe o está cerrada, se crea una nueva.
+     * <p>
+     * Esta conexión es única en toda la aplicación y no debe cerrarse tras usarla.
+     * Solo debe usarse con el {@link #getWriteLock() cerrojo de escritura} tomado; para
+     * escribir es más sencillo {@link #abrirEscritura()}. Para consultas de solo lectura
+     * es preferible {@link #connectReadOnly()}.
      * 
      * @return instancia de Connection
      * @throws SQLException si falla la conexión
      */
     public static Connection connect() throws SQLException {
-        // Solo crea conexión si no existe o fue cerrada previamente
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection("jdbc:sqlite:" + DB_URL);
+        return getConnectionManager().getWriter();
+    }
+
+    /**
+     * Presta una conexión de solo lectura del pool. Debe cerrarse al terminar
+     * (idealmente con try-with-resources), lo que la devuelve al pool.
+     *
+     * @return conexión de lectura
+     * @throws SQLException si no hay conexiones libres a tiempo o falla la apertura
+     */
+    public static Connection connectReadOnly() throws SQLException {
+        return getConnectionManager().acquireReader();
+    }
+
+    /**
+     * Cerrojo que debe tomar todo uso de la conexión de escritura, también una escritura
+     * suelta en auto-commit, para que no entre en la transacción que otro hilo tenga abierta.
+     *
+     * @return cerrojo de escritura
+     */
+    public static ReentrantLock getWriteLock() {
+        return getConnectionManager().getWriteLock();
+    }
+
+    /**
+     * Toma el cerrojo de escritura y da acceso a la conexión de escritura hasta cerrar el
+     * turno devuelto (ver {@link Escritura}).
+     *
+     * @return turno de escritura, para usar en un try-with-resources
+     * @throws SQLException si falla la conexión
+     */
+    public static Escritura abrirEscritura() throws SQLException {
+        return getConnectionManager().abrirEscritura();
+    }
+
+    /**
+     * Devuelve el gestor de conexiones, creándolo si es la primera vez o fue cerrado.
+     *
+     * @return gestor de conexiones activo
+     */
+    public static synchronized ConnectionManager getConnectionManager() {
+        if (manager == null) {
+            manager = new ConnectionManager(rutaDb, MAX_LECTORES, BUSY_TIMEOUT_MS, CONSULTAS_LENTAS);
         }
-        return connection;
+        return manager;
     }
 
     /**
-     * Inicializa la base de datos creando la tabla 'productos' si no existe.
+     * @return el registro de consultas lentas, o {@code null} si se desactivó con
+     *         {@code -Derp.consultasLentas.umbralMs=-1}.
+     */
+    public static RegistroConsultasLentas getRegistroConsultasLentas() {
+        return CONSULTAS_LENTAS;
+    }
+
+    /**
+     * Cambia el fichero de base de datos que usa la aplicación (por ejemplo, uno temporal
+     * para pruebas de rendimiento). Cierra las conexiones abiertas sobre el fichero anterior;
+     * las siguientes se abren sobre el nuevo.
+     *
+     * @param ruta ruta al fichero de la base de datos SQLite.
+     */
+    public static synchronized void usarBaseDeDatos(String ruta) {
+        closeConnection();
+        rutaDb = ruta;
+    }
+
+    /**
+     * @return la ruta del fichero de base de datos en uso.
+     */
+    public static synchronized String getRutaBaseDeDatos() {
+        return rutaDb;
+    }
+
+    /**
+     * Inicializa la base de datos aplicando las migraciones de esquema pendientes.
+     * En una base de datos nueva crea todas las tablas e índices; en una existente
+     * solo aplica los pasos posteriores a su {@code PRAGMA user_version}.
      * Este método debe llamarse una sola vez al inicio de la aplicación.
+     * <p>
+     * Si falla solo muestra el error; para que el llamador se entere (el arranque de la
+     * aplicación, por ejemplo) hay que usar {@link #migrarEsquema()}.
      */
     public static void initDatabase() {
-        // Consulta SQL para crear tabla con columnas necesarias
-        String createTableProd = "CREATE TABLE IF NOT EXISTS productos (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," + // ID autoincremental
-                "nombre TEXT NOT NULL," + // Nombre obligatorio
-                "descripcion TEXT," + // Descripción opcional
-                "categoria TEXT," + // Categoría opcional
-                "precioUnitario REAL," + // Precio en formato decimal
-                "stock INTEGER" + // Stock como número entero
-                ");";
-
-        String createTableCli = "CREATE TABLE IF NOT EXISTS clientes (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "nombre TEXT," +
-                "apellidos TEXT," +
-                "razonSocial TEXT," +
-                "personaContacto TEXT," +
-                "tipoCliente TEXT," +
-                "telefono TEXT," +
-                "email TEXT," +
-                "direccion TEXT," +
-                "cifnif TEXT," +
-                "fechaAlta DATE" +
-                ");";
-
-        String createTableDesc = "CREATE TABLE IF NOT EXISTS descuentos (" +
-                "idDescuento INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "clienteId INTEGER REFERENCES clientes(id), " +
-                "descripcion TEXT," +
-                "porcentaje REAL," +
-                "fechaInicio DATE," +
-                "fechaCaducidad DATE," +
-                "estado BOOLEAN" +
-                ");";
-
-        String createTableVentas = "CREATE TABLE IF NOT EXISTS ventas (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "cliente_id INTEGER NOT NULL," +
-                "fecha TEXT NOT NULL," +
-                "total REAL NOT NULL," +
-                "FOREIGN KEY (cliente_id) REFERENCES clientes(id)" +
-                ");";
-
-        String createTableDetallesVenta = "CREATE TABLE IF NOT EXISTS detalles_venta (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "venta_id INTEGER NOT NULL," +
-                "producto_id INTEGER NOT NULL," +
-                "cantidad INTEGER NOT NULL," +
-                "precio_unitario REAL NOT NULL," +
-                "FOREIGN KEY (venta_id) REFERENCES ventas(id)," +
-                "FOREIGN KEY (producto_id) REFERENCES productos(id)" +
-                ");";
-
-        String createTableVentaDescuentos = "CREATE TABLE IF NOT EXISTS venta_descuentos (" +
-                "venta_id INTEGER NOT NULL," +
-                "descuento_id INTEGER NOT NULL," +
-                "PRIMARY KEY (venta_id, descuento_id)," +
-                "FOREIGN KEY (venta_id) REFERENCES ventas(id) ON DELETE CASCADE," +
-                "FOREIGN KEY (descuento_id) REFERENCES descuentos(idDescuento) ON DELETE CASCADE" +
-                ");";
-
-        // Ejecuta la consulta usando un Statement
-        try (Statement stmt = connect().createStatement()) {
-            stmt.execute(createTableProd);
-            stmt.execute(createTableCli);
-            stmt.execute(createTableDesc);
-            stmt.execute(createTableVentas);
-            stmt.execute(createTableDetallesVenta);
-            stmt.execute(createTableVentaDescuentos);
-            System.out.println("Tablas base de datos creadas.");
+        try {
+            migrarEsquema();
         } catch (SQLException e) {
-            // Muestra error si falla la creación
-            System.out.println("Error al crear tablas de la base de datos.. " + e.getMessage());
+            // Muestra error si falla alguna migración
+            System.err.println("Error al migrar el esquema de la base de datos.. " + e.getMessage());
+            e.printStackTrace();
         }
     }
 
     /**
-     * Cierra la conexión compartida si está activa.
-     * Este método puede llamarse al cerrar la aplicación.
+     * Igual que {@link #initDatabase()}, pero lanza el error en lugar de mostrarlo, para no
+     * seguir trabajando sobre un esquema a medias.
+     *
+     * @return versión del esquema tras aplicar las migraciones.
+     * @throws SQLException si no se puede abrir la base de datos o falla alguna migración
      */
-    public static void closeConnection() {
+    public static int migrarEsquema() throws SQLException {
+        SchemaMigrator migrador = new SchemaMigrator(SchemaMigrations.TODAS);
+        ReentrantLock writeLock = getWriteLock();
+        writeLock.lock();
         try {
-            // Verifica que exista una conexión abierta
-            if (connection != null && !connection.isClosed()) {
-                connection.close(); // Cierra la conexión
-                System.out.println("Conexión cerrada");
-            }
-        } catch (SQLException e) {
-            // Muestra error si falla el cierre
-            System.out.println("Error al cerrar la conexión.. " + e.getMessage());
+            int version = migrador.migrar(connect());
+            System.out.println("Esquema de base de datos en la versión " + version + ".");
+            return version;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Cierra la conexión de escritura y el pool de lectura si están activos.
+     * Este método puede llamarse al cerrar la aplicación.
+     */
+    public static synchronized void closeConnection() {
+        // Verifica que exista un gestor abierto
+        if (manager != null) {
+            manager.close(); // Cierra las conexiones libres; las prestadas, al devolverse
+            manager = null;
+            System.out.println("Conexión cerrada");
         }
     }
 }
@@ -0,0 +1,164 @@
+package com.erp.db;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Catálogo ordenado de las migraciones del esquema de la aplicación.
+ * <p>
+ * Para cambiar el esquema se añade una nueva {@link Migration} al final de
+ * {@link #TODAS} con la siguiente versión; nunca se modifican las ya publicadas,
+ * porque las bases de datos existentes ya las tienen aplicadas.
+ *
+ * @author Noé
+ */
+public final class SchemaMigrations {
+
+    /**
+     * Versión 1: tablas base. Usa {@code IF NOT EXISTS} porque las bases de datos creadas
+     * antes de existir las migraciones ya tienen estas tablas con {@code user_version = 0}.
+     */
+    private static final Migration V1_TABLAS_BASE = new Migration(1, "Tablas base",
+            "CREATE TABLE IF NOT EXISTS productos (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," + // ID autoincremental
+                    "nombre TEXT NOT NULL," + // Nombre obligatorio
+                    "descripcion TEXT," + // Descripción opcional
+                    "categoria TEXT," + // Categoría opcional
+                    "precioUnitario REAL," + // Precio en formato decimal
+                    "stock INTEGER" + // Stock como número entero
+                    ");",
+            "CREATE TABLE IF NOT EXISTS clientes (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "nombre TEXT," +
+                    "apellidos TEXT," +
+                    "razonSocial TEXT," +
+                    "personaContacto TEXT," +
+                    "tipoCliente TEXT," +
+                    "telefono TEXT," +
+                    "email TEXT," +
+                    "direccion TEXT," +
+                    "cifnif TEXT," +
+                    "fechaAlta DATE" +
+                    ");",
+            "CREATE TABLE IF NOT EXISTS descuentos (" +
+                    "idDescuento INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "clienteId INTEGER REFERENCES clientes(id), " +
+                    "descripcion TEXT," +
+                    "porcentaje REAL," +
+                    "fechaInicio DATE," +
+                    "fechaCaducidad DATE," +
+                    "estado BOOLEAN" +
+                    ");",
+            "CREATE TABLE IF NOT EXISTS ventas (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "cliente_id INTEGER NOT NULL," +
+                    "fecha TEXT NOT NULL," +
+                    "total REAL NOT NULL," +
+                    "FOREIGN KEY (cliente_id) REFERENCES clientes(id)" +
+                    ");",
+            "CREATE TABLE IF NOT EXISTS detalles_venta (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                    "venta_id INTEGER NOT NULL," +
+                    "producto_id INTEGER NOT NULL," +
+                    "cantidad INTEGER NOT NULL," +
+                    "precio_unitario REAL NOT NULL," +
+                    "FOREIGN KEY (venta_id) REFERENCES ventas(id)," +
+                    "FOREIGN KEY (producto_id) REFERENCES productos(id)" +
+                    ");",
+            "CREATE TABLE IF NOT EXISTS venta_descuentos (" +
+                    "venta_id INTEGER NOT NULL," +
+                    "descuento_id INTEGER NOT NULL," +
+                    "PRIMARY KEY (venta_id, descuento_id)," +
+                    "FOREIGN KEY (venta_id) REFERENCES ventas(id) ON DELETE CASCADE," +
+                    "FOREIGN KEY (descuento_id) REFERENCES descuentos(idDescuento) ON DELETE CASCADE" +
+                    ");");
+
+    /**
+     * Versión 2: índices para las consultas por cliente, por fecha y por venta de los DAOs.
+     * <ul>
+     *   <li>{@code ventas(cliente_id, fecha)}: ventas de un cliente, ya ordenadas por fecha.</li>
+     *   <li>{@code ventas(fecha)}: filtros por rango de fechas.</li>
+     *   <li>{@code detalles_venta(venta_id, ...)}: cubre las líneas de una venta sin leer la tabla.</li>
+     *   <li>{@code detalles_venta(producto_id)}: ventas de un producto.</li>
+     *   <li>{@code descuentos(clienteId)}: descuentos de un cliente.</li>
+     *   <li>{@code venta_descuentos(descuento_id)}: borrados en cascada desde {@code descuentos}.</li>
+     * </ul>
+     */
+    private static final Migration V2_INDICES = new Migration(2, "Índices de búsqueda por cliente, fecha y venta",
+            "CREATE INDEX IF NOT EXISTS idx_ventas_cliente_fecha ON ventas(cliente_id, fecha)",
+            "CREATE INDEX IF NOT EXISTS idx_ventas_fecha ON ventas(fecha)",
+            "CREATE INDEX IF NOT EXISTS idx_detalles_venta_venta "
+                    + "ON detalles_venta(venta_id, producto_id, cantidad, precio_unitario)",
+            "CREATE INDEX IF NOT EXISTS idx_detalles_venta_producto ON detalles_venta(producto_id)",
+            "CREATE INDEX IF NOT EXISTS idx_descuentos_cliente ON descuentos(clienteId)",
+            "CREATE INDEX IF NOT EXISTS idx_venta_descuentos_descuento ON venta_descuentos(descuento_id)",
+            "ANALYZE");
+
+    /**
+     * Versión 3: índice de texto completo FTS5 sobre {@code productos(nombre, descripcion, categoria)}.
+     * <ul>
+     *   <li>Es una tabla de contenido externo: no duplica el texto, solo guarda el índice
+     *       y lee las columnas de {@code productos} a través de {@code rowid = id}.</li>
+     *   <li>{@code unicode61 remove_diacritics 2} ignora mayúsculas y tildes ("camion" encuentra "Camión").</li>
+     *   <li>{@code prefix='2 3'} mantiene índices de prefijos cortos para las búsquedas mientras se escribe.</li>
+     *   <li>Tres triggers mantienen el índice sincronizado; el de actualización solo salta si
+     *       cambian columnas indexadas, así que los cambios de stock no lo tocan.</li>
+     * </ul>
+     */
+    private static final Migration V3_BUSQUEDA_PRODUCTOS = new Migration(3, "Índice FTS5 de productos",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS productos_fts USING fts5("
+                    + "nombre, descripcion, categoria, "
+                    + "content='productos', content_rowid='id', "
+                    + "tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+            "CREATE TRIGGER IF NOT EXISTS productos_fts_ai AFTER INSERT ON productos BEGIN "
+                    + "INSERT INTO productos_fts(rowid, nombre, descripcion, categoria) "
+                    + "VALUES (new.id, new.nombre, new.descripcion, new.categoria); END",
+            "CREATE TRIGGER IF NOT EXISTS productos_fts_ad AFTER DELETE ON productos BEGIN "
+                    + "INSERT INTO productos_fts(productos_fts, rowid, nombre, descripcion, categoria) "
+                    + "VALUES ('delete', old.id, old.nombre, old.descripcion, old.categoria); END",
+            "CREATE TRIGGER IF NOT EXISTS productos_fts_au AFTER UPDATE OF nombre, descripcion, categoria ON productos BEGIN "
+                    + "INSERT INTO productos_fts(productos_fts, rowid, nombre, descripcion, categoria) "
+                    + "VALUES ('delete', old.id, old.nombre, old.descripcion, old.categoria); "
+                    + "INSERT INTO productos_fts(rowid, nombre, descripcion, categoria) "
+                    + "VALUES (new.id, new.nombre, new.descripcion, new.categoria); END",
+            // Indexa los productos que ya existían antes de la migración.
+            "INSERT INTO productos_fts(productos_fts) VALUES ('rebuild')");
+
+    /**
+     * Versión 4: índice de texto completo FTS5 de clientes para buscarlos desde la caja.
+     * <p>
+     * Cubre nombre, apellidos, razón social, CIF/NIF, email y teléfono con la misma
+     * configuración que {@code productos_fts}: contenido externo, sin tildes ni mayúsculas,
+     * prefijos cortos indexados y triggers que lo mantienen sincronizado.
+     */
+    private static final Migration V4_BUSQUEDA_CLIENTES = new Migration(4, "Índice FTS5 de clientes",
+            "CREATE VIRTUAL TABLE IF NOT EXISTS clientes_fts USING fts5("
+                    + "nombre, apellidos, razonSocial, cifnif, email, telefono, "
+                    + "content='clientes', content_rowid='id', "
+                    + "tokenize='unicode61 remove_diacritics 2', prefix='2 3')",
+            "CREATE TRIGGER IF NOT EXISTS clientes_fts_ai AFTER INSERT ON clientes BEGIN "
+                    + "INSERT INTO clientes_fts(rowid, nombre, apellidos, razonSocial, cifnif, email, telefono) "
+                    + "VALUES (new.id, new.nombre, new.apellidos, new.razonSocial, new.cifnif, new.email, new.telefono); END",
+            "CREATE TRIGGER IF NOT EXISTS clientes_fts_ad AFTER DELETE ON clientes BEGIN "
+                    + "INSERT INTO clientes_fts(clientes_fts, rowid, nombre, apellidos, razonSocial, cifnif, email, telefono) "
+                    + "VALUES ('delete', old.id, old.nombre, old.apellidos, old.razonSocial, old.cifnif, old.email, old.telefono); END",
+            "CREATE TRIGGER IF NOT EXISTS clientes_fts_au "
+                    + "AFTER UPDATE OF nombre, apellidos, razonSocial, cifnif, email, telefono ON clientes BEGIN "
+                    + "INSERT INTO clientes_fts(clientes_fts, rowid, nombre, apellidos, razonSocial, cifnif, email, telefono) "
+                    + "VALUES ('delete', old.id, old.nombre, old.apellidos, old.razonSocial, old.cifnif, old.email, old.telefono); "
+                    + "INSERT INTO clientes_fts(rowid, nombre, apellidos, razonSocial, cifnif, email, telefono) "
+                    + "VALUES (new.id, new.nombre, new.apellidos, new.razonSocial, new.cifnif, new.email, new.telefono); END",
+            "INSERT INTO clientes_fts(clientes_fts) VALUES ('rebuild')");
+
+    /** Todas las migraciones, en orden de versión. */
+    public static final List<Migration> TODAS = Collections.unmodifiableList(Arrays.asList(
+            V1_TABLAS_BASE,
+            V2_INDICES,
+            V3_BUSQUEDA_PRODUCTOS,
+            V4_BUSQUEDA_CLIENTES));
+
+    private SchemaMigrations() {
+        // Clase de constantes, no instanciable.
+    }
+}
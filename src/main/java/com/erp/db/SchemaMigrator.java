@@ -0,0 +1,99 @@
+package com.erp.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Aplica las migraciones pendientes sobre una base de datos SQLite.
+ * <p>
+ * La versión actual del esquema se guarda en la cabecera del propio fichero mediante
+ * {@code PRAGMA user_version}. Al migrar se leen las migraciones con versión superior
+ * a la actual y se aplican en orden; cada una se ejecuta en su propia transacción junto
+ * con la actualización de {@code user_version}, de modo que un fallo deja la base de
+ * datos en la última versión completada.
+ *
+ * @author Noé
+ * @see Migration
+ */
+public class SchemaMigrator {
+
+    private final List<Migration> migraciones;
+
+    /**
+     * Crea un migrador para la lista de migraciones indicada.
+     *
+     * @param migraciones Migraciones conocidas. No puede haber versiones repetidas.
+     */
+    public SchemaMigrator(List<Migration> migraciones) {
+        List<Migration> ordenadas = new ArrayList<>(migraciones);
+        ordenadas.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < ordenadas.size(); i++) {
+            if (ordenadas.get(i).getVersion() == ordenadas.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Versión de migración duplicada: " + ordenadas.get(i).getVersion());
+            }
+        }
+        this.migraciones = ordenadas;
+    }
+
+    /**
+     * Lee la versión actual del esquema.
+     *
+     * @param conn Conexión a la base de datos.
+     * @return El valor de {@code PRAGMA user_version} (0 en una base de datos nueva).
+     * @throws SQLException Si falla la consulta.
+     */
+    public static int leerVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Aplica en orden todas las migraciones con versión superior a la actual.
+     *
+     * @param conn Conexión de escritura. Debe estar en modo auto-commit.
+     * @return La versión del esquema tras migrar.
+     * @throws SQLException Si falla alguna migración; las anteriores quedan confirmadas.
+     */
+    public int migrar(Connection conn) throws SQLException {
+        int versionActual = leerVersion(conn);
+        for (Migration migracion : migraciones) {
+            if (migracion.getVersion() <= versionActual) {
+                continue;
+            }
+            conn.setAutoCommit(false);
+            try {
+                migracion.aplicar(conn);
+                try (Statement stmt = conn.createStatement()) {
+                    // PRAGMA no admite parámetros; la versión es un entero controlado por nosotros.
+                    stmt.execute("PRAGMA user_version = " + migracion.getVersion());
+                }
+                conn.commit();
+                versionActual = migracion.getVersion();
+                System.out.println("Migración " + versionActual + " aplicada: " + migracion.getDescripcion());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Error en la migración " + migracion.getVersion()
+                        + " (" + migracion.getDescripcion() + "): " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return versionActual;
+    }
+
+    /**
+     * Versión más alta conocida por este migrador.
+     *
+     * @return La versión de la última migración, o 0 si no hay ninguna.
+     */
+    public int getVersionObjetivo() {
+        return migraciones.isEmpty() ? 0 : migraciones.get(migraciones.size() - 1).getVersion();
+    }
+}
@@ -0,0 +1,209 @@
+package com.erp.db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Envoltorio JDBC que cronometra cada sentencia de una conexión y entrega la medición a un
+ * {@link RegistroConsultasLentas}.
+ * <p>
+ * Como el resto de envoltorios de {@link ConnectionManager}, se basa en proxies dinámicos:
+ * la conexión devuelve sentencias envueltas, las sentencias preparadas recuerdan los
+ * parámetros enlazados y las consultas devuelven un {@link ResultSet} envuelto. SQLite
+ * calcula las filas a medida que se leen, así que la duración de una consulta incluye el
+ * tiempo pasado en {@code next()} y se entrega al cerrar el {@code ResultSet}, al cerrar la
+ * sentencia o al volver a ejecutarla.
+ *
+ * @author Noé
+ */
+final class SentenciasCronometradas {
+
+    private SentenciasCronometradas() {
+    }
+
+    /**
+     * Envuelve una conexión física.
+     *
+     * @param fisica   Conexión real; se usa también para obtener el plan de las sentencias lentas.
+     * @param papel    Papel de la conexión en el gestor ({@code escritura} o {@code lectura}).
+     * @param registro Registro que recibe las mediciones.
+     * @return Una conexión que se comporta igual que la física.
+     */
+    static Connection envolver(Connection fisica, String papel, RegistroConsultasLentas registro) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            Object resultado = invocar(fisica, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return envolverSentencia((Statement) resultado, Statement.class, null, fisica, papel, registro);
+                case "prepareStatement":
+                    return envolverSentencia((Statement) resultado, PreparedStatement.class, (String) args[0],
+                            fisica, papel, registro);
+                default:
+                    return resultado;
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private static Statement envolverSentencia(Statement real, Class<? extends Statement> tipo, String sqlPreparada,
+                                               Connection fisica, String papel, RegistroConsultasLentas registro) {
+        InvocationHandler handler = new InvocationHandler() {
+            // Parámetros enlazados (índice JDBC - 1) y juegos acumulados con addBatch()
+            private final List<Object> parametros = new ArrayList<>();
+            private int lotes = 0;
+            private List<String> sqlLote;
+            private Ejecucion enCurso;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String nombre = method.getName();
+                if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                        && method.getDeclaringClass() != Statement.class) {
+                    enlazar((Integer) args[0], nombre.equals("setNull") ? null : args[1]);
+                    return invocar(real, method, args);
+                }
+                switch (nombre) {
+                    case "clearParameters":
+                        parametros.clear();
+                        break;
+                    case "addBatch":
+                        lotes++;
+                        if (args != null) {
+                            if (sqlLote == null) {
+                                sqlLote = new ArrayList<>();
+                            }
+                            sqlLote.add((String) args[0]);
+                        }
+                        break;
+                    case "clearBatch":
+                        lotes = 0;
+                        sqlLote = null;
+                        break;
+                    case "executeQuery":
+                        terminar();
+                        Ejecucion ejecucion = empezar(args);
+                        long inicio = System.nanoTime();
+                        ResultSet rs;
+                        try {
+                            rs = (ResultSet) invocar(real, method, args);
+                        } finally {
+                            ejecucion.nanos += System.nanoTime() - inicio;
+                        }
+                        enCurso = ejecucion;
+                        return envolverResultado(rs, ejecucion);
+                    case "execute":
+                    case "executeUpdate":
+                    case "executeLargeUpdate":
+                    case "executeBatch":
+                    case "executeLargeBatch":
+                        terminar();
+                        Ejecucion directa = empezar(args);
+                        if (nombre.endsWith("Batch")) {
+                            lotes = 0;
+                            sqlLote = null;
+                        }
+                        long comienzo = System.nanoTime();
+                        try {
+                            return invocar(real, method, args);
+                        } finally {
+                            directa.nanos += System.nanoTime() - comienzo;
+                            entregar(directa);
+                        }
+                    case "close":
+                        terminar();
+                        break;
+                    default:
+                        break;
+                }
+                return invocar(real, method, args);
+            }
+
+            private void enlazar(int indice, Object valor) {
+                while (parametros.size() < indice) {
+                    parametros.add(null);
+                }
+                parametros.set(indice - 1, valor);
+            }
+
+            private Ejecucion empezar(Object[] args) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sqlPreparada;
+                if (sql == null && sqlLote != null) {
+                    sql = String.join(";\n", sqlLote);
+                }
+                return new Ejecucion(sql, sqlPreparada != null ? new ArrayList<>(parametros) : List.of(), Math.max(1, lotes));
+            }
+
+            private void terminar() {
+                if (enCurso != null) {
+                    entregar(enCurso);
+                    enCurso = null;
+                }
+            }
+
+            private ResultSet envolverResultado(ResultSet rs, Ejecucion ejecucion) {
+                InvocationHandler lector = (p, m, a) -> {
+                    switch (m.getName()) {
+                        case "next":
+                            long inicio = System.nanoTime();
+                            try {
+                                return invocar(rs, m, a);
+                            } finally {
+                                ejecucion.nanos += System.nanoTime() - inicio;
+                            }
+                        case "close":
+                            if (enCurso == ejecucion) {
+                                terminar();
+                            }
+                            return invocar(rs, m, a);
+                        default:
+                            return invocar(rs, m, a);
+                    }
+                };
+                return (ResultSet) Proxy.newProxyInstance(
+                        ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, lector);
+            }
+
+            private void entregar(Ejecucion ejecucion) {
+                if (ejecucion.sql != null) {
+                    registro.registrar(fisica, papel, ejecucion.sql, ejecucion.parametros, ejecucion.lotes, ejecucion.nanos);
+                }
+            }
+        };
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{tipo}, handler);
+    }
+
+    private static Object invocar(Object destino, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Una ejecución de una sentencia mientras se mide.
+     */
+    private static final class Ejecucion {
+        private final String sql;
+        private final List<Object> parametros;
+        private final int lotes;
+        private long nanos;
+
+        private Ejecucion(String sql, List<Object> parametros, int lotes) {
+            this.sql = sql;
+            this.parametros = parametros;
+            this.lotes = lotes;
+        }
+    }
+}
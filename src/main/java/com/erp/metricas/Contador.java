@@ -0,0 +1,48 @@
+package com.erp.metricas;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contador que solo crece (operaciones, errores, rechazos...). Se puede incrementar desde
+ * muchos hilos a la vez sin bloquearse: cada hilo suma en su propia celda y las celdas se
+ * suman al leer.
+ *
+ * @author Noé
+ */
+public class Contador implements ContadorMXBean {
+
+    private final String nombre;
+    private final LongAdder valor = new LongAdder();
+
+    Contador(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Suma uno al contador.
+     */
+    public void incrementar() {
+        valor.increment();
+    }
+
+    /**
+     * Suma una cantidad al contador.
+     *
+     * @param cantidad Cantidad a sumar (no negativa).
+     */
+    public void incrementar(long cantidad) {
+        valor.add(cantidad);
+    }
+
+    @Override
+    public long getValor() {
+        return valor.sum();
+    }
+
+    /**
+     * @return El nombre con el que se registró.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+}
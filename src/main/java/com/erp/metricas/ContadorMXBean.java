@@ -0,0 +1,14 @@
+package com.erp.metricas;
+
+/**
+ * Vista JMX de un {@link Contador}.
+ *
+ * @author Noé
+ */
+public interface ContadorMXBean {
+
+    /**
+     * @return El valor acumulado del contador.
+     */
+    long getValor();
+}
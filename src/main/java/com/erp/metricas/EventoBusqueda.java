@@ -0,0 +1,39 @@
+package com.erp.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento de Java Flight Recorder por cada consulta de los formularios de búsqueda
+ * ({@code BusquedaDiferida}), medida en el hilo de trabajo.
+ *
+ * @author Noé
+ * @see EventoOperacionDao
+ */
+@Name("com.erp.Busqueda")
+@Label("Búsqueda")
+@Category({"Mini ERP", "Interfaz"})
+@Description("Consulta en segundo plano de un formulario de búsqueda tras la ventana de espera.")
+@StackTrace(false)
+public class EventoBusqueda extends Event {
+
+    @Label("Criterios")
+    public String criterios;
+
+    @Label("Resultados")
+    @Description("Número de elementos devueltos, o -1 si el resultado no es una colección.")
+    public int resultados;
+
+    @Label("Descartada")
+    @Description("Llegó otra pulsación antes de terminar, así que el resultado no se mostrará.")
+    public boolean descartada;
+
+    @Label("Ventana de espera")
+    @Timespan(Timespan.MILLISECONDS)
+    public long ventanaMs;
+}
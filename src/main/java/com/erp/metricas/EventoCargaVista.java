@@ -0,0 +1,29 @@
+package com.erp.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder por cada vista FXML cargada en el panel central.
+ *
+ * @author Noé
+ * @see EventoOperacionDao
+ */
+@Name("com.erp.CargaVista")
+@Label("Carga de vista")
+@Category({"Mini ERP", "Interfaz"})
+@Description("Carga de un FXML con FXMLLoader, incluida la inicialización de su controlador.")
+@StackTrace(false)
+public class EventoCargaVista extends Event {
+
+    @Label("Vista")
+    @Description("Fichero FXML cargado.")
+    public String vista;
+
+    @Label("Correcta")
+    public boolean exito;
+}
@@ -0,0 +1,36 @@
+package com.erp.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder por cada operación pública de un DAO.
+ * <p>
+ * Junto con {@link EventoCargaVista}, {@link EventoBusqueda} y {@link EventoPasoVenta} permite
+ * grabar una sesión real y ver en JDK Mission Control las operaciones de la aplicación sobre la
+ * misma línea de tiempo que las pausas del GC y la actividad del hilo de JavaFX. Mientras no se
+ * graba, crear y cerrar el evento no cuesta prácticamente nada. Para grabar:
+ *
+ * <pre>
+ * java -XX:StartFlightRecording=filename=erp.jfr,settings=profile ...
+ * </pre>
+ *
+ * @author Noé
+ */
+@Name("com.erp.OperacionDao")
+@Label("Operación DAO")
+@Category({"Mini ERP", "Base de datos"})
+@Description("Llamada a un método público de un DAO, incluida la espera por la conexión.")
+@StackTrace(false)
+public class EventoOperacionDao extends Event {
+
+    @Label("Tabla")
+    public String tabla;
+
+    @Label("Método")
+    public String metodo;
+}
@@ -0,0 +1,44 @@
+package com.erp.metricas;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento de Java Flight Recorder por cada paso de la finalización de una venta en caja.
+ *
+ * @author Noé
+ * @see EventoOperacionDao
+ */
+@Name("com.erp.PasoVenta")
+@Label("Paso de finalización de venta")
+@Category({"Mini ERP", "Ventas"})
+@Description("Validar, guardar, encargar la factura o volver a la vista de ventas.")
+@StackTrace(false)
+public class EventoPasoVenta extends Event {
+
+    /** Comprobar el cliente y construir la venta. */
+    public static final String VALIDAR = "validar";
+    /** Guardar la venta y descontar el stock. */
+    public static final String GUARDAR = "guardar";
+    /** Encolar la factura en el servicio de facturas. */
+    public static final String ENCARGAR_FACTURA = "encargarFactura";
+    /** Volver a la vista de ventas. */
+    public static final String VOLVER = "volver";
+
+    @Label("Paso")
+    public String paso;
+
+    @Label("Venta")
+    @Description("ID de la venta, o 0 si aún no se ha guardado.")
+    public int ventaId;
+
+    @Label("Líneas")
+    public int lineas;
+
+    @Label("Resultado")
+    public String resultado;
+}
@@ -0,0 +1,90 @@
+package com.erp.metricas;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Servidor HTTP mínimo que publica {@link RegistroMetricas#exportarTexto()} en
+ * {@code http://127.0.0.1:<puerto>/metricas}, para consultarlo con {@code curl} o para que lo
+ * recoja un Prometheus local.
+ * <p>
+ * Solo escucha en la interfaz local y atiende las peticiones en un único hilo del propio
+ * servidor, así que no compite con la interfaz ni con la base de datos.
+ *
+ * @author Noé
+ */
+public class ExpositorMetricas {
+
+    /** Ruta en la que se publican las métricas. */
+    public static final String RUTA = "/metricas";
+
+    private static final String TIPO_CONTENIDO = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final RegistroMetricas registro;
+    private final int puerto;
+    private HttpServer servidor;
+
+    /**
+     * @param registro Registro a publicar.
+     * @param puerto   Puerto local; 0 para que el sistema elija uno libre.
+     */
+    public ExpositorMetricas(RegistroMetricas registro, int puerto) {
+        this.registro = registro;
+        this.puerto = puerto;
+    }
+
+    /**
+     * Arranca el servidor. No hace nada si ya estaba arrancado.
+     *
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public synchronized void iniciar() throws IOException {
+        if (servidor != null) {
+            return;
+        }
+        servidor = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        servidor.createContext(RUTA, this::atender);
+        servidor.start();
+        System.out.println("Métricas disponibles en http://127.0.0.1:" + getPuerto() + RUTA);
+    }
+
+    /**
+     * Detiene el servidor si estaba arrancado.
+     */
+    public synchronized void detener() {
+        if (servidor != null) {
+            servidor.stop(0);
+            servidor = null;
+        }
+    }
+
+    /**
+     * @return El puerto en el que escucha, o el configurado si aún no ha arrancado.
+     */
+    public synchronized int getPuerto() {
+        return servidor != null ? servidor.getAddress().getPort() : puerto;
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void atender(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            if (!"GET".equals(intercambio.getRequestMethod())) {
+                intercambio.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] cuerpo = registro.exportarTexto().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", TIPO_CONTENIDO);
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream out = intercambio.getResponseBody()) {
+                out.write(cuerpo);
+            }
+        }
+    }
+}
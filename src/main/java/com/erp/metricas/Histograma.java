@@ -0,0 +1,212 @@
+package com.erp.metricas;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de valores enteros no negativos con precisión relativa acotada, al estilo de
+ * HdrHistogram pero sin dependencias.
+ * <p>
+ * Los valores menores que {@code 2 * SUBCUBETAS} tienen cubeta propia. Por encima, cada
+ * potencia de dos se divide en {@value #SUBCUBETAS} cubetas del mismo ancho, así que el error
+ * de un percentil es como mucho de 1/{@value #SUBCUBETAS} (~3 %) sea cual sea la escala:
+ * igual de útil para una consulta de 50 µs que para una factura de 2 s. Los valores por
+ * encima de 2^{@value #EXPONENTE_MAXIMO} (unos 36 minutos en nanosegundos) comparten la
+ * última cubeta, pero el máximo se guarda exacto.
+ * <p>
+ * {@link #registrar(long)} no bloquea: incrementa una cubeta con una operación atómica y
+ * suma la cuenta y el total en {@link LongAdder}. Las lecturas trabajan sobre una
+ * {@link Instantanea}, así que varios percentiles se calculan sobre los mismos datos.
+ *
+ * @author Noé
+ */
+public class Histograma implements HistogramaMXBean {
+
+    /** Cubetas por cada potencia de dos (debe ser potencia de dos). */
+    static final int SUBCUBETAS = 32;
+
+    /** Exponente de la mayor potencia de dos con cubetas propias. */
+    static final int EXPONENTE_MAXIMO = 40;
+
+    private static final int BITS_SUBCUBETA = Integer.numberOfTrailingZeros(SUBCUBETAS);
+    private static final int CUBETAS_DIRECTAS = 2 * SUBCUBETAS;
+    static final int NUMERO_CUBETAS = CUBETAS_DIRECTAS + (EXPONENTE_MAXIMO - BITS_SUBCUBETA) * SUBCUBETAS;
+
+    private final String nombre;
+    private final AtomicLongArray cubetas = new AtomicLongArray(NUMERO_CUBETAS);
+    private final LongAdder cuenta = new LongAdder();
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    Histograma(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Registra un valor. Los negativos se cuentan como cero.
+     *
+     * @param valor Valor a registrar.
+     */
+    public void registrar(long valor) {
+        long v = Math.max(0, valor);
+        cubetas.incrementAndGet(indice(v));
+        cuenta.increment();
+        suma.add(v);
+        long actual;
+        while (v > (actual = maximo.get()) && !maximo.compareAndSet(actual, v)) {
+            // Otro hilo cambió el máximo; se vuelve a comparar
+        }
+    }
+
+    /**
+     * Copia el estado actual para leerlo sin que cambie entre una consulta y otra.
+     *
+     * @return Una instantánea del histograma.
+     */
+    public Instantanea instantanea() {
+        long[] copia = new long[NUMERO_CUBETAS];
+        long total = 0;
+        for (int i = 0; i < NUMERO_CUBETAS; i++) {
+            copia[i] = cubetas.get(i);
+            total += copia[i];
+        }
+        // La cuenta se deduce de las cubetas copiadas para que los percentiles sean coherentes
+        return new Instantanea(copia, total, suma.sum(), maximo.get());
+    }
+
+    /**
+     * @return El nombre con el que se registró.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public long getCuenta() {
+        return cuenta.sum();
+    }
+
+    @Override
+    public double getMedia() {
+        return instantanea().getMedia();
+    }
+
+    @Override
+    public long getP50() {
+        return instantanea().percentil(50);
+    }
+
+    @Override
+    public long getP90() {
+        return instantanea().percentil(90);
+    }
+
+    @Override
+    public long getP99() {
+        return instantanea().percentil(99);
+    }
+
+    @Override
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Cubeta de un valor no negativo.
+     */
+    static int indice(long valor) {
+        if (valor < CUBETAS_DIRECTAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        if (exponente > EXPONENTE_MAXIMO) {
+            return NUMERO_CUBETAS - 1;
+        }
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        return CUBETAS_DIRECTAS + (exponente - BITS_SUBCUBETA - 1) * SUBCUBETAS
+                + (int) ((valor >>> desplazamiento) - SUBCUBETAS);
+    }
+
+    /**
+     * Mayor valor que cae en una cubeta.
+     */
+    static long limiteSuperior(int indice) {
+        if (indice < CUBETAS_DIRECTAS) {
+            return indice;
+        }
+        int relativo = indice - CUBETAS_DIRECTAS;
+        int exponente = relativo / SUBCUBETAS + BITS_SUBCUBETA + 1;
+        long mantisa = relativo % SUBCUBETAS + SUBCUBETAS;
+        int desplazamiento = exponente - BITS_SUBCUBETA;
+        return ((mantisa + 1) << desplazamiento) - 1;
+    }
+
+    /**
+     * Copia inmutable del histograma en un momento dado.
+     */
+    public static final class Instantanea {
+        private final long[] cubetas;
+        private final long cuenta;
+        private final long suma;
+        private final long maximo;
+
+        private Instantanea(long[] cubetas, long cuenta, long suma, long maximo) {
+            this.cubetas = cubetas;
+            this.cuenta = cuenta;
+            this.suma = suma;
+            this.maximo = maximo;
+        }
+
+        /**
+         * @return Número de valores.
+         */
+        public long getCuenta() {
+            return cuenta;
+        }
+
+        /**
+         * @return Suma de los valores.
+         */
+        public long getSuma() {
+            return suma;
+        }
+
+        /**
+         * @return Media de los valores, o 0 si no hay ninguno.
+         */
+        public double getMedia() {
+            return cuenta == 0 ? 0 : (double) suma / cuenta;
+        }
+
+        /**
+         * @return Valor máximo, o 0 si no hay ninguno.
+         */
+        public long getMaximo() {
+            return maximo;
+        }
+
+        /**
+         * Valor por debajo del cual queda el porcentaje indicado de los valores. Se devuelve el
+         * límite superior de su cubeta (nunca por encima del máximo), así que puede sobrestimar
+         * el valor real como mucho en un 1/{@value Histograma#SUBCUBETAS}.
+         *
+         * @param porcentaje Percentil entre 0 y 100.
+         * @return El percentil, o 0 si no hay valores.
+         */
+        public long percentil(double porcentaje) {
+            if (cuenta == 0) {
+                return 0;
+            }
+            long rango = Math.max(1, (long) Math.ceil(porcentaje / 100.0 * cuenta));
+            long acumulado = 0;
+            for (int i = 0; i < cubetas.length; i++) {
+                acumulado += cubetas[i];
+                if (acumulado >= rango) {
+                    return Math.min(limiteSuperior(i), maximo);
+                }
+            }
+            return maximo;
+        }
+    }
+}
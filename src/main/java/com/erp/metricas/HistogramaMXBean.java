@@ -0,0 +1,27 @@
+package com.erp.metricas;
+
+/**
+ * Vista JMX de un {@link Histograma}, en las unidades de los valores registrados.
+ *
+ * @author Noé
+ */
+public interface HistogramaMXBean {
+
+    /** @return Número de valores registrados. */
+    long getCuenta();
+
+    /** @return Media de los valores. */
+    double getMedia();
+
+    /** @return Mediana (percentil 50). */
+    long getP50();
+
+    /** @return Percentil 90. */
+    long getP90();
+
+    /** @return Percentil 99. */
+    long getP99();
+
+    /** @return Valor máximo registrado. */
+    long getMaximo();
+}
@@ -0,0 +1,157 @@
+package com.erp.metricas;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Registro de las métricas de la aplicación: contadores, temporizadores e histogramas
+ * identificados por un nombre con puntos ({@code dao.ventas.guardarVenta}).
+ * <p>
+ * Pedir una métrica que ya existe devuelve la misma instancia, así que las clases pueden
+ * guardarla en un campo o pedirla en cada uso. Al crearse, cada métrica se publica como MXBean
+ * en el dominio JMX del registro (por ejemplo
+ * {@code com.erp:type=Temporizador,name=dao.ventas.guardarVenta}) para consultarla con
+ * JConsole o VisualVM, y {@link #exportarTexto()} la vuelca en formato de texto de Prometheus
+ * para {@link ExpositorMetricas}.
+ *
+ * @author Noé
+ */
+public class RegistroMetricas {
+
+    /** Dominio JMX del registro global. */
+    public static final String DOMINIO_JMX = "com.erp";
+
+    private static final String PREFIJO_TEXTO = "erp_";
+    private static final double[] CUANTILES = {0.5, 0.9, 0.99};
+    private static final double NANOS_POR_SEGUNDO = 1_000_000_000.0;
+
+    private static final RegistroMetricas GLOBAL = new RegistroMetricas(DOMINIO_JMX);
+
+    private final String dominioJmx;
+    private final ConcurrentMap<String, Contador> contadores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Temporizador> temporizadores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histograma> histogramas = new ConcurrentHashMap<>();
+
+    /**
+     * Crea un registro independiente del global.
+     *
+     * @param dominioJmx Dominio con el que publicar las métricas en JMX, o {@code null} para
+     *                   no publicarlas.
+     */
+    public RegistroMetricas(String dominioJmx) {
+        this.dominioJmx = dominioJmx;
+    }
+
+    /**
+     * @return El registro que usa toda la aplicación.
+     */
+    public static RegistroMetricas getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param nombre Nombre del contador.
+     * @return El contador con ese nombre, creándolo si no existe.
+     */
+    public Contador contador(String nombre) {
+        return obtener(contadores, nombre, Contador::new, "Contador");
+    }
+
+    /**
+     * @param nombre Nombre del temporizador.
+     * @return El temporizador con ese nombre, creándolo si no existe.
+     */
+    public Temporizador temporizador(String nombre) {
+        return obtener(temporizadores, nombre, Temporizador::new, "Temporizador");
+    }
+
+    /**
+     * @param nombre Nombre del histograma.
+     * @return El histograma con ese nombre, creándolo si no existe.
+     */
+    public Histograma histograma(String nombre) {
+        return obtener(histogramas, nombre, Histograma::new, "Histograma");
+    }
+
+    /**
+     * Vuelca todas las métricas en el formato de texto de Prometheus. Los nombres llevan el
+     * prefijo {@code erp_} y los puntos se cambian por guiones bajos; los temporizadores se
+     * expresan en segundos, como pide la convención de Prometheus.
+     *
+     * @return El texto con una línea por valor.
+     */
+    public String exportarTexto() {
+        StringBuilder sb = new StringBuilder();
+        for (Contador c : new TreeMap<>(contadores).values()) {
+            String nombre = nombreTexto(c.getNombre()) + "_total";
+            sb.append("# TYPE ").append(nombre).append(" counter\n");
+            sb.append(nombre).append(' ').append(c.getValor()).append('\n');
+        }
+        for (Temporizador t : new TreeMap<>(temporizadores).values()) {
+            escribirResumen(sb, nombreTexto(t.getNombre()) + "_seconds", t.instantanea(), NANOS_POR_SEGUNDO);
+        }
+        for (Histograma h : new TreeMap<>(histogramas).values()) {
+            escribirResumen(sb, nombreTexto(h.getNombre()), h.instantanea(), 1);
+        }
+        return sb.toString();
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private <M> M obtener(ConcurrentMap<String, M> metricas, String nombre, Function<String, M> crear, String tipo) {
+        M metrica = metricas.get(nombre);
+        if (metrica != null) {
+            return metrica;
+        }
+        return metricas.computeIfAbsent(nombre, n -> {
+            M nueva = crear.apply(n);
+            publicar(nueva, tipo, n);
+            return nueva;
+        });
+    }
+
+    private void publicar(Object metrica, String tipo, String nombre) {
+        if (dominioJmx == null) {
+            return;
+        }
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objeto = new ObjectName(dominioJmx + ":type=" + tipo + ",name=" + ObjectName.quote(nombre));
+            if (servidor.isRegistered(objeto)) {
+                servidor.unregisterMBean(objeto);
+            }
+            servidor.registerMBean(metrica, objeto);
+        } catch (JMException e) {
+            // La métrica sigue funcionando aunque no se vea por JMX
+            System.err.println("No se pudo publicar la métrica '" + nombre + "' en JMX: " + e.getMessage());
+        }
+    }
+
+    private static void escribirResumen(StringBuilder sb, String nombre, Histograma.Instantanea datos, double divisor) {
+        sb.append("# TYPE ").append(nombre).append(" summary\n");
+        for (double q : CUANTILES) {
+            sb.append(nombre).append("{quantile=\"").append(q).append("\"} ")
+                    .append(formatear(datos.percentil(q * 100) / divisor)).append('\n');
+        }
+        sb.append(nombre).append("_count ").append(datos.getCuenta()).append('\n');
+        sb.append(nombre).append("_sum ").append(formatear(datos.getSuma() / divisor)).append('\n');
+    }
+
+    private static String nombreTexto(String nombre) {
+        return PREFIJO_TEXTO + nombre.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+
+    private static String formatear(double valor) {
+        if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            return Long.toString((long) valor);
+        }
+        // Prometheus acepta la notación científica de Double.toString (1.5E-4)
+        return Double.toString(valor);
+    }
+}
@@ -0,0 +1,136 @@
+package com.erp.metricas;
+
+import java.util.function.Supplier;
+
+/**
+ * Mide duraciones en nanosegundos sobre un {@link Histograma}, de modo que además de la media
+ * se pueden consultar la mediana y las colas (p90, p99).
+ * <p>
+ * La forma más cómoda en código con varios puntos de salida es tomar el instante inicial y
+ * registrar en un {@code finally}:
+ *
+ * <pre>{@code
+ * long inicio = System.nanoTime();
+ * try {
+ *     ...
+ * } finally {
+ *     temporizador.registrarDesde(inicio);
+ * }
+ * }</pre>
+ *
+ * @author Noé
+ */
+public class Temporizador implements TemporizadorMXBean {
+
+    private static final double NANOS_POR_MS = 1_000_000.0;
+
+    private final String nombre;
+    private final Histograma histograma;
+
+    Temporizador(String nombre) {
+        this.nombre = nombre;
+        this.histograma = new Histograma(nombre);
+    }
+
+    /**
+     * Registra una duración.
+     *
+     * @param nanos Duración en nanosegundos.
+     */
+    public void registrar(long nanos) {
+        histograma.registrar(nanos);
+    }
+
+    /**
+     * Registra el tiempo transcurrido desde un instante tomado con {@link System#nanoTime()}.
+     *
+     * @param inicioNanos Instante inicial.
+     */
+    public void registrarDesde(long inicioNanos) {
+        histograma.registrar(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * Empieza una medición que se registra al cerrarla, pensada para try-with-resources.
+     *
+     * @return La medición en curso.
+     */
+    public Medicion iniciar() {
+        return new Medicion(System.nanoTime());
+    }
+
+    /**
+     * Ejecuta una operación y registra lo que tarda, aunque lance una excepción.
+     *
+     * @param operacion Operación a medir.
+     * @return Lo que devuelva la operación.
+     */
+    public <T> T medir(Supplier<T> operacion) {
+        long inicio = System.nanoTime();
+        try {
+            return operacion.get();
+        } finally {
+            registrarDesde(inicio);
+        }
+    }
+
+    /**
+     * @return Una instantánea de las duraciones registradas, en nanosegundos.
+     */
+    public Histograma.Instantanea instantanea() {
+        return histograma.instantanea();
+    }
+
+    /**
+     * @return El nombre con el que se registró.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    @Override
+    public long getCuenta() {
+        return histograma.getCuenta();
+    }
+
+    @Override
+    public double getMediaMs() {
+        return histograma.getMedia() / NANOS_POR_MS;
+    }
+
+    @Override
+    public double getP50Ms() {
+        return histograma.getP50() / NANOS_POR_MS;
+    }
+
+    @Override
+    public double getP90Ms() {
+        return histograma.getP90() / NANOS_POR_MS;
+    }
+
+    @Override
+    public double getP99Ms() {
+        return histograma.getP99() / NANOS_POR_MS;
+    }
+
+    @Override
+    public double getMaximoMs() {
+        return histograma.getMaximo() / NANOS_POR_MS;
+    }
+
+    /**
+     * Medición en curso; registra la duración al cerrarse.
+     */
+    public final class Medicion implements AutoCloseable {
+        private final long inicio;
+
+        private Medicion(long inicio) {
+            this.inicio = inicio;
+        }
+
+        @Override
+        public void close() {
+            registrarDesde(inicio);
+        }
+    }
+}
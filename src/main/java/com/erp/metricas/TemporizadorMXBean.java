@@ -0,0 +1,27 @@
+package com.erp.metricas;
+
+/**
+ * Vista JMX de un {@link Temporizador}, con las duraciones en milisegundos.
+ *
+ * @author Noé
+ */
+public interface TemporizadorMXBean {
+
+    /** @return Número de mediciones. */
+    long getCuenta();
+
+    /** @return Duración media en milisegundos. */
+    double getMediaMs();
+
+    /** @return Mediana (percentil 50) en milisegundos. */
+    double getP50Ms();
+
+    /** @return Percentil 90 en milisegundos. */
+    double getP90Ms();
+
+    /** @return Percentil 99 en milisegundos. */
+    double getP99Ms();
+
+    /** @return Duración máxima en milisegundos. */
+    double getMaximoMs();
+}
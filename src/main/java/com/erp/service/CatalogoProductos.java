@@ -0,0 +1,263 @@
+package com.erp.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import com.erp.dao.ProductoDAO;
+import com.erp.model.DetalleVenta;
+import com.erp.model.Producto;
+import com.erp.utils.LazyPagedList;
+
+import javafx.application.Platform;
+
+/**
+ * Catálogo de productos compartido por todas las pantallas que lo muestran o lo modifican:
+ * la gestión de productos, la venta y la finalización de venta.
+ * <p>
+ * Antes cada pantalla leía el catálogo por su cuenta y guardaba su propia copia, que no se
+ * enteraba de lo que cambiaban las demás y había que releer entera al volver a ella. Ahora:
+ * <ul>
+ *   <li>Hay una sola lista paginada ({@link #getProductos()}) que usan todas las tablas. Se
+ *       crea la primera vez que se pide y a partir de ahí no se vuelve a leer entera.</li>
+ *   <li>Las altas, modificaciones y bajas pasan por {@link #guardar(Producto)} y
+ *       {@link #eliminar(Producto)}, que escriben con {@link ProductoDAO} y aplican el cambio
+ *       sobre las páginas ya cargadas. Tras una venta, {@link #actualizarStockVendido(List)}
+ *       relee solo los productos vendidos.</li>
+ *   <li>Cada cambio se publica como un {@link Cambio} a los suscriptores, por defecto en el
+ *       hilo de JavaFX, para que las pantallas que muestran otra lista (el resultado de una
+ *       búsqueda, por ejemplo) también se actualicen.</li>
+ * </ul>
+ * Los métodos que modifican el catálogo avisan a las tablas que lo muestran, así que deben
+ * llamarse desde el hilo de JavaFX. Los cambios hechos desde otro terminal no se ven hasta
+ * reiniciar; el stock se vuelve a comprobar en la base de datos al añadir a la cesta y al
+ * guardar la venta.
+ *
+ * @author Noé
+ * @see LazyPagedList
+ */
+public class CatalogoProductos {
+
+    // Filas que se leen de la base de datos de una vez y páginas que se mantienen en memoria.
+    private static final int TAMANO_PAGINA = 200;
+    private static final int MAX_PAGINAS_CACHE = 10;
+
+    private static CatalogoProductos instancia;
+
+    /**
+     * Tipo de cambio publicado a los suscriptores.
+     */
+    public enum TipoCambio {
+        /** Producto nuevo. */
+        ALTA,
+        /** Producto modificado, incluido un cambio de stock por una venta. */
+        MODIFICACION,
+        /** Producto eliminado. */
+        BAJA
+    }
+
+    /**
+     * Un cambio en el catálogo.
+     */
+    public static class Cambio {
+        private final TipoCambio tipo;
+        private final Producto producto;
+
+        public Cambio(TipoCambio tipo, Producto producto) {
+            this.tipo = tipo;
+            this.producto = producto;
+        }
+
+        public TipoCambio getTipo() {
+            return tipo;
+        }
+
+        /**
+         * @return El producto tal como ha quedado; en una baja, el último estado conocido.
+         */
+        public Producto getProducto() {
+            return producto;
+        }
+
+        @Override
+        public String toString() {
+            return tipo + " " + producto.getId();
+        }
+    }
+
+    private final ProductoDAO productoDAO;
+    private final Executor publicador;
+    private final List<Consumer<Cambio>> suscriptores = new CopyOnWriteArrayList<>();
+    private LazyPagedList<Producto> productos; // Creada bajo demanda; protegida por 'this'
+
+    /**
+     * @param productoDAO DAO con el que se leen y escriben los productos.
+     * @param publicador  Ejecutor en el que se notifica a los suscriptores.
+     */
+    public CatalogoProductos(ProductoDAO productoDAO, Executor publicador) {
+        this.productoDAO = productoDAO;
+        this.publicador = publicador;
+    }
+
+    /**
+     * Devuelve el catálogo compartido por toda la aplicación, creándolo la primera vez.
+     * Notifica a los suscriptores en el hilo de JavaFX.
+     *
+     * @return El catálogo compartido.
+     */
+    public static synchronized CatalogoProductos getInstancia() {
+        if (instancia == null) {
+            instancia = new CatalogoProductos(new ProductoDAO(), Platform::runLater);
+        }
+        return instancia;
+    }
+
+    /**
+     * Devuelve la lista paginada del catálogo completo, ordenada por ID. La primera llamada
+     * la crea (cuenta los productos); las siguientes devuelven siempre la misma lista.
+     *
+     * @return La lista compartida, lista para usarse como {@code items} de una tabla.
+     */
+    public synchronized LazyPagedList<Producto> getProductos() {
+        if (productos == null) {
+            productos = new LazyPagedList<>(new LazyPagedList.FuentePaginas<>() {
+                @Override
+                public int contar() {
+                    return productoDAO.contarProductos();
+                }
+
+                @Override
+                public List<Producto> cargar(int posicion, Integer despuesDeId, int tamano) {
+                    // Con cursor se usa la paginación por clave; sin él, la posición.
+                    if (despuesDeId != null) {
+                        return productoDAO.listarProductosPagina(despuesDeId, tamano, false).getElementos();
+                    }
+                    return productoDAO.listarProductosDesdePosicion(posicion, tamano);
+                }
+            }, Producto::getId, TAMANO_PAGINA, MAX_PAGINAS_CACHE);
+        }
+        return productos;
+    }
+
+    /**
+     * Crea la lista y lee su primera página, para que la primera tabla que la muestre no
+     * espere a la base de datos. Pensado para el arranque, fuera del hilo de JavaFX.
+     */
+    public void precargar() {
+        LazyPagedList<Producto> lista = getProductos();
+        if (!lista.isEmpty()) {
+            lista.get(0);
+        }
+    }
+
+    /**
+     * Guarda un producto nuevo (sin ID) o actualiza uno existente, aplica el cambio a la
+     * lista compartida y lo publica.
+     *
+     * @param producto Producto a guardar. Si es nuevo, recibe el ID asignado.
+     * @return {@code true} si se guardó en la base de datos.
+     */
+    public boolean guardar(Producto producto) {
+        boolean nuevo = producto.getId() == null;
+        boolean exito = nuevo ? productoDAO.guardarProductoDb(producto) : productoDAO.actualizarProductoEnDb(producto);
+        if (exito) {
+            LazyPagedList<Producto> lista = listaSiExiste();
+            if (lista != null) {
+                if (nuevo) {
+                    lista.anadirAlFinal(producto);
+                } else {
+                    lista.reemplazar(producto);
+                }
+            }
+            publicar(new Cambio(nuevo ? TipoCambio.ALTA : TipoCambio.MODIFICACION, producto));
+        }
+        return exito;
+    }
+
+    /**
+     * Elimina un producto, lo quita de la lista compartida y publica la baja.
+     *
+     * @param producto Producto a eliminar.
+     * @return {@code true} si se eliminó de la base de datos.
+     */
+    public boolean eliminar(Producto producto) {
+        boolean exito = productoDAO.eliminarProductoPorId(producto.getId());
+        if (exito) {
+            LazyPagedList<Producto> lista = listaSiExiste();
+            if (lista != null) {
+                lista.eliminar(producto.getId());
+            }
+            publicar(new Cambio(TipoCambio.BAJA, producto));
+        }
+        return exito;
+    }
+
+    /**
+     * Tras guardar una venta, relee el stock de los productos vendidos y publica cada uno
+     * como modificado. Se relee en lugar de restar la cantidad vendida porque otro terminal
+     * puede haber vendido a la vez.
+     *
+     * @param lineas Líneas de la venta guardada.
+     */
+    public void actualizarStockVendido(List<DetalleVenta> lineas) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (DetalleVenta linea : lineas) {
+            ids.add(linea.getProducto().getId());
+        }
+        LazyPagedList<Producto> lista = listaSiExiste();
+        for (Integer id : ids) {
+            Producto actual = productoDAO.buscarProductoPorId(id);
+            if (actual == null) {
+                continue; // Borrado entretanto; su baja ya se publicó
+            }
+            if (lista != null) {
+                lista.reemplazar(actual);
+            }
+            publicar(new Cambio(TipoCambio.MODIFICACION, actual));
+        }
+    }
+
+    /**
+     * Registra un suscriptor que recibirá cada cambio del catálogo en el publicador.
+     *
+     * @param suscriptor Receptor de los cambios.
+     * @return Una acción que cancela la suscripción. Hay que ejecutarla al desechar la
+     *         pantalla: el catálogo vive toda la aplicación y la mantendría en memoria.
+     */
+    public Runnable suscribir(Consumer<Cambio> suscriptor) {
+        suscriptores.add(suscriptor);
+        return () -> suscriptores.remove(suscriptor);
+    }
+
+    /**
+     * @return Número de suscriptores activos.
+     */
+    public int getSuscriptores() {
+        return suscriptores.size();
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private synchronized LazyPagedList<Producto> listaSiExiste() {
+        return productos;
+    }
+
+    private void publicar(Cambio cambio) {
+        if (suscriptores.isEmpty()) {
+            return;
+        }
+        publicador.execute(() -> {
+            for (Consumer<Cambio> suscriptor : suscriptores) {
+                try {
+                    suscriptor.accept(cambio);
+                } catch (RuntimeException e) {
+                    System.err.println("Error al notificar el cambio " + cambio + " del catálogo.");
+                    e.printStackTrace();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.erp.service;
+
+import java.util.List;
+import java.util.Map;
+
+import com.erp.dao.ClienteDAO;
+import com.erp.model.Cliente;
+import com.erp.utils.LazyPagedList;
+
+/**
+ * Servicio de búsqueda de clientes compartido por las pantallas que los listan:
+ * la gestión de clientes, la finalización de venta y el diálogo de selección.
+ * <p>
+ * Todas las búsquedas se resuelven en la base de datos a través del índice de texto
+ * completo de {@link ClienteDAO}, en lugar de filtrar en memoria la lista completa
+ * de clientes en cada pulsación. Los resultados están acotados a {@link #LIMITE_RESULTADOS}.
+ * Sin nada que buscar se devuelve el listado completo ({@link #listarTodos()}), que no tiene
+ * límite porque se lee por páginas a medida que la tabla se desplaza. Cada pantalla crea el
+ * suyo una vez y lo pasa a las búsquedas, que lo devuelven tal cual al vaciarse el criterio:
+ * así no se vuelve a contar la tabla ni se pierden las páginas ya leídas.
+ * </p>
+ *
+ * @author Noé
+ * @see ClienteDAO#buscar(String, int)
+ * @see ClienteDAO#buscarClientesPorCriterios(String, String, String, int)
+ */
+public class ClienteBusquedaService {
+
+    /** Máximo de clientes que devuelve una búsqueda. */
+    public static final int LIMITE_RESULTADOS = 500;
+
+    // Filas que se leen de la base de datos de una vez y páginas que se mantienen en memoria.
+    private static final int TAMANO_PAGINA = 200;
+    private static final int MAX_PAGINAS_CACHE = 10;
+
+    private final ClienteDAO clienteDAO;
+
+    /**
+     * Crea el servicio con su propio {@link ClienteDAO}.
+     */
+    public ClienteBusquedaService() {
+        this(new ClienteDAO());
+    }
+
+    /**
+     * Crea el servicio sobre un DAO concreto.
+     *
+     * @param clienteDAO DAO con el que se consultan los clientes.
+     */
+    public ClienteBusquedaService(ClienteDAO clienteDAO) {
+        this.clienteDAO = clienteDAO;
+    }
+
+    /**
+     * Listado que se muestra antes de buscar: todos los clientes por ID, en una lista
+     * paginada. Crearla cuesta un recuento; las filas se leen cuando la tabla las pide.
+     *
+     * @return Una lista nueva con todos los clientes, lista para usarse como {@code items} de una tabla.
+     */
+    public LazyPagedList<Cliente> listarTodos() {
+        return new LazyPagedList<>(new LazyPagedList.FuentePaginas<>() {
+            @Override
+            public int contar() {
+                return clienteDAO.contarClientes();
+            }
+
+            @Override
+            public List<Cliente> cargar(int posicion, Integer despuesDeId, int tamano) {
+                // Con cursor se usa la paginación por clave; sin él, la posición.
+                if (despuesDeId != null) {
+                    return clienteDAO.listarClientesDespuesDe(despuesDeId, tamano);
+                }
+                return clienteDAO.listarClientesDesdePosicion(posicion, tamano);
+            }
+        }, Cliente::getId, TAMANO_PAGINA, MAX_PAGINAS_CACHE);
+    }
+
+    /**
+     * Búsqueda libre en todos los campos indexados (nombre, apellidos, razón social,
+     * CIF/NIF, email y teléfono). Un texto vacío devuelve el listado completo.
+     *
+     * @param texto           Texto introducido por el usuario.
+     * @param listadoCompleto Listado completo de la pantalla (de {@link #listarTodos()}).
+     * @return Clientes ordenados por relevancia, o {@code listadoCompleto} si no hay texto.
+     */
+    public List<Cliente> buscar(String texto, LazyPagedList<Cliente> listadoCompleto) {
+        if (texto == null || texto.isBlank()) {
+            return listadoCompleto;
+        }
+        return clienteDAO.buscar(texto, LIMITE_RESULTADOS);
+    }
+
+    /**
+     * Búsqueda con los criterios del formulario de búsqueda de clientes
+     * (claves {@code id}, {@code nombre} y {@code cifnif}). Sin criterios devuelve
+     * el listado completo.
+     *
+     * @param criterios       Criterios del formulario.
+     * @param listadoCompleto Listado completo de la pantalla (de {@link #listarTodos()}).
+     * @return Clientes que cumplen todos los criterios, o {@code listadoCompleto} si no hay ninguno.
+     */
+    public List<Cliente> buscarPorCriterios(Map<String, String> criterios, LazyPagedList<Cliente> listadoCompleto) {
+        String id = criterios.getOrDefault("id", "");
+        String nombre = criterios.getOrDefault("nombre", "");
+        String cifnif = criterios.getOrDefault("cifnif", "");
+        if (esVacio(id) && esVacio(nombre) && esVacio(cifnif)) {
+            return listadoCompleto;
+        }
+        return clienteDAO.buscarClientesPorCriterios(id, nombre, cifnif, LIMITE_RESULTADOS);
+    }
+
+    private static boolean esVacio(String texto) {
+        return texto == null || texto.isBlank();
+    }
+}
@@ -0,0 +1,343 @@
+package com.erp.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.erp.dao.FiltroVentas;
+import com.erp.dao.Pagina;
+import com.erp.dao.VentaDAO;
+import com.erp.db.SQLiteConnector;
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+import com.erp.model.Venta;
+import com.erp.utils.FacturaPDFGenerator;
+
+/**
+ * Regenera en lote las facturas de las ventas que cumplen un filtro (por ejemplo, todas
+ * las de un mes para la reimpresión de cierre).
+ * <p>
+ * Las ventas se leen de {@link VentaDAO} por páginas de {@link #VENTAS_POR_PAGINA}, así que
+ * nunca están todas en memoria, y cada factura se genera como una tarea de un
+ * {@link ForkJoinPool}. Mientras el pool genera las facturas de una página se lee la
+ * siguiente, de modo que la base de datos no hace esperar a los hilos.
+ * <p>
+ * El proceso se puede reanudar: las facturas cuyo fichero ya existe se omiten, y cada PDF
+ * se escribe primero en un fichero temporal que se renombra al terminar, así que un corte
+ * a medias nunca deja una factura incompleta con el nombre definitivo.
+ * <p>
+ * Si falla la lectura de una página el proceso se detiene con el error, después de terminar
+ * las facturas ya encargadas: no se da por acabado un lote al que le faltan ventas.
+ *
+ * @author Noé
+ */
+public class FacturaLoteService {
+
+    /** Ventas que se leen de la base de datos en cada consulta. */
+    public static final int VENTAS_POR_PAGINA = 200;
+
+    /** Extensión del fichero temporal mientras se escribe una factura. */
+    static final String EXTENSION_TEMPORAL = ".tmp";
+
+    /** Duración de cada factura del lote, desde que se empieza a escribir hasta que se renombra. */
+    private static final Temporizador GENERAR = RegistroMetricas.getGlobal().temporizador("facturas.lote.generar");
+
+    private final VentaDAO ventaDAO;
+    private final FacturaPDFGenerator generador;
+    private final int paralelismo;
+    private final int ventasPorPagina;
+
+    /**
+     * Crea el servicio con un hilo por procesador y el generador por defecto.
+     */
+    public FacturaLoteService() {
+        this(new VentaDAO(), new FacturaPDFGenerator(), Runtime.getRuntime().availableProcessors(), VENTAS_POR_PAGINA);
+    }
+
+    /**
+     * Crea el servicio.
+     *
+     * @param ventaDAO        DAO del que se leen las ventas.
+     * @param generador       Generador de las facturas (se comparte entre todos los hilos).
+     * @param paralelismo     Número de hilos del pool.
+     * @param ventasPorPagina Ventas por consulta a la base de datos.
+     * @throws IllegalArgumentException Si el paralelismo o el tamaño de página no son positivos.
+     */
+    public FacturaLoteService(VentaDAO ventaDAO, FacturaPDFGenerator generador, int paralelismo, int ventasPorPagina) {
+        if (paralelismo < 1 || ventasPorPagina < 1) {
+            throw new IllegalArgumentException("El paralelismo y las ventas por página deben ser positivos.");
+        }
+        this.ventaDAO = ventaDAO;
+        this.generador = generador;
+        this.paralelismo = paralelismo;
+        this.ventasPorPagina = ventasPorPagina;
+    }
+
+    /**
+     * Genera las facturas de las ventas del filtro que aún no están en el directorio.
+     *
+     * @param filtro     Ventas a facturar.
+     * @param directorio Directorio de las facturas; se crea si no existe.
+     * @param progreso   Recibe el resumen parcial tras cada página (puede ser {@code null}).
+     *                   Se llama desde el hilo que ejecuta este método.
+     * @return El resumen final: facturas generadas, omitidas, con error y ritmo.
+     * @throws IOException          Si no se puede crear el directorio.
+     * @throws SQLException         Si falla la lectura de una página de ventas; antes de lanzarlo se
+     *                              terminan las facturas en curso y {@code progreso} recibe el
+     *                              resumen con la {@linkplain Resumen#getLecturasFallidas() lectura fallida}.
+     * @throws InterruptedException Si se interrumpe el hilo; las facturas ya terminadas se conservan.
+     */
+    public Resumen regenerar(FiltroVentas filtro, Path directorio, Consumer<Resumen> progreso)
+            throws IOException, SQLException, InterruptedException {
+        Files.createDirectories(directorio);
+        Contadores contadores = new Contadores();
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        List<ForkJoinTask<?>> enCurso = new ArrayList<>();
+        try {
+            Pagina<Venta> pagina = ventaDAO.leerVentasPagina(filtro, Pagina.INICIO, ventasPorPagina);
+            while (true) {
+                List<ForkJoinTask<?>> tareas = new ArrayList<>();
+                for (Venta venta : pagina.getElementos()) {
+                    tareas.add(pool.submit(() -> generarFactura(venta, directorio, contadores)));
+                }
+                // Se espera a la página anterior mientras el pool ya trabaja en esta
+                esperar(enCurso, contadores, progreso);
+                enCurso = tareas;
+                if (!pagina.hayMas()) {
+                    break;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                pagina = ventaDAO.leerVentasPagina(filtro, pagina.getSiguienteCursor(), ventasPorPagina);
+            }
+            esperar(enCurso, contadores, progreso);
+        } catch (SQLException e) {
+            contadores.lecturasFallidas.increment();
+            esperar(enCurso, contadores, null);
+            Resumen parcial = contadores.resumen();
+            if (progreso != null) {
+                progreso.accept(parcial);
+            }
+            System.err.println("Regeneración de facturas detenida por un error de lectura: " + parcial);
+            throw e;
+        } catch (InterruptedException e) {
+            System.err.println("Regeneración de facturas interrumpida: " + contadores.resumen());
+            throw e;
+        } finally {
+            pool.shutdownNow();
+        }
+        return contadores.resumen();
+    }
+
+    /**
+     * Regenera facturas desde la línea de comandos, por ejemplo para la reimpresión de fin de mes:
+     * <pre>
+     * java -cp ... com.erp.service.FacturaLoteService --desde=2025-03-01 --hasta=2025-03-31 --dir=facturas/2025-03
+     * </pre>
+     * Opciones (todas opcionales): {@code --desde}, {@code --hasta} (fechas ISO incluidas), {@code --cliente}
+     * (ID), {@code --dir} (por defecto {@value FacturaService#DIRECTORIO_FACTURAS}), {@code --hilos} y {@code --db}.
+     *
+     * @param args Opciones con el formato {@code --nombre=valor}.
+     */
+    public static void main(String[] args) {
+        String db = null;
+        LocalDate desde = null;
+        LocalDate hasta = null;
+        Integer cliente = null;
+        String dir = FacturaService.DIRECTORIO_FACTURAS;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        FiltroVentas filtro;
+        try {
+            for (String arg : args) {
+                String[] partes = arg.split("=", 2);
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Opción sin valor: " + arg);
+                }
+                switch (partes[0]) {
+                    case "--db" -> db = partes[1];
+                    case "--desde" -> desde = LocalDate.parse(partes[1]);
+                    case "--hasta" -> hasta = LocalDate.parse(partes[1]);
+                    case "--cliente" -> cliente = Integer.parseInt(partes[1]);
+                    case "--dir" -> dir = partes[1];
+                    case "--hilos" -> hilos = Integer.parseInt(partes[1]);
+                    default -> throw new IllegalArgumentException("Opción desconocida: " + partes[0]);
+                }
+            }
+            filtro = new FiltroVentas(desde, hasta, cliente);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: FacturaLoteService [--desde=AAAA-MM-DD] [--hasta=AAAA-MM-DD] [--cliente=ID] [--dir=ruta] [--hilos=N] [--db=ruta]");
+            System.exit(1);
+            return;
+        }
+
+        if (db != null) {
+            SQLiteConnector.usarBaseDeDatos(db);
+        }
+        SQLiteConnector.initDatabase();
+        try {
+            System.out.println("Regenerando facturas de " + filtro + " en " + dir + " con " + hilos + " hilos...");
+            FacturaLoteService servicio = new FacturaLoteService(new VentaDAO(), new FacturaPDFGenerator(), hilos, VENTAS_POR_PAGINA);
+            Resumen resumen = servicio.regenerar(filtro, Path.of(dir), parcial -> System.out.println("  " + parcial));
+            System.out.println("Terminado: " + resumen);
+            if (resumen.getErrores() > 0) {
+                System.exit(2);
+            }
+        } catch (IOException | SQLException | InterruptedException e) {
+            System.err.println("Error al regenerar las facturas: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            SQLiteConnector.closeConnection();
+        }
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void generarFactura(Venta venta, Path directorio, Contadores contadores) {
+        String nombre = FacturaPDFGenerator.getInvoiceFileName(venta);
+        Path destino = directorio.resolve(nombre);
+        if (Files.exists(destino)) {
+            contadores.omitidas.increment();
+            return;
+        }
+        Path temporal = directorio.resolve(nombre + EXTENSION_TEMPORAL);
+        long inicio = System.nanoTime();
+        try {
+            try (OutputStream out = Files.newOutputStream(temporal)) {
+                generador.writeInvoice(venta, out);
+            }
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            contadores.generadas.increment();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error al generar la factura de la venta " + venta.getId() + ": " + e.getMessage());
+            e.printStackTrace();
+            contadores.errores.increment();
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException ignorada) {
+                // Se sobrescribirá en el próximo intento
+            }
+        } finally {
+            GENERAR.registrarDesde(inicio);
+        }
+    }
+
+    private static void esperar(List<ForkJoinTask<?>> tareas, Contadores contadores, Consumer<Resumen> progreso)
+            throws InterruptedException {
+        if (tareas.isEmpty()) {
+            return;
+        }
+        for (ForkJoinTask<?> tarea : tareas) {
+            try {
+                tarea.join(); // generarFactura no lanza: los errores ya están contados
+            } catch (CancellationException e) {
+                throw new InterruptedException("Pool de facturas cancelado.");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        if (progreso != null) {
+            progreso.accept(contadores.resumen());
+        }
+    }
+
+    /**
+     * Contadores que actualizan a la vez todos los hilos del pool.
+     */
+    private static final class Contadores {
+        private final long inicio = System.nanoTime();
+        private final LongAdder generadas = new LongAdder();
+        private final LongAdder omitidas = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private final LongAdder lecturasFallidas = new LongAdder();
+
+        Resumen resumen() {
+            return new Resumen(generadas.sum(), omitidas.sum(), errores.sum(), lecturasFallidas.sum(),
+                    System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Resultado (parcial o final) de una regeneración en lote.
+     */
+    public static final class Resumen {
+        private final long generadas;
+        private final long omitidas;
+        private final long errores;
+        private final long lecturasFallidas;
+        private final long nanos;
+
+        Resumen(long generadas, long omitidas, long errores, long lecturasFallidas, long nanos) {
+            this.generadas = generadas;
+            this.omitidas = omitidas;
+            this.errores = errores;
+            this.lecturasFallidas = lecturasFallidas;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return Facturas escritas en esta ejecución.
+         */
+        public long getGeneradas() {
+            return generadas;
+        }
+
+        /**
+         * @return Facturas que ya existían y no se han vuelto a generar.
+         */
+        public long getOmitidas() {
+            return omitidas;
+        }
+
+        /**
+         * @return Facturas que no se pudieron generar.
+         */
+        public long getErrores() {
+            return errores;
+        }
+
+        /**
+         * @return Páginas de ventas que no se pudieron leer. Si no es 0, el lote se detuvo
+         *         antes de llegar a la última venta.
+         */
+        public long getLecturasFallidas() {
+            return lecturasFallidas;
+        }
+
+        /**
+         * @return Milisegundos transcurridos desde el inicio.
+         */
+        public long getDuracionMs() {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        /**
+         * @return Facturas generadas por segundo (sin contar las omitidas).
+         */
+        public double getFacturasPorSegundo() {
+            return nanos > 0 ? generadas * 1_000_000_000.0 / nanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            String texto = String.format("%d generadas, %d omitidas, %d errores en %d ms (%.1f facturas/s)",
+                    generadas, omitidas, errores, getDuracionMs(), getFacturasPorSegundo());
+            return lecturasFallidas > 0 ? texto + ", " + lecturasFallidas + " lecturas fallidas" : texto;
+        }
+    }
+}
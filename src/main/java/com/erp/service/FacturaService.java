@@ -0,0 +1,208 @@
+package com.erp.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.erp.metricas.Contador;
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+import com.erp.model.Venta;
+import com.erp.utils.FacturaPDFGenerator;
+
+import javafx.application.Platform;
+
+/**
+ * Servicio que genera las facturas en PDF fuera del hilo de JavaFX.
+ * <p>
+ * Maquetar una factura con iText puede tardar, y antes se hacía en el hilo de la interfaz
+ * justo después de guardar la venta, congelando la caja. Con este servicio:
+ * <ul>
+ *   <li>{@link #generar(Venta, Consumer)} encola la factura y vuelve al instante con un
+ *       {@link CompletableFuture} que se completa con el fichero generado.</li>
+ *   <li>Un pool acotado de {@link #HILOS_POR_DEFECTO} hilos genera las facturas en orden de llegada.
+ *       La cola admite como mucho {@link #CAPACIDAD_COLA_POR_DEFECTO} facturas pendientes; si está
+ *       llena, el futuro falla con {@link RejectedExecutionException} en lugar de bloquear.</li>
+ *   <li>Los cambios de {@link Estado} se notifican con el publicador, por defecto
+ *       {@link Platform#runLater(Runnable)}, así que se pueden mostrar directamente en la interfaz.</li>
+ * </ul>
+ * Toda la aplicación comparte una instancia ({@link #getInstancia()}); sus hilos son daemon
+ * y no impiden cerrar la aplicación.
+ * <p>
+ * En {@link RegistroMetricas} se anotan el tiempo en cola ({@code facturas.espera}), el de
+ * maquetación ({@code facturas.generar}) y las facturas con error o rechazadas por cola llena.
+ *
+ * @author Noé
+ */
+public class FacturaService {
+
+    /** Directorio donde se guardan las facturas. */
+    public static final String DIRECTORIO_FACTURAS = "facturas";
+
+    /** Hilos de generación de la instancia compartida. */
+    public static final int HILOS_POR_DEFECTO = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+
+    /** Facturas que pueden esperar en la cola de la instancia compartida. */
+    public static final int CAPACIDAD_COLA_POR_DEFECTO = 100;
+
+    /**
+     * Estado de una factura encargada al servicio.
+     */
+    public enum Estado {
+        /** Esperando un hilo libre. */
+        EN_COLA,
+        /** Se está maquetando el PDF. */
+        GENERANDO,
+        /** El PDF está escrito en disco. */
+        GENERADA,
+        /** No se pudo generar (o la cola estaba llena). */
+        ERROR
+    }
+
+    /**
+     * Forma de producir el PDF de una venta en un directorio.
+     */
+    @FunctionalInterface
+    public interface Renderizador {
+        /**
+         * @param venta      Venta a facturar.
+         * @param directorio Directorio de destino.
+         * @return El fichero generado.
+         * @throws IOException Si no se puede escribir el PDF.
+         */
+        File renderizar(Venta venta, String directorio) throws IOException;
+    }
+
+    private static FacturaService instancia;
+
+    /** Generador compartido por todos los hilos: no guarda estado entre facturas. */
+    private static final FacturaPDFGenerator GENERADOR = new FacturaPDFGenerator();
+
+    private static final Temporizador ESPERA = RegistroMetricas.getGlobal().temporizador("facturas.espera");
+    private static final Temporizador GENERAR = RegistroMetricas.getGlobal().temporizador("facturas.generar");
+    private static final Contador ERRORES = RegistroMetricas.getGlobal().contador("facturas.errores");
+    private static final Contador RECHAZADAS = RegistroMetricas.getGlobal().contador("facturas.rechazadas");
+
+    private final ThreadPoolExecutor trabajadores;
+    private final Renderizador renderizador;
+    private final String directorio;
+    private final Executor publicador;
+
+    /**
+     * Crea un servicio con su propio pool.
+     *
+     * @param hilos         Número de hilos de generación.
+     * @param capacidadCola Facturas que pueden esperar en cola.
+     * @param directorio    Directorio donde se escriben las facturas.
+     * @param renderizador  Generador del PDF de cada venta.
+     * @param publicador    Ejecutor en el que se notifican los cambios de estado.
+     */
+    public FacturaService(int hilos, int capacidadCola, String directorio, Renderizador renderizador, Executor publicador) {
+        this.renderizador = renderizador;
+        this.directorio = directorio;
+        this.publicador = publicador;
+        AtomicInteger numero = new AtomicInteger();
+        this.trabajadores = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), r -> {
+                    Thread hilo = new Thread(r, "facturas-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+    }
+
+    /**
+     * Devuelve el servicio compartido por toda la aplicación, creándolo la primera vez.
+     * Escribe en {@link #DIRECTORIO_FACTURAS} y notifica en el hilo de JavaFX.
+     *
+     * @return El servicio compartido.
+     */
+    public static synchronized FacturaService getInstancia() {
+        if (instancia == null) {
+            instancia = new FacturaService(HILOS_POR_DEFECTO, CAPACIDAD_COLA_POR_DEFECTO, DIRECTORIO_FACTURAS,
+                    FacturaService::renderizarConIText, Platform::runLater);
+        }
+        return instancia;
+    }
+
+    /**
+     * Encola la generación de la factura de una venta ya guardada.
+     *
+     * @param venta        Venta con su ID asignado. No debe modificarse hasta que termine.
+     * @param notificacion Recibe cada cambio de estado (puede ser {@code null}).
+     * @return Un futuro que se completa con el PDF generado, o falla con la causa del error.
+     */
+    public CompletableFuture<File> generar(Venta venta, Consumer<Estado> notificacion) {
+        CompletableFuture<File> resultado = new CompletableFuture<>();
+        // Se notifica antes de encolar para que nunca llegue después de GENERANDO
+        notificar(notificacion, Estado.EN_COLA);
+        long encolada = System.nanoTime();
+        try {
+            trabajadores.execute(() -> {
+                ESPERA.registrarDesde(encolada);
+                notificar(notificacion, Estado.GENERANDO);
+                long inicio = System.nanoTime();
+                try {
+                    File pdf = renderizador.renderizar(venta, directorio);
+                    GENERAR.registrarDesde(inicio);
+                    notificar(notificacion, Estado.GENERADA);
+                    resultado.complete(pdf);
+                } catch (IOException | RuntimeException e) {
+                    ERRORES.incrementar();
+                    System.err.println("Error al generar la factura de la venta " + venta.getId() + ": " + e.getMessage());
+                    e.printStackTrace();
+                    notificar(notificacion, Estado.ERROR);
+                    resultado.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            RECHAZADAS.incrementar();
+            System.err.println("Cola de facturas llena; no se genera la factura de la venta " + venta.getId() + ".");
+            notificar(notificacion, Estado.ERROR);
+            resultado.completeExceptionally(e);
+        }
+        return resultado;
+    }
+
+    /**
+     * @return Facturas encargadas que aún no han terminado (en cola o generándose).
+     */
+    public int getPendientes() {
+        return trabajadores.getQueue().size() + trabajadores.getActiveCount();
+    }
+
+    /**
+     * Deja de aceptar facturas y espera a que terminen las pendientes.
+     *
+     * @param esperaMs Milisegundos máximos de espera.
+     * @return {@code true} si todas terminaron a tiempo.
+     */
+    public boolean cerrar(long esperaMs) {
+        trabajadores.shutdown();
+        try {
+            return trabajadores.awaitTermination(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void notificar(Consumer<Estado> notificacion, Estado estado) {
+        if (notificacion != null) {
+            publicador.execute(() -> notificacion.accept(estado));
+        }
+    }
+
+    private static File renderizarConIText(Venta venta, String directorio) throws IOException {
+        return GENERADOR.generateInvoice(venta, Path.of(directorio)).toFile();
+    }
+}
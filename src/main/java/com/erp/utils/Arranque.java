@@ -0,0 +1,177 @@
+package com.erp.utils;
+
+import com.erp.metricas.RegistroMetricas;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Orquestador del arranque de la aplicación por fases.
+ * <p>
+ * Cada fase es una tarea con nombre que se ejecuta en un hilo de arranque en cuanto
+ * terminan las fases de las que depende, así que las fases independientes (preparar la
+ * base de datos y cargar el FXML, por ejemplo) avanzan en paralelo mientras el hilo de
+ * JavaFX solo muestra la pantalla de carga. Si una fase falla, las que dependen de ella
+ * no se ejecutan y su resultado termina con el mismo error.
+ * <p>
+ * La duración de cada fase se anota en el temporizador {@code arranque.<fase>} y en
+ * {@link #informe()}. {@link #marcarVentanaInteractiva()} cierra la medición con el tiempo
+ * hasta que la ventana principal responde ({@code arranque.ventanaInteractiva}).
+ *
+ * @author Noé
+ */
+public class Arranque {
+
+    private static final RegistroMetricas METRICAS = RegistroMetricas.getGlobal();
+
+    private final Executor hilos;
+    private final Consumer<String> progreso;
+    private final long inicio = System.nanoTime();
+    // Duración de cada fase terminada, en el orden en que terminaron
+    private final Map<String, Long> duraciones = new LinkedHashMap<>();
+    private final List<CompletableFuture<?>> fases = new ArrayList<>();
+    private long ventanaInteractiva = -1;
+
+    /**
+     * Crea un arranque que usa dos hilos de trabajo.
+     *
+     * @param progreso Recibe la descripción de cada fase al empezar, desde el hilo de la fase.
+     */
+    public Arranque(Consumer<String> progreso) {
+        this(crearHilos(), progreso);
+    }
+
+    /**
+     * @param hilos    Ejecutor en el que se ejecutan las fases.
+     * @param progreso Recibe la descripción de cada fase al empezar, desde el hilo de la fase.
+     */
+    public Arranque(Executor hilos, Consumer<String> progreso) {
+        this.hilos = hilos;
+        this.progreso = progreso;
+    }
+
+    /**
+     * Programa una fase sin resultado.
+     *
+     * @param nombre      Nombre corto de la fase (ej. "esquema"), usado en las métricas.
+     * @param descripcion Texto que se muestra mientras se ejecuta.
+     * @param tarea       Trabajo de la fase.
+     * @param despuesDe   Fases que deben terminar antes de empezar esta.
+     * @return Un futuro que termina cuando termina la fase.
+     */
+    public CompletableFuture<Void> fase(String nombre, String descripcion, Runnable tarea,
+                                        CompletableFuture<?>... despuesDe) {
+        return faseConResultado(nombre, descripcion, () -> {
+            tarea.run();
+            return null;
+        }, despuesDe);
+    }
+
+    /**
+     * Programa una fase que produce un resultado.
+     *
+     * @param nombre      Nombre corto de la fase (ej. "fxml"), usado en las métricas.
+     * @param descripcion Texto que se muestra mientras se ejecuta.
+     * @param tarea       Trabajo de la fase.
+     * @param despuesDe   Fases que deben terminar antes de empezar esta.
+     * @param <T>         Tipo del resultado.
+     * @return Un futuro con el resultado de la fase.
+     */
+    public <T> CompletableFuture<T> faseConResultado(String nombre, String descripcion, Callable<T> tarea,
+                                                     CompletableFuture<?>... despuesDe) {
+        CompletableFuture<T> fase = CompletableFuture.allOf(despuesDe)
+                .thenApplyAsync(nada -> ejecutar(nombre, descripcion, tarea), hilos);
+        synchronized (this) {
+            fases.add(fase);
+        }
+        return fase;
+    }
+
+    /**
+     * @return Un futuro que termina cuando han terminado todas las fases programadas hasta ahora.
+     */
+    public synchronized CompletableFuture<Void> todas() {
+        return CompletableFuture.allOf(fases.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Anota que la ventana principal ya responde. Debe llamarse desde el hilo de JavaFX
+     * después de mostrarla, en un {@code runLater} para que haya pasado el primer pulso.
+     */
+    public void marcarVentanaInteractiva() {
+        long nanos = System.nanoTime() - inicio;
+        synchronized (this) {
+            ventanaInteractiva = nanos;
+        }
+        METRICAS.temporizador("arranque.ventanaInteractiva").registrar(nanos);
+    }
+
+    /**
+     * @return Duración en milisegundos de cada fase terminada, en el orden en que terminaron.
+     */
+    public synchronized Map<String, Long> getDuraciones() {
+        return new LinkedHashMap<>(duraciones);
+    }
+
+    /**
+     * @return Resumen de una línea con la duración de cada fase y, si ya se conoce, el tiempo
+     *         hasta la ventana interactiva (desde el arranque y desde el inicio de la JVM).
+     */
+    public synchronized String informe() {
+        StringBuilder texto = new StringBuilder("Arranque:");
+        duraciones.forEach((nombre, ms) -> texto.append(' ').append(nombre).append(' ').append(ms).append(" ms,"));
+        if (ventanaInteractiva >= 0) {
+            texto.append(" ventana interactiva en ").append(TimeUnit.NANOSECONDS.toMillis(ventanaInteractiva))
+                    .append(" ms (").append(ManagementFactory.getRuntimeMXBean().getUptime())
+                    .append(" ms desde el inicio de la JVM)");
+        } else {
+            texto.setLength(texto.length() - 1);
+        }
+        return texto.toString();
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private <T> T ejecutar(String nombre, String descripcion, Callable<T> tarea) {
+        progreso.accept(descripcion);
+        long comienzo = System.nanoTime();
+        try {
+            return tarea.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException("Falló la fase de arranque " + nombre, e);
+        } finally {
+            long nanos = System.nanoTime() - comienzo;
+            METRICAS.temporizador("arranque." + nombre).registrar(nanos);
+            synchronized (this) {
+                duraciones.put(nombre, TimeUnit.NANOSECONDS.toMillis(nanos));
+            }
+        }
+    }
+
+    private static Executor crearHilos() {
+        AtomicInteger numero = new AtomicInteger();
+        ThreadPoolExecutor ejecutor = new ThreadPoolExecutor(2, 2, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread hilo = new Thread(r, "arranque-" + numero.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        // Los hilos desaparecen al terminar el arranque
+        ejecutor.allowCoreThreadTimeOut(true);
+        return ejecutor;
+    }
+}
@@ -0,0 +1,182 @@
+package com.erp.utils;
+
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.erp.metricas.Contador;
+import com.erp.metricas.EventoBusqueda;
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+
+import javafx.application.Platform;
+
+/**
+ * Canalización de búsqueda para los formularios de búsqueda.
+ * <p>
+ * Los formularios llaman a {@link #solicitar(Object)} en cada pulsación. En lugar de
+ * consultar en el hilo de JavaFX por cada carácter:
+ * <ul>
+ *   <li>Las pulsaciones que llegan dentro de la ventana de espera se agrupan: solo se
+ *       consulta con los últimos criterios.</li>
+ *   <li>La consulta se ejecuta en un hilo de trabajo, así que escribir nunca bloquea la interfaz.</li>
+ *   <li>Una nueva solicitud cancela la consulta pendiente anterior; si ya estaba en marcha,
+ *       su resultado se descarta.</li>
+ *   <li>Solo el resultado de la última solicitud se publica, con {@link Platform#runLater(Runnable)}.</li>
+ * </ul>
+ * La ventana por defecto es de {@value #VENTANA_POR_DEFECTO_MS} ms y puede cambiarse con la
+ * propiedad del sistema {@code erp.busqueda.ventanaMs}.
+ * <p>
+ * En {@link RegistroMetricas} se anotan las solicitudes ({@code busqueda.solicitudes}), la
+ * duración de cada consulta ({@code busqueda.consulta}), los resultados que se descartan por
+ * llegar tarde ({@code busqueda.descartadas}) y los errores ({@code busqueda.errores}), y
+ * cada consulta emite un {@link EventoBusqueda} de Java Flight Recorder.
+ *
+ * @param <C> Tipo de los criterios de búsqueda (una copia tomada en el hilo de JavaFX).
+ * @param <R> Tipo del resultado.
+ * @author Noé
+ */
+public class BusquedaDiferida<C, R> {
+
+    /** Ventana de espera por defecto entre la última pulsación y la consulta. */
+    public static final long VENTANA_POR_DEFECTO_MS = 250;
+
+    // Hilos de trabajo compartidos por todos los formularios; son daemon para no impedir el cierre.
+    private static final ScheduledThreadPoolExecutor TRABAJADORES = crearTrabajadores();
+
+    private static final Contador SOLICITUDES = RegistroMetricas.getGlobal().contador("busqueda.solicitudes");
+    private static final Contador DESCARTADAS = RegistroMetricas.getGlobal().contador("busqueda.descartadas");
+    private static final Contador ERRORES = RegistroMetricas.getGlobal().contador("busqueda.errores");
+    private static final Temporizador CONSULTA = RegistroMetricas.getGlobal().temporizador("busqueda.consulta");
+
+    private final long ventanaMs;
+    private final Function<C, R> consulta;
+    private final Consumer<R> publicar;
+    private final Executor publicador;
+
+    // Número de la última solicitud; una consulta solo publica si sigue siendo la última.
+    private long generacion = 0;
+    private ScheduledFuture<?> pendiente;
+
+    /**
+     * Crea una búsqueda con la ventana configurada que publica en el hilo de JavaFX.
+     *
+     * @param consulta Consulta a ejecutar en segundo plano con los criterios.
+     * @param publicar Acción que muestra el resultado; se ejecuta en el hilo de JavaFX.
+     */
+    public BusquedaDiferida(Function<C, R> consulta, Consumer<R> publicar) {
+        this(Long.getLong("erp.busqueda.ventanaMs", VENTANA_POR_DEFECTO_MS), consulta, publicar, Platform::runLater);
+    }
+
+    /**
+     * Crea una búsqueda con una ventana y un publicador concretos.
+     *
+     * @param ventanaMs  Milisegundos de espera tras la última solicitud antes de consultar.
+     * @param consulta   Consulta a ejecutar en segundo plano con los criterios.
+     * @param publicar   Acción que muestra el resultado.
+     * @param publicador Ejecutor en el que se llama a {@code publicar} (normalmente {@code Platform::runLater}).
+     */
+    public BusquedaDiferida(long ventanaMs, Function<C, R> consulta, Consumer<R> publicar, Executor publicador) {
+        if (ventanaMs < 0) {
+            throw new IllegalArgumentException("La ventana de espera no puede ser negativa.");
+        }
+        this.ventanaMs = ventanaMs;
+        this.consulta = consulta;
+        this.publicar = publicar;
+        this.publicador = publicador;
+    }
+
+    /**
+     * Solicita una búsqueda con los criterios indicados, sustituyendo a la anterior.
+     *
+     * @param criterios Criterios de búsqueda. Deben ser una copia: la consulta los lee desde otro hilo.
+     */
+    public synchronized void solicitar(C criterios) {
+        long numero = ++generacion;
+        SOLICITUDES.incrementar();
+        if (pendiente != null) {
+            pendiente.cancel(false);
+        }
+        pendiente = TRABAJADORES.schedule(() -> ejecutar(numero, criterios), ventanaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancela la búsqueda pendiente y descarta el resultado de la que esté en marcha.
+     */
+    public synchronized void cancelar() {
+        generacion++;
+        if (pendiente != null) {
+            pendiente.cancel(false);
+            pendiente = null;
+        }
+    }
+
+    /**
+     * @return La ventana de espera en milisegundos.
+     */
+    public long getVentanaMs() {
+        return ventanaMs;
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void ejecutar(long numero, C criterios) {
+        if (!esVigente(numero)) {
+            return;
+        }
+        R resultado = null;
+        EventoBusqueda evento = new EventoBusqueda();
+        evento.begin();
+        long inicio = System.nanoTime();
+        try {
+            resultado = consulta.apply(criterios);
+        } catch (RuntimeException e) {
+            ERRORES.incrementar();
+            System.err.println("Error en la búsqueda en segundo plano: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        } finally {
+            CONSULTA.registrarDesde(inicio);
+            evento.end();
+            if (evento.shouldCommit()) {
+                evento.criterios = String.valueOf(criterios);
+                evento.resultados = resultado instanceof Collection ? ((Collection<?>) resultado).size() : -1;
+                evento.descartada = !esVigente(numero);
+                evento.ventanaMs = ventanaMs;
+                evento.commit();
+            }
+        }
+        if (esVigente(numero)) {
+            R publicado = resultado;
+            // Se vuelve a comprobar al publicar: pudo llegar otra pulsación mientras tanto.
+            publicador.execute(() -> {
+                if (esVigente(numero)) {
+                    publicar.accept(publicado);
+                } else {
+                    DESCARTADAS.incrementar();
+                }
+            });
+        } else {
+            DESCARTADAS.incrementar();
+        }
+    }
+
+    private synchronized boolean esVigente(long numero) {
+        return numero == generacion;
+    }
+
+    private static ScheduledThreadPoolExecutor crearTrabajadores() {
+        ScheduledThreadPoolExecutor ejecutor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread hilo = new Thread(r, "busqueda-diferida");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        // Las búsquedas canceladas se retiran de la cola en lugar de esperar a su turno.
+        ejecutor.setRemoveOnCancelPolicy(true);
+        return ejecutor;
+    }
+}
@@ -2,6 +2,7 @@ package com.erp.utils;
 
 import com.erp.dao.ClienteDAO;
 import com.erp.dao.DescuentoDAO;
+import com.erp.dao.Pagina;
 import com.erp.dao.ProductoDAO;
 import com.erp.model.Cliente;
 import com.erp.model.Descuento;
@@ -12,6 +13,7 @@ import java.time.LocalDate;
 /**
  * Clase de utilidad para cargar datos de prueba en la base de datos.
  * Esto es útil para tener un conjunto de datos consistente para desarrollo y pruebas.
+ * Para pruebas de carga con volúmenes grandes, ver {@link GeneradorDatos}.
  * Autor: Noé
  */
 public class DatosDePrueba {
@@ -29,7 +31,8 @@ public class DatosDePrueba {
         DescuentoDAO descuentoDAO = new DescuentoDAO();
 
         // --- Carga de Productos ---
-        if (productoDAO.listarProductos().isEmpty()) {
+        // Basta con pedir una fila para saber si la tabla está vacía, sin cargarla entera.
+        if (productoDAO.listarProductosPagina(Pagina.INICIO, 1, false).getElementos().isEmpty()) {
             System.out.println("Base de datos de productos vacía. Cargando datos de prueba...");
             productoDAO.guardarProductoDb(new Producto("Portátil Pro X1", "Portátil de 15 pulgadas, 16GB RAM, 512GB SSD", "Electrónica", 1250.99, 15));
             productoDAO.guardarProductoDb(new Producto("Monitor Curvo 27\"", "Monitor 4K UHD para diseño gráfico", "Electrónica", 450.50, 30));
@@ -40,7 +43,7 @@ public class DatosDePrueba {
         }
 
         // --- Carga de Clientes y Descuentos ---
-        if (clienteDAO.listarClientes().isEmpty()) {
+        if (clienteDAO.listarClientesPagina(Pagina.INICIO, 1, false).getElementos().isEmpty()) {
             System.out.println("Base de datos de clientes vacía. Cargando datos de prueba...");
 
             // Cliente 1: Particular con un descuento activo.
@@ -3,93 +3,246 @@ package com.erp.utils;
 import com.erp.model.Cliente;
 import com.erp.model.Descuento;
 import com.erp.model.Venta;
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.events.PdfDocumentEvent;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
 import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.borders.SolidBorder;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.HorizontalAlignment;
 import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.properties.UnitValue;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
-
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generador de facturas en PDF con iText.
+ * <p>
+ * Cada instancia es inmutable y no comparte estado entre llamadas: cada factura crea su
+ * propio documento y devuelve su ruta (o se escribe en el flujo que indique quien llama).
+ * Por eso una misma instancia puede generar muchas facturas a la vez desde varios hilos,
+ * por ejemplo para reimpresiones en lote o desde varios terminales.
+ * <p>
+ * Lo que no cambia de una factura a otra se prepara una sola vez:
+ * <ul>
+ *   <li>Las fuentes se cargan al iniciar la clase; cada documento solo crea su diccionario.</li>
+ *   <li>El membrete (datos de la empresa y título) se maqueta al crear el generador y se
+ *       estampa en cada página como un form XObject, sin volver a maquetarlo.</li>
+ *   <li>Las tablas tienen anchos de columna fijos en puntos, así que iText no tiene que medir
+ *       el contenido de todas las celdas para repartir el ancho.</li>
+ * </ul>
+ * Así el coste de cada factura depende sobre todo de sus líneas de venta.
+ *
+ * @author Noé
+ */
 public class FacturaPDFGenerator {
 
-    private static String lastGeneratedPath = "";
     private static final double TASA_IVA = 0.21;
 
-    public static void generateInvoicePDF(Venta venta, String destDir) throws IOException {
-        File dir = new File(destDir);
-        if (!dir.exists()) {
-            dir.mkdirs();
-        }
-
-        String fileName = String.format("Factura_%d_%s.pdf", 
-                                    venta.getId() != null ? venta.getId() : 0, 
-                                    venta.getFecha().format(DateTimeFormatter.ISO_LOCAL_DATE));
-        String filePath = destDir + File.separator + fileName;
-        lastGeneratedPath = filePath;
+    // --- DATOS DE EJEMPLO DE TU EMPRESA (MODIFICAR AQUÍ) ---
+    private static final String NOMBRE_EMPRESA = "Tu Mini ERP, S.L.";
+    private static final String NIF_EMPRESA = "B12345678";
+    private static final String DIRECCION_EMPRESA = "Calle de la Factura, 123, 28080 Madrid";
+
+    // --- PLANTILLA (medidas en puntos) ---
+    private static final float MARGEN = 36;
+    private static final float ANCHO_UTIL = PageSize.A4.getWidth() - 2 * MARGEN;
+    private static final float ALTO_MEMBRETE = 90;
+    private static final float ESPACIO_TRAS_MEMBRETE = 12;
+    private static final float[] ANCHOS_DETALLE = repartir(ANCHO_UTIL, 4, 1, 2, 2);
+    private static final float[] ANCHOS_TOTALES = repartir(ANCHO_UTIL / 2, 1, 1);
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final FontProgram FUENTE_NORMAL = cargarFuente(StandardFonts.HELVETICA);
+    private static final FontProgram FUENTE_NEGRITA = cargarFuente(StandardFonts.HELVETICA_BOLD);
+    private static final FontProgram FUENTE_CURSIVA = cargarFuente(StandardFonts.HELVETICA_OBLIQUE);
+
+    private final String nombreEmpresa;
+    private final String nifEmpresa;
+    private final String direccionEmpresa;
+
+    /** Operaciones de dibujo del membrete ya maquetado (el contenido de su form XObject). */
+    private final byte[] contenidoMembrete;
+
+    /** Fuentes que usa el contenido del membrete, por el nombre con el que las referencia. */
+    private final Map<String, FontProgram> fuentesMembrete;
+
+    /**
+     * Crea un generador con los datos de la empresa por defecto.
+     */
+    public FacturaPDFGenerator() {
+        this(NOMBRE_EMPRESA, NIF_EMPRESA, DIRECCION_EMPRESA);
+    }
 
-        PdfWriter writer = new PdfWriter(filePath);
-        PdfDocument pdf = new PdfDocument(writer);
-        Document document = new Document(pdf, PageSize.A4);
-        document.setMargins(36, 36, 36, 36);
+    /**
+     * Crea un generador con los datos de la empresa que aparecen en la cabecera y
+     * maqueta su membrete.
+     *
+     * @param nombreEmpresa    Nombre o razón social de la empresa.
+     * @param nifEmpresa       NIF de la empresa.
+     * @param direccionEmpresa Dirección de la empresa.
+     */
+    public FacturaPDFGenerator(String nombreEmpresa, String nifEmpresa, String direccionEmpresa) {
+        this.nombreEmpresa = nombreEmpresa;
+        this.nifEmpresa = nifEmpresa;
+        this.direccionEmpresa = direccionEmpresa;
+
+        // Se maqueta una vez en un documento auxiliar y se guarda solo lo que hace falta para repetirlo
+        Map<String, FontProgram> fuentesUsadas = new HashMap<>();
+        try (PdfDocument auxiliar = new PdfDocument(new PdfWriter(OutputStream.nullOutputStream()))) {
+            auxiliar.addNewPage();
+            Fuentes fuentes = new Fuentes();
+            PdfFormXObject xObject = crearMembrete(auxiliar, fuentes);
+            this.contenidoMembrete = xObject.getPdfObject().getBytes();
+            PdfDictionary recursos = xObject.getResources().getResource(PdfName.Font);
+            for (PdfName nombre : recursos.keySet()) {
+                fuentesUsadas.put(nombre.getValue(), fuentes.programaDe(recursos.getAsDictionary(nombre)));
+            }
+        }
+        this.fuentesMembrete = Map.copyOf(fuentesUsadas);
+    }
 
-        // --- DATOS DE LA EMPRESA Y FACTURA ---
-        addHeader(document, venta);
+    /**
+     * Genera la factura de una venta como fichero dentro de un directorio, que se crea si no existe.
+     *
+     * @param venta   Venta a facturar.
+     * @param destDir Directorio de las facturas.
+     * @return La ruta del PDF generado ({@link #getInvoiceFileName(Venta)} dentro de {@code destDir}).
+     * @throws IOException Si no se puede crear el directorio o escribir el fichero.
+     */
+    public Path generateInvoice(Venta venta, Path destDir) throws IOException {
+        Files.createDirectories(destDir);
+        Path filePath = destDir.resolve(getInvoiceFileName(venta));
+        try (OutputStream out = Files.newOutputStream(filePath)) {
+            writeInvoice(venta, out);
+        }
+        System.out.println("Factura generada en: " + filePath.toAbsolutePath());
+        return filePath;
+    }
 
-        // --- DATOS DEL CLIENTE ---
-        addClientInfo(document, venta.getCliente());
+    /**
+     * Escribe la factura de una venta en un flujo. El flujo no se cierra: es de quien llama.
+     *
+     * @param venta Venta a facturar.
+     * @param out   Flujo de destino (un fichero, memoria, una respuesta de red...).
+     * @throws IOException Si falla la escritura.
+     */
+    public void writeInvoice(Venta venta, OutputStream out) throws IOException {
+        Fuentes fuentes = new Fuentes();
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        // Se cierra también si falla la maquetación, para no dejar el documento a medias abierto
+        try (Document document = new Document(new PdfDocument(writer), PageSize.A4)) {
+            PdfDocument pdf = document.getPdfDocument();
+            document.setMargins(MARGEN + ALTO_MEMBRETE + ESPACIO_TRAS_MEMBRETE, MARGEN, MARGEN, MARGEN);
+            document.setFont(fuentes.normal);
+
+            // --- DATOS DE LA EMPRESA Y FACTURA ---
+            estamparMembrete(pdf, fuentes);
+            addInvoiceData(document, venta);
+
+            // --- DATOS DEL CLIENTE ---
+            addClientInfo(document, venta.getCliente(), fuentes);
+
+            // --- DETALLES DE LA VENTA ---
+            addSaleDetails(document, venta, fuentes);
+
+            // --- TOTALES ---
+            addTotals(document, venta, fuentes);
+
+            // --- PIE DE PÁGINA ---
+            addFooter(document, fuentes);
+        }
+    }
 
-        // --- DETALLES DE LA VENTA ---
-        addSaleDetails(document, venta);
+    /**
+     * Nombre del fichero de la factura de una venta: {@code Factura_<id>_<fecha>.pdf}.
+     *
+     * @param venta Venta facturada (se usan su ID y su fecha).
+     * @return El nombre del fichero.
+     */
+    public static String getInvoiceFileName(Venta venta) {
+        return String.format("Factura_%d_%s.pdf",
+                venta.getId() != null ? venta.getId() : 0,
+                venta.getFecha().format(DateTimeFormatter.ISO_LOCAL_DATE));
+    }
 
-        // --- TOTALES ---
-        addTotals(document, venta);
+    /**
+     * Maqueta la parte fija de la cabecera: los datos de la empresa a la izquierda y el título
+     * a la derecha. El número y la fecha de cada factura se escriben aparte.
+     */
+    private PdfFormXObject crearMembrete(PdfDocument pdf, Fuentes fuentes) {
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(ANCHO_UTIL, ALTO_MEMBRETE));
+        float mitad = ANCHO_UTIL / 2;
 
-        // --- PIE DE PÁGINA ---
-        addFooter(document);
+        // Columna izquierda: Datos de la empresa
+        try (Canvas izquierda = new Canvas(new PdfCanvas(xObject, pdf), new Rectangle(0, 0, mitad, ALTO_MEMBRETE))) {
+            izquierda.setFont(fuentes.normal);
+            izquierda.add(new Paragraph(nombreEmpresa).setFont(fuentes.negrita).setFontSize(14).setMarginTop(0));
+            izquierda.add(new Paragraph(nifEmpresa));
+            izquierda.add(new Paragraph(direccionEmpresa));
+        }
 
-        document.close();
-        System.out.println("Factura generada en: " + new File(filePath).getAbsolutePath());
+        // Columna derecha: Título (el número y la fecha van en addInvoiceData)
+        try (Canvas derecha = new Canvas(new PdfCanvas(xObject, pdf), new Rectangle(mitad, 0, mitad, ALTO_MEMBRETE))) {
+            derecha.add(new Paragraph("FACTURA").setFont(fuentes.negrita).setFontSize(20)
+                    .setTextAlignment(TextAlignment.RIGHT).setMarginTop(0));
+        }
+        return xObject;
     }
 
-    private static void addHeader(Document document, Venta venta) {
-        // --- DATOS DE EJEMPLO DE TU EMPRESA (MODIFICAR AQUÍ) ---
-        String nombreEmpresa = "Tu Mini ERP, S.L.";
-        String nifEmpresa = "B12345678";
-        String direccionEmpresa = "Calle de la Factura, 123, 28080 Madrid";
-
-        Table headerTable = new Table(UnitValue.createPercentArray(new float[]{1, 1}));
-        headerTable.setWidth(UnitValue.createPercentValue(100));
+    /**
+     * Crea el membrete en el documento a partir del contenido ya maquetado, enlazado con las
+     * fuentes del documento, y lo estampa al cerrar cada página.
+     */
+    private void estamparMembrete(PdfDocument pdf, Fuentes fuentes) {
+        PdfFormXObject xObject = new PdfFormXObject(new Rectangle(ANCHO_UTIL, ALTO_MEMBRETE));
+        xObject.getPdfObject().setData(contenidoMembrete);
+        PdfDictionary recursos = new PdfDictionary();
+        fuentesMembrete.forEach((nombre, programa) ->
+                recursos.put(new PdfName(nombre), pdf.addFont(fuentes.de(programa)).getPdfObject()));
+        xObject.getResources().getPdfObject().put(PdfName.Font, recursos);
+
+        pdf.addEventHandler(PdfDocumentEvent.END_PAGE, evento -> {
+            PdfPage pagina = ((PdfDocumentEvent) evento).getPage();
+            new PdfCanvas(pagina).addXObjectAt(xObject, MARGEN, pagina.getPageSize().getTop() - MARGEN - ALTO_MEMBRETE);
+        });
+    }
 
-        // Columna izquierda: Datos de la empresa
-        Cell leftCell = new Cell().add(new Paragraph(nombreEmpresa).setBold().setFontSize(14));
-        leftCell.add(new Paragraph(nifEmpresa));
-        leftCell.add(new Paragraph(direccionEmpresa));
-        leftCell.setBorder(null);
-        headerTable.addCell(leftCell);
-
-        // Columna derecha: Datos de la factura
-        Cell rightCell = new Cell().setTextAlignment(TextAlignment.RIGHT);
-        rightCell.add(new Paragraph("FACTURA").setBold().setFontSize(20));
-        rightCell.add(new Paragraph("Nº Factura: " + (venta.getId() != null ? String.format("%05d", venta.getId()) : "N/A")));
-        rightCell.add(new Paragraph("Fecha: " + venta.getFecha().format(DateTimeFormatter.ofPattern("dd/MM/yyyy"))));
-        rightCell.setBorder(null);
-        headerTable.addCell(rightCell);
-
-        document.add(headerTable);
-        document.add(new Paragraph("\n")); // Espacio
+    private static void addInvoiceData(Document document, Venta venta) {
+        // Bajo el título del membrete, en la primera página
+        String numero = venta.getId() != null ? String.format("%05d", venta.getId()) : "N/A";
+        Paragraph datos = new Paragraph("Nº Factura: " + numero + "\nFecha: " + venta.getFecha().format(FORMATO_FECHA))
+                .setTextAlignment(TextAlignment.RIGHT)
+                .setFixedPosition(1, MARGEN + ANCHO_UTIL / 2, PageSize.A4.getTop() - MARGEN - ALTO_MEMBRETE, ANCHO_UTIL / 2);
+        document.add(datos);
     }
 
-    private static void addClientInfo(Document document, Cliente cliente) {
-        document.add(new Paragraph("Datos del Cliente").setBold());
+    private static void addClientInfo(Document document, Cliente cliente, Fuentes fuentes) {
+        document.add(new Paragraph("Datos del Cliente").setFont(fuentes.negrita));
         if (cliente != null) {
             if (cliente.isEmpresa()) {
                 document.add(new Paragraph("Razón Social: " + cliente.getRazonSocial()));
@@ -104,15 +257,14 @@ public class FacturaPDFGenerator {
         document.add(new Paragraph("\n")); // Espacio
     }
 
-    private static void addSaleDetails(Document document, Venta venta) {
-        Table table = new Table(UnitValue.createPercentArray(new float[]{4, 1, 2, 2}));
-        table.setWidth(UnitValue.createPercentValue(100));
+    private static void addSaleDetails(Document document, Venta venta, Fuentes fuentes) {
+        Table table = new Table(ANCHOS_DETALLE).setWidth(ANCHO_UTIL).setFixedLayout();
 
         // Cabecera de la tabla
-        table.addHeaderCell(new Cell().add(new Paragraph("Producto")).setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold());
-        table.addHeaderCell(new Cell().add(new Paragraph("Cantidad")).setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold().setTextAlignment(TextAlignment.CENTER));
-        table.addHeaderCell(new Cell().add(new Paragraph("Precio Unitario")).setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold().setTextAlignment(TextAlignment.RIGHT));
-        table.addHeaderCell(new Cell().add(new Paragraph("Subtotal")).setBackgroundColor(ColorConstants.LIGHT_GRAY).setBold().setTextAlignment(TextAlignment.RIGHT));
+        table.addHeaderCell(createHeaderCell("Producto", TextAlignment.LEFT, fuentes));
+        table.addHeaderCell(createHeaderCell("Cantidad", TextAlignment.CENTER, fuentes));
+        table.addHeaderCell(createHeaderCell("Precio Unitario", TextAlignment.RIGHT, fuentes));
+        table.addHeaderCell(createHeaderCell("Subtotal", TextAlignment.RIGHT, fuentes));
 
         // Contenido de la tabla
         venta.getDetalleVenta().forEach(detalle -> {
@@ -125,7 +277,7 @@ public class FacturaPDFGenerator {
         document.add(table);
     }
 
-    private static void addTotals(Document document, Venta venta) {
+    private static void addTotals(Document document, Venta venta, Fuentes fuentes) {
         // --- Cálculos ---
         double subtotalBruto = venta.getDetalleVenta().stream().mapToDouble(d -> d.getSubTotal()).sum();
         double porcentajeDescuentoTotal = venta.getDescuentos().stream().mapToDouble(Descuento::getPorcentaje).sum();
@@ -135,45 +287,90 @@ public class FacturaPDFGenerator {
         double totalFinal = baseImponible + montoIva;
 
         // --- Tabla de Totales ---
-        Table totalsTable = new Table(UnitValue.createPercentArray(new float[]{1, 1}));
-        totalsTable.setWidth(UnitValue.createPercentValue(50)).setHorizontalAlignment(com.itextpdf.layout.properties.HorizontalAlignment.RIGHT);
+        Table totalsTable = new Table(ANCHOS_TOTALES).setWidth(ANCHO_UTIL / 2).setFixedLayout();
+        totalsTable.setHorizontalAlignment(HorizontalAlignment.RIGHT);
 
-        totalsTable.addCell(createTotalCell("Subtotal:", false));
-        totalsTable.addCell(createTotalCell(String.format("%.2f €", subtotalBruto), false));
-        
-        totalsTable.addCell(createTotalCell(String.format("Descuento (%.2f%%):", porcentajeDescuentoTotal), false));
-        totalsTable.addCell(createTotalCell(String.format("-%.2f €", montoDescuento), false));
+        totalsTable.addCell(createTotalCell("Subtotal:", null));
+        totalsTable.addCell(createTotalCell(String.format("%.2f €", subtotalBruto), null));
 
-        totalsTable.addCell(createTotalCell("Base Imponible:", false));
-        totalsTable.addCell(createTotalCell(String.format("%.2f €", baseImponible), false));
+        totalsTable.addCell(createTotalCell(String.format("Descuento (%.2f%%):", porcentajeDescuentoTotal), null));
+        totalsTable.addCell(createTotalCell(String.format("-%.2f €", montoDescuento), null));
 
-        totalsTable.addCell(createTotalCell(String.format("IVA (%.0f%%):", TASA_IVA * 100), false));
-        totalsTable.addCell(createTotalCell(String.format("%.2f €", montoIva), false));
+        totalsTable.addCell(createTotalCell("Base Imponible:", null));
+        totalsTable.addCell(createTotalCell(String.format("%.2f €", baseImponible), null));
 
-        totalsTable.addCell(createTotalCell("TOTAL:", true));
-        totalsTable.addCell(createTotalCell(String.format("%.2f €", totalFinal), true));
+        totalsTable.addCell(createTotalCell(String.format("IVA (%.0f%%):", TASA_IVA * 100), null));
+        totalsTable.addCell(createTotalCell(String.format("%.2f €", montoIva), null));
+
+        totalsTable.addCell(createTotalCell("TOTAL:", fuentes.negrita));
+        totalsTable.addCell(createTotalCell(String.format("%.2f €", totalFinal), fuentes.negrita));
 
         document.add(totalsTable);
     }
 
-    private static Cell createTotalCell(String text, boolean isBold) {
+    private static Cell createHeaderCell(String text, TextAlignment alignment, Fuentes fuentes) {
+        return new Cell().add(new Paragraph(text)).setBackgroundColor(ColorConstants.LIGHT_GRAY)
+                .setFont(fuentes.negrita).setTextAlignment(alignment);
+    }
+
+    /**
+     * @param boldFont Fuente de las filas destacadas (con borde superior), o {@code null} para el resto.
+     */
+    private static Cell createTotalCell(String text, PdfFont boldFont) {
         Paragraph p = new Paragraph(text);
-        if (isBold) {
-            p.setBold();
+        if (boldFont != null) {
+            p.setFont(boldFont);
         }
         Cell cell = new Cell().add(p).setTextAlignment(TextAlignment.RIGHT);
         cell.setBorder(null);
-        if(isBold) {
+        if (boldFont != null) {
             cell.setBorderTop(new SolidBorder(ColorConstants.BLACK, 1));
         }
         return cell;
     }
 
-    private static void addFooter(Document document) {
-        document.add(new Paragraph("\n\nGracias por su compra.").setTextAlignment(TextAlignment.CENTER).setFontSize(10).setItalic());
+    private static void addFooter(Document document, Fuentes fuentes) {
+        document.add(new Paragraph("\n\nGracias por su compra.").setTextAlignment(TextAlignment.CENTER).setFontSize(10).setFont(fuentes.cursiva));
     }
 
-    public static String getInvoiceFilePath() {
-        return lastGeneratedPath;
+    private static float[] repartir(float ancho, float... proporciones) {
+        float suma = 0;
+        for (float proporcion : proporciones) {
+            suma += proporcion;
+        }
+        float[] anchos = new float[proporciones.length];
+        for (int i = 0; i < proporciones.length; i++) {
+            anchos[i] = ancho * proporciones[i] / suma;
+        }
+        return anchos;
+    }
+
+    private static FontProgram cargarFuente(String nombre) {
+        try {
+            return FontProgramFactory.createFont(nombre);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo cargar la fuente " + nombre, e);
+        }
+    }
+
+    /**
+     * Fuentes de un documento. Un {@link PdfFont} solo puede usarse en un documento, pero se
+     * crea a partir de los programas de fuente ya cargados, que sí se comparten.
+     */
+    private static final class Fuentes {
+        private final PdfFont normal = PdfFontFactory.createFont(FUENTE_NORMAL, PdfEncodings.WINANSI);
+        private final PdfFont negrita = PdfFontFactory.createFont(FUENTE_NEGRITA, PdfEncodings.WINANSI);
+        private final PdfFont cursiva = PdfFontFactory.createFont(FUENTE_CURSIVA, PdfEncodings.WINANSI);
+
+        private PdfFont de(FontProgram programa) {
+            return programa == FUENTE_NEGRITA ? negrita : programa == FUENTE_CURSIVA ? cursiva : normal;
+        }
+
+        private FontProgram programaDe(PdfDictionary fuente) {
+            if (fuente == negrita.getPdfObject()) {
+                return FUENTE_NEGRITA;
+            }
+            return fuente == cursiva.getPdfObject() ? FUENTE_CURSIVA : FUENTE_NORMAL;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,474 @@
+package com.erp.utils;
+
+import com.erp.db.SQLiteConnector;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generador de datos sintéticos para pruebas de carga y de rendimiento.
+ * <p>
+ * A diferencia de {@link DatosDePrueba}, que da de alta unos pocos registros uno a uno,
+ * este generador llena el esquema con el volumen que se le pida (millones de filas):
+ * <ul>
+ *   <li>Productos de varias categorías con nombre, descripción, precio y stock.</li>
+ *   <li>Clientes particulares y empresas (aproximadamente la mitad de cada tipo).</li>
+ *   <li>Descuentos para uno de cada {@value #CLIENTES_POR_DESCUENTO} clientes.</li>
+ *   <li>Ventas de 1 a {@value #MAX_LINEAS_POR_VENTA} líneas, algunas con el descuento del cliente.</li>
+ * </ul>
+ * Los inserts se envían en lotes y se confirman cada {@code filasPorTransaccion} filas,
+ * sobre la conexión de escritura y con el cerrojo de escritura tomado. Con la misma semilla
+ * y la misma base de datos de partida, el resultado es siempre el mismo (las fechas se calculan
+ * hacia atrás desde el día de la generación). Los datos se añaden a los que ya existan.
+ * <p>
+ * Uso desde la línea de comandos (todas las opciones son opcionales):
+ * <pre>
+ * java -cp ... com.erp.utils.GeneradorDatos --db=/tmp/erp-carga.db --productos=1000000
+ *      --clientes=200000 --ventas=500000 --semilla=42
+ * </pre>
+ *
+ * @author Noé
+ */
+public class GeneradorDatos {
+
+    /** Filas confirmadas en cada transacción si no se indica otra cosa. */
+    public static final int FILAS_POR_TRANSACCION = 10_000;
+
+    /** Uno de cada tantos clientes tiene un descuento. */
+    public static final int CLIENTES_POR_DESCUENTO = 5;
+
+    /** Número máximo de líneas de una venta. */
+    public static final int MAX_LINEAS_POR_VENTA = 5;
+
+    private static final String[] CATEGORIAS = {"Electrónica", "Periféricos", "Mobiliario", "Papelería", "Redes", "Almacenamiento"};
+    private static final String[] PRODUCTOS = {"Portátil", "Monitor", "Teclado", "Ratón", "Silla", "Mesa", "Router", "Cuaderno", "Disco SSD", "Impresora"};
+    private static final String[] MARCAS = {"Pro", "Lite", "Max", "Eco", "Plus", "Ultra"};
+    private static final String[] NOMBRES = {"Ana", "Carlos", "Laura", "Javier", "Lucía", "Pablo", "Marta", "Sergio", "Elena", "David"};
+    private static final String[] APELLIDOS = {"García", "López", "Martínez", "Pérez", "Sánchez", "Gómez", "Ruiz", "Díaz", "Moreno", "Navarro"};
+    private static final String[] SECTORES = {"Soluciones", "Consultores", "Distribuciones", "Tecnología", "Servicios", "Logística"};
+    private static final String[] CIUDADES = {"Madrid", "Barcelona", "Valencia", "Sevilla", "Bilbao", "Zaragoza"};
+    private static final String[] MOTIVOS_DESCUENTO = {"de bienvenida", "de fidelidad", "de temporada", "por volumen"};
+    private static final String LETRAS_NIF = "TRWAGMYFPDXBNJZSQVHLCKE";
+
+    private final long semilla;
+    private final int filasPorTransaccion;
+    private final LocalDate hoy = LocalDate.now();
+
+    /**
+     * Resumen de una generación: filas insertadas en cada tabla y tiempo empleado.
+     */
+    public static class Resumen {
+        private final int productos;
+        private final int clientes;
+        private final int descuentos;
+        private final int ventas;
+        private final int lineas;
+        private final long milisegundos;
+
+        Resumen(int productos, int clientes, int descuentos, int ventas, int lineas, long milisegundos) {
+            this.productos = productos;
+            this.clientes = clientes;
+            this.descuentos = descuentos;
+            this.ventas = ventas;
+            this.lineas = lineas;
+            this.milisegundos = milisegundos;
+        }
+
+        public int getProductos() {
+            return productos;
+        }
+
+        public int getClientes() {
+            return clientes;
+        }
+
+        public int getDescuentos() {
+            return descuentos;
+        }
+
+        public int getVentas() {
+            return ventas;
+        }
+
+        public int getLineas() {
+            return lineas;
+        }
+
+        public long getMilisegundos() {
+            return milisegundos;
+        }
+
+        @Override
+        public String toString() {
+            return productos + " productos, " + clientes + " clientes, " + descuentos + " descuentos, "
+                    + ventas + " ventas (" + lineas + " líneas) en " + milisegundos + " ms";
+        }
+    }
+
+    /**
+     * Crea un generador que confirma cada {@value #FILAS_POR_TRANSACCION} filas.
+     *
+     * @param semilla Semilla de los datos aleatorios.
+     */
+    public GeneradorDatos(long semilla) {
+        this(semilla, FILAS_POR_TRANSACCION);
+    }
+
+    /**
+     * @param semilla             Semilla de los datos aleatorios.
+     * @param filasPorTransaccion Filas que se insertan antes de cada commit.
+     */
+    public GeneradorDatos(long semilla, int filasPorTransaccion) {
+        if (filasPorTransaccion < 1) {
+            throw new IllegalArgumentException("Cada transacción debe tener al menos una fila.");
+        }
+        this.semilla = semilla;
+        this.filasPorTransaccion = filasPorTransaccion;
+    }
+
+    /**
+     * Genera los datos en la base de datos activa de {@link SQLiteConnector}, que ya
+     * debe tener el esquema migrado.
+     *
+     * @param productos Número de productos a crear.
+     * @param clientes  Número de clientes a crear.
+     * @param ventas    Número de ventas a crear. Necesita al menos un producto y un cliente.
+     * @return El resumen de lo insertado.
+     * @throws SQLException Si falla algún insert; las transacciones ya confirmadas se conservan.
+     */
+    public Resumen generar(int productos, int clientes, int ventas) throws SQLException {
+        long inicio = System.currentTimeMillis();
+        Random random = new Random(semilla);
+        ReentrantLock writeLock = SQLiteConnector.getWriteLock();
+        writeLock.lock();
+        try {
+            Connection conn = SQLiteConnector.connect();
+            int primerProducto = siguienteId(conn, "productos", "id");
+            int primerCliente = siguienteId(conn, "clientes", "id");
+            int primerDescuento = siguienteId(conn, "descuentos", "idDescuento");
+            int primeraVenta = siguienteId(conn, "ventas", "id");
+
+            // Los triggers de los índices FTS se quitan durante la carga y los índices se
+            // reconstruyen al final de una vez: indexar fila a fila multiplica el tiempo de carga.
+            List<String> triggers = quitarTriggersFts(conn);
+            int descuentos;
+            int lineas = 0;
+            try {
+                insertarProductos(conn, random, primerProducto, productos);
+                insertarClientes(conn, random, primerCliente, clientes);
+                descuentos = insertarDescuentos(conn, random, primerDescuento, primerCliente, clientes);
+                if (productos > 0 && clientes > 0) {
+                    lineas = insertarVentas(conn, random, primeraVenta, ventas,
+                            primerProducto, productos, primerCliente, clientes, primerDescuento);
+                } else {
+                    ventas = 0;
+                }
+            } finally {
+                restaurarTriggersFts(conn, triggers);
+            }
+            return new Resumen(productos, clientes, descuentos, ventas, lineas, System.currentTimeMillis() - inicio);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Punto de entrada por línea de comandos. Opciones: {@code --db}, {@code --productos},
+     * {@code --clientes}, {@code --ventas}, {@code --semilla} y {@code --lote}.
+     *
+     * @param args Opciones con la forma {@code --nombre=valor}.
+     */
+    public static void main(String[] args) {
+        String db = null;
+        int productos = 10_000;
+        int clientes = 2_000;
+        int ventas = 5_000;
+        long semilla = 42L;
+        int lote = FILAS_POR_TRANSACCION;
+        try {
+            for (String arg : args) {
+                String[] partes = arg.split("=", 2);
+                if (partes.length != 2) {
+                    throw new IllegalArgumentException("Opción sin valor: " + arg);
+                }
+                switch (partes[0]) {
+                    case "--db" -> db = partes[1];
+                    case "--productos" -> productos = Integer.parseInt(partes[1]);
+                    case "--clientes" -> clientes = Integer.parseInt(partes[1]);
+                    case "--ventas" -> ventas = Integer.parseInt(partes[1]);
+                    case "--semilla" -> semilla = Long.parseLong(partes[1]);
+                    case "--lote" -> lote = Integer.parseInt(partes[1]);
+                    default -> throw new IllegalArgumentException("Opción desconocida: " + partes[0]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: GeneradorDatos [--db=ruta] [--productos=N] [--clientes=N] [--ventas=N] [--semilla=N] [--lote=N]");
+            System.exit(1);
+            return;
+        }
+
+        if (db != null) {
+            SQLiteConnector.usarBaseDeDatos(db);
+        }
+        try {
+            SQLiteConnector.migrarEsquema();
+            Resumen resumen = new GeneradorDatos(semilla, lote).generar(productos, clientes, ventas);
+            System.out.println("Generados en " + SQLiteConnector.getRutaBaseDeDatos() + ": " + resumen);
+        } catch (SQLException e) {
+            System.err.println("Error al generar los datos: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            SQLiteConnector.closeConnection();
+        }
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void insertarProductos(Connection conn, Random random, int primerId, int cantidad) throws SQLException {
+        String sql = "INSERT INTO productos(id, nombre, descripcion, categoria, precioUnitario, stock) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < cantidad; i++) {
+                int id = primerId + i;
+                String producto = elegir(random, PRODUCTOS);
+                String marca = elegir(random, MARCAS);
+                String categoria = elegir(random, CATEGORIAS);
+                stmt.setInt(1, id);
+                stmt.setString(2, producto + " " + marca + " " + id);
+                stmt.setString(3, producto + " " + marca.toLowerCase() + " de la gama " + categoria.toLowerCase());
+                stmt.setString(4, categoria);
+                stmt.setDouble(5, 1 + random.nextInt(250_000) / 100.0);
+                stmt.setInt(6, random.nextInt(500));
+                stmt.addBatch();
+                confirmarSiToca(conn, i + 1, stmt);
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback(); // Se descarta solo el bloque en curso
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private void insertarClientes(Connection conn, Random random, int primerId, int cantidad) throws SQLException {
+        String sql = "INSERT INTO clientes(id, nombre, apellidos, razonSocial, personaContacto, tipoCliente, telefono, email, direccion, cifnif, fechaAlta) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < cantidad; i++) {
+                int id = primerId + i;
+                String nombre = elegir(random, NOMBRES);
+                String apellido = elegir(random, APELLIDOS) + " " + elegir(random, APELLIDOS);
+                String direccion = "Calle " + elegir(random, APELLIDOS) + " " + (1 + random.nextInt(200)) + ", " + elegir(random, CIUDADES);
+                String fechaAlta = hoy.minusDays(random.nextInt(3650)).toString(); // Igual que ClienteDAO: texto ISO
+                stmt.setInt(1, id);
+                if (random.nextBoolean()) {
+                    stmt.setString(2, null);
+                    stmt.setString(3, null);
+                    stmt.setString(4, apellido.split(" ")[0] + " " + elegir(random, SECTORES) + " " + id + " S.L.");
+                    stmt.setString(5, nombre + " " + apellido);
+                    stmt.setString(6, "Empresa");
+                    stmt.setString(8, "info" + id + "@empresa.es");
+                    stmt.setString(10, "B" + String.format("%08d", id % 100_000_000));
+                } else {
+                    stmt.setString(2, nombre);
+                    stmt.setString(3, apellido);
+                    stmt.setString(4, null);
+                    stmt.setString(5, null);
+                    stmt.setString(6, "Particular");
+                    stmt.setString(8, nombre.toLowerCase() + "." + id + "@correo.es");
+                    int dni = id % 100_000_000;
+                    stmt.setString(10, String.format("%08d", dni) + LETRAS_NIF.charAt(dni % 23));
+                }
+                stmt.setString(7, String.valueOf(600_000_000 + random.nextInt(100_000_000)));
+                stmt.setString(9, direccion);
+                stmt.setString(11, fechaAlta);
+                stmt.addBatch();
+                confirmarSiToca(conn, i + 1, stmt);
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback(); // Se descarta solo el bloque en curso
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Crea un descuento para cada cliente en posición múltiplo de {@value #CLIENTES_POR_DESCUENTO},
+     * así el descuento de un cliente se calcula sin guardarlo en memoria.
+     */
+    private int insertarDescuentos(Connection conn, Random random, int primerId, int primerCliente, int clientes) throws SQLException {
+        String sql = "INSERT INTO descuentos(idDescuento, clienteId, descripcion, porcentaje, fechaInicio, fechaCaducidad, estado) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        int cantidad = clientes / CLIENTES_POR_DESCUENTO;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < cantidad; i++) {
+                LocalDate inicio = hoy.minusDays(random.nextInt(365));
+                LocalDate fin = inicio.plusDays(30 + random.nextInt(365));
+                stmt.setInt(1, primerId + i);
+                stmt.setInt(2, primerCliente + (i + 1) * CLIENTES_POR_DESCUENTO - 1);
+                stmt.setString(3, "Descuento " + elegir(random, MOTIVOS_DESCUENTO));
+                stmt.setDouble(4, 5 + random.nextInt(4) * 5);
+                // Igual que DescuentoDAO: las fechas se guardan con setDate
+                stmt.setDate(5, Date.valueOf(inicio));
+                stmt.setDate(6, Date.valueOf(fin));
+                stmt.setBoolean(7, !fin.isBefore(hoy));
+                stmt.addBatch();
+                confirmarSiToca(conn, i + 1, stmt);
+            }
+            stmt.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback(); // Se descarta solo el bloque en curso
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return cantidad;
+    }
+
+    private int insertarVentas(Connection conn, Random random, int primerId, int cantidad,
+                               int primerProducto, int productos, int primerCliente, int clientes,
+                               int primerDescuento) throws SQLException {
+        String sqlVenta = "INSERT INTO ventas(id, cliente_id, fecha, total) VALUES (?, ?, ?, ?)";
+        String sqlDetalle = "INSERT INTO detalles_venta(venta_id, producto_id, cantidad, precio_unitario) VALUES (?, ?, ?, ?)";
+        String sqlVentaDescuento = "INSERT INTO venta_descuentos(venta_id, descuento_id) VALUES (?, ?)";
+        int lineas = 0;
+        try (PreparedStatement stmtVenta = conn.prepareStatement(sqlVenta);
+             PreparedStatement stmtDetalle = conn.prepareStatement(sqlDetalle);
+             PreparedStatement stmtVentaDescuento = conn.prepareStatement(sqlVentaDescuento)) {
+            conn.setAutoCommit(false);
+            for (int i = 0; i < cantidad; i++) {
+                int ventaId = primerId + i;
+                int posicionCliente = random.nextInt(clientes);
+                double subtotal = 0;
+                int numeroLineas = 1 + random.nextInt(MAX_LINEAS_POR_VENTA);
+                for (int linea = 0; linea < numeroLineas; linea++) {
+                    int unidades = 1 + random.nextInt(5);
+                    double precio = 1 + random.nextInt(250_000) / 100.0;
+                    subtotal += unidades * precio;
+                    stmtDetalle.setInt(1, ventaId);
+                    stmtDetalle.setInt(2, primerProducto + random.nextInt(productos));
+                    stmtDetalle.setInt(3, unidades);
+                    stmtDetalle.setDouble(4, precio);
+                    stmtDetalle.addBatch();
+                }
+                lineas += numeroLineas;
+
+                // La mitad de las ventas de clientes con descuento lo aplican
+                double porcentaje = 0;
+                if ((posicionCliente + 1) % CLIENTES_POR_DESCUENTO == 0 && random.nextBoolean()) {
+                    porcentaje = 10;
+                    stmtVentaDescuento.setInt(1, ventaId);
+                    stmtVentaDescuento.setInt(2, primerDescuento + (posicionCliente + 1) / CLIENTES_POR_DESCUENTO - 1);
+                    stmtVentaDescuento.addBatch();
+                }
+                double total = subtotal * (1 - porcentaje / 100.0) * 1.21; // Con IVA, como VentaFinalizarController
+
+                stmtVenta.setInt(1, ventaId);
+                stmtVenta.setInt(2, primerCliente + posicionCliente);
+                stmtVenta.setDate(3, Date.valueOf(hoy.minusDays(random.nextInt(730)))); // Igual que VentaDAO
+                stmtVenta.setDouble(4, Math.round(total * 100) / 100.0);
+                stmtVenta.addBatch();
+
+                if ((i + 1) % filasPorTransaccion == 0) {
+                    confirmarVentas(conn, stmtVenta, stmtDetalle, stmtVentaDescuento);
+                }
+            }
+            confirmarVentas(conn, stmtVenta, stmtDetalle, stmtVentaDescuento);
+        } catch (SQLException e) {
+            conn.rollback(); // Se descarta solo el bloque en curso
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return lineas;
+    }
+
+    private static void confirmarVentas(Connection conn, PreparedStatement stmtVenta, PreparedStatement stmtDetalle,
+                                        PreparedStatement stmtVentaDescuento) throws SQLException {
+        // Las cabeceras primero: detalles y descuentos las referencian
+        stmtVenta.executeBatch();
+        stmtDetalle.executeBatch();
+        stmtVentaDescuento.executeBatch();
+        conn.commit();
+    }
+
+    private void confirmarSiToca(Connection conn, int filas, PreparedStatement stmt) throws SQLException {
+        if (filas % filasPorTransaccion == 0) {
+            stmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * Quita los triggers que mantienen las tablas FTS5 y devuelve su SQL para volver a crearlos.
+     */
+    private static List<String> quitarTriggersFts(Connection conn) throws SQLException {
+        List<String> triggers = new ArrayList<>();
+        List<String> nombres = new ArrayList<>();
+        String sql = "SELECT name, sql FROM sqlite_master WHERE type = 'trigger' AND sql LIKE '%\\_fts%' ESCAPE '\\'";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                nombres.add(rs.getString("name"));
+                triggers.add(rs.getString("sql"));
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String nombre : nombres) {
+                stmt.execute("DROP TRIGGER IF EXISTS " + nombre);
+            }
+        }
+        return triggers;
+    }
+
+    /**
+     * Reconstruye todas las tablas FTS5 desde sus tablas de contenido y vuelve a crear los triggers.
+     */
+    private static void restaurarTriggersFts(Connection conn, List<String> triggers) throws SQLException {
+        List<String> tablasFts = new ArrayList<>();
+        String sql = "SELECT name FROM sqlite_master WHERE type = 'table' AND sql LIKE '%USING fts5%'";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                tablasFts.add(rs.getString("name"));
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String tabla : tablasFts) {
+                stmt.execute("INSERT INTO " + tabla + "(" + tabla + ") VALUES('rebuild')");
+            }
+            for (String trigger : triggers) {
+                stmt.execute(trigger);
+            }
+        }
+    }
+
+    private static int siguienteId(Connection conn, String tabla, String columnaId) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(" + columnaId + "), 0) + 1 FROM " + tabla)) {
+            return rs.next() ? rs.getInt(1) : 1;
+        }
+    }
+
+    private static String elegir(Random random, String[] opciones) {
+        return opciones[random.nextInt(opciones.length)];
+    }
+}
@@ -0,0 +1,335 @@
+package com.erp.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.ToIntFunction;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Lista observable de solo lectura que carga sus elementos por páginas y bajo demanda.
+ * <p>
+ * Está pensada como {@code items} de un {@code TableView}: la tabla solo pide con
+ * {@link #get(int)} las filas visibles, así que únicamente se leen de la base de datos
+ * las páginas que el usuario llega a ver. Abrir una tabla sobre un catálogo enorme
+ * cuesta un recuento y una página, no el catálogo completo.
+ * <ul>
+ *   <li>Las páginas leídas se guardan en una caché LRU de tamaño acotado.</li>
+ *   <li>Al pasar de la mitad de una página se precarga la siguiente en segundo plano.</li>
+ *   <li>Si se conoce el último ID de la página anterior, la carga usa paginación por
+ *       clave; si no (por ejemplo al arrastrar la barra de desplazamiento), la fuente
+ *       recibe solo la posición.</li>
+ *   <li>Los cambios conocidos (un elemento modificado, añadido al final o eliminado) se aplican
+ *       sobre las páginas en caché con {@link #reemplazar(Object)}, {@link #anadirAlFinal(Object)}
+ *       y {@link #eliminar(int)}, sin volver a contar ni releer toda la lista.</li>
+ * </ul>
+ *
+ * @param <T> Tipo de los elementos.
+ * @author Noé
+ */
+public class LazyPagedList<T> extends ObservableListBase<T> {
+
+    /**
+     * Origen de los datos de una {@link LazyPagedList}.
+     *
+     * @param <T> Tipo de los elementos.
+     */
+    public interface FuentePaginas<T> {
+
+        /**
+         * @return El número total de elementos.
+         */
+        int contar();
+
+        /**
+         * Carga una página.
+         *
+         * @param posicion    Índice del primer elemento de la página.
+         * @param despuesDeId ID del último elemento de la página anterior si se conoce
+         *                    (para paginación por clave), o {@code null} si solo se conoce la posición.
+         * @param tamano      Número máximo de elementos a cargar.
+         * @return Los elementos de la página, en orden.
+         */
+        List<T> cargar(int posicion, Integer despuesDeId, int tamano);
+    }
+
+    // Un único hilo de precarga compartido; es daemon para no impedir el cierre de la app.
+    private static final ExecutorService PRECARGA = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "precarga-paginas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final FuentePaginas<T> fuente;
+    private final ToIntFunction<T> extraerId;
+    private final int tamanoPagina;
+
+    // Caché LRU: LinkedHashMap en orden de acceso que descarta la página menos usada. Protegida por 'this'.
+    private final Map<Integer, List<T>> cache;
+    // Cursor de inicio de cada página conocida: el ID del último elemento de la página anterior.
+    private final Map<Integer, Integer> cursores = new HashMap<>();
+    private final Set<Integer> enPrecarga = ConcurrentHashMap.newKeySet();
+
+    // Se incrementa en cada refresco para descartar precargas que terminen después.
+    private int generacion = 0;
+    private int tamano;
+
+    /**
+     * Crea la lista y realiza el recuento inicial. No carga ninguna página todavía.
+     *
+     * @param fuente       Origen de los datos.
+     * @param extraerId    Obtiene el ID (positivo y creciente en el orden de la lista) de un elemento.
+     * @param tamanoPagina Elementos por página.
+     * @param maxPaginas   Número máximo de páginas en la caché.
+     */
+    public LazyPagedList(FuentePaginas<T> fuente, ToIntFunction<T> extraerId, int tamanoPagina, int maxPaginas) {
+        if (tamanoPagina < 1 || maxPaginas < 1) {
+            throw new IllegalArgumentException("El tamaño de página y de caché deben ser mayores que 0.");
+        }
+        this.fuente = fuente;
+        this.extraerId = extraerId;
+        this.tamanoPagina = tamanoPagina;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > maxPaginas;
+            }
+        };
+        this.cursores.put(0, 0);
+        this.tamano = fuente.contar();
+    }
+
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= tamano) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fuera de rango (tamaño " + tamano + ")");
+        }
+        int pagina = index / tamanoPagina;
+        int posicion = index % tamanoPagina;
+        List<T> datos = obtenerPagina(pagina);
+
+        // A partir de la mitad de la página es probable que el usuario siga bajando.
+        if (posicion >= tamanoPagina / 2) {
+            precargar(pagina + 1);
+        }
+        // La página puede venir corta si se borraron filas después del recuento.
+        return posicion < datos.size() ? datos.get(posicion) : null;
+    }
+
+    @Override
+    public int size() {
+        return tamano;
+    }
+
+    /**
+     * Vacía la caché, vuelve a contar los elementos y notifica a los observadores
+     * (la tabla) de que el contenido ha cambiado por completo.
+     */
+    public void refrescar() {
+        reiniciar(fuente.contar());
+    }
+
+    /**
+     * Sustituye un elemento ya cargado por su versión nueva (con el mismo ID) y notifica
+     * el cambio. Si su página no está en caché no hay nada que hacer: se leerá ya
+     * actualizada cuando se pida.
+     *
+     * @param elemento Elemento modificado.
+     * @return {@code true} si el elemento estaba cargado y se ha sustituido.
+     */
+    public boolean reemplazar(T elemento) {
+        int indice;
+        T anterior;
+        synchronized (this) {
+            int[] ubicacion = localizar(extraerId.applyAsInt(elemento));
+            if (ubicacion == null) {
+                return false;
+            }
+            // Las páginas pueden venir inmutables de la fuente, así que se sustituye una copia
+            List<T> pagina = new ArrayList<>(cache.get(ubicacion[0]));
+            anterior = pagina.set(ubicacion[1], elemento);
+            cache.put(ubicacion[0], pagina);
+            indice = ubicacion[0] * tamanoPagina + ubicacion[1];
+        }
+        beginChange();
+        nextSet(indice, anterior);
+        endChange();
+        return true;
+    }
+
+    /**
+     * Añade un elemento nuevo al final de la lista y notifica el cambio. Su ID debe ser
+     * mayor que el de todos los demás, como ocurre con los IDs autogenerados.
+     *
+     * @param elemento Elemento recién creado.
+     */
+    public void anadirAlFinal(T elemento) {
+        synchronized (this) {
+            // Una precarga en curso de la última página no incluiría el elemento nuevo
+            generacion++;
+            int pagina = tamano / tamanoPagina;
+            List<T> datos = cache.get(pagina);
+            if (datos != null && datos.size() == tamano % tamanoPagina) {
+                List<T> copia = new ArrayList<>(datos);
+                copia.add(elemento);
+                cache.put(pagina, copia);
+                if (copia.size() == tamanoPagina) {
+                    cursores.put(pagina + 1, extraerId.applyAsInt(elemento));
+                }
+            } else if (datos != null) {
+                cache.remove(pagina);
+            }
+        }
+        tamano++;
+        beginChange();
+        nextAdd(tamano - 1, tamano);
+        endChange();
+    }
+
+    /**
+     * Quita un elemento de la lista y notifica el cambio. Las páginas desde la suya en
+     * adelante se desplazan una posición, así que se descartan y se releen al pedirlas;
+     * las anteriores se conservan. Si el elemento no estaba cargado no se conoce su
+     * posición: se vacía la caché y se notifica un cambio completo, pero sin volver a contar.
+     *
+     * @param id ID del elemento eliminado.
+     */
+    public void eliminar(int id) {
+        int indice;
+        T eliminado;
+        synchronized (this) {
+            int[] ubicacion = localizar(id);
+            if (ubicacion == null) {
+                indice = -1;
+                eliminado = null;
+            } else {
+                generacion++;
+                indice = ubicacion[0] * tamanoPagina + ubicacion[1];
+                eliminado = cache.get(ubicacion[0]).get(ubicacion[1]);
+                cache.keySet().removeIf(pagina -> pagina >= ubicacion[0]);
+                cursores.keySet().removeIf(pagina -> pagina > ubicacion[0]);
+            }
+        }
+        if (indice < 0) {
+            reiniciar(tamano - 1);
+            return;
+        }
+        tamano--;
+        beginChange();
+        nextRemove(indice, eliminado);
+        endChange();
+    }
+
+    /**
+     * @return Número de páginas actualmente en caché.
+     */
+    public synchronized int getPaginasEnCache() {
+        return cache.size();
+    }
+
+    /**
+     * @return El tamaño de página configurado.
+     */
+    public int getTamanoPagina() {
+        return tamanoPagina;
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private List<T> obtenerPagina(int pagina) {
+        int generacionCarga;
+        Integer cursor;
+        synchronized (this) {
+            List<T> enCache = cache.get(pagina);
+            if (enCache != null) {
+                return enCache;
+            }
+            generacionCarga = generacion;
+            cursor = cursores.get(pagina);
+        }
+
+        // La consulta se hace fuera del cerrojo para no bloquear la precarga ni la tabla.
+        List<T> datos = fuente.cargar(pagina * tamanoPagina, cursor, tamanoPagina);
+
+        synchronized (this) {
+            if (generacionCarga == generacion) {
+                cache.put(pagina, datos);
+                if (datos.size() == tamanoPagina) {
+                    cursores.put(pagina + 1, extraerId.applyAsInt(datos.get(datos.size() - 1)));
+                }
+            }
+        }
+        return datos;
+    }
+
+    /**
+     * Vacía la caché, fija el nuevo tamaño y notifica a los observadores (la tabla) de que
+     * el contenido ha cambiado por completo.
+     */
+    private void reiniciar(int nuevoTamano) {
+        int tamanoAnterior = tamano;
+        synchronized (this) {
+            generacion++;
+            cache.clear();
+            cursores.clear();
+            cursores.put(0, 0);
+        }
+        tamano = nuevoTamano;
+
+        beginChange();
+        if (tamanoAnterior > 0) {
+            // Los elementos eliminados no se conocen sin cargarlos; la tabla solo necesita cuántos son.
+            nextRemove(0, Collections.nCopies(tamanoAnterior, (T) null));
+        }
+        if (tamano > 0) {
+            nextAdd(0, tamano);
+        }
+        endChange();
+    }
+
+    /**
+     * Busca un elemento por ID en las páginas en caché. Debe llamarse con el cerrojo tomado.
+     *
+     * @return La página y la posición dentro de ella, o {@code null} si no está cargado.
+     */
+    private int[] localizar(int id) {
+        for (Map.Entry<Integer, List<T>> entrada : cache.entrySet()) {
+            List<T> datos = entrada.getValue();
+            for (int i = 0; i < datos.size(); i++) {
+                if (extraerId.applyAsInt(datos.get(i)) == id) {
+                    return new int[] {entrada.getKey(), i};
+                }
+            }
+        }
+        return null;
+    }
+
+    private void precargar(int pagina) {
+        if (pagina * tamanoPagina >= tamano || !enPrecarga.add(pagina)) {
+            return;
+        }
+        synchronized (this) {
+            if (cache.containsKey(pagina)) {
+                enPrecarga.remove(pagina);
+                return;
+            }
+        }
+        PRECARGA.submit(() -> {
+            try {
+                obtenerPagina(pagina);
+            } catch (RuntimeException e) {
+                System.err.println("Error al precargar la página " + pagina + ": " + e.getMessage());
+            } finally {
+                enPrecarga.remove(pagina);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.erp.utils;
+
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+/**
+ * Ordenación de las tablas que a veces muestran una {@link LazyPagedList} (un listado
+ * completo) y a veces una lista en memoria (un resultado de búsqueda).
+ * <p>
+ * Ordenar la lista paginada en memoria leería todas sus páginas, así que con ella la tabla
+ * usa {@link #ordenar(TableView)} como política de ordenación, que la rechaza, y se quitan
+ * las flechas de las cabeceras con {@link #setColumnasOrdenables(boolean, TableColumn...)}.
+ * Las listas en memoria se ordenan como siempre.
+ *
+ * @author Noé
+ */
+public final class OrdenacionPaginada {
+
+    private OrdenacionPaginada() {
+    }
+
+    /**
+     * Política de ordenación para {@link TableView#setSortPolicy}: la de JavaFX para las
+     * listas en memoria, y ninguna para una {@link LazyPagedList}. Devolver {@code false}
+     * hace que la tabla deshaga la petición.
+     *
+     * @param <T>   Tipo de las filas.
+     * @param tabla Tabla que pide ordenarse.
+     * @return {@code true} si se ha ordenado.
+     */
+    public static <T> Boolean ordenar(TableView<T> tabla) {
+        if (tabla.getItems() instanceof LazyPagedList) {
+            return false;
+        }
+        return TableView.DEFAULT_SORT_POLICY.call(tabla);
+    }
+
+    /**
+     * Activa o desactiva la ordenación al pulsar las cabeceras de las columnas.
+     *
+     * @param ordenables {@code false} mientras la tabla muestra una {@link LazyPagedList}.
+     * @param columnas   Columnas de la tabla.
+     */
+    public static void setColumnasOrdenables(boolean ordenables, TableColumn<?, ?>... columnas) {
+        for (TableColumn<?, ?> columna : columnas) {
+            columna.setSortable(ordenables);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.erp.utils;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * Pantalla de carga que se muestra mientras {@link Arranque} prepara la aplicación.
+ * <p>
+ * Se construye en código, sin FXML ni hoja de estilos, para que aparezca en cuanto
+ * arranca JavaFX: su propósito es precisamente no esperar a nada de lo que tarda.
+ *
+ * @author Noé
+ */
+public class PantallaCarga {
+
+    private final Stage ventana = new Stage(StageStyle.UNDECORATED);
+    private final Label estado = new Label("Iniciando...");
+
+    /**
+     * Prepara la ventana. Debe crearse en el hilo de JavaFX.
+     */
+    public PantallaCarga() {
+        Label titulo = new Label("Mini ERP");
+        titulo.setStyle("-fx-font-size: 26px; -fx-font-weight: bold; -fx-text-fill: #2c3e50;");
+        estado.setStyle("-fx-text-fill: #555555;");
+        ProgressBar barra = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        barra.setPrefWidth(260);
+
+        VBox contenido = new VBox(14, titulo, barra, estado);
+        contenido.setAlignment(Pos.CENTER);
+        contenido.setPadding(new Insets(24));
+        contenido.setStyle("-fx-background-color: white; -fx-border-color: #d0d7de;");
+
+        ventana.setScene(new Scene(contenido, 360, 170));
+        ventana.setTitle("Mini ERP");
+    }
+
+    /**
+     * Muestra la pantalla centrada.
+     */
+    public void mostrar() {
+        ventana.centerOnScreen();
+        ventana.show();
+    }
+
+    /**
+     * Cambia el texto de estado. Puede llamarse desde cualquier hilo.
+     *
+     * @param texto Descripción de lo que se está haciendo.
+     */
+    public void setEstado(String texto) {
+        if (Platform.isFxApplicationThread()) {
+            estado.setText(texto);
+        } else {
+            Platform.runLater(() -> estado.setText(texto));
+        }
+    }
+
+    /**
+     * Cierra la pantalla.
+     */
+    public void cerrar() {
+        ventana.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.erp.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.WeakChangeListener;
+
+/**
+ * Listeners registrados por un controlador, para poder quitarlos todos de una vez.
+ * <p>
+ * Un listener añadido a una propiedad que vive más que la vista (un objeto del modelo, una
+ * lista compartida) mantiene vivo al controlador que lo creó aunque la vista ya no se use.
+ * Con esta clase el controlador registra sus listeners con {@link #escuchar} y los quita
+ * con {@link #cancelarTodas()} al desecharse.
+ * <p>
+ * {@link #escucharDebil} registra un {@link WeakChangeListener}: la propiedad no retiene
+ * al listener, que vive mientras viva este objeto (y, por tanto, el controlador). Sirve
+ * como red de seguridad cuando no hay un momento claro en el que cancelar.
+ *
+ * @author Noé
+ */
+public class Suscripciones {
+
+    private final List<Runnable> cancelaciones = new ArrayList<>();
+    // Referencias fuertes a los listeners débiles, para que no se recojan antes de tiempo
+    private final List<Object> retenidos = new ArrayList<>();
+
+    /**
+     * Añade un listener a {@code observable} y lo recuerda para quitarlo después.
+     *
+     * @param observable Valor observado.
+     * @param listener   Listener a añadir.
+     * @param <T>        Tipo del valor.
+     */
+    public <T> void escuchar(ObservableValue<T> observable, ChangeListener<? super T> listener) {
+        observable.addListener(listener);
+        cancelaciones.add(() -> observable.removeListener(listener));
+    }
+
+    /**
+     * Añade un listener débil a {@code observable}: si este objeto deja de usarse, la
+     * propiedad no lo retiene.
+     *
+     * @param observable Valor observado.
+     * @param listener   Listener a añadir.
+     * @param <T>        Tipo del valor.
+     */
+    public <T> void escucharDebil(ObservableValue<T> observable, ChangeListener<T> listener) {
+        WeakChangeListener<T> debil = new WeakChangeListener<>(listener);
+        observable.addListener(debil);
+        retenidos.add(listener);
+        cancelaciones.add(() -> observable.removeListener(debil));
+    }
+
+    /**
+     * Quita todos los listeners registrados.
+     */
+    public void cancelarTodas() {
+        for (Runnable cancelacion : cancelaciones) {
+            cancelacion.run();
+        }
+        cancelaciones.clear();
+        retenidos.clear();
+    }
+
+    /**
+     * @return Número de listeners registrados y aún no cancelados.
+     */
+    public int getActivas() {
+        return cancelaciones.size();
+    }
+}
@@ -0,0 +1,328 @@
+package com.erp.utils;
+
+import com.erp.metricas.Contador;
+import com.erp.metricas.RegistroMetricas;
+import com.erp.metricas.Temporizador;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.event.ActionEvent;
+import javafx.event.Event;
+import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.control.Labeled;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Window;
+
+/**
+ * Vigilante del hilo de JavaFX: detecta cuándo deja de responder más de lo permitido y
+ * deja constancia de qué estaba haciendo.
+ * <p>
+ * Un hilo propio envía un latido al hilo de JavaFX ({@link Platform#runLater(Runnable)}) y
+ * mide cuánto tarda en atenderse; en cuanto se atiende, envía el siguiente. Si un latido
+ * lleva más del presupuesto (por defecto {@value #PRESUPUESTO_POR_DEFECTO_MS} ms) sin
+ * atenderse, el hilo de JavaFX está bloqueado: mientras dure se toman muestras de su pila
+ * (la primera al superar el presupuesto y después una por presupuesto, hasta
+ * {@value #MAX_MUESTRAS}). Al desbloquearse se escribe un informe con la duración, la última
+ * acción del usuario y las muestras agrupadas, que señalan el código responsable.
+ * <p>
+ * La acción en curso se obtiene de filtros de eventos (acciones, clics y teclas) en todas
+ * las ventanas de la aplicación, o de {@link #marcarAccion(String)} para el trabajo que no
+ * empieza con un evento.
+ * <p>
+ * Los informes se escriben en {@code logs/bloqueos-fx.N.log}, rotando entre
+ * {@value #FICHEROS_ROTACION} ficheros de como mucho 1 MB. La latencia de cada latido se
+ * anota en el temporizador {@code fx.latido} y los bloqueos en el contador {@code fx.bloqueos}.
+ * El presupuesto se cambia con la propiedad del sistema {@code erp.fx.presupuestoMs}
+ * (un valor negativo desactiva el vigilante) y el fichero con {@code erp.fx.bloqueos.ruta}.
+ *
+ * @author Noé
+ */
+public class VigilanteHiloFx {
+
+    /** Tiempo máximo que el hilo de JavaFX puede tardar en atender un latido. */
+    public static final long PRESUPUESTO_POR_DEFECTO_MS = 50;
+
+    /** Patrón por defecto de los ficheros de informes ({@code %g} es el número de rotación). */
+    public static final String RUTA_POR_DEFECTO = "logs/bloqueos-fx.%g.log";
+
+    /** Muestras de la pila que se toman como mucho por bloqueo. */
+    static final int MAX_MUESTRAS = 10;
+
+    private static final int FICHEROS_ROTACION = 5;
+    private static final int BYTES_POR_FICHERO = 1024 * 1024;
+    private static final int MAX_MARCOS = 40;
+
+    private static final Temporizador LATIDO = RegistroMetricas.getGlobal().temporizador("fx.latido");
+    private static final Contador BLOQUEOS = RegistroMetricas.getGlobal().contador("fx.bloqueos");
+
+    private final long presupuestoNanos;
+    private final String ruta;
+    private final Executor hiloVigilado;
+    private final ScheduledExecutorService vigilante;
+
+    // Estado compartido con el hilo vigilado
+    private volatile Thread hiloFx;
+    private volatile long atendido;
+    private volatile String accion;
+    private volatile long momentoAccion;
+
+    // Estado del hilo vigilante
+    private long enviado;
+    private long proximaMuestra;
+    private final List<StackTraceElement[]> muestras = new ArrayList<>();
+    private String accionAlBloquearse;
+    private long momentoAccionAlBloquearse;
+    private FileHandler fichero;
+
+    /**
+     * Crea un vigilante del hilo de JavaFX.
+     *
+     * @param presupuestoMs Milisegundos a partir de los cuales se informa de un bloqueo.
+     * @param ruta          Patrón de los ficheros de informes, con {@code %g} para el número de rotación.
+     */
+    public VigilanteHiloFx(long presupuestoMs, String ruta) {
+        this(presupuestoMs, ruta, Platform::runLater);
+    }
+
+    /**
+     * Crea un vigilante de un hilo cualquiera al que se envían los latidos con {@code hiloVigilado}.
+     *
+     * @param presupuestoMs Milisegundos a partir de los cuales se informa de un bloqueo.
+     * @param ruta          Patrón de los ficheros de informes, con {@code %g} para el número de rotación.
+     * @param hiloVigilado  Ejecutor que atiende los latidos en el hilo vigilado.
+     */
+    public VigilanteHiloFx(long presupuestoMs, String ruta, Executor hiloVigilado) {
+        if (presupuestoMs < 1) {
+            throw new IllegalArgumentException("El presupuesto debe ser de al menos 1 ms.");
+        }
+        this.presupuestoNanos = TimeUnit.MILLISECONDS.toNanos(presupuestoMs);
+        this.ruta = ruta;
+        this.hiloVigilado = hiloVigilado;
+        this.vigilante = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread hilo = new Thread(r, "vigilante-fx");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Crea el vigilante según las propiedades {@code erp.fx.presupuestoMs} y {@code erp.fx.bloqueos.ruta}.
+     *
+     * @return El vigilante, o {@code null} si está desactivado.
+     */
+    public static VigilanteHiloFx desdePropiedades() {
+        long presupuestoMs = Long.getLong("erp.fx.presupuestoMs", PRESUPUESTO_POR_DEFECTO_MS);
+        if (presupuestoMs < 0) {
+            return null;
+        }
+        return new VigilanteHiloFx(presupuestoMs, System.getProperty("erp.fx.bloqueos.ruta", RUTA_POR_DEFECTO));
+    }
+
+    /**
+     * Empieza a enviar latidos. Se comprueba cinco veces por presupuesto, así que un bloqueo se
+     * detecta como mucho un 20 % después de superarlo.
+     */
+    public void iniciar() {
+        long periodo = Math.max(1, presupuestoNanos / 5);
+        vigilante.scheduleAtFixedRate(this::comprobar, 0, periodo, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Deja de vigilar y cierra el fichero de informes.
+     */
+    public void detener() {
+        vigilante.shutdownNow();
+        try {
+            vigilante.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (fichero != null) {
+                fichero.close();
+                fichero = null;
+            }
+        }
+    }
+
+    /**
+     * Registra las acciones del usuario en todas las ventanas abiertas y en las que se abran
+     * después. Debe llamarse desde el hilo de JavaFX.
+     */
+    public void vigilarVentanas() {
+        EventHandler<Event> registrar = this::registrarEvento;
+        for (Window ventana : Window.getWindows()) {
+            escuchar(ventana, registrar);
+        }
+        Window.getWindows().addListener((ListChangeListener<Window>) cambio -> {
+            while (cambio.next()) {
+                for (Window ventana : cambio.getAddedSubList()) {
+                    escuchar(ventana, registrar);
+                }
+            }
+        });
+    }
+
+    /**
+     * Indica qué está haciendo la aplicación, para el trabajo que no nace de un evento
+     * (por ejemplo, la inicialización de una vista).
+     *
+     * @param descripcion Descripción breve de la acción.
+     */
+    public void marcarAccion(String descripcion) {
+        momentoAccion = System.nanoTime();
+        accion = descripcion;
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void comprobar() {
+        try {
+            long ahora = System.nanoTime();
+            if (enviado == 0) {
+                enviarLatido(ahora);
+                return;
+            }
+            long respuesta = atendido;
+            if (respuesta - enviado >= 0) {
+                long latencia = respuesta - enviado;
+                LATIDO.registrar(latencia);
+                if (latencia >= presupuestoNanos) {
+                    informar(latencia);
+                }
+                muestras.clear();
+                enviarLatido(ahora);
+            } else if (ahora - enviado >= presupuestoNanos && ahora - proximaMuestra >= 0
+                    && muestras.size() < MAX_MUESTRAS) {
+                tomarMuestra(ahora);
+            }
+        } catch (RuntimeException e) {
+            // Un fallo puntual no debe parar el vigilante
+            System.err.println("Error en el vigilante del hilo de JavaFX: " + e.getMessage());
+        }
+    }
+
+    private void enviarLatido(long ahora) {
+        enviado = ahora;
+        atendido = ahora - 1;
+        proximaMuestra = ahora + presupuestoNanos;
+        hiloVigilado.execute(() -> {
+            hiloFx = Thread.currentThread();
+            atendido = System.nanoTime();
+        });
+    }
+
+    private void tomarMuestra(long ahora) {
+        Thread hilo = hiloFx;
+        if (muestras.isEmpty()) {
+            accionAlBloquearse = accion;
+            momentoAccionAlBloquearse = momentoAccion;
+        }
+        if (hilo != null) {
+            StackTraceElement[] pila = hilo.getStackTrace();
+            muestras.add(Arrays.copyOf(pila, Math.min(pila.length, MAX_MARCOS)));
+        }
+        proximaMuestra = ahora + presupuestoNanos;
+    }
+
+    private void informar(long latencia) {
+        BLOQUEOS.incrementar();
+        StringBuilder informe = new StringBuilder();
+        long ms = TimeUnit.NANOSECONDS.toMillis(latencia);
+        informe.append("=== Bloqueo del hilo de JavaFX: ").append(ms).append(" ms (presupuesto ")
+                .append(TimeUnit.NANOSECONDS.toMillis(presupuestoNanos)).append(" ms) ===\n");
+        informe.append("Inicio: ").append(LocalDateTime.now().minusNanos(latencia)).append('\n');
+        String accionInforme = muestras.isEmpty() ? accion : accionAlBloquearse;
+        long momento = muestras.isEmpty() ? momentoAccion : momentoAccionAlBloquearse;
+        if (accionInforme != null) {
+            informe.append("Acción en curso: ").append(accionInforme).append(" (")
+                    .append(TimeUnit.NANOSECONDS.toMillis(Math.max(0, enviado - momento))).append(" ms antes del bloqueo)\n");
+        } else {
+            informe.append("Acción en curso: desconocida\n");
+        }
+        if (muestras.isEmpty()) {
+            informe.append("Sin muestras de la pila: terminó antes de poder tomar una.\n");
+        } else {
+            // Las muestras iguales se agrupan: la pila que más se repite es donde se fue el tiempo
+            Map<List<StackTraceElement>, Integer> agrupadas = new LinkedHashMap<>();
+            for (StackTraceElement[] muestra : muestras) {
+                agrupadas.merge(Arrays.asList(muestra), 1, Integer::sum);
+            }
+            informe.append("Muestras de la pila: ").append(muestras.size()).append('\n');
+            for (Map.Entry<List<StackTraceElement>, Integer> entrada : agrupadas.entrySet()) {
+                informe.append("  [").append(entrada.getValue()).append(" de ").append(muestras.size()).append("]\n");
+                for (StackTraceElement marco : entrada.getKey()) {
+                    informe.append("    at ").append(marco).append('\n');
+                }
+            }
+        }
+        escribir(informe.toString());
+    }
+
+    private synchronized void escribir(String informe) {
+        try {
+            if (fichero == null) {
+                Path padre = Path.of(ruta).toAbsolutePath().getParent();
+                if (padre != null) {
+                    Files.createDirectories(padre);
+                }
+                fichero = new FileHandler(ruta, BYTES_POR_FICHERO, FICHEROS_ROTACION, true);
+                fichero.setEncoding(StandardCharsets.UTF_8.name());
+                fichero.setFormatter(new Formatter() {
+                    @Override
+                    public String format(LogRecord registro) {
+                        return registro.getMessage() + System.lineSeparator();
+                    }
+                });
+            }
+            fichero.publish(new LogRecord(Level.WARNING, informe));
+            fichero.flush();
+        } catch (IOException e) {
+            System.err.println("No se pudo escribir el informe de bloqueo en " + ruta + ": " + e.getMessage());
+            System.err.println(informe);
+        }
+    }
+
+    private void escuchar(Window ventana, EventHandler<Event> registrar) {
+        ventana.addEventFilter(ActionEvent.ACTION, registrar);
+        ventana.addEventFilter(MouseEvent.MOUSE_PRESSED, registrar);
+        ventana.addEventFilter(KeyEvent.KEY_PRESSED, registrar);
+    }
+
+    private void registrarEvento(Event evento) {
+        StringBuilder descripcion = new StringBuilder(evento.getEventType().getName()).append(" en ");
+        Object destino = evento.getTarget();
+        descripcion.append(destino == null ? "?" : destino.getClass().getSimpleName());
+        if (destino instanceof Node && ((Node) destino).getId() != null) {
+            descripcion.append('#').append(((Node) destino).getId());
+        }
+        if (destino instanceof Labeled && ((Labeled) destino).getText() != null) {
+            descripcion.append(" \"").append(((Labeled) destino).getText()).append('"');
+        }
+        if (evento instanceof KeyEvent) {
+            descripcion.append(" tecla ").append(((KeyEvent) evento).getCode());
+        }
+        marcarAccion(descripcion.toString());
+    }
+}
@@ -0,0 +1,98 @@
+package com.erp.controller;
+
+import com.erp.utils.Suscripciones;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de regresión de fugas de memoria al navegar entre vistas.
+ * <p>
+ * Cada vista falsa se suscribe a una propiedad que vive toda la sesión (como hacen las
+ * tablas con los objetos del modelo) y lleva un lastre de 64 KB. Si el registro no
+ * desechase las vistas que salen de la caché o las de un solo uso, 10.000 navegaciones
+ * retendrían cientos de megas.
+ */
+class NavegacionSinFugasTest {
+
+    private static final int NAVEGACIONES = 10_000;
+    private static final int CAPACIDAD = 2;
+    private static final String[] VISTAS = {
+            "producto.fxml", "cliente.fxml", "venta.fxml", "cesta.fxml", "descuento.fxml"};
+
+    private final StringProperty modelo = new SimpleStringProperty();
+    private final List<WeakReference<VistaFalsa>> creadas = new ArrayList<>();
+    private int avisos;
+
+    @Test
+    void testNavegarNoAcumulaVistas() throws IOException {
+        RegistroVistas registro = new RegistroVistas(CAPACIDAD, this::cargar, Runnable::run, Runnable::run);
+        long memoriaInicial = memoriaUsada();
+
+        for (int i = 0; i < NAVEGACIONES; i++) {
+            RegistroVistas.Vista vista = i % 7 == 0
+                    ? registro.cargarNueva("VentaFinalizar.fxml")
+                    : registro.obtener(VISTAS[i % VISTAS.length]);
+            registro.activar(vista);
+        }
+
+        // Solo siguen vivas las vistas de la caché y la que está a la vista
+        long vivas = contarVivas();
+        assertTrue(creadas.size() > NAVEGACIONES / 2, "El test debe crear vistas nuevas a menudo");
+        assertTrue(vivas <= CAPACIDAD + 1, "Vistas retenidas: " + vivas);
+
+        // Y solo ellas siguen escuchando al modelo
+        modelo.set("cambio");
+        assertTrue(avisos <= CAPACIDAD + 1, "Listeners activos en el modelo: " + avisos);
+
+        long crecimiento = memoriaUsada() - memoriaInicial;
+        assertTrue(crecimiento < 16L * 1024 * 1024, "La memoria creció " + crecimiento / 1024 + " KB");
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private RegistroVistas.Vista cargar(String nombre) {
+        VistaFalsa controlador = new VistaFalsa();
+        creadas.add(new WeakReference<>(controlador));
+        return new RegistroVistas.Vista(nombre, null, controlador);
+    }
+
+    private long contarVivas() {
+        long vivas = Long.MAX_VALUE;
+        // Varias pasadas: una sola llamada a gc() no garantiza que se recojan todas
+        for (int i = 0; i < 10 && vivas > CAPACIDAD + 1; i++) {
+            System.gc();
+            vivas = creadas.stream().filter(referencia -> referencia.get() != null).count();
+        }
+        return vivas;
+    }
+
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private class VistaFalsa implements CicloVidaVista {
+        private final Suscripciones suscripciones = new Suscripciones();
+        private final byte[] lastre = new byte[64 * 1024];
+
+        VistaFalsa() {
+            suscripciones.escuchar(modelo, (obs, anterior, nuevo) -> avisos++);
+        }
+
+        @Override
+        public void desechar() {
+            suscripciones.cancelarTodas();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.erp.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link RegistroVistas}.
+ * Las vistas se "cargan" con un cargador falso que solo crea el controlador, así que no
+ * hace falta JavaFX ni ficheros FXML.
+ */
+class RegistroVistasTest {
+
+    private final List<String> cargas = new ArrayList<>();
+
+    /** Una vista pedida dos veces se carga una sola vez y se refresca al reutilizarla. */
+    @Test
+    void testReutilizaYRefresca() throws IOException {
+        RegistroVistas registro = new RegistroVistas(4, this::cargar, Runnable::run, Runnable::run);
+
+        RegistroVistas.Vista primera = registro.obtener("producto.fxml");
+        ControladorFalso controlador = primera.getControlador();
+        assertEquals(0, controlador.refrescos);
+
+        RegistroVistas.Vista segunda = registro.obtener("producto.fxml");
+        assertSame(primera, segunda);
+        assertEquals(1, controlador.refrescos);
+        assertEquals(List.of("producto.fxml"), cargas);
+    }
+
+    /** Las vistas precargadas no se vuelven a cargar al pedirlas, ni al precargarlas otra vez. */
+    @Test
+    void testPrecargaEnSegundoPlano() throws Exception {
+        ExecutorService fondo = Executors.newSingleThreadExecutor();
+        try {
+            RegistroVistas registro = new RegistroVistas(4, this::cargarDespacio, fondo, Runnable::run);
+            registro.precargar("producto.fxml", "cliente.fxml");
+            registro.precargar("producto.fxml");
+            assertTrue(registro.contiene("cliente.fxml"));
+
+            // Si la precarga sigue en marcha, se espera a ella en lugar de cargar de nuevo
+            registro.obtener("cliente.fxml");
+            registro.obtener("producto.fxml");
+            fondo.shutdown();
+            assertTrue(fondo.awaitTermination(2, TimeUnit.SECONDS));
+            synchronized (cargas) {
+                assertEquals(List.of("producto.fxml", "cliente.fxml"), cargas);
+            }
+        } finally {
+            fondo.shutdownNow();
+        }
+    }
+
+    /** Al superar la capacidad se descarta la vista usada hace más tiempo. */
+    @Test
+    void testDescartaLaMenosReciente() throws IOException {
+        RegistroVistas registro = new RegistroVistas(2, this::cargar, Runnable::run, Runnable::run);
+        registro.obtener("producto.fxml");
+        registro.obtener("cliente.fxml");
+        registro.obtener("producto.fxml");
+        registro.obtener("venta.fxml");
+
+        assertTrue(registro.contiene("producto.fxml"));
+        assertFalse(registro.contiene("cliente.fxml"));
+        assertTrue(registro.contiene("venta.fxml"));
+    }
+
+    /** Si la precarga falla, la vista se carga al pedirla. */
+    @Test
+    void testPrecargaFallidaSeReintenta() throws IOException {
+        int[] intentos = {0};
+        RegistroVistas registro = new RegistroVistas(4, nombre -> {
+            if (intentos[0]++ == 0) {
+                throw new IOException("FXML no encontrado");
+            }
+            return cargar(nombre);
+        }, Runnable::run, Runnable::run);
+
+        registro.precargar("producto.fxml");
+        assertFalse(registro.contiene("producto.fxml"));
+        assertNotNull(registro.obtener("producto.fxml"));
+        assertEquals(2, intentos[0]);
+    }
+
+    /** Las vistas de un solo uso se cargan siempre de nuevo y no ocupan sitio en la caché. */
+    @Test
+    void testCargarNuevaNoGuarda() throws IOException {
+        RegistroVistas registro = new RegistroVistas(4, this::cargar, Runnable::run, Runnable::run);
+        RegistroVistas.Vista primera = registro.cargarNueva("VentaFinalizar.fxml");
+        RegistroVistas.Vista segunda = registro.cargarNueva("VentaFinalizar.fxml");
+
+        assertNotSame(primera, segunda);
+        assertFalse(registro.contiene("VentaFinalizar.fxml"));
+    }
+
+    /**
+     * Una vista que sale de la caché mientras se precarga se desecha en el hilo de JavaFX,
+     * no en el de la precarga que la completa.
+     */
+    @Test
+    void testDesechaExpulsadaEnHiloFx() throws Exception {
+        ExecutorService fondo = Executors.newSingleThreadExecutor();
+        List<Runnable> hiloFx = new ArrayList<>();
+        ControladorConCiclo expulsado = new ControladorConCiclo();
+        try {
+            RegistroVistas registro = new RegistroVistas(1, nombre -> {
+                RegistroVistas.Vista vista = cargarDespacio(nombre);
+                return nombre.equals("producto.fxml") ? new RegistroVistas.Vista(nombre, null, expulsado) : vista;
+            }, fondo, hiloFx::add);
+            registro.precargar("producto.fxml");
+            registro.obtener("cliente.fxml");
+            fondo.shutdown();
+            assertTrue(fondo.awaitTermination(2, TimeUnit.SECONDS));
+
+            assertFalse(registro.contiene("producto.fxml"));
+            assertNull(expulsado.hiloDesechado, "No debe desecharse fuera del hilo de JavaFX.");
+            assertEquals(1, hiloFx.size());
+            hiloFx.forEach(Runnable::run);
+            assertSame(Thread.currentThread(), expulsado.hiloDesechado);
+        } finally {
+            fondo.shutdownNow();
+        }
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private RegistroVistas.Vista cargar(String nombre) {
+        synchronized (cargas) {
+            cargas.add(nombre);
+        }
+        return new RegistroVistas.Vista(nombre, null, new ControladorFalso());
+    }
+
+    private RegistroVistas.Vista cargarDespacio(String nombre) {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return cargar(nombre);
+    }
+
+    private static class ControladorConCiclo implements CicloVidaVista {
+        private volatile Thread hiloDesechado;
+
+        @Override
+        public void desechar() {
+            hiloDesechado = Thread.currentThread();
+        }
+    }
+
+    private static class ControladorFalso implements VistaRefrescable {
+        private int refrescos;
+
+        @Override
+        public void refrescar() {
+            refrescos++;
+        }
+    }
+}
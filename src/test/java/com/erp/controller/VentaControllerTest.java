@@ -5,6 +5,7 @@ import com.erp.controller.components.prodComp.ProductoTablaController;
 import com.erp.dao.ProductoDAO;
 import com.erp.model.DetalleVenta;
 import com.erp.model.Producto;
+import com.erp.service.CatalogoProductos;
 import com.erp.utils.Alerta;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -38,6 +39,8 @@ class VentaControllerTest {
     @Mock
     private ProductoDAO productoDAO;
     @Mock
+    private CatalogoProductos catalogo;
+    @Mock
     private VBox contenedorFormularioBusqueda;
     @Mock
     private TextField campoCantidad;
@@ -63,7 +66,8 @@ class VentaControllerTest {
                 new Producto(1, "Laptop", "Gaming Laptop", "Electronics", 1200.0, 5),
                 new Producto(2, "Mouse", "Wireless Mouse", "Peripherals", 25.0, 20)
         );
-        when(productoDAO.listarProductos()).thenReturn(mockProductosOriginales);
+        when(productoDAO.buscarProductosPorCriterios(anyString(), anyString(), anyString(), anyInt()))
+                .thenReturn(mockProductosOriginales.subList(0, 1));
 
         // Mock behavior for productoTablaController.getTablaProducto()
         when(productoTablaController.getTablaProducto()).thenReturn(mockProductoTableView);
@@ -74,8 +78,7 @@ class VentaControllerTest {
     void testInitialize() {
         ventaController.initialize(null, null);
 
-        verify(productoDAO).listarProductos();
-        verify(productoTablaController).setItems(mockProductosOriginales);
+        verify(productoTablaController).mostrarCatalogo(catalogo);
         verify(formularioBuscarProductoController).setVentaController(ventaController);
         verify(formularioBuscarProductoController).vincularControlador();
         verify(productoTablaController).setAccionesProductoVisible(false);
@@ -104,11 +107,26 @@ class VentaControllerTest {
 
         ventaController.filtrarProductos();
 
+        verify(productoDAO).buscarProductosPorCriterios(eq(""), eq("lap"), eq(""), anyInt());
         verify(productoTablaController).setItems(argThat(list ->
                 list.size() == 1 && list.get(0).getNombre().equals("Laptop")
         ));
     }
 
+    @Test
+    void testFiltrarProductosSinCriteriosMuestraCatalogo() {
+        Map<String, String> criterios = new HashMap<>();
+        criterios.put("id", "");
+        criterios.put("nombre", " ");
+        criterios.put("categoria", "");
+        when(formularioBuscarProductoController.getCriteriosBusqueda()).thenReturn(criterios);
+
+        ventaController.filtrarProductos();
+
+        verify(productoTablaController).mostrarCatalogo(catalogo);
+        verify(productoDAO, never()).buscarProductosPorCriterios(anyString(), anyString(), anyString(), anyInt());
+    }
+
     @Test
     void testMostrarOcultarFormularioBusqueda() {
         when(contenedorFormularioBusqueda.isVisible()).thenReturn(false);
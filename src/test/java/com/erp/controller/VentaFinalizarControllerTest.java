@@ -3,15 +3,18 @@ package com.erp.controller;
 import com.erp.controller.components.cliComp.ClienteFormularioBuscarController;
 import com.erp.controller.components.cliComp.ClienteTablaController;
 import com.erp.controller.components.descComp.DescuentoTablaController;
-import com.erp.dao.ClienteDAO;
 import com.erp.dao.DescuentoDAO;
+import com.erp.dao.ResultadoVenta;
 import com.erp.dao.VentaDAO;
 import com.erp.model.Cliente;
 import com.erp.model.Descuento;
 import com.erp.model.DetalleVenta;
 import com.erp.model.Producto;
+import com.erp.service.CatalogoProductos;
+import com.erp.service.ClienteBusquedaService;
+import com.erp.service.FacturaService;
 import com.erp.utils.Alerta;
-import com.erp.utils.FacturaPDFGenerator;
+import com.erp.utils.LazyPagedList;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Alert;
@@ -32,6 +35,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -47,7 +51,11 @@ class VentaFinalizarControllerTest {
     @Mock
     private DescuentoTablaController descuentoTablaController;
     @Mock
-    private ClienteDAO clienteDAO;
+    private ClienteBusquedaService clienteBusqueda;
+    @Mock
+    private FacturaService facturaService;
+    @Mock
+    private CatalogoProductos catalogoProductos;
     @Mock
     private DescuentoDAO descuentoDAO;
     @Mock
@@ -70,6 +78,7 @@ class VentaFinalizarControllerTest {
 
     private ObservableList<DetalleVenta> mockCestaItems;
     private List<Cliente> mockClientesOriginales;
+    private LazyPagedList<Cliente> mockListado;
 
     @BeforeEach
     void setUp() {
@@ -81,7 +90,19 @@ class VentaFinalizarControllerTest {
                 Cliente.crearEmpresa(2, "b@b.com", "222", "dir2", "B22222222", LocalDate.now(), "Empresa SL", "Contacto")
         );
 
-        when(clienteDAO.listarClientes()).thenReturn(mockClientesOriginales);
+        mockListado = new LazyPagedList<>(new LazyPagedList.FuentePaginas<>() {
+            @Override
+            public int contar() {
+                return mockClientesOriginales.size();
+            }
+
+            @Override
+            public List<Cliente> cargar(int posicion, Integer despuesDeId, int tamano) {
+                return mockClientesOriginales;
+            }
+        }, Cliente::getId, 10, 1);
+        when(clienteBusqueda.listarTodos()).thenReturn(mockListado);
+        when(clienteBusqueda.buscarPorCriterios(anyMap(), any())).thenReturn(mockClientesOriginales.subList(0, 1));
         when(formularioBuscarClienteController.getPanelRaiz()).thenReturn(mockPanelRaiz);
         when(mockPanelRaiz.isVisible()).thenReturn(false); // Default for initial state
     }
@@ -90,8 +111,8 @@ class VentaFinalizarControllerTest {
     void testInitialize() {
         ventaFinalizarController.initialize(null, null);
 
-        verify(clienteDAO).listarClientes();
-        verify(clienteTablaController).setItems(mockClientesOriginales);
+        verify(clienteBusqueda).listarTodos();
+        verify(clienteTablaController).setItems(mockListado);
         verify(clienteTablaController).setAccionesVisible(false);
         verify(formularioBuscarClienteController).setVentaFinalizarController(ventaFinalizarController);
         verify(formularioBuscarClienteController).vincularControlador();
@@ -113,6 +134,7 @@ class VentaFinalizarControllerTest {
 
         ventaFinalizarController.filtrarClientes();
 
+        verify(clienteBusqueda).buscarPorCriterios(eq(criterios), any());
         verify(clienteTablaController).setItems(argThat(list ->
                 list.size() == 1 && list.get(0).getNombre().equals("Juan")
         ));
@@ -203,7 +225,7 @@ class VentaFinalizarControllerTest {
         try (MockedStatic<Alerta> mockedAlerta = mockStatic(Alerta.class)) {
             ventaFinalizarController.finalizarVenta();
             mockedAlerta.verify(() -> Alerta.mostrarAlerta(Alert.AlertType.WARNING, "Advertencia", null, "Debe seleccionar un cliente."));
-            verify(ventaDAO, never()).guardarVenta(any());
+            verify(ventaDAO, never()).registrarVenta(any());
         }
     }
 
@@ -214,25 +236,49 @@ class VentaFinalizarControllerTest {
         when(descuentoTablaController.getDescuentosSeleccionados()).thenReturn(new ArrayList<>());
         when(labelTotalFinal.getText()).thenReturn("100.00€"); // Simulate UI value
 
-        // Mock FacturaPDFGenerator and Desktop
-        try (MockedStatic<FacturaPDFGenerator> mockedPdfGenerator = mockStatic(FacturaPDFGenerator.class);
-             MockedStatic<Desktop> mockedDesktop = mockStatic(Desktop.class)) {
+        // Mock Desktop; the invoice service returns an already generated PDF
+        try (MockedStatic<Desktop> mockedDesktop = mockStatic(Desktop.class)) {
 
             Desktop mockDesktopInstance = mock(Desktop.class);
             when(Desktop.getDesktop()).thenReturn(mockDesktopInstance);
-            when(FacturaPDFGenerator.getInvoiceFilePath()).thenReturn("facturas/test_invoice.pdf");
+            File pdf = File.createTempFile("test_invoice", ".pdf");
+            pdf.deleteOnExit();
+            when(facturaService.generar(any(), any())).thenReturn(CompletableFuture.completedFuture(pdf));
+
+            when(ventaDAO.registrarVenta(any())).thenReturn(ResultadoVenta.guardada());
 
             ventaFinalizarController.setData(mockCestaItems); // Set some data for total calculation
             ventaFinalizarController.finalizarVenta();
 
-            verify(ventaDAO).guardarVenta(any());
-            mockedPdfGenerator.verify(() -> FacturaPDFGenerator.generateInvoicePDF(any(com.erp.model.Venta.class), any(String.class)));
+            verify(ventaDAO).registrarVenta(any());
+            verify(catalogoProductos).actualizarStockVendido(mockCestaItems);
+            verify(facturaService).generar(any(com.erp.model.Venta.class), any());
             mockedDesktop.verify(() -> Desktop.getDesktop());
-            verify(mockDesktopInstance).open(any(File.class));
+            verify(mockDesktopInstance).open(pdf);
             verify(mainController).mostrarVentas();
         }
     }
 
+    @Test
+    void testFinalizarVenta_SinStock() {
+        Cliente cliente = mockClientesOriginales.get(0);
+        when(clienteTablaController.getClienteSeleccionado()).thenReturn(cliente);
+        when(descuentoTablaController.getDescuentosSeleccionados()).thenReturn(new ArrayList<>());
+        when(labelTotalFinal.getText()).thenReturn("100.00€");
+        ResultadoVenta sinStock = ResultadoVenta.sinStock(List.of(new ResultadoVenta.FaltaStock(1, "Laptop", 3, 1)));
+        when(ventaDAO.registrarVenta(any())).thenReturn(sinStock);
+
+        try (MockedStatic<Alerta> mockedAlerta = mockStatic(Alerta.class)) {
+            ventaFinalizarController.setData(mockCestaItems);
+            ventaFinalizarController.finalizarVenta();
+
+            mockedAlerta.verify(() -> Alerta.mostrarError("Stock insuficiente",
+                    "No hay stock suficiente para:\nLaptop: pedidas 3, disponibles 1"));
+            verify(facturaService, never()).generar(any(), any());
+            verify(mainController, never()).mostrarVentas();
+        }
+    }
+
     @Test
     void testCancelar() {
         ventaFinalizarController.setMainController(mainController);
@@ -1,10 +1,10 @@
 package com.erp.controller.components.cliComp;
 
-import com.erp.dao.ClienteDAO;
 import com.erp.model.Cliente;
+import com.erp.service.ClienteBusquedaService;
+import com.erp.utils.LazyPagedList;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.scene.control.Alert;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -18,6 +18,7 @@ import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -41,12 +42,14 @@ class ClienteSeleccionDialogoControllerTest {
     @Mock
     private Stage dialogStage;
     @Mock
-    private ClienteDAO clienteDAO;
+    private ClienteBusquedaService clienteBusqueda;
 
     @InjectMocks
     private ClienteSeleccionDialogoController controller;
 
     private ObservableList<Cliente> masterData;
+    private LazyPagedList<Cliente> listadoCompleto;
+    private int[] clientesLeidos;
 
     @BeforeEach
     void setUp() {
@@ -57,10 +60,29 @@ class ClienteSeleccionDialogoControllerTest {
                 Cliente.crearParticular(1, "test1@test.com", "111", "dir1", "11111111A", LocalDate.now(), "Juan", "Perez"),
                 Cliente.crearEmpresa(2, "test2@test.com", "222", "dir2", "B22222222", LocalDate.now(), "Empresa SL", "Contacto")
         );
-        when(clienteDAO.listarClientes()).thenReturn(masterData);
+        // Full listing of 2,000 clients, far beyond the search limit; counts the clients read
+        clientesLeidos = new int[1];
+        listadoCompleto = new LazyPagedList<>(new LazyPagedList.FuentePaginas<>() {
+            @Override
+            public int contar() {
+                return 2000;
+            }
+
+            @Override
+            public List<Cliente> cargar(int posicion, Integer despuesDeId, int tamano) {
+                List<Cliente> pagina = new ArrayList<>();
+                for (int i = posicion; i < Math.min(2000, posicion + tamano); i++) {
+                    pagina.add(masterData.get(i % masterData.size()));
+                }
+                clientesLeidos[0] += pagina.size();
+                return pagina;
+            }
+        }, Cliente::getId, 200, 2);
+        when(clienteBusqueda.listarTodos()).thenReturn(listadoCompleto);
 
         // Mock TableView behavior
         when(tablaClientes.getItems()).thenReturn(FXCollections.observableArrayList()); // Return an empty list initially
+        when(tablaClientes.getSortOrder()).thenReturn(FXCollections.observableArrayList());
         when(tablaClientes.getSelectionModel()).thenReturn(mock(TableView.TableViewSelectionModel.class));
 
         // Mock TextField textProperty
@@ -72,8 +94,11 @@ class ClienteSeleccionDialogoControllerTest {
 
     @Test
     void testInitialize() {
-        verify(clienteDAO).listarClientes();
-        verify(tablaClientes).setItems(any(FilteredList.class)); // Verify FilteredList is set
+        verify(clienteBusqueda).listarTodos();
+        // The full listing is shown as is: every client is reachable and no page is read up front
+        verify(tablaClientes).setItems(argThat(items -> items == listadoCompleto && items.size() == 2000));
+        assertEquals(0, clientesLeidos[0]);
+        verify(tablaClientes).setSortPolicy(any());
         verify(campoBusquedaCliente.textProperty()).addListener(any(javafx.beans.value.ChangeListener.class)); // Verify listener is added
     }
 
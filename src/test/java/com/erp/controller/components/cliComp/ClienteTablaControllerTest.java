@@ -2,6 +2,8 @@ package com.erp.controller.components.cliComp;
 
 import com.erp.controller.ClienteController;
 import com.erp.model.Cliente;
+import com.erp.utils.LazyPagedList;
+import com.erp.utils.OrdenacionPaginada;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Button;
@@ -135,6 +137,48 @@ class ClienteTablaControllerTest {
         verify(tablaCliente).setItems(argThat(list -> list.size() == 2 && list.containsAll(mockClienteList)));
     }
 
+    /** El listado completo se muestra sin copiarlo (no se leen sus páginas) y sin ordenación. */
+    @Test
+    void testSetItemsListadoCompleto() {
+        int[] cargas = new int[1];
+        LazyPagedList<Cliente> listado = new LazyPagedList<>(new LazyPagedList.FuentePaginas<>() {
+            @Override
+            public int contar() {
+                return 1000;
+            }
+
+            @Override
+            public List<Cliente> cargar(int posicion, Integer despuesDeId, int tamano) {
+                cargas[0]++;
+                return mockClienteList;
+            }
+        }, Cliente::getId, 200, 2);
+        when(tablaCliente.getSortOrder()).thenReturn(FXCollections.observableArrayList());
+
+        controller.setItems(listado);
+
+        verify(tablaCliente).setItems(same(listado));
+        verify(colIdCliente).setSortable(false);
+        assertEquals(0, cargas[0]);
+    }
+
+    /** La tabla rechaza ordenar el listado paginado en lugar de leer todas sus páginas. */
+    @Test
+    void testOrdenarSoloEnMemoria() {
+        when(tablaCliente.getItems()).thenReturn(new LazyPagedList<>(new LazyPagedList.FuentePaginas<>() {
+            @Override
+            public int contar() {
+                return 1000;
+            }
+
+            @Override
+            public List<Cliente> cargar(int posicion, Integer despuesDeId, int tamano) {
+                return fail("Ordenar no debe leer páginas");
+            }
+        }, Cliente::getId, 200, 2));
+        assertFalse(OrdenacionPaginada.ordenar(tablaCliente));
+    }
+
     @Test
     void testGetClienteSeleccionado() {
         Cliente selected = mockClienteList.get(0);
@@ -2,6 +2,9 @@ package com.erp.controller.components.prodComp;
 
 import com.erp.controller.ProductoController;
 import com.erp.model.Producto;
+import com.erp.service.CatalogoProductos;
+import com.erp.utils.LazyPagedList;
+import com.erp.utils.OrdenacionPaginada;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.Button;
@@ -15,6 +18,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -136,4 +140,63 @@ class ProductoTablaControllerTest {
         verify(accionesProducto).setVisible(false);
         verify(accionesProducto).setManaged(false);
     }
+
+    /** Pedir que se ordene el catálogo paginado no lee ninguna página y se rechaza. */
+    @Test
+    void testOrdenarCatalogoNoCargaPaginas() {
+        int[] cargas = {0};
+        LazyPagedList<Producto> catalogo = catalogoPaginado(cargas);
+        when(tablaProducto.getItems()).thenReturn(catalogo);
+        when(tablaProducto.getComparator()).thenReturn(Comparator.comparing(Producto::getNombre));
+
+        verify(tablaProducto).setSortPolicy(any());
+        assertFalse(OrdenacionPaginada.ordenar(tablaProducto));
+        assertEquals(0, cargas[0], "Ordenar no debe leer las páginas del catálogo.");
+    }
+
+    /** Los resultados de una búsqueda están en memoria y se ordenan como siempre. */
+    @Test
+    void testOrdenarResultadosDeBusqueda() {
+        when(tablaProducto.getItems()).thenReturn(mockProductoList);
+        when(tablaProducto.getComparator()).thenReturn(Comparator.comparing(Producto::getNombre).reversed());
+
+        assertTrue(OrdenacionPaginada.ordenar(tablaProducto));
+        assertEquals("Mouse", mockProductoList.get(0).getNombre());
+    }
+
+    /** Al mostrar el catálogo paginado las cabeceras dejan de ordenar y se olvida el orden anterior. */
+    @Test
+    void testMostrarCatalogoDesactivaOrdenacion() {
+        LazyPagedList<Producto> lista = catalogoPaginado(new int[1]);
+        CatalogoProductos catalogo = mock(CatalogoProductos.class);
+        when(catalogo.getProductos()).thenReturn(lista);
+        ObservableList<TableColumn<Producto, ?>> orden = FXCollections.observableArrayList();
+        orden.add(colNombreProducto);
+        when(tablaProducto.getSortOrder()).thenReturn(orden);
+
+        controller.mostrarCatalogo(catalogo);
+
+        verify(colNombreProducto).setSortable(false);
+        verify(colStockProducto).setSortable(false);
+        assertTrue(orden.isEmpty());
+        verify(tablaProducto).setItems(lista);
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    /** Catálogo paginado de un millón de productos que cuenta las páginas que se leen. */
+    private static LazyPagedList<Producto> catalogoPaginado(int[] cargas) {
+        return new LazyPagedList<>(new LazyPagedList.FuentePaginas<>() {
+            @Override
+            public int contar() {
+                return 1_000_000;
+            }
+
+            @Override
+            public List<Producto> cargar(int posicion, Integer despuesDeId, int tamano) {
+                cargas[0]++;
+                return List.of();
+            }
+        }, Producto::getId, 200, 10);
+    }
 }
@@ -1,6 +1,8 @@
 package com.erp.dao;
 
+import com.erp.db.Migration;
 import com.erp.db.SQLiteConnector;
+import com.erp.db.SchemaMigrations;
 import com.erp.model.Cliente;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,6 +50,12 @@ public class ClienteDAOTest {
                     "razonSocial TEXT, " +
                     "personaContacto TEXT)");
         }
+        // La tabla se recrea en cada test, así que también su índice de texto completo y sus triggers.
+        for (Migration migracion : SchemaMigrations.TODAS) {
+            if (migracion.getVersion() == 4) {
+                migracion.aplicar(connection);
+            }
+        }
         // Se instancia el DAO que operará sobre la BD de test.
         clienteDAO = new ClienteDAO();
     }
@@ -62,6 +70,7 @@ public class ClienteDAOTest {
         // Se elimina la tabla para no interferir con el siguiente test.
         try (Statement stmt = connection.createStatement()) {
             stmt.execute("DROP TABLE IF EXISTS clientes");
+            stmt.execute("DROP TABLE IF EXISTS clientes_fts");
         }
         // Se cierra la conexión a la BD en memoria.
         SQLiteConnector.closeConnection();
@@ -137,4 +146,74 @@ public class ClienteDAOTest {
         assertTrue(clienteDAO.eliminarClientePorId(id), "El cliente debería eliminarse correctamente.");
         assertNull(clienteDAO.buscarClientePorId(id), "El cliente no debería encontrarse después de ser eliminado.");
     }
-}
\ No newline at end of file
+
+    /** Test para verificar que la paginación por clave respeta el tamaño y el cursor. */
+    @Test
+    void testListarClientesPagina() {
+        Cliente particular = Cliente.crearParticular(0, "pagina@particular.com", "600111222", "Calle Falsa 123", "11111111H", LocalDate.now(), "Juan", "Pérez");
+        Cliente empresa = Cliente.crearEmpresa(0, "pagina@empresa.com", "912345678", "Av. Industria 45", "B11111111", LocalDate.now(), "Tech Solutions SL", "Ana López");
+        clienteDAO.guardarClienteDb(particular);
+        clienteDAO.guardarClienteDb(empresa);
+
+        Pagina<Cliente> primera = clienteDAO.listarClientesPagina(particular.getId() - 1, 1, false);
+        assertEquals(1, primera.getElementos().size());
+        assertEquals(particular.getId(), primera.getElementos().get(0).getId());
+        assertTrue(primera.hayMas());
+        assertEquals(Pagina.TOTAL_DESCONOCIDO, primera.getTotalEstimado());
+
+        Pagina<Cliente> segunda = clienteDAO.listarClientesPagina(primera.getSiguienteCursor(), 1, false);
+        assertEquals(empresa.getId(), segunda.getElementos().get(0).getId());
+        assertFalse(segunda.hayMas(), "El último cliente no debería tener página siguiente.");
+    }
+
+    /** El recuento y los tramos del listado paginado omiten los clientes de tipo desconocido, para que las posiciones cuadren. */
+    @Test
+    void testListadoPaginadoCuadraConRecuento() throws SQLException {
+        int antes = clienteDAO.contarClientes();
+        Cliente particular = Cliente.crearParticular(0, "tramo@particular.com", "600111222", "Calle Falsa 123", "22222222J", LocalDate.now(), "Juan", "Pérez");
+        clienteDAO.guardarClienteDb(particular);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSERT INTO clientes(tipoCliente, cifnif, fechaAlta) VALUES ('Otro', 'X0000000X', '2024-01-01')");
+        }
+        Cliente empresa = Cliente.crearEmpresa(0, "tramo@empresa.com", "912345678", "Av. Industria 45", "B22222222", LocalDate.now(), "Tech Solutions SL", "Ana López");
+        clienteDAO.guardarClienteDb(empresa);
+
+        assertEquals(antes + 2, clienteDAO.contarClientes());
+
+        List<Cliente> desdePosicion = clienteDAO.listarClientesDesdePosicion(antes, 10);
+        assertEquals(2, desdePosicion.size());
+        assertEquals(particular.getId(), desdePosicion.get(0).getId());
+        assertEquals(empresa.getId(), desdePosicion.get(1).getId());
+
+        List<Cliente> despuesDe = clienteDAO.listarClientesDespuesDe(particular.getId(), 10);
+        assertEquals(1, despuesDe.size());
+        assertEquals(empresa.getId(), despuesDe.get(0).getId());
+    }
+
+    /** Test para la búsqueda de texto completo en todos los campos indexados. */
+    @Test
+    void testBuscarTextoCompleto() {
+        clienteDAO.guardarClienteDb(Cliente.crearParticular(0, "maria@correo.es", "600123456", "Calle Mayor 1", "11111111H", LocalDate.now(), "María", "Gómez Ruiz"));
+        clienteDAO.guardarClienteDb(Cliente.crearEmpresa(0, "info@marina.es", "911222333", "Puerto 2", "B12345678", LocalDate.now(), "Marina Náutica SL", "Pedro"));
+
+        assertEquals(2, clienteDAO.buscar("mari", 10).size(), "Debería encontrar por prefijo en nombre, email o razón social.");
+        assertEquals(1, clienteDAO.buscar("gomez", 10).size(), "Debería ignorar las tildes.");
+        assertEquals(1, clienteDAO.buscar("6001", 10).size(), "Debería buscar por teléfono.");
+        assertEquals(1, clienteDAO.buscar("b1234", 10).size(), "Debería buscar por CIF/NIF.");
+        assertTrue(clienteDAO.buscar(" ", 10).isEmpty());
+    }
+
+    /** Test para la búsqueda por los criterios del formulario. */
+    @Test
+    void testBuscarClientesPorCriterios() {
+        Cliente particular = Cliente.crearParticular(0, "ana@correo.es", "600000001", "Calle 1", "22222222J", LocalDate.now(), "Ana", "Nautica");
+        clienteDAO.guardarClienteDb(particular);
+        clienteDAO.guardarClienteDb(Cliente.crearEmpresa(0, "info@nautica.es", "911000000", "Puerto 3", "B87654321", LocalDate.now(), "Náutica Sur SA", "Luis"));
+
+        assertEquals(2, clienteDAO.buscarClientesPorCriterios("", "nautica", "", 10).size(),
+                "El nombre debería buscarse en apellidos y razón social.");
+        assertEquals(1, clienteDAO.buscarClientesPorCriterios("", "nautica", "b876", 10).size());
+        assertEquals(1, clienteDAO.buscarClientesPorCriterios(String.valueOf(particular.getId()), "ana", null, 10).size());
+        assertTrue(clienteDAO.buscarClientesPorCriterios("", "", "", 10).isEmpty());
+    }
+}
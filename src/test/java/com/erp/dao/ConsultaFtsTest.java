@@ -0,0 +1,36 @@
+package com.erp.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link ConsultaFts}.
+ */
+class ConsultaFtsTest {
+
+    /** Cada palabra se entrecomilla como prefijo y todas deben aparecer. */
+    @Test
+    void testConstruir() {
+        assertEquals("\"cab\"* AND \"usb\"*", ConsultaFts.construir(null, " cab-usb "));
+        assertEquals("nombre : \"OR\"*", ConsultaFts.construir("nombre", "\"OR\""));
+        assertEquals("{nombre apellidos} : \"ana\"*", ConsultaFts.construir("{nombre apellidos}", "ana"));
+    }
+
+    /** Un texto sin palabras no genera consulta. */
+    @Test
+    void testConstruirSinPalabras() {
+        assertNull(ConsultaFts.construir("nombre", "  "));
+        assertNull(ConsultaFts.construir(null, "*()"));
+        assertNull(ConsultaFts.construir(null, null));
+    }
+
+    /** La conjunción ignora las expresiones nulas. */
+    @Test
+    void testY() {
+        assertEquals("a AND b", ConsultaFts.y("a", "b"));
+        assertEquals("a", ConsultaFts.y("a", null));
+        assertEquals("b", ConsultaFts.y(null, "b"));
+        assertNull(ConsultaFts.y(null, null));
+    }
+}
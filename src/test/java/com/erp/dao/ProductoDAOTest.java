@@ -1,6 +1,8 @@
 package com.erp.dao;
 
+import com.erp.db.Migration;
 import com.erp.db.SQLiteConnector;
+import com.erp.db.SchemaMigrations;
 import com.erp.model.Producto;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,6 +44,12 @@ public class ProductoDAOTest {
                     "precioUnitario REAL NOT NULL, " +
                     "stock INTEGER NOT NULL)");
         }
+        // La tabla se recrea en cada test, así que también su índice de texto completo y sus triggers.
+        for (Migration migracion : SchemaMigrations.TODAS) {
+            if (migracion.getVersion() == 3) {
+                migracion.aplicar(connection);
+            }
+        }
         // Se instancia el DAO que operará sobre la BD de test.
         productoDAO = new ProductoDAO();
     }
@@ -55,6 +64,7 @@ public class ProductoDAOTest {
         // Se elimina la tabla para no interferir con el siguiente test.
         try (Statement stmt = connection.createStatement()) {
             stmt.execute("DROP TABLE IF EXISTS productos");
+            stmt.execute("DROP TABLE IF EXISTS productos_fts");
         }
         // Se cierra la conexión a la BD en memoria.
         SQLiteConnector.closeConnection();
@@ -114,4 +124,66 @@ public class ProductoDAOTest {
         assertTrue(productoDAO.eliminarProductoPorId(id), "El producto debería eliminarse correctamente.");
         assertNull(productoDAO.buscarProductoPorId(id), "El producto no debería encontrarse después de ser eliminado.");
     }
-}
\ No newline at end of file
+
+    /** Test para verificar que la paginación por clave recorre todos los productos sin repetir ninguno. */
+    @Test
+    void testListarProductosPagina() {
+        productoDAO.guardarProductoDb(new Producto("Página A", "Desc A", "Cat A", 10.0, 1));
+        productoDAO.guardarProductoDb(new Producto("Página B", "Desc B", "Cat B", 20.0, 2));
+        productoDAO.guardarProductoDb(new Producto("Página C", "Desc C", "Cat C", 30.0, 3));
+
+        List<Producto> recorridos = new ArrayList<>();
+        Pagina<Producto> pagina = productoDAO.listarProductosPagina(Pagina.INICIO, 2, true);
+        assertTrue(pagina.getTotalEstimado() >= 3, "El total estimado debería incluir los productos guardados.");
+        while (true) {
+            assertTrue(pagina.getElementos().size() <= 2, "Ninguna página debería superar el tamaño pedido.");
+            recorridos.addAll(pagina.getElementos());
+            if (!pagina.hayMas()) break;
+            pagina = productoDAO.listarProductosPagina(pagina.getSiguienteCursor(), 2, false);
+        }
+
+        assertEquals(productoDAO.listarProductos().size(), recorridos.size());
+        for (int i = 1; i < recorridos.size(); i++) {
+            assertTrue(recorridos.get(i).getId() > recorridos.get(i - 1).getId(), "Los IDs deberían ir en orden creciente.");
+        }
+    }
+
+    /** Test para el recuento, la lectura por posición y la búsqueda por criterios. */
+    @Test
+    void testContarYBuscarPorCriterios() {
+        int previos = productoDAO.contarProductos();
+        productoDAO.guardarProductoDb(new Producto("Cable HDMI", "2 metros", "Accesorios", 9.0, 10));
+        productoDAO.guardarProductoDb(new Producto("Cable USB", "1 metro", "Accesorios", 5.0, 20));
+        productoDAO.guardarProductoDb(new Producto("Monitor", "27 pulgadas", "Pantallas", 250.0, 3));
+
+        assertEquals(previos + 3, productoDAO.contarProductos());
+
+        List<Producto> todos = productoDAO.listarProductos();
+        List<Producto> ultimos = productoDAO.listarProductosDesdePosicion(todos.size() - 2, 5);
+        assertEquals(2, ultimos.size(), "Desde la penúltima posición solo quedan dos productos.");
+
+        List<Producto> cables = productoDAO.buscarProductosPorCriterios("", "cable", "accesorios", 10);
+        assertEquals(2, cables.size(), "La búsqueda no debería distinguir mayúsculas.");
+        assertEquals(1, productoDAO.buscarProductosPorCriterios(null, "cable", null, 1).size(), "Debería respetar el límite.");
+    }
+
+    /** Test para la búsqueda de texto completo: prefijos, tildes y orden por relevancia. */
+    @Test
+    void testBuscarTextoCompleto() {
+        productoDAO.guardarProductoDb(new Producto("Funda para cámara", "Compatible con cámaras réflex", "Accesorios", 15.0, 5));
+        productoDAO.guardarProductoDb(new Producto("Cámara réflex", "24 megapíxeles", "Fotografía", 600.0, 2));
+        productoDAO.guardarProductoDb(new Producto("Trípode", "Aluminio", "Fotografía", 40.0, 8));
+
+        List<Producto> resultados = productoDAO.buscar("CAMAR", 10);
+        assertEquals(2, resultados.size(), "Debería encontrar por prefijo sin tildes ni mayúsculas.");
+        assertEquals("Cámara réflex", resultados.get(0).getNombre(), "Un nombre más corto que coincide debería ser más relevante.");
+
+        assertEquals(1, productoDAO.buscar("camara foto", 10).size(), "Todas las palabras deberían aparecer.");
+        assertTrue(productoDAO.buscar("  \"*) ", 10).isEmpty(), "Un texto sin palabras no debería buscar nada.");
+
+        Producto tripode = productoDAO.buscar("tripode", 10).get(0);
+        tripode.setNombre("Soporte");
+        productoDAO.actualizarProductoEnDb(tripode);
+        assertTrue(productoDAO.buscar("tripode", 10).isEmpty(), "El índice debería seguir a las actualizaciones.");
+    }
+}
@@ -2,6 +2,7 @@ package com.erp.dao;
 
 import com.erp.db.SQLiteConnector;
 import com.erp.model.*;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
@@ -11,6 +12,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,34 +26,44 @@ class VentaDAOTest {
 
     private VentaDAO ventaDAO;
     private Connection mockConnection;
+    private PreparedStatement mockPstmtStock;
     private PreparedStatement mockPstmtVenta;
     private PreparedStatement mockPstmtDetalle;
     private PreparedStatement mockPstmtVentaDescuento;
     private ResultSet mockRs;
+    private MockedStatic<SQLiteConnector> mockedConnector;
 
     @BeforeEach
     void setUp() throws SQLException {
         // Resetear mocks antes de cada test
         mockConnection = mock(Connection.class);
+        mockPstmtStock = mock(PreparedStatement.class);
         mockPstmtVenta = mock(PreparedStatement.class);
         mockPstmtDetalle = mock(PreparedStatement.class);
         mockPstmtVentaDescuento = mock(PreparedStatement.class);
         mockRs = mock(ResultSet.class);
 
-        // Simular la conexión a la base de datos
-        try (MockedStatic<SQLiteConnector> mockedStatic = mockStatic(SQLiteConnector.class)) {
-            mockedStatic.when(SQLiteConnector::connect).thenReturn(mockConnection);
-            ventaDAO = new VentaDAO(); // Esto llamará a SQLiteConnector.connect()
-        } catch (RuntimeException e) {
-            // Si la conexión falla en el constructor, el test fallará aquí.
-            // Esto es para manejar el caso en que el mockStatic no funcione como se espera.
-            fail("Failed to mock SQLiteConnector.connect()", e);
-        }
+        // Simular el conector durante todo el test: VentaDAO pide las conexiones
+        // (escritura, lectura y cerrojo) dentro de cada método, no en el constructor.
+        mockedConnector = mockStatic(SQLiteConnector.class);
+        mockedConnector.when(SQLiteConnector::connect).thenReturn(mockConnection);
+        mockedConnector.when(SQLiteConnector::connectReadOnly).thenReturn(mockConnection);
+        mockedConnector.when(SQLiteConnector::getWriteLock).thenReturn(new ReentrantLock());
+        ventaDAO = new VentaDAO();
 
         // Configurar comportamiento por defecto de la conexión
         when(mockConnection.prepareStatement(anyString(), anyInt())).thenReturn(mockPstmtVenta);
         when(mockConnection.prepareStatement(anyString())).thenReturn(mockPstmtDetalle, mockPstmtVentaDescuento);
         when(mockPstmtVenta.getGeneratedKeys()).thenReturn(mockRs);
+        // El descuento de stock tiene su propio statement; por defecto hay stock en todas las líneas
+        // (doReturn no invoca prepareStatement, así que no consume las respuestas consecutivas anteriores)
+        doReturn(mockPstmtStock).when(mockConnection).prepareStatement(startsWith("UPDATE productos SET stock"));
+        when(mockPstmtStock.executeBatch()).thenReturn(new int[]{1});
+    }
+
+    @AfterEach
+    void tearDown() {
+        mockedConnector.close();
     }
 
     /**
@@ -85,6 +97,12 @@ class VentaDAOTest {
 
         // Verificar llamadas a la conexión y statements
         verify(mockConnection).setAutoCommit(false);
+        verify(mockConnection).prepareStatement(eq("UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?"));
+        verify(mockPstmtStock).setInt(1, detalle1.getCantidad());
+        verify(mockPstmtStock).setInt(2, producto.getId());
+        verify(mockPstmtStock).setInt(3, detalle1.getCantidad());
+        verify(mockPstmtStock).addBatch();
+        verify(mockPstmtStock).executeBatch();
         verify(mockConnection).prepareStatement(eq("INSERT INTO ventas(cliente_id, fecha, total) VALUES(?, ?, ?)"), eq(Statement.RETURN_GENERATED_KEYS));
         verify(mockPstmtVenta).setInt(1, cliente.getId());
         verify(mockPstmtVenta).setDate(eq(2), any(Date.class));
@@ -110,7 +128,7 @@ class VentaDAOTest {
         verify(mockConnection).commit();
         verify(mockConnection, never()).rollback(); // No debería haber rollback en caso de éxito
         verify(mockConnection).setAutoCommit(true); // Auto-commit restaurado
-        verify(mockConnection).close();
+        verify(mockConnection, never()).close(); // La conexión de escritura es compartida
     }
 
     /**
@@ -139,7 +157,49 @@ class VentaDAOTest {
         verify(mockConnection).rollback(); // Se llama a rollback
         verify(mockConnection, never()).commit(); // No debería haber commit
         verify(mockConnection).setAutoCommit(true); // Auto-commit restaurado
-        verify(mockConnection).close();
+        verify(mockConnection, never()).close(); // La conexión de escritura es compartida
+    }
+
+    /**
+     * Test para el método {@code registrarVenta()} cuando una línea no tiene stock suficiente.
+     * Verifica que se revierte la transacción, que no se inserta la venta y que se informa
+     * de la línea afectada con el stock disponible.
+     */
+    @Test
+    void testRegistrarVenta_SinStock() throws SQLException {
+        Cliente cliente = Cliente.crearParticular(1, "test@test.com", "123", "dir", "nif", LocalDate.now(), "Nombre", "Apellido");
+        Producto producto1 = new Producto(1, "Prod1", "Desc1", "Cat1", 10.0, 10);
+        Producto producto2 = new Producto(2, "Prod2", "Desc2", "Cat1", 5.0, 10);
+        List<DetalleVenta> detalles = Arrays.asList(
+                new DetalleVenta(null, null, producto1, 2, 10.0),
+                new DetalleVenta(null, null, producto2, 8, 5.0));
+        Venta venta = new Venta(null, cliente, new ArrayList<>(), detalles, LocalDate.now(), 60.0);
+
+        // La segunda línea no actualiza ninguna fila: solo quedan 3 unidades
+        when(mockPstmtStock.executeBatch()).thenReturn(new int[]{1, 0});
+        PreparedStatement mockPstmtConsultaStock = mock(PreparedStatement.class);
+        ResultSet mockRsStock = mock(ResultSet.class);
+        doReturn(mockPstmtConsultaStock).when(mockConnection).prepareStatement(eq("SELECT stock FROM productos WHERE id = ?"));
+        when(mockPstmtConsultaStock.executeQuery()).thenReturn(mockRsStock);
+        when(mockRsStock.next()).thenReturn(true);
+        when(mockRsStock.getInt(1)).thenReturn(3);
+
+        ResultadoVenta resultado = ventaDAO.registrarVenta(venta);
+
+        assertFalse(resultado.isExito(), "La venta no debería guardarse sin stock.");
+        assertTrue(resultado.hayFaltas());
+        assertEquals(1, resultado.getFaltas().size(), "Solo la segunda línea debería faltar.");
+        ResultadoVenta.FaltaStock falta = resultado.getFaltas().get(0);
+        assertEquals(2, falta.getProductoId());
+        assertEquals(8, falta.getSolicitada());
+        assertEquals(3, falta.getDisponible());
+        verify(mockPstmtConsultaStock).setInt(1, 2);
+
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+        verify(mockPstmtVenta, never()).executeUpdate(); // La cabecera no llega a insertarse
+        verify(mockConnection).setAutoCommit(true);
+        verify(mockConnection, never()).close();
     }
 
     /**
@@ -157,7 +217,7 @@ class VentaDAOTest {
         // Simular una fila de venta
         when(mockRsVentas.next()).thenReturn(true, false); // Una venta, luego fin
         when(mockRsVentas.getInt("id")).thenReturn(1);
-        when(mockRsVentas.getDate("fecha")).thenReturn(Date.valueOf(LocalDate.now()));
+        when(mockRsVentas.getString("fecha")).thenReturn(String.valueOf(Date.valueOf(LocalDate.now()).getTime())); // Milisegundos guardados como texto
         when(mockRsVentas.getDouble("total")).thenReturn(100.0);
         // Datos del cliente
         when(mockRsVentas.getString("cliente_tipoCliente")).thenReturn("Particular");
@@ -166,7 +226,7 @@ class VentaDAOTest {
         when(mockRsVentas.getString("cliente_telefono")).thenReturn("123456789");
         when(mockRsVentas.getString("cliente_direccion")).thenReturn("Dir Cliente");
         when(mockRsVentas.getString("cliente_cifnif")).thenReturn("12345678X");
-        when(mockRsVentas.getDate("cliente_fechaAlta")).thenReturn(Date.valueOf(LocalDate.now()));
+        when(mockRsVentas.getString("cliente_fechaAlta")).thenReturn(LocalDate.now().toString()); // ClienteDAO la guarda como texto
         when(mockRsVentas.getString("cliente_nombre")).thenReturn("Juan");
         when(mockRsVentas.getString("cliente_apellidos")).thenReturn("Perez");
 
@@ -177,6 +237,7 @@ class VentaDAOTest {
         when(mockPstmtDescuentos.executeQuery()).thenReturn(mockRsDescuentos);
         // Simular una fila de descuento
         when(mockRsDescuentos.next()).thenReturn(true, false); // Un descuento, luego fin
+        when(mockRsDescuentos.getInt("venta_id")).thenReturn(1);
         when(mockRsDescuentos.getInt("idDescuento")).thenReturn(101);
         when(mockRsDescuentos.getInt("clienteId")).thenReturn(10);
         when(mockRsDescuentos.getString("descripcion")).thenReturn("Desc Test");
@@ -188,10 +249,11 @@ class VentaDAOTest {
         // Mocks para la consulta de detalles de venta
         PreparedStatement mockPstmtDetalles = mock(PreparedStatement.class);
         ResultSet mockRsDetalles = mock(ResultSet.class);
-        when(mockConnection.prepareStatement(startsWith("SELECT dv.id, dv.cantidad"))).thenReturn(mockPstmtDetalles);
+        when(mockConnection.prepareStatement(startsWith("SELECT dv.id"))).thenReturn(mockPstmtDetalles);
         when(mockPstmtDetalles.executeQuery()).thenReturn(mockRsDetalles);
         // Simular una fila de detalle de venta
         when(mockRsDetalles.next()).thenReturn(true, false); // Un detalle, luego fin
+        when(mockRsDetalles.getInt("venta_id")).thenReturn(1);
         when(mockRsDetalles.getInt("id")).thenReturn(201);
         when(mockRsDetalles.getInt("cantidad")).thenReturn(2);
         when(mockRsDetalles.getDouble("precio_unitario")).thenReturn(50.0);
@@ -215,8 +277,10 @@ class VentaDAOTest {
         Venta venta = ventas.get(0);
         assertEquals(1, venta.getId());
         assertEquals(100.0, venta.getTotal(), 0.001);
+        assertEquals(LocalDate.now(), venta.getFecha());
         assertNotNull(venta.getCliente());
         assertEquals("Juan", venta.getCliente().getNombre());
+        assertEquals(LocalDate.now(), venta.getCliente().getFechaAlta());
 
         assertFalse(venta.getDescuentos().isEmpty());
         assertEquals(1, venta.getDescuentos().size());
@@ -226,6 +290,10 @@ class VentaDAOTest {
         assertEquals(1, venta.getDetalleVenta().size());
         assertEquals("Producto Venta", venta.getDetalleVenta().get(0).getProducto().getNombre());
 
-        verify(mockConnection).close(); // La conexión debería cerrarse al final
+        verify(mockConnection).close(); // La conexión de lectura se devuelve al pool al final
+
+        // La carga es por conjuntos: una consulta por tabla, no por venta.
+        verify(mockConnection, times(1)).prepareStatement(startsWith("SELECT d.idDescuento"));
+        verify(mockConnection, times(1)).prepareStatement(startsWith("SELECT dv.id"));
     }
 }
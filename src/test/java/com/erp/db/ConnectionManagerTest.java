@@ -0,0 +1,216 @@
+package com.erp.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link ConnectionManager}.
+ * Trabaja sobre un fichero temporal para no tocar la base de datos de la aplicación.
+ */
+class ConnectionManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        manager = new ConnectionManager(tempDir.resolve("test.db").toString(), 2, 200);
+        try (Statement stmt = manager.getWriter().createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, nombre TEXT)");
+            stmt.execute("INSERT INTO items(nombre) VALUES ('uno')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    /** La conexión de escritura debe trabajar en modo WAL con el perfil configurado. */
+    @Test
+    void testWriterEnModoWal() throws SQLException {
+        try (Statement stmt = manager.getWriter().createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            assertTrue(rs.next());
+            assertEquals("wal", rs.getString(1).toLowerCase());
+        }
+        assertSame(manager.getWriter(), manager.getWriter(), "La conexión de escritura debe ser única.");
+    }
+
+    /** Las conexiones de lectura ven los datos confirmados y no permiten escribir. */
+    @Test
+    void testLectorEsDeSoloLectura() throws SQLException {
+        try (Connection lector = manager.acquireReader();
+             Statement stmt = lector.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+            assertThrows(SQLException.class, () -> stmt.execute("INSERT INTO items(nombre) VALUES ('dos')"));
+        }
+    }
+
+    /** Cerrar una conexión prestada la devuelve al pool en lugar de cerrarla. */
+    @Test
+    void testCerrarDevuelveAlPool() throws SQLException {
+        Connection primera = manager.acquireReader();
+        primera.close();
+        assertTrue(primera.isClosed(), "La conexión prestada debe verse cerrada tras devolverla.");
+
+        try (Connection segunda = manager.acquireReader()) {
+            assertFalse(segunda.isClosed());
+        }
+        assertEquals(1, manager.getLectoresAbiertos(), "Debe reutilizarse la conexión física devuelta.");
+    }
+
+    /** El pool está acotado: sin conexiones libres se agota el tiempo de espera. */
+    @Test
+    void testPoolAcotado() throws SQLException {
+        try (Connection a = manager.acquireReader(); Connection b = manager.acquireReader()) {
+            assertEquals(2, manager.getLectoresAbiertos());
+            assertThrows(SQLException.class, manager::acquireReader);
+        }
+    }
+
+    /** Una lectura puede ejecutarse mientras hay una transacción de escritura abierta. */
+    @Test
+    void testLecturaDuranteTransaccionDeEscritura() throws SQLException {
+        Connection writer = manager.getWriter();
+        writer.setAutoCommit(false);
+        try (Statement stmt = writer.createStatement()) {
+            stmt.execute("INSERT INTO items(nombre) VALUES ('pendiente')");
+
+            try (Connection lector = manager.acquireReader();
+                 Statement lectura = lector.createStatement();
+                 ResultSet rs = lectura.executeQuery("SELECT COUNT(*) FROM items")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1), "El lector no debe ver cambios sin confirmar.");
+            }
+            writer.commit();
+        } finally {
+            writer.setAutoCommit(true);
+        }
+    }
+
+    /** Una escritura suelta espera a que termine la transacción abierta en otro hilo y no entra en ella. */
+    @Test
+    void testEscrituraEsperaALaTransaccion() throws Exception {
+        ExecutorService otroHilo = Executors.newSingleThreadExecutor();
+        try (Escritura transaccion = manager.abrirEscritura()) {
+            Connection writer = transaccion.getConexion();
+            writer.setAutoCommit(false);
+            try (Statement stmt = writer.createStatement()) {
+                stmt.execute("INSERT INTO items(nombre) VALUES ('deshecho')");
+            }
+
+            Future<?> suelta = otroHilo.submit(() -> {
+                try (Escritura escritura = manager.abrirEscritura();
+                     Statement stmt = escritura.getConexion().createStatement()) {
+                    stmt.execute("INSERT INTO items(nombre) VALUES ('suelta')");
+                }
+                return null;
+            });
+            assertThrows(TimeoutException.class, () -> suelta.get(200, TimeUnit.MILLISECONDS),
+                    "La escritura no debe ejecutarse con la transacción abierta.");
+
+            writer.rollback();
+            writer.setAutoCommit(true);
+            transaccion.close();
+            suelta.get(2, TimeUnit.SECONDS);
+        } finally {
+            otroHilo.shutdownNow();
+        }
+
+        try (Connection lector = manager.acquireReader();
+             Statement stmt = lector.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT group_concat(nombre) FROM items")) {
+            assertTrue(rs.next());
+            assertEquals("uno,suelta", rs.getString(1), "El rollback no debe deshacer la escritura del otro hilo.");
+        }
+        assertFalse(manager.getWriteLock().isLocked());
+    }
+
+    /** Cerrar el gestor no corta una lectura en curso: la conexión prestada se cierra al devolverse. */
+    @Test
+    void testCerrarRespetaLectoresPrestados() throws SQLException {
+        Connection prestada = manager.acquireReader();
+        manager.acquireReader().close(); // Queda libre en el pool
+        assertEquals(2, manager.getLectoresAbiertos());
+
+        manager.close();
+        assertEquals(1, manager.getLectoresAbiertos(), "Solo debe cerrarse la conexión libre.");
+
+        try (Statement stmt = prestada.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+        }
+        prestada.close();
+        assertEquals(0, manager.getLectoresAbiertos());
+        assertThrows(SQLException.class, manager::acquireReader);
+    }
+
+    /** Cerrar el gestor espera a que termine la escritura en curso antes de cerrar la conexión de escritura. */
+    @Test
+    void testCerrarEsperaALaEscrituraEnCurso() throws Exception {
+        ConnectionManager paciente = new ConnectionManager(tempDir.resolve("test.db").toString(), 2, 5000);
+        ExecutorService otroHilo = Executors.newSingleThreadExecutor();
+        try {
+            Connection writer;
+            Future<?> cierre;
+            try (Escritura escritura = paciente.abrirEscritura()) {
+                writer = escritura.getConexion();
+                cierre = otroHilo.submit(paciente::close);
+                assertThrows(TimeoutException.class, () -> cierre.get(200, TimeUnit.MILLISECONDS),
+                        "No debe cerrarse con la escritura en curso.");
+                try (Statement stmt = writer.createStatement()) {
+                    stmt.execute("INSERT INTO items(nombre) VALUES ('dos')");
+                }
+            }
+            cierre.get(2, TimeUnit.SECONDS);
+            assertTrue(writer.isClosed());
+        } finally {
+            otroHilo.shutdownNow();
+            paciente.close();
+        }
+    }
+
+    /** Si la escritura en curso no termina a tiempo, el cierre no espera más ni le corta la conexión. */
+    @Test
+    void testCerrarNoCortaEscrituraLarga() throws Exception {
+        ExecutorService otroHilo = Executors.newSingleThreadExecutor();
+        Connection writer = null;
+        try (Escritura escritura = manager.abrirEscritura()) {
+            writer = escritura.getConexion();
+            otroHilo.submit(manager::close).get(2, TimeUnit.SECONDS);
+
+            assertFalse(writer.isClosed());
+            try (Statement stmt = writer.createStatement()) {
+                stmt.execute("INSERT INTO items(nombre) VALUES ('dos')");
+            }
+            assertThrows(SQLException.class, manager::acquireReader);
+        } finally {
+            otroHilo.shutdownNow();
+            if (writer != null) {
+                writer.close(); // El gestor ya no la cierra
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.erp.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link RegistroConsultasLentas} y el envoltorio que cronometra las sentencias.
+ * Con umbral 0 toda sentencia se considera lenta, así que se registran todas.
+ */
+class RegistroConsultasLentasTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RegistroConsultasLentas registro;
+    private ConnectionManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        registro = new RegistroConsultasLentas(0, tempDir.resolve("logs/lentas.db").toString(), 100);
+        manager = new ConnectionManager(tempDir.resolve("test.db").toString(), 2, 200, registro);
+        try (Statement stmt = manager.getWriter().createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, nombre TEXT, precio REAL)");
+            stmt.execute("INSERT INTO items(nombre, precio) VALUES ('uno', 1.5), ('dos', 2.5), ('tres', 3.5)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+        registro.close();
+    }
+
+    /** Se guardan la sentencia, sus parámetros y el plan; un filtro sin índice se marca como escaneo completo. */
+    @Test
+    void testEscaneoCompletoConParametros() throws SQLException {
+        int filas = 0;
+        try (Connection lector = manager.acquireReader();
+             PreparedStatement stmt = lector.prepareStatement("SELECT * FROM items WHERE nombre = ? AND precio > ?")) {
+            stmt.setString(1, "dos");
+            stmt.setDouble(2, 1.0);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    filas++;
+                }
+            }
+        }
+        assertEquals(1, filas, "El envoltorio no debe cambiar los resultados.");
+
+        ConsultaLenta consulta = registro.consultar(false, 1).get(0);
+        assertEquals("SELECT * FROM items WHERE nombre = ? AND precio > ?", consulta.getSentencia());
+        assertEquals("['dos', 1.0]", consulta.getParametros());
+        assertEquals("lectura", consulta.getConexion());
+        assertTrue(consulta.getPlan().startsWith("SCAN"), consulta.getPlan());
+        assertTrue(consulta.isEscaneoCompleto());
+    }
+
+    /** Una búsqueda por clave primaria usa el índice y no se marca como escaneo completo. */
+    @Test
+    void testBusquedaPorClaveNoEsEscaneo() throws SQLException {
+        try (Connection lector = manager.acquireReader();
+             PreparedStatement stmt = lector.prepareStatement("SELECT nombre FROM items WHERE id = ?")) {
+            stmt.setInt(1, 2);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("dos", rs.getString(1));
+            }
+        }
+
+        ConsultaLenta consulta = registro.consultar(false, 1).get(0);
+        assertFalse(consulta.isEscaneoCompleto(), consulta.getPlan());
+        assertTrue(consulta.getPlan().startsWith("SEARCH"), consulta.getPlan());
+        assertTrue(registro.consultar(true, 10).stream().noneMatch(c -> c.getSentencia().contains("WHERE id = ?")));
+    }
+
+    /** Los lotes se registran una vez, con el número de juegos de parámetros. */
+    @Test
+    void testLote() throws SQLException {
+        try (PreparedStatement stmt = manager.getWriter().prepareStatement("UPDATE items SET precio = ? WHERE id = ?")) {
+            for (int id = 1; id <= 3; id++) {
+                stmt.setDouble(1, id * 10);
+                stmt.setInt(2, id);
+                stmt.addBatch();
+            }
+            assertArrayEquals(new int[]{1, 1, 1}, stmt.executeBatch());
+        }
+
+        ConsultaLenta consulta = registro.consultar(false, 1).get(0);
+        assertEquals("UPDATE items SET precio = ? WHERE id = ?", consulta.getSentencia());
+        assertEquals(3, consulta.getLotes());
+        assertEquals("escritura", consulta.getConexion());
+    }
+
+    /** Solo se conservan las entradas más recientes. */
+    @Test
+    void testRotacion() throws SQLException {
+        registro.close();
+        registro = new RegistroConsultasLentas(0, tempDir.resolve("rotado.db").toString(), 3);
+        try (Connection conexion = registro.envolver(manager.getWriter(), "escritura");
+             Statement stmt = conexion.createStatement()) {
+            for (int i = 0; i < 10; i++) {
+                stmt.executeUpdate("UPDATE items SET precio = " + i + " WHERE id = 1");
+            }
+        } finally {
+            manager.close(); // El envoltorio cerró la conexión de escritura
+        }
+
+        List<ConsultaLenta> consultas = registro.consultar(false, 100);
+        assertEquals(3, consultas.size());
+        assertEquals("UPDATE items SET precio = 9 WHERE id = 1", consultas.get(0).getSentencia());
+        assertTrue(Files.exists(tempDir.resolve("rotado.db")));
+    }
+
+    /** Con un umbral alto no se guarda nada ni se crea el fichero. */
+    @Test
+    void testUmbralNoSuperado() throws SQLException {
+        RegistroConsultasLentas exigente = new RegistroConsultasLentas(60_000, tempDir.resolve("vacio.db").toString(), 10);
+        try (Connection conexion = exigente.envolver(manager.acquireReader(), "lectura");
+             Statement stmt = conexion.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+            assertTrue(rs.next());
+            assertEquals(3, rs.getInt(1));
+        } finally {
+            exigente.close();
+        }
+        assertTrue(exigente.consultar(false, 10).isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("vacio.db")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.erp.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para la inicialización del esquema de {@link SQLiteConnector}.
+ * Cada test trabaja sobre un fichero temporal y deja la ruta original al terminar.
+ */
+class SQLiteConnectorTest {
+
+    @TempDir
+    Path directorio;
+
+    private String rutaOriginal;
+
+    @BeforeEach
+    void setUp() {
+        rutaOriginal = SQLiteConnector.getRutaBaseDeDatos();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SQLiteConnector.usarBaseDeDatos(rutaOriginal);
+    }
+
+    /** Sobre una base de datos nueva deja el esquema en la última versión. */
+    @Test
+    void testMigrarEsquema() throws SQLException {
+        SQLiteConnector.usarBaseDeDatos(directorio.resolve("erp.db").toString());
+
+        int version = SQLiteConnector.migrarEsquema();
+
+        assertEquals(new SchemaMigrator(SchemaMigrations.TODAS).getVersionObjetivo(), version);
+    }
+
+    /** Si el fichero no es una base de datos el error llega al llamador en lugar de perderse. */
+    @Test
+    void testMigrarEsquemaLanzaElError() throws IOException {
+        Path roto = Files.writeString(directorio.resolve("roto.db"), "esto no es una base de datos SQLite ".repeat(200));
+        SQLiteConnector.usarBaseDeDatos(roto.toString());
+
+        assertThrows(SQLException.class, SQLiteConnector::migrarEsquema);
+        assertFalse(SQLiteConnector.getWriteLock().isLocked(), "El cerrojo de escritura debe liberarse");
+    }
+}
@@ -0,0 +1,151 @@
+package com.erp.db;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link SchemaMigrator} y el catálogo {@link SchemaMigrations}.
+ * Utiliza una base de datos en memoria independiente para cada test.
+ */
+class SchemaMigratorTest {
+
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    /** Una base de datos nueva llega a la última versión con tablas e índices creados. */
+    @Test
+    void testMigrarBaseDeDatosNueva() throws SQLException {
+        SchemaMigrator migrador = new SchemaMigrator(SchemaMigrations.TODAS);
+        int version = migrador.migrar(conn);
+
+        assertEquals(migrador.getVersionObjetivo(), version);
+        assertEquals(version, SchemaMigrator.leerVersion(conn));
+        assertTrue(existe("table", "ventas"));
+        assertTrue(existe("index", "idx_ventas_cliente_fecha"));
+        assertTrue(existe("index", "idx_detalles_venta_venta"));
+        assertTrue(existe("index", "idx_descuentos_cliente"));
+    }
+
+    /** Una base de datos anterior a las migraciones (tablas creadas, versión 0) recibe los índices. */
+    @Test
+    void testMigrarBaseDeDatosExistente() throws SQLException {
+        new Migration(1, "tablas previas", SchemaMigrations.TODAS.get(0).getSentencias().toArray(new String[0])).aplicar(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO clientes(nombre, tipoCliente) VALUES ('Ana', 'Particular')");
+        }
+        assertEquals(0, SchemaMigrator.leerVersion(conn));
+
+        new SchemaMigrator(SchemaMigrations.TODAS).migrar(conn);
+
+        assertTrue(existe("index", "idx_ventas_fecha"));
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM clientes")) {
+            assertEquals(1, rs.getInt(1), "Los datos existentes deben conservarse.");
+        }
+    }
+
+    /** Migrar dos veces no vuelve a aplicar nada. */
+    @Test
+    void testMigrarEsIdempotente() throws SQLException {
+        SchemaMigrator migrador = new SchemaMigrator(Arrays.asList(
+                new Migration(1, "tabla", "CREATE TABLE t (id INTEGER)"),
+                new Migration(2, "fila", "INSERT INTO t VALUES (1)")));
+        migrador.migrar(conn);
+        migrador.migrar(conn);
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    /** Si una migración falla se revierte entera y la versión queda en la última completada. */
+    @Test
+    void testMigracionFallidaSeRevierte() throws SQLException {
+        SchemaMigrator migrador = new SchemaMigrator(Arrays.asList(
+                new Migration(1, "tabla", "CREATE TABLE t (id INTEGER)"),
+                new Migration(2, "rota", "INSERT INTO t VALUES (1)", "INSERT INTO no_existe VALUES (1)")));
+
+        assertThrows(SQLException.class, () -> migrador.migrar(conn));
+        assertEquals(1, SchemaMigrator.leerVersion(conn));
+        assertTrue(conn.getAutoCommit());
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertEquals(0, rs.getInt(1), "La fila de la migración fallida no debe persistir.");
+        }
+    }
+
+    /** El índice FTS5 de productos indexa los datos previos y los triggers lo mantienen al día. */
+    @Test
+    void testIndiceFtsDeProductos() throws SQLException {
+        new Migration(1, "tablas previas", SchemaMigrations.TODAS.get(0).getSentencias().toArray(new String[0])).aplicar(conn);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("INSERT INTO productos(nombre, descripcion, categoria, precioUnitario, stock) "
+                    + "VALUES ('Camión de juguete', 'Metálico', 'Juguetes', 12.5, 3)");
+        }
+        new SchemaMigrator(SchemaMigrations.TODAS).migrar(conn);
+
+        assertEquals(1, contarCoincidencias("camion"), "Debe ignorar tildes y mayúsculas e indexar lo previo.");
+        assertEquals(1, contarCoincidencias("jug*"), "Debe admitir prefijos.");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("UPDATE productos SET nombre = 'Grúa' WHERE nombre LIKE 'Cami%'");
+            stmt.execute("INSERT INTO productos(nombre, descripcion, categoria, precioUnitario, stock) "
+                    + "VALUES ('Pelota', 'Goma', 'Juguetes', 3, 10)");
+        }
+        assertEquals(0, contarCoincidencias("camion"));
+        assertEquals(1, contarCoincidencias("grua"));
+        assertEquals(2, contarCoincidencias("categoria : juguetes"));
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM productos WHERE nombre = 'Pelota'");
+        }
+        assertEquals(0, contarCoincidencias("pelota"));
+    }
+
+    /** No se admiten dos migraciones con la misma versión. */
+    @Test
+    void testVersionDuplicada() {
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(Arrays.asList(
+                new Migration(1, "a", "SELECT 1"),
+                new Migration(1, "b", "SELECT 1"))));
+    }
+
+    private int contarCoincidencias(String consulta) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT COUNT(*) FROM productos_fts WHERE productos_fts MATCH ?")) {
+            stmt.setString(1, consulta);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private boolean existe(String tipo, String nombre) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = '" + tipo
+                     + "' AND name = '" + nombre + "'")) {
+            return rs.getInt(1) == 1;
+        }
+    }
+}
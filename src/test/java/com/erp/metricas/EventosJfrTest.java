@@ -0,0 +1,93 @@
+package com.erp.metricas;
+
+import com.erp.dao.ProductoDAO;
+import com.erp.db.SQLiteConnector;
+import com.erp.model.Producto;
+import com.erp.utils.BusquedaDiferida;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para los eventos de Java Flight Recorder de la aplicación.
+ * Graba en un fichero temporal, lo relee y comprueba los eventos y sus atributos.
+ */
+class EventosJfrTest {
+
+    @TempDir
+    Path directorio;
+
+    private String rutaOriginal;
+    private Recording grabacion;
+
+    @BeforeEach
+    void setUp() {
+        rutaOriginal = SQLiteConnector.getRutaBaseDeDatos();
+        SQLiteConnector.usarBaseDeDatos(directorio.resolve("eventos.db").toString());
+        SQLiteConnector.initDatabase();
+        grabacion = new Recording();
+        grabacion.enable("com.erp.OperacionDao").withThreshold(Duration.ZERO);
+        grabacion.enable("com.erp.Busqueda").withThreshold(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        grabacion.close();
+        SQLiteConnector.usarBaseDeDatos(rutaOriginal);
+    }
+
+    /** Cada llamada pública a un DAO emite un evento con su tabla y su método. */
+    @Test
+    void testEventoOperacionDao() throws Exception {
+        ProductoDAO dao = new ProductoDAO();
+        grabacion.start();
+        dao.guardarProductoDb(new Producto(null, "Cable", "USB-C", "Informática", 5.0, 10));
+        dao.buscar("cable", 10);
+        List<RecordedEvent> eventos = parar("com.erp.OperacionDao");
+
+        assertTrue(eventos.stream().anyMatch(e -> "productos".equals(e.getString("tabla"))
+                && "guardarProductoDb".equals(e.getString("metodo"))));
+        assertTrue(eventos.stream().anyMatch(e -> "buscar".equals(e.getString("metodo"))
+                && !e.getDuration().isNegative()));
+    }
+
+    /** Cada consulta de un formulario de búsqueda emite un evento con los criterios y los resultados. */
+    @Test
+    void testEventoBusqueda() throws Exception {
+        CountDownLatch publicado = new CountDownLatch(1);
+        BusquedaDiferida<String, List<String>> busqueda = new BusquedaDiferida<>(0,
+                texto -> List.of(texto, texto), resultado -> publicado.countDown(), Runnable::run);
+        grabacion.start();
+        busqueda.solicitar("lapiz");
+        assertTrue(publicado.await(2, TimeUnit.SECONDS));
+        List<RecordedEvent> eventos = parar("com.erp.Busqueda");
+
+        assertEquals(1, eventos.size());
+        assertEquals("lapiz", eventos.get(0).getString("criterios"));
+        assertEquals(2, eventos.get(0).getInt("resultados"));
+        assertFalse(eventos.get(0).getBoolean("descartada"));
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private List<RecordedEvent> parar(String tipo) throws Exception {
+        grabacion.stop();
+        Path fichero = directorio.resolve("grabacion.jfr");
+        grabacion.dump(fichero);
+        return RecordingFile.readAllEvents(fichero).stream()
+                .filter(e -> e.getEventType().getName().equals(tipo))
+                .toList();
+    }
+}
@@ -0,0 +1,109 @@
+package com.erp.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link Histograma} y {@link Temporizador}.
+ */
+class HistogramaTest {
+
+    /** Cada valor cae en una cubeta cuyo límite superior lo cubre con un error relativo acotado. */
+    @Test
+    void testCubetasCubrenLosValores() {
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long valor = aleatorio.nextLong() >>> (1 + aleatorio.nextInt(40));
+            int indice = Histograma.indice(valor);
+            long limite = Histograma.limiteSuperior(indice);
+            assertTrue(indice >= 0 && indice < Histograma.NUMERO_CUBETAS);
+            if (valor < (1L << Histograma.EXPONENTE_MAXIMO + 1)) {
+                assertTrue(limite >= valor, "El límite " + limite + " no cubre " + valor);
+                assertTrue(limite - valor <= valor / Histograma.SUBCUBETAS, "Error excesivo para " + valor);
+                assertTrue(indice == 0 || Histograma.limiteSuperior(indice - 1) < valor);
+            }
+        }
+    }
+
+    /** Los percentiles de una distribución uniforme salen con un error de como mucho ~3 %. */
+    @Test
+    void testPercentiles() {
+        Histograma histograma = new Histograma("prueba");
+        for (long v = 1; v <= 10_000; v++) {
+            histograma.registrar(v * 1_000);
+        }
+
+        Histograma.Instantanea datos = histograma.instantanea();
+        assertEquals(10_000, datos.getCuenta());
+        assertEquals(5_000_500.0, datos.getMedia(), 0.001);
+        assertEquals(10_000_000, datos.getMaximo());
+        assertEquals(5_000_000, datos.percentil(50), 5_000_000 / Histograma.SUBCUBETAS);
+        assertEquals(9_900_000, datos.percentil(99), 9_900_000 / Histograma.SUBCUBETAS);
+        assertEquals(10_000_000, datos.percentil(100));
+        assertTrue(datos.percentil(99) <= datos.getMaximo());
+    }
+
+    /** Un histograma vacío devuelve ceros, y los valores negativos cuentan como cero. */
+    @Test
+    void testVacioYNegativos() {
+        Histograma histograma = new Histograma("prueba");
+        assertEquals(0, histograma.getP99());
+        assertEquals(0.0, histograma.getMedia());
+
+        histograma.registrar(-5);
+        assertEquals(1, histograma.getCuenta());
+        assertEquals(0, histograma.getMaximo());
+    }
+
+    /** Registrar desde varios hilos a la vez no pierde valores. */
+    @Test
+    void testRegistroConcurrente() throws Exception {
+        Histograma histograma = new Histograma("prueba");
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int h = 0; h < 4; h++) {
+                tareas.add(hilos.submit(() -> {
+                    for (int i = 1; i <= 25_000; i++) {
+                        histograma.registrar(i);
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertEquals(100_000, histograma.getCuenta());
+        assertEquals(100_000, histograma.instantanea().getCuenta());
+        assertEquals(25_000, histograma.getMaximo());
+    }
+
+    /** El temporizador registra también las operaciones que terminan con una excepción. */
+    @Test
+    void testTemporizador() {
+        Temporizador temporizador = new Temporizador("prueba");
+        assertEquals("hecho", temporizador.medir(() -> "hecho"));
+        assertThrows(IllegalStateException.class, () -> temporizador.medir(() -> {
+            throw new IllegalStateException();
+        }));
+        try (Temporizador.Medicion medicion = temporizador.iniciar()) {
+            assertNotNull(medicion);
+        }
+        temporizador.registrar(2_000_000);
+
+        assertEquals(4, temporizador.getCuenta());
+        assertEquals(2.0, temporizador.getMaximoMs(), 0.1);
+        assertTrue(temporizador.getP50Ms() <= temporizador.getP99Ms());
+    }
+}
@@ -0,0 +1,86 @@
+package com.erp.metricas;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link RegistroMetricas} y {@link ExpositorMetricas}.
+ * Cada test usa su propio registro (o un dominio JMX propio) para no depender del global.
+ */
+class RegistroMetricasTest {
+
+    /** Pedir dos veces el mismo nombre devuelve la misma métrica. */
+    @Test
+    void testMismaMetricaPorNombre() {
+        RegistroMetricas registro = new RegistroMetricas(null);
+        assertSame(registro.contador("a.b"), registro.contador("a.b"));
+        assertSame(registro.temporizador("a.b"), registro.temporizador("a.b"));
+        assertNotSame(registro.histograma("a.b"), registro.histograma("a.c"));
+    }
+
+    /** El texto sigue el formato de Prometheus, con los temporizadores en segundos. */
+    @Test
+    void testExportarTexto() {
+        RegistroMetricas registro = new RegistroMetricas(null);
+        registro.contador("facturas.errores").incrementar(3);
+        registro.temporizador("dao.ventas.guardarVenta").registrar(2_000_000_000L);
+
+        String texto = registro.exportarTexto();
+
+        assertTrue(texto.contains("# TYPE erp_facturas_errores_total counter\n"));
+        assertTrue(texto.contains("erp_facturas_errores_total 3\n"));
+        assertTrue(texto.contains("# TYPE erp_dao_ventas_guardarVenta_seconds summary\n"));
+        assertTrue(texto.contains("erp_dao_ventas_guardarVenta_seconds{quantile=\"0.99\"} 2\n"));
+        assertTrue(texto.contains("erp_dao_ventas_guardarVenta_seconds_count 1\n"));
+        assertTrue(texto.contains("erp_dao_ventas_guardarVenta_seconds_sum 2\n"));
+    }
+
+    /** Cada métrica se publica como MXBean en el dominio del registro. */
+    @Test
+    void testPublicacionJmx() throws Exception {
+        RegistroMetricas registro = new RegistroMetricas("com.erp.prueba");
+        registro.temporizador("dao.productos.buscar").registrar(1_500_000);
+        registro.contador("busqueda.solicitudes").incrementar();
+
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        ObjectName temporizador = new ObjectName("com.erp.prueba:type=Temporizador,name=\"dao.productos.buscar\"");
+        ObjectName contador = new ObjectName("com.erp.prueba:type=Contador,name=\"busqueda.solicitudes\"");
+        try {
+            assertEquals(1L, servidor.getAttribute(temporizador, "Cuenta"));
+            assertEquals(1.5, (Double) servidor.getAttribute(temporizador, "P50Ms"), 0.05);
+            assertEquals(1L, servidor.getAttribute(contador, "Valor"));
+        } finally {
+            servidor.unregisterMBean(temporizador);
+            servidor.unregisterMBean(contador);
+        }
+    }
+
+    /** El expositor sirve el mismo texto por HTTP en la interfaz local. */
+    @Test
+    void testExpositorHttp() throws Exception {
+        RegistroMetricas registro = new RegistroMetricas(null);
+        registro.contador("busqueda.solicitudes").incrementar();
+        ExpositorMetricas expositor = new ExpositorMetricas(registro, 0);
+        expositor.iniciar();
+        try {
+            HttpResponse<String> respuesta = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + expositor.getPuerto() + ExpositorMetricas.RUTA)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, respuesta.statusCode());
+            assertTrue(respuesta.headers().firstValue("Content-Type").orElse("").startsWith("text/plain"));
+            assertEquals(registro.exportarTexto(), respuesta.body());
+        } finally {
+            expositor.detener();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.erp.service;
+
+import com.erp.dao.Pagina;
+import com.erp.dao.ProductoDAO;
+import com.erp.model.DetalleVenta;
+import com.erp.model.Producto;
+import com.erp.utils.LazyPagedList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de tests para {@link CatalogoProductos}.
+ * El DAO se simula con Mockito y los cambios se publican en el mismo hilo, así que no hace
+ * falta JavaFX ni base de datos.
+ */
+class CatalogoProductosTest {
+
+    private ProductoDAO productoDAO;
+    private CatalogoProductos catalogo;
+    private final List<String> cambios = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productoDAO = mock(ProductoDAO.class);
+        when(productoDAO.contarProductos()).thenReturn(3);
+        when(productoDAO.listarProductosPagina(Pagina.INICIO, 200, false))
+                .thenReturn(new Pagina<>(List.of(producto(1, 10), producto(2, 20), producto(3, 30)), null, Pagina.TOTAL_DESCONOCIDO));
+        catalogo = new CatalogoProductos(productoDAO, Runnable::run);
+        catalogo.suscribir(cambio -> cambios.add(cambio.toString()));
+    }
+
+    /** Todas las pantallas reciben la misma lista, que se cuenta una sola vez. */
+    @Test
+    void testListaCompartida() {
+        catalogo.precargar();
+        assertSame(catalogo.getProductos(), catalogo.getProductos());
+        verify(productoDAO, times(1)).contarProductos();
+        verify(productoDAO, times(1)).listarProductosPagina(Pagina.INICIO, 200, false);
+    }
+
+    /** Un producto nuevo se añade al final de la lista y se publica como alta. */
+    @Test
+    void testGuardarNuevo() {
+        LazyPagedList<Producto> lista = catalogo.getProductos();
+        lista.get(0);
+        Producto nuevo = new Producto("Nuevo", "", "Varios", 5.0, 1);
+        when(productoDAO.guardarProductoDb(nuevo)).thenAnswer(invocacion -> {
+            nuevo.setId(4);
+            return true;
+        });
+
+        assertTrue(catalogo.guardar(nuevo));
+        assertEquals(4, lista.size());
+        assertSame(nuevo, lista.get(3));
+        assertEquals(List.of("ALTA 4"), cambios);
+        verify(productoDAO, times(1)).contarProductos();
+    }
+
+    /** Un producto modificado sustituye al cargado sin releer el catálogo. */
+    @Test
+    void testGuardarModificado() {
+        LazyPagedList<Producto> lista = catalogo.getProductos();
+        lista.get(0);
+        Producto modificado = producto(2, 15);
+        when(productoDAO.actualizarProductoEnDb(modificado)).thenReturn(true);
+
+        assertTrue(catalogo.guardar(modificado));
+        assertSame(modificado, lista.get(1));
+        assertEquals(List.of("MODIFICACION 2"), cambios);
+        verify(productoDAO, times(1)).listarProductosPagina(anyInt(), anyInt(), anyBoolean());
+    }
+
+    /** Si la base de datos rechaza el cambio no se toca la lista ni se avisa a nadie. */
+    @Test
+    void testFalloNoPublica() {
+        LazyPagedList<Producto> lista = catalogo.getProductos();
+        Producto original = lista.get(1);
+        when(productoDAO.actualizarProductoEnDb(any())).thenReturn(false);
+
+        assertFalse(catalogo.guardar(producto(2, 15)));
+        assertSame(original, lista.get(1));
+        assertTrue(cambios.isEmpty());
+    }
+
+    /** Un producto eliminado desaparece de la lista y se publica como baja. */
+    @Test
+    void testEliminar() {
+        LazyPagedList<Producto> lista = catalogo.getProductos();
+        Producto segundo = lista.get(1);
+        when(productoDAO.eliminarProductoPorId(2)).thenReturn(true);
+        when(productoDAO.listarProductosPagina(Pagina.INICIO, 200, false))
+                .thenReturn(new Pagina<>(List.of(producto(1, 10), producto(3, 30)), null, Pagina.TOTAL_DESCONOCIDO));
+
+        assertTrue(catalogo.eliminar(segundo));
+        assertEquals(2, lista.size());
+        assertEquals(3, lista.get(1).getId());
+        assertEquals(List.of("BAJA 2"), cambios);
+    }
+
+    /** Tras una venta se relee una vez cada producto vendido y se publica su stock nuevo. */
+    @Test
+    void testActualizarStockVendido() {
+        LazyPagedList<Producto> lista = catalogo.getProductos();
+        Producto primero = lista.get(0);
+        when(productoDAO.buscarProductoPorId(1)).thenReturn(producto(1, 7));
+
+        catalogo.actualizarStockVendido(List.of(
+                new DetalleVenta(null, null, primero, 2, 1.0),
+                new DetalleVenta(null, null, primero, 1, 1.0)));
+
+        assertEquals(7, lista.get(0).getStock());
+        assertEquals(List.of("MODIFICACION 1"), cambios);
+        verify(productoDAO, times(1)).buscarProductoPorId(1);
+    }
+
+    /** Una suscripción cancelada deja de recibir cambios y no queda registrada. */
+    @Test
+    void testCancelarSuscripcion() {
+        List<String> recibidos = new ArrayList<>();
+        Runnable cancelar = catalogo.suscribir(cambio -> recibidos.add(cambio.toString()));
+        assertEquals(2, catalogo.getSuscriptores());
+
+        cancelar.run();
+        when(productoDAO.actualizarProductoEnDb(any())).thenReturn(true);
+        catalogo.guardar(producto(1, 5));
+
+        assertTrue(recibidos.isEmpty());
+        assertEquals(1, catalogo.getSuscriptores());
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private static Producto producto(int id, int stock) {
+        return new Producto(id, "Producto " + id, "", "Varios", 10.0, stock);
+    }
+}
@@ -0,0 +1,98 @@
+package com.erp.service;
+
+import com.erp.dao.ClienteDAO;
+import com.erp.model.Cliente;
+import com.erp.utils.LazyPagedList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Clase de tests para {@link ClienteBusquedaService}.
+ * El DAO se simula con Mockito: aquí solo se comprueba qué consulta se delega en cada caso.
+ */
+class ClienteBusquedaServiceTest {
+
+    // Más clientes de los que devuelve una búsqueda, para comprobar que el listado no se corta
+    private static final int TOTAL = ClienteBusquedaService.LIMITE_RESULTADOS * 3;
+
+    private ClienteDAO clienteDAO;
+    private ClienteBusquedaService servicio;
+
+    @BeforeEach
+    void setUp() {
+        clienteDAO = mock(ClienteDAO.class);
+        servicio = new ClienteBusquedaService(clienteDAO);
+        when(clienteDAO.contarClientes()).thenReturn(TOTAL);
+        when(clienteDAO.listarClientesDesdePosicion(anyInt(), anyInt()))
+                .thenAnswer(invocacion -> clientes(invocacion.getArgument(0), invocacion.getArgument(1)));
+        when(clienteDAO.listarClientesDespuesDe(anyInt(), anyInt()))
+                .thenAnswer(invocacion -> clientes(invocacion.getArgument(0), invocacion.getArgument(1)));
+    }
+
+    /** El listado completo llega hasta el último cliente y solo lee las páginas que se piden. */
+    @Test
+    void testListarTodosSinLimite() {
+        LazyPagedList<Cliente> todos = servicio.listarTodos();
+
+        assertEquals(TOTAL, todos.size());
+        verify(clienteDAO, never()).listarClientesDesdePosicion(anyInt(), anyInt());
+
+        assertEquals(TOTAL, todos.get(TOTAL - 1).getId());
+        verify(clienteDAO, times(1)).listarClientesDesdePosicion(anyInt(), anyInt());
+        verify(clienteDAO, times(1)).contarClientes();
+    }
+
+    /** Un texto vacío devuelve el listado completo de la pantalla, sin consultar el índice ni volver a contar. */
+    @Test
+    void testBuscarTextoVacio() {
+        LazyPagedList<Cliente> listado = servicio.listarTodos();
+
+        assertSame(listado, servicio.buscar("  ", listado));
+        assertSame(listado, servicio.buscar(null, listado));
+        verify(clienteDAO, never()).buscar(anyString(), anyInt());
+        verify(clienteDAO, times(1)).contarClientes();
+    }
+
+    /** Un texto con contenido se delega en la búsqueda de texto completo con el límite del servicio. */
+    @Test
+    void testBuscarTexto() {
+        servicio.buscar("ana", servicio.listarTodos());
+        verify(clienteDAO).buscar("ana", ClienteBusquedaService.LIMITE_RESULTADOS);
+    }
+
+    /** Los criterios del formulario se delegan en el DAO; sin criterios se usa el listado completo. */
+    @Test
+    void testBuscarPorCriterios() {
+        Map<String, String> criterios = new HashMap<>();
+        criterios.put("id", "");
+        criterios.put("nombre", "");
+        criterios.put("cifnif", "");
+        LazyPagedList<Cliente> listado = servicio.listarTodos();
+        assertSame(listado, servicio.buscarPorCriterios(criterios, listado));
+        verify(clienteDAO, times(1)).contarClientes();
+
+        criterios.put("cifnif", "B12");
+        servicio.buscarPorCriterios(criterios, listado);
+        verify(clienteDAO).buscarClientesPorCriterios("", "", "B12", ClienteBusquedaService.LIMITE_RESULTADOS);
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    /** Clientes con IDs consecutivos a partir de {@code desde + 1}: sirve tanto para la posición como para el cursor. */
+    private static List<Cliente> clientes(int desde, int tamano) {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int id = desde + 1; id <= Math.min(TOTAL, desde + tamano); id++) {
+            clientes.add(Cliente.crearParticular(id, "c" + id + "@a.com", "1", "dir", "11111111A", LocalDate.now(), "Cliente", String.valueOf(id)));
+        }
+        return clientes;
+    }
+}
@@ -0,0 +1,168 @@
+package com.erp.service;
+
+import com.erp.dao.FiltroVentas;
+import com.erp.dao.Pagina;
+import com.erp.dao.VentaDAO;
+import com.erp.db.SQLiteConnector;
+import com.erp.model.Venta;
+import com.erp.utils.FacturaPDFGenerator;
+import com.erp.utils.GeneradorDatos;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link FacturaLoteService}.
+ * Trabaja sobre una base de datos temporal con datos de {@link GeneradorDatos} y al terminar
+ * devuelve {@link SQLiteConnector} a la base de datos que estaba usando.
+ */
+class FacturaLoteServiceTest {
+
+    private static final int VENTAS = 60;
+
+    @TempDir
+    Path directorio;
+
+    private String rutaOriginal;
+    private VentaDAO ventaDAO;
+    private FacturaLoteService servicio;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        rutaOriginal = SQLiteConnector.getRutaBaseDeDatos();
+        SQLiteConnector.usarBaseDeDatos(directorio.resolve("ventas.db").toString());
+        SQLiteConnector.initDatabase();
+        new GeneradorDatos(5L).generar(30, 10, VENTAS);
+        ventaDAO = new VentaDAO();
+        // Páginas pequeñas para que haya varias
+        servicio = new FacturaLoteService(ventaDAO, new FacturaPDFGenerator(), 4, 7);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SQLiteConnector.usarBaseDeDatos(rutaOriginal);
+    }
+
+    /** Se genera una factura por venta y se informa del progreso tras cada página. */
+    @Test
+    void testRegenerarTodas() throws Exception {
+        Path facturas = directorio.resolve("facturas");
+        List<FacturaLoteService.Resumen> parciales = new CopyOnWriteArrayList<>();
+
+        FacturaLoteService.Resumen resumen = servicio.regenerar(FiltroVentas.TODAS, facturas, parciales::add);
+
+        assertEquals(VENTAS, resumen.getGeneradas());
+        assertEquals(0, resumen.getOmitidas());
+        assertEquals(0, resumen.getErrores());
+        assertTrue(resumen.getFacturasPorSegundo() > 0);
+        assertEquals(nombres(ventaDAO.obtenerTodasLasVentas()), ficheros(facturas));
+        assertEquals((VENTAS + 6) / 7, parciales.size());
+        assertEquals(VENTAS, parciales.get(parciales.size() - 1).getGeneradas());
+    }
+
+    /** Al relanzar se omiten las facturas existentes y solo se generan las que faltan. */
+    @Test
+    void testReanudarOmiteExistentes() throws Exception {
+        Path facturas = directorio.resolve("facturas");
+        servicio.regenerar(FiltroVentas.TODAS, facturas, null);
+        Venta borrada = ventaDAO.obtenerTodasLasVentas().get(3);
+        Path fichero = facturas.resolve(FacturaPDFGenerator.getInvoiceFileName(borrada));
+        Files.delete(fichero);
+        // Restos de una ejecución cortada a medias
+        Files.writeString(facturas.resolve(fichero.getFileName() + FacturaLoteService.EXTENSION_TEMPORAL), "%PDF-incompleto");
+
+        FacturaLoteService.Resumen resumen = servicio.regenerar(FiltroVentas.TODAS, facturas, null);
+
+        assertEquals(1, resumen.getGeneradas());
+        assertEquals(VENTAS - 1, resumen.getOmitidas());
+        assertTrue(Files.size(fichero) > 0);
+        assertEquals(VENTAS, ficheros(facturas).size(), "No deberían quedar ficheros temporales.");
+    }
+
+    /** Solo se facturan las ventas del rango de fechas (ambos extremos incluidos) y del cliente pedidos. */
+    @Test
+    void testFiltroFechasYCliente() throws Exception {
+        List<Venta> todas = ventaDAO.obtenerTodasLasVentas();
+        LocalDate desde = todas.get(0).getFecha().minusDays(60);
+        LocalDate hasta = todas.get(0).getFecha();
+        int clienteId = todas.get(1).getCliente().getId();
+
+        Path porFechas = directorio.resolve("fechas");
+        servicio.regenerar(FiltroVentas.entreFechas(desde, hasta), porFechas, null);
+        List<Venta> esperadasFechas = todas.stream()
+                .filter(v -> !v.getFecha().isBefore(desde) && !v.getFecha().isAfter(hasta))
+                .toList();
+        assertFalse(esperadasFechas.isEmpty());
+        assertEquals(nombres(esperadasFechas), ficheros(porFechas));
+
+        Path porCliente = directorio.resolve("cliente");
+        servicio.regenerar(FiltroVentas.deCliente(clienteId), porCliente, null);
+        assertEquals(nombres(todas.stream().filter(v -> v.getCliente().getId() == clienteId).toList()), ficheros(porCliente));
+    }
+
+    /**
+     * Si falla la lectura de la segunda página el lote no se da por terminado: se lanza el
+     * error después de generar las facturas de la primera y el resumen cuenta la lectura fallida.
+     */
+    @Test
+    void testErrorDeLecturaDetieneElLote() throws Exception {
+        SQLException fallo = new SQLException("database is locked");
+        VentaDAO daoQueFalla = new VentaDAO() {
+            private final AtomicInteger lecturas = new AtomicInteger();
+
+            @Override
+            public Pagina<Venta> leerVentasPagina(FiltroVentas filtro, int despuesDeId, int tamano) throws SQLException {
+                if (lecturas.incrementAndGet() == 2) {
+                    throw fallo;
+                }
+                return super.leerVentasPagina(filtro, despuesDeId, tamano);
+            }
+        };
+        FacturaLoteService conFallo = new FacturaLoteService(daoQueFalla, new FacturaPDFGenerator(), 4, 7);
+        Path facturas = directorio.resolve("facturas");
+        List<FacturaLoteService.Resumen> parciales = new CopyOnWriteArrayList<>();
+
+        SQLException lanzada = assertThrows(SQLException.class,
+                () -> conFallo.regenerar(FiltroVentas.TODAS, facturas, parciales::add));
+
+        assertSame(fallo, lanzada);
+        FacturaLoteService.Resumen ultimo = parciales.get(parciales.size() - 1);
+        assertEquals(1, ultimo.getLecturasFallidas());
+        assertEquals(7, ultimo.getGeneradas());
+        assertEquals(7, ficheros(facturas).size());
+    }
+
+    /** Un rango con la fecha inicial posterior a la final no es válido. */
+    @Test
+    void testRangoInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FiltroVentas.entreFechas(LocalDate.of(2025, 3, 31), LocalDate.of(2025, 3, 1)));
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private Set<String> nombres(List<Venta> ventas) {
+        return ventas.stream().map(FacturaPDFGenerator::getInvoiceFileName).collect(Collectors.toSet());
+    }
+
+    private Set<String> ficheros(Path dir) throws IOException {
+        try (Stream<Path> ficheros = Files.list(dir)) {
+            return ficheros.map(f -> f.getFileName().toString()).collect(Collectors.toSet());
+        }
+    }
+}
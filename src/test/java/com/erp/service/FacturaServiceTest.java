@@ -0,0 +1,119 @@
+package com.erp.service;
+
+import com.erp.model.Cliente;
+import com.erp.model.DetalleVenta;
+import com.erp.model.Producto;
+import com.erp.model.Venta;
+import com.erp.utils.FacturaPDFGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link FacturaService}.
+ * Las notificaciones se publican directamente en el hilo que las produce ({@code Runnable::run})
+ * para no necesitar JavaFX.
+ */
+class FacturaServiceTest {
+
+    @TempDir
+    Path directorio;
+
+    private FacturaService servicio;
+
+    @AfterEach
+    void tearDown() {
+        if (servicio != null) {
+            servicio.cerrar(2000);
+        }
+    }
+
+    /** La factura se genera con iText en segundo plano y se notifican todos los estados en orden. */
+    @Test
+    void testGeneraFacturaYNotificaEstados() throws Exception {
+        FacturaPDFGenerator generador = new FacturaPDFGenerator();
+        servicio = new FacturaService(1, 10, directorio.toString(),
+                (venta, dir) -> generador.generateInvoice(venta, Path.of(dir)).toFile(), Runnable::run);
+        List<FacturaService.Estado> estados = new CopyOnWriteArrayList<>();
+
+        File pdf = servicio.generar(crearVenta(7), estados::add).get(10, TimeUnit.SECONDS);
+
+        assertTrue(pdf.exists());
+        assertTrue(pdf.length() > 0);
+        assertEquals(directorio.toFile(), pdf.getParentFile());
+        assertEquals(List.of(FacturaService.Estado.EN_COLA, FacturaService.Estado.GENERANDO, FacturaService.Estado.GENERADA), estados);
+    }
+
+    /** Un error al generar completa el futuro con la causa y notifica ERROR. */
+    @Test
+    void testErrorAlGenerar() throws InterruptedException {
+        servicio = new FacturaService(1, 10, directorio.toString(), (venta, dir) -> {
+            throw new IOException("disco lleno");
+        }, Runnable::run);
+        List<FacturaService.Estado> estados = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<File> futuro = servicio.generar(crearVenta(1), estados::add);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> futuro.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, error.getCause());
+        assertEquals(FacturaService.Estado.ERROR, estados.get(estados.size() - 1));
+    }
+
+    /** Con la cola llena la factura se rechaza al momento en lugar de bloquear a quien la pide. */
+    @Test
+    void testColaLlenaRechaza() throws Exception {
+        CountDownLatch enMarcha = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        servicio = new FacturaService(1, 1, directorio.toString(), (venta, dir) -> {
+            enMarcha.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new File(dir, "Factura_" + venta.getId() + ".pdf");
+        }, Runnable::run);
+
+        CompletableFuture<File> primera = servicio.generar(crearVenta(1), null);
+        assertTrue(enMarcha.await(5, TimeUnit.SECONDS));
+        CompletableFuture<File> segunda = servicio.generar(crearVenta(2), null); // Ocupa la cola
+        List<FacturaService.Estado> estados = new CopyOnWriteArrayList<>();
+        CompletableFuture<File> tercera = servicio.generar(crearVenta(3), estados::add);
+
+        assertTrue(tercera.isCompletedExceptionally());
+        ExecutionException error = assertThrows(ExecutionException.class, tercera::get);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(FacturaService.Estado.ERROR, estados.get(estados.size() - 1));
+        assertEquals(2, servicio.getPendientes());
+
+        liberar.countDown();
+        assertEquals("Factura_1.pdf", primera.get(5, TimeUnit.SECONDS).getName());
+        assertEquals("Factura_2.pdf", segunda.get(5, TimeUnit.SECONDS).getName());
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private Venta crearVenta(int id) {
+        Cliente cliente = Cliente.crearParticular(1, "juan@example.com", "123456789", "Calle Falsa 123",
+                "12345678A", LocalDate.now(), "Juan", "Perez");
+        Producto producto = new Producto(1, "Laptop", "Portátil", "Electrónica", 1200.00, 10);
+        List<DetalleVenta> detalles = new ArrayList<>();
+        detalles.add(new DetalleVenta(1, id, producto, 1, 1200.00));
+        return new Venta(id, cliente, new ArrayList<>(), detalles, LocalDate.now(), 1452.00);
+    }
+}
@@ -0,0 +1,128 @@
+package com.erp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link Arranque}.
+ */
+class ArranqueTest {
+
+    /** Las fases independientes se ejecutan a la vez: cada una espera a que empiece la otra. */
+    @Test
+    void testFasesIndependientesEnParalelo() throws Exception {
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        try {
+            Arranque arranque = new Arranque(hilos, texto -> { });
+            CountDownLatch ambasEmpezadas = new CountDownLatch(2);
+            Runnable esperarALaOtra = () -> {
+                ambasEmpezadas.countDown();
+                try {
+                    assertTrue(ambasEmpezadas.await(2, TimeUnit.SECONDS), "La otra fase no llegó a empezar");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            CompletableFuture<Void> esquema = arranque.fase("esquema", "Esquema", esperarALaOtra);
+            CompletableFuture<Void> fxml = arranque.fase("fxml", "Interfaz", esperarALaOtra);
+
+            arranque.todas().get(3, TimeUnit.SECONDS);
+            assertTrue(esquema.isDone() && fxml.isDone());
+            assertEquals(2, arranque.getDuraciones().size());
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    /** Una fase no empieza hasta que terminan aquellas de las que depende. */
+    @Test
+    void testRespetaDependencias() throws Exception {
+        List<String> orden = new CopyOnWriteArrayList<>();
+        List<String> progreso = new CopyOnWriteArrayList<>();
+        Arranque arranque = new Arranque(Executors.newFixedThreadPool(2), progreso::add);
+
+        CompletableFuture<Void> esquema = arranque.fase("esquema", "Preparando", () -> {
+            dormir(50);
+            orden.add("esquema");
+        });
+        CompletableFuture<Void> datos = arranque.fase("datos", "Comprobando", () -> {
+            orden.add("datos");
+        }, esquema);
+        CompletableFuture<String> fxml = arranque.faseConResultado("fxml", "Cargando", () -> "raiz");
+
+        assertEquals("raiz", fxml.get(2, TimeUnit.SECONDS));
+        datos.get(2, TimeUnit.SECONDS);
+        assertEquals(List.of("esquema", "datos"), orden);
+        assertTrue(progreso.containsAll(List.of("Preparando", "Comprobando", "Cargando")));
+        assertTrue(arranque.getDuraciones().get("esquema") >= 40);
+        assertTrue(arranque.informe().contains("esquema"));
+    }
+
+    /** Si una fase falla, las que dependen de ella no se ejecutan y reciben el error. */
+    @Test
+    void testErrorSePropaga() {
+        Arranque arranque = new Arranque(Runnable::run, texto -> { });
+        AtomicBoolean datosEjecutado = new AtomicBoolean();
+
+        CompletableFuture<Void> esquema = arranque.fase("esquema", "Preparando", () -> {
+            throw new IllegalStateException("sin disco");
+        });
+        CompletableFuture<Void> datos = arranque.fase("datos", "Comprobando", () -> datosEjecutado.set(true), esquema);
+
+        ExecutionException error = assertThrows(ExecutionException.class, datos::get);
+        assertTrue(error.getCause() instanceof IllegalStateException);
+        assertFalse(datosEjecutado.get());
+        assertTrue(arranque.getDuraciones().containsKey("esquema"));
+    }
+
+    /** Un error comprobado (como un SQLException del esquema) también detiene las fases dependientes. */
+    @Test
+    void testErrorComprobadoSePropaga() {
+        Arranque arranque = new Arranque(Runnable::run, texto -> { });
+        AtomicBoolean cacheEjecutado = new AtomicBoolean();
+
+        CompletableFuture<Integer> esquema = arranque.faseConResultado("esquema", "Preparando", () -> {
+            throw new SQLException("file is not a database");
+        });
+        CompletableFuture<Void> datos = arranque.fase("datos", "Comprobando", () -> { }, esquema);
+        arranque.fase("cache", "Calentando", () -> cacheEjecutado.set(true), datos);
+
+        ExecutionException error = assertThrows(ExecutionException.class, datos::get);
+        assertTrue(error.getCause() instanceof SQLException);
+        assertFalse(cacheEjecutado.get());
+        assertTrue(arranque.todas().isCompletedExceptionally());
+    }
+
+    /** El informe incluye el tiempo hasta la ventana interactiva una vez marcado. */
+    @Test
+    void testInformeConVentanaInteractiva() throws Exception {
+        Arranque arranque = new Arranque(Runnable::run, texto -> { });
+        arranque.fase("esquema", "Preparando", () -> { }).get();
+        assertFalse(arranque.informe().contains("ventana interactiva"));
+
+        arranque.marcarVentanaInteractiva();
+        assertTrue(arranque.informe().contains("ventana interactiva en"), arranque.informe());
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.erp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link BusquedaDiferida}.
+ * Se publica directamente en el hilo de trabajo ({@code Runnable::run}) para no necesitar JavaFX.
+ */
+class BusquedaDiferidaTest {
+
+    /** Las solicitudes dentro de la ventana se agrupan en una sola consulta con los últimos criterios. */
+    @Test
+    void testAgrupaPulsaciones() throws InterruptedException {
+        List<String> consultas = new CopyOnWriteArrayList<>();
+        List<String> publicados = new CopyOnWriteArrayList<>();
+        CountDownLatch publicado = new CountDownLatch(1);
+        BusquedaDiferida<String, String> busqueda = new BusquedaDiferida<>(100,
+                texto -> {
+                    consultas.add(texto);
+                    return texto.toUpperCase();
+                },
+                resultado -> {
+                    publicados.add(resultado);
+                    publicado.countDown();
+                },
+                Runnable::run);
+
+        busqueda.solicitar("l");
+        busqueda.solicitar("la");
+        busqueda.solicitar("lap");
+
+        assertTrue(publicado.await(2, TimeUnit.SECONDS));
+        Thread.sleep(150); // Margen por si llegase alguna consulta más
+        assertEquals(List.of("lap"), consultas);
+        assertEquals(List.of("LAP"), publicados);
+    }
+
+    /** Si llega una solicitud mientras otra consulta está en marcha, el resultado antiguo se descarta. */
+    @Test
+    void testDescartaResultadoSuperado() throws InterruptedException {
+        CountDownLatch primeraEnMarcha = new CountDownLatch(1);
+        CountDownLatch liberarPrimera = new CountDownLatch(1);
+        CountDownLatch publicado = new CountDownLatch(1);
+        List<String> publicados = new CopyOnWriteArrayList<>();
+        BusquedaDiferida<String, String> busqueda = new BusquedaDiferida<>(0,
+                texto -> {
+                    if (texto.equals("lento")) {
+                        primeraEnMarcha.countDown();
+                        try {
+                            liberarPrimera.await(2, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return texto;
+                },
+                resultado -> {
+                    publicados.add(resultado);
+                    publicado.countDown();
+                },
+                Runnable::run);
+
+        busqueda.solicitar("lento");
+        assertTrue(primeraEnMarcha.await(2, TimeUnit.SECONDS));
+        busqueda.solicitar("rapido");
+        assertTrue(publicado.await(2, TimeUnit.SECONDS));
+        liberarPrimera.countDown();
+        Thread.sleep(100);
+
+        assertEquals(List.of("rapido"), publicados, "Solo debe publicarse el resultado de la última solicitud.");
+    }
+
+    /** Cancelar evita que se publique la búsqueda pendiente. */
+    @Test
+    void testCancelar() throws InterruptedException {
+        List<String> publicados = new CopyOnWriteArrayList<>();
+        BusquedaDiferida<String, String> busqueda = new BusquedaDiferida<>(50, texto -> texto, publicados::add, Runnable::run);
+
+        busqueda.solicitar("algo");
+        busqueda.cancelar();
+        Thread.sleep(200);
+
+        assertTrue(publicados.isEmpty());
+    }
+
+    /** Un error en la consulta no publica nada ni rompe las búsquedas siguientes. */
+    @Test
+    void testErrorEnConsulta() throws InterruptedException {
+        CountDownLatch publicado = new CountDownLatch(1);
+        List<String> publicados = new CopyOnWriteArrayList<>();
+        BusquedaDiferida<String, String> busqueda = new BusquedaDiferida<>(0,
+                texto -> {
+                    if (texto.isEmpty()) {
+                        throw new IllegalStateException("fallo simulado");
+                    }
+                    return texto;
+                },
+                resultado -> {
+                    publicados.add(resultado);
+                    publicado.countDown();
+                },
+                Runnable::run);
+
+        busqueda.solicitar("");
+        Thread.sleep(100);
+        busqueda.solicitar("ok");
+
+        assertTrue(publicado.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("ok"), publicados);
+    }
+
+    /** La ventana no puede ser negativa. */
+    @Test
+    void testVentanaNegativa() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BusquedaDiferida<String, String>(-1, t -> t, r -> { }, Runnable::run));
+    }
+}
@@ -10,14 +10,22 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,6 +34,7 @@ class FacturaPDFGeneratorTest {
     @TempDir
     Path tempDir; // Directorio temporal para los PDFs generados
 
+    private FacturaPDFGenerator generador;
     private Venta ventaDePrueba;
     private Cliente clienteDePrueba;
     private Producto producto1;
@@ -37,6 +46,7 @@ class FacturaPDFGeneratorTest {
     @BeforeEach
     void setUp() {
         // Inicializar datos de prueba para cada test
+        generador = new FacturaPDFGenerator();
         clienteDePrueba = Cliente.crearParticular(1, "juan.perez@example.com", "123456789", "Calle Falsa 123", "12345678A", LocalDate.now(), "Juan", "Perez");
         
         producto1 = new Producto(1, "Laptop", "Descripción de Laptop", "Electrónica", 1200.00, 10);
@@ -57,7 +67,7 @@ class FacturaPDFGeneratorTest {
     @Test
     @DisplayName("Debería generar un PDF de factura sin errores y verificar la creación del archivo")
     void deberiaGenerarPDFDeFacturaSinErroresYVerificarArchivo() {
-        assertDoesNotThrow(() -> FacturaPDFGenerator.generateInvoicePDF(ventaDePrueba, tempDir.toString()),
+        Path rutaGenerada = assertDoesNotThrow(() -> generador.generateInvoice(ventaDePrueba, tempDir),
                            "La generación del PDF no debería lanzar excepciones.");
         
         // Construir el nombre de archivo esperado
@@ -70,15 +80,58 @@ class FacturaPDFGeneratorTest {
         assertTrue(Files.exists(rutaArchivoEsperado),
                    "El archivo PDF debería haber sido creado en el directorio temporal.");
         
-        // Verificar que la ruta devuelta por getInvoiceFilePath() es correcta
-        assertEquals(rutaArchivoEsperado.toString(), FacturaPDFGenerator.getInvoiceFilePath(),
+        // Verificar que la ruta devuelta es correcta
+        assertEquals(rutaArchivoEsperado, rutaGenerada,
                      "La ruta del archivo generada debería coincidir con la esperada.");
+        assertEquals(nombreArchivoEsperado, FacturaPDFGenerator.getInvoiceFileName(ventaDePrueba));
+    }
+
+    @Test
+    @DisplayName("Debería escribir la factura en un flujo sin cerrarlo")
+    void deberiaEscribirFacturaEnFlujo() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("El generador no debería cerrar el flujo de quien llama.");
+            }
+        };
+
+        generador.writeInvoice(ventaDePrueba, salida);
+
+        byte[] pdf = salida.toByteArray();
+        assertTrue(pdf.length > 0, "Debería haberse escrito el PDF en el flujo.");
+        assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+        try (Stream<Path> ficheros = Files.list(tempDir)) {
+            assertEquals(0, ficheros.count(), "Escribir en un flujo no debería crear ficheros.");
+        }
+    }
+
+    @Test
+    @DisplayName("Una misma instancia debería generar varias facturas a la vez sin mezclarlas")
+    void deberiaGenerarFacturasConcurrentemente() throws Exception {
+        int facturas = 16;
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Path>> rutas = new ArrayList<>();
+            for (int i = 1; i <= facturas; i++) {
+                Venta venta = new Venta(100 + i, clienteDePrueba, Arrays.asList(detalle1, detalle2), LocalDate.now(), 1250.00);
+                rutas.add(hilos.submit(() -> generador.generateInvoice(venta, tempDir)));
+            }
+            for (int i = 1; i <= facturas; i++) {
+                Path ruta = rutas.get(i - 1).get(30, TimeUnit.SECONDS);
+                assertTrue(ruta.getFileName().toString().startsWith("Factura_" + (100 + i) + "_"),
+                           "Cada llamada debería devolver la ruta de su propia factura.");
+                assertTrue(Files.size(ruta) > 0);
+            }
+        } finally {
+            hilos.shutdownNow();
+        }
     }
 
     @Test
     @DisplayName("Debería generar un PDF de factura con múltiples detalles de venta")
     void deberiaGenerarPDFConMultiplesDetalles() {
-        assertDoesNotThrow(() -> FacturaPDFGenerator.generateInvoicePDF(ventaDePrueba, tempDir.toString()),
+        assertDoesNotThrow(() -> generador.generateInvoice(ventaDePrueba, tempDir),
                            "La generación del PDF con múltiples detalles no debería lanzar excepciones.");
     }
 
@@ -88,7 +141,7 @@ class FacturaPDFGeneratorTest {
         double totalCalculatedWithoutDiscount = detalle1.getSubTotal() + detalle2.getSubTotal();
         Venta ventaSinDescuentos = new Venta(2, clienteDePrueba, Arrays.asList(detalle1, detalle2), LocalDate.now(), totalCalculatedWithoutDiscount);
         
-        assertDoesNotThrow(() -> FacturaPDFGenerator.generateInvoicePDF(ventaSinDescuentos, tempDir.toString()),
+        assertDoesNotThrow(() -> generador.generateInvoice(ventaSinDescuentos, tempDir),
                            "La generación del PDF sin descuentos no debería lanzar excepciones.");
     }
 
@@ -98,7 +151,7 @@ class FacturaPDFGeneratorTest {
         double totalCalculatedWithoutDiscount = detalle1.getSubTotal() + detalle2.getSubTotal();
         Venta ventaConClienteNulo = new Venta(3, null, Arrays.asList(detalle1, detalle2), LocalDate.now(), totalCalculatedWithoutDiscount);
         
-        assertDoesNotThrow(() -> FacturaPDFGenerator.generateInvoicePDF(ventaConClienteNulo, tempDir.toString()),
+        assertDoesNotThrow(() -> generador.generateInvoice(ventaConClienteNulo, tempDir),
                            "La generación del PDF con cliente nulo no debería lanzar excepciones.");
     }
 
@@ -107,7 +160,7 @@ class FacturaPDFGeneratorTest {
     void deberiaGenerarPDFConDetallesVacios() {
         Venta ventaConDetallesVacios = new Venta(4, clienteDePrueba, Collections.emptyList(), LocalDate.now(), 0.0);
         
-        assertDoesNotThrow(() -> FacturaPDFGenerator.generateInvoicePDF(ventaConDetallesVacios, tempDir.toString()),
+        assertDoesNotThrow(() -> generador.generateInvoice(ventaConDetallesVacios, tempDir),
                            "La generación del PDF con detalles vacíos no debería lanzar excepciones.");
     }
 }
\ No newline at end of file
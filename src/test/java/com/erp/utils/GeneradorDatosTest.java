@@ -0,0 +1,128 @@
+package com.erp.utils;
+
+import com.erp.db.SQLiteConnector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link GeneradorDatos}.
+ * Cada test trabaja sobre una base de datos temporal y al terminar devuelve
+ * {@link SQLiteConnector} a la base de datos que estaba usando.
+ */
+class GeneradorDatosTest {
+
+    @TempDir
+    Path directorio;
+
+    private String rutaOriginal;
+
+    @BeforeEach
+    void setUp() {
+        rutaOriginal = SQLiteConnector.getRutaBaseDeDatos();
+        usar("datos.db");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SQLiteConnector.usarBaseDeDatos(rutaOriginal);
+    }
+
+    /** Se crean las filas pedidas en cada tabla y las referencias entre ellas son válidas. */
+    @Test
+    void testGenerarCantidadesYReferencias() throws SQLException {
+        // Lote pequeño para que haya varias transacciones
+        GeneradorDatos.Resumen resumen = new GeneradorDatos(7L, 100).generar(500, 250, 300);
+
+        assertEquals(500, contar("SELECT COUNT(*) FROM productos"));
+        assertEquals(250, contar("SELECT COUNT(*) FROM clientes"));
+        assertEquals(250 / GeneradorDatos.CLIENTES_POR_DESCUENTO, contar("SELECT COUNT(*) FROM descuentos"));
+        assertEquals(300, contar("SELECT COUNT(*) FROM ventas"));
+        assertEquals(resumen.getLineas(), contar("SELECT COUNT(*) FROM detalles_venta"));
+        assertTrue(resumen.getLineas() >= 300 && resumen.getLineas() <= 300 * GeneradorDatos.MAX_LINEAS_POR_VENTA);
+
+        assertTrue(contar("SELECT COUNT(*) FROM clientes WHERE tipoCliente = 'Particular'") > 0);
+        assertTrue(contar("SELECT COUNT(*) FROM clientes WHERE tipoCliente = 'Empresa'") > 0);
+        assertEquals(0, contar("SELECT COUNT(*) FROM detalles_venta WHERE producto_id NOT IN (SELECT id FROM productos)"));
+        assertEquals(0, contar("SELECT COUNT(*) FROM ventas WHERE cliente_id NOT IN (SELECT id FROM clientes)"));
+        assertEquals(0, contar("SELECT COUNT(*) FROM venta_descuentos vd JOIN ventas v ON v.id = vd.venta_id "
+                + "JOIN descuentos d ON d.idDescuento = vd.descuento_id WHERE d.clienteId <> v.cliente_id"),
+                "Una venta solo puede aplicar descuentos de su propio cliente.");
+        // Los índices de texto completo se reconstruyen y sus triggers vuelven a estar activos
+        assertEquals(500, contar("SELECT COUNT(*) FROM productos_fts"));
+        assertEquals(250, contar("SELECT COUNT(*) FROM clientes_fts"));
+        assertEquals(6, contar("SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' AND name LIKE '%fts%'"));
+    }
+
+    /** Con la misma semilla se generan los mismos datos. */
+    @Test
+    void testMismaSemillaMismosDatos() throws SQLException {
+        new GeneradorDatos(42L).generar(200, 100, 100);
+        String primera = huella();
+
+        usar("otra.db");
+        new GeneradorDatos(42L).generar(200, 100, 100);
+        assertEquals(primera, huella());
+
+        usar("distinta.db");
+        new GeneradorDatos(43L).generar(200, 100, 100);
+        assertNotEquals(primera, huella());
+    }
+
+    /** Generar sobre una base de datos con datos añade filas sin pisar las existentes. */
+    @Test
+    void testAnadeADatosExistentes() throws SQLException {
+        new GeneradorDatos(1L).generar(100, 50, 20);
+        new GeneradorDatos(2L).generar(100, 50, 20);
+
+        assertEquals(200, contar("SELECT COUNT(*) FROM productos"));
+        assertEquals(100, contar("SELECT COUNT(*) FROM clientes"));
+        assertEquals(40, contar("SELECT COUNT(*) FROM ventas"));
+    }
+
+    /** El tamaño del lote debe ser positivo. */
+    @Test
+    void testLoteInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorDatos(1L, 0));
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private void usar(String fichero) {
+        SQLiteConnector.usarBaseDeDatos(directorio.resolve(fichero).toString());
+        SQLiteConnector.initDatabase();
+    }
+
+    private int contar(String sql) throws SQLException {
+        try (Statement stmt = SQLiteConnector.connect().createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : -1;
+        }
+    }
+
+    private String huella() throws SQLException {
+        StringBuilder huella = new StringBuilder();
+        String[] consultas = {
+                "SELECT group_concat(nombre || precioUnitario || stock, '|') FROM productos",
+                "SELECT group_concat(tipoCliente || cifnif || email, '|') FROM clientes",
+                "SELECT group_concat(cliente_id || ':' || total, '|') FROM ventas",
+                "SELECT group_concat(producto_id || ':' || cantidad, '|') FROM detalles_venta"
+        };
+        try (Statement stmt = SQLiteConnector.connect().createStatement()) {
+            for (String sql : consultas) {
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    huella.append(rs.next() ? rs.getString(1) : "").append('\n');
+                }
+            }
+        }
+        return huella.toString();
+    }
+}
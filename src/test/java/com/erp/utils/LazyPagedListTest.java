@@ -0,0 +1,253 @@
+package com.erp.utils;
+
+import javafx.collections.ListChangeListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link LazyPagedList}.
+ * Usa una fuente en memoria que simula una tabla con IDs 1..n y registra cada carga.
+ */
+class LazyPagedListTest {
+
+    /** Fuente de prueba: los elementos son sus propios IDs, salvo los eliminados. */
+    private static class FuenteEnMemoria implements LazyPagedList.FuentePaginas<Integer> {
+        private int total;
+        private final Set<Integer> eliminados = new HashSet<>();
+        private final List<Integer> cargasPorCursor = new ArrayList<>();
+        private final List<Integer> cargasPorPosicion = new ArrayList<>();
+        private final AtomicInteger recuentos = new AtomicInteger();
+
+        FuenteEnMemoria(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public int contar() {
+            recuentos.incrementAndGet();
+            return total - eliminados.size();
+        }
+
+        @Override
+        public synchronized List<Integer> cargar(int posicion, Integer despuesDeId, int tamano) {
+            int desde;
+            if (despuesDeId != null) {
+                cargasPorCursor.add(despuesDeId);
+                desde = despuesDeId + 1;
+            } else {
+                cargasPorPosicion.add(posicion);
+                desde = posicion + 1;
+            }
+            List<Integer> pagina = new ArrayList<>();
+            for (int id = desde; id <= total && pagina.size() < tamano; id++) {
+                if (!eliminados.contains(id)) {
+                    pagina.add(id);
+                }
+            }
+            return pagina;
+        }
+
+        synchronized int totalCargas() {
+            return cargasPorCursor.size() + cargasPorPosicion.size();
+        }
+    }
+
+    private FuenteEnMemoria fuente;
+
+    @BeforeEach
+    void setUp() {
+        fuente = new FuenteEnMemoria(1_000);
+    }
+
+    /** Crear la lista solo cuenta los elementos; no carga ninguna página. */
+    @Test
+    void testCreacionNoCargaPaginas() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+
+        assertEquals(1_000, lista.size());
+        assertEquals(1, fuente.recuentos.get());
+        assertEquals(0, fuente.totalCargas());
+    }
+
+    /** Leer elementos de una misma página solo dispara una carga. */
+    @Test
+    void testLecturaDentroDeUnaPagina() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1, lista.get(i));
+        }
+        assertEquals(1, fuente.totalCargas());
+        assertEquals(List.of(0), fuente.cargasPorCursor, "La primera página usa el cursor inicial.");
+    }
+
+    /** Una página ya leída permite pedir la siguiente por cursor aunque se salte a ella directamente. */
+    @Test
+    void testPaginaSiguienteUsaCursor() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+
+        lista.get(0);
+        assertEquals(11, lista.get(10));
+        assertEquals(List.of(0, 10), fuente.cargasPorCursor);
+        assertTrue(fuente.cargasPorPosicion.isEmpty());
+    }
+
+    /** Saltar a una página sin cursor conocido carga por posición. */
+    @Test
+    void testSaltoCargaPorPosicion() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+
+        assertEquals(501, lista.get(500));
+        assertEquals(List.of(500), fuente.cargasPorPosicion);
+    }
+
+    /** La caché está acotada y descarta la página usada hace más tiempo. */
+    @Test
+    void testCacheLru() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 2);
+
+        lista.get(0);   // página 0
+        lista.get(100); // página 10
+        lista.get(1);   // página 0 vuelve a ser la más reciente
+        lista.get(200); // página 20: expulsa la 10
+        assertEquals(2, lista.getPaginasEnCache());
+
+        int cargas = fuente.totalCargas();
+        lista.get(2);
+        assertEquals(cargas, fuente.totalCargas(), "La página 0 debe seguir en caché.");
+        lista.get(101);
+        assertEquals(cargas + 1, fuente.totalCargas(), "La página 10 debió expulsarse.");
+    }
+
+    /** Al pasar de la mitad de una página se precarga la siguiente en segundo plano. */
+    @Test
+    void testPrecargaPaginaSiguiente() throws InterruptedException {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 5);
+
+        lista.get(7);
+        long limite = System.currentTimeMillis() + 2_000;
+        while (lista.getPaginasEnCache() < 2 && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, lista.getPaginasEnCache(), "La página siguiente debe haberse precargado.");
+
+        int cargas = fuente.totalCargas();
+        assertEquals(11, lista.get(10));
+        assertEquals(cargas, fuente.totalCargas(), "La página precargada no se vuelve a leer.");
+    }
+
+    /** Refrescar vacía la caché, vuelve a contar y notifica el cambio a los observadores. */
+    @Test
+    void testRefrescar() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+        lista.get(0);
+
+        List<String> cambios = new ArrayList<>();
+        lista.addListener((ListChangeListener<Integer>) c -> {
+            while (c.next()) {
+                cambios.add((c.wasRemoved() ? "-" + c.getRemovedSize() : "") + (c.wasAdded() ? "+" + c.getAddedSize() : ""));
+            }
+        });
+
+        fuente.total = 1_005;
+        lista.refrescar();
+
+        assertEquals(1_005, lista.size());
+        assertEquals(0, lista.getPaginasEnCache());
+        assertEquals(List.of("-1000+1005"), cambios);
+        assertEquals(1_005, lista.get(1_004));
+    }
+
+    /** Un elemento cargado se sustituye en su sitio; uno sin cargar no provoca ninguna lectura. */
+    @Test
+    void testReemplazar() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+        lista.get(0);
+        List<String> cambios = registrarCambios(lista);
+
+        assertTrue(lista.reemplazar(5));
+        assertFalse(lista.reemplazar(500));
+        assertEquals(List.of("~4"), cambios);
+        assertEquals(1, fuente.totalCargas());
+    }
+
+    /** Un elemento nuevo se añade al final de la última página cargada sin volver a contar ni leer. */
+    @Test
+    void testAnadirAlFinal() {
+        fuente = new FuenteEnMemoria(25);
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+        lista.get(20);
+        List<String> cambios = registrarCambios(lista);
+
+        fuente.total = 26;
+        lista.anadirAlFinal(26);
+
+        assertEquals(26, lista.size());
+        assertEquals(List.of("+1"), cambios);
+        int cargas = fuente.totalCargas();
+        assertEquals(26, lista.get(25));
+        assertEquals(cargas, fuente.totalCargas());
+        assertEquals(1, fuente.recuentos.get());
+    }
+
+    /** Eliminar un elemento cargado relee por cursor solo desde su página; uno sin cargar vacía la caché. */
+    @Test
+    void testEliminar() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+        lista.get(0);
+        lista.get(10);
+        List<String> cambios = registrarCambios(lista);
+
+        fuente.eliminados.add(5);
+        lista.eliminar(5);
+
+        assertEquals(999, lista.size());
+        assertEquals(List.of("-1"), cambios);
+        assertEquals(0, lista.getPaginasEnCache());
+        assertEquals(6, lista.get(4));
+        assertEquals(11, lista.get(9));
+        assertTrue(fuente.cargasPorPosicion.isEmpty(), "La página del elemento se relee por cursor.");
+        assertEquals(1, fuente.recuentos.get());
+
+        fuente.eliminados.add(700);
+        lista.eliminar(700);
+        assertEquals(998, lista.size());
+        assertEquals(0, lista.getPaginasEnCache());
+        assertEquals(6, lista.get(4));
+        assertEquals(1, fuente.recuentos.get(), "El tamaño se ajusta sin volver a contar.");
+    }
+
+    /** Los índices fuera de rango se rechazan sin consultar la fuente. */
+    @Test
+    void testIndiceFueraDeRango() {
+        LazyPagedList<Integer> lista = new LazyPagedList<>(fuente, Integer::intValue, 10, 3);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> lista.get(1_000));
+        assertThrows(IndexOutOfBoundsException.class, () -> lista.get(-1));
+        assertEquals(0, fuente.totalCargas());
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private static List<String> registrarCambios(LazyPagedList<Integer> lista) {
+        List<String> cambios = new ArrayList<>();
+        lista.addListener((ListChangeListener<Integer>) c -> {
+            while (c.next()) {
+                if (c.wasReplaced()) {
+                    cambios.add("~" + c.getFrom());
+                } else {
+                    cambios.add((c.wasRemoved() ? "-" + c.getRemovedSize() : "") + (c.wasAdded() ? "+" + c.getAddedSize() : ""));
+                }
+            }
+        });
+        return cambios;
+    }
+}
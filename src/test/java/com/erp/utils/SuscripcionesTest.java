@@ -0,0 +1,63 @@
+package com.erp.utils;
+
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link Suscripciones}.
+ */
+class SuscripcionesTest {
+
+    /** Cancelar quita todos los listeners registrados. */
+    @Test
+    void testCancelarTodas() {
+        StringProperty nombre = new SimpleStringProperty();
+        StringProperty categoria = new SimpleStringProperty();
+        AtomicInteger avisos = new AtomicInteger();
+        Suscripciones suscripciones = new Suscripciones();
+        suscripciones.escuchar(nombre, (obs, anterior, nuevo) -> avisos.incrementAndGet());
+        suscripciones.escucharDebil(categoria, (obs, anterior, nuevo) -> avisos.incrementAndGet());
+        assertEquals(2, suscripciones.getActivas());
+
+        nombre.set("a");
+        categoria.set("a");
+        assertEquals(2, avisos.get());
+
+        suscripciones.cancelarTodas();
+        nombre.set("b");
+        categoria.set("b");
+        assertEquals(2, avisos.get());
+        assertEquals(0, suscripciones.getActivas());
+    }
+
+    /** Un listener débil funciona mientras vive su dueño y no lo retiene después. */
+    @Test
+    void testListenerDebilNoRetieneAlDueno() {
+        StringProperty modelo = new SimpleStringProperty();
+        AtomicInteger avisos = new AtomicInteger();
+        Dueno dueno = new Dueno(modelo, avisos);
+        modelo.set("a");
+        assertEquals(1, avisos.get());
+
+        WeakReference<Dueno> referencia = new WeakReference<>(dueno);
+        dueno = null;
+        for (int i = 0; i < 10 && referencia.get() != null; i++) {
+            System.gc();
+        }
+        assertNull(referencia.get(), "La propiedad no debería retener al dueño del listener");
+    }
+
+    private static class Dueno {
+        private final Suscripciones suscripciones = new Suscripciones();
+
+        Dueno(StringProperty modelo, AtomicInteger avisos) {
+            suscripciones.escucharDebil(modelo, (obs, anterior, nuevo) -> avisos.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.erp.utils;
+
+import com.erp.metricas.RegistroMetricas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Clase de tests para {@link VigilanteHiloFx}.
+ * Un ejecutor de un solo hilo hace de hilo de JavaFX, así que no hace falta arrancar la plataforma.
+ */
+class VigilanteHiloFxTest {
+
+    @TempDir
+    Path carpeta;
+
+    private ExecutorService hiloInterfaz;
+    private VigilanteHiloFx vigilante;
+    private Path fichero;
+
+    @BeforeEach
+    void setUp() {
+        hiloInterfaz = Executors.newSingleThreadExecutor();
+        fichero = carpeta.resolve("bloqueos.0.log");
+        vigilante = new VigilanteHiloFx(50, carpeta.resolve("bloqueos.%g.log").toString(), hiloInterfaz);
+        vigilante.iniciar();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        vigilante.detener();
+        hiloInterfaz.shutdownNow();
+        hiloInterfaz.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    /** Un bloqueo largo queda registrado con su duración, la acción en curso y el método culpable. */
+    @Test
+    void testInformaDelBloqueo() throws Exception {
+        long bloqueosAntes = RegistroMetricas.getGlobal().contador("fx.bloqueos").getValor();
+        Thread.sleep(100); // Unos latidos normales antes del bloqueo
+        vigilante.marcarAccion("Botón Facturar");
+        hiloInterfaz.submit(VigilanteHiloFxTest::generarFacturaEnElHiloDeLaInterfaz).get();
+
+        String informe = esperarInforme();
+        assertTrue(informe.contains("Bloqueo del hilo de JavaFX"), informe);
+        assertTrue(informe.contains("presupuesto 50 ms"), informe);
+        assertTrue(informe.contains("Botón Facturar"), informe);
+        assertTrue(informe.contains("generarFacturaEnElHiloDeLaInterfaz"), informe);
+        long duracion = Long.parseLong(informe.replaceAll("(?s).*JavaFX: (\\d+) ms.*", "$1"));
+        assertTrue(duracion >= 200, "Duración anotada: " + duracion);
+        assertTrue(RegistroMetricas.getGlobal().contador("fx.bloqueos").getValor() > bloqueosAntes);
+    }
+
+    /** Si el hilo responde dentro del presupuesto, no se escribe nada. */
+    @Test
+    void testSinBloqueosNoHayInforme() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            hiloInterfaz.submit(() -> { }).get();
+            Thread.sleep(20);
+        }
+        assertFalse(Files.exists(fichero) && Files.size(fichero) > 0);
+    }
+
+    // --- Métodos privados de utilidad ---
+
+    private static void generarFacturaEnElHiloDeLaInterfaz() {
+        try {
+            Thread.sleep(250);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String esperarInforme() throws IOException, InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+        while (System.nanoTime() < limite) {
+            if (Files.exists(fichero) && Files.size(fichero) > 0) {
+                return Files.readString(fichero, StandardCharsets.UTF_8);
+            }
+            Thread.sleep(20);
+        }
+        fail("No se escribió ningún informe de bloqueo");
+        return null;
+    }
+}